@@ -144,16 +144,12 @@ public class AdjacencyMatrixDirectedGraph<L> extends Graph<L> {
     public int getNodeIndexOf(L label) {
         if(label == null)
             throw new NullPointerException("Label can't be null");
-        GraphNode<L> nodeToCheck = getNodeOf(label);
-        if(nodeToCheck == null)
+        // l' uguaglianza tra nodi dipende solo dall' etichetta, quindi l' indice
+        // si ottiene direttamente dalla mappa in tempo pseudo-costante
+        Integer index = this.nodesIndex.get(new GraphNode<>(label));
+        if(index == null)
             throw new IllegalArgumentException("This label is not contained in this graph");
-
-        for (int i = 0; i < this.nodeCount(); i++) {
-            if(getNodeAtIndex(i).getLabel().equals(label)) {
-                return nodesIndex.get(getNodeAtIndex(i));
-            }
-        }
-        return -1;
+        return index;
     }
 
     @Override
@@ -61,9 +61,7 @@ public class BellmanFordShortestPathComputer<L>
         if(!this.graph.containsNode(sourceNode))
             throw new IllegalArgumentException("This node isn't contained in this graph");
 
-        // inizializzo la coda con priorità
         this.lastSourceNode = sourceNode;
-        BinaryHeapMinPriorityQueue<GraphNode<L>> queue = new BinaryHeapMinPriorityQueue<>();
         // imposto per ogni vertice la distanza a infinito e il predecessore nullo
         for (GraphNode<L> node : this.graph.getNodes()) {
             node.setPrevious(null);
@@ -71,26 +69,56 @@ public class BellmanFordShortestPathComputer<L>
                 node.setFloatingPointDistance(Double.POSITIVE_INFINITY);
             else
                 node.setFloatingPointDistance(0.0);
-            queue.insert(node);
         }
+        // l' insieme degli archi viene calcolato una sola volta e non ad ogni passata
+        List<GraphEdge<L>> edges = new ArrayList<>(this.graph.getEdges());
         // eseguo algoritmo BellmanFord
-            // effettua rilassamento sugli archi ripetutamente
-        for(int i = 0; i < this.graph.nodeCount()-1; i++){
-            for (GraphEdge<L> edge : this.graph.getEdges()) {
+            // effettua rilassamento sugli archi ripetutamente, fermandosi appena
+            // una passata non modifica nessuna distanza
+        boolean relaxed = true;
+        for(int i = 0; i < this.graph.nodeCount()-1 && relaxed; i++){
+            relaxed = false;
+            for (GraphEdge<L> edge : edges) {
                 if((edge.getNode1().getFloatingPointDistance() + edge.getWeight()) < edge.getNode2().getFloatingPointDistance()){
                     edge.getNode2().setFloatingPointDistance(edge.getNode1().getFloatingPointDistance() + edge.getWeight());
                     edge.getNode2().setPrevious(edge.getNode1());
+                    relaxed = true;
                 }
             }
         }
-            // controlla cicli di peso negativi
-        for (GraphEdge<L> edge : this.graph.getEdges()) {
-            if((edge.getNode1().getFloatingPointDistance() + edge.getWeight()) < edge.getNode2().getFloatingPointDistance())
-                throw new IllegalStateException("This graph contains negative-weigh cycle");
-        }
+            // controlla cicli di peso negativi (inutile se l' ultima passata non ha rilassato nulla)
+        if(relaxed)
+            for (GraphEdge<L> edge : edges) {
+                if((edge.getNode1().getFloatingPointDistance() + edge.getWeight()) < edge.getNode2().getFloatingPointDistance())
+                    throw new IllegalStateException("This graph contains negative-weigh cycle");
+            }
         this.isComputed = true;
     }
 
+    /**
+     * Cerca un ciclo di peso negativo raggiungibile da una sorgente data e lo
+     * restituisce come lista di archi, invece di segnalarne solo l' esistenza
+     * con un' eccezione come fa {@code computeShortestPathsFrom(GraphNode<L>)}.
+     * La ricerca è delegata a {@code SpfaShortestPathComputer<L>}, che rileva
+     * il ciclo appena si forma nell' albero dei predecessori. Le distanze
+     * memorizzate nei nodi del grafo non vengono modificate.
+     *
+     * @param sourceNode
+     *                       il nodo sorgente
+     * @return la lista degli archi di un ciclo di peso negativo, in cui ogni
+     *         arco parte dal nodo di arrivo del precedente e l' ultimo arco
+     *         arriva al nodo di partenza del primo; null se nessun ciclo di
+     *         peso negativo è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public List<GraphEdge<L>> findNegativeCycleFrom(GraphNode<L> sourceNode) {
+        return new SpfaShortestPathComputer<>(this.graph).findNegativeCycleFrom(sourceNode);
+    }
+
     @Override
     public boolean isComputed() {
         return this.isComputed;
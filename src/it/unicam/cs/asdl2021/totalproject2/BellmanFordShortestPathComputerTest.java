@@ -183,4 +183,19 @@ class BellmanFordShortestPathComputerTest {
         assertTrue(c.getShortestPathTo(nyTest).equals(pathTest));
     }
 
+    @Test
+    final void testFindNegativeCycleFrom() {
+        this.repeatedCode();
+        assertNull(this.shortestPathComputer.findNegativeCycleFrom(firstNode));
+        // l' arco quarto -> primo chiude il ciclo primo -> secondo -> quarto -> primo di peso -1
+        GraphEdge<String> backEdge = new GraphEdge<>(fourthNode, firstNode, true, -5.0);
+        this.directedGraph.addEdge(backEdge);
+        BellmanFordShortestPathComputer<String> c = new BellmanFordShortestPathComputer<>(directedGraph);
+        assertThrows(IllegalStateException.class, () -> c.computeShortestPathsFrom(firstNode));
+        List<GraphEdge<String>> cycle = c.findNegativeCycleFrom(firstNode);
+        assertNotNull(cycle);
+        assertEquals(3, cycle.size());
+        assertTrue(cycle.containsAll(List.of(firstEdge, thirdEdge, backEdge)));
+    }
+
 }
@@ -0,0 +1,405 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Centralità di intermedietà (betweenness) dei nodi di un grafo, orientato o
+ * non orientato, calcolata con l' algoritmo di Brandes: per ogni sorgente
+ * {@code s} una visita conta i cammini minimi {@code sigma(v)} da {@code s} e
+ * poi, scorrendo i nodi per distanza decrescente, accumula la dipendenza
+ * {@code delta(v) = somma di sigma(v) / sigma(w) * (1 + delta(w))} sui
+ * successori {@code w} di {@code v} nei cammini minimi. La centralità di un
+ * nodo è la somma delle sue dipendenze su tutte le sorgenti; nei grafi non
+ * orientati ogni coppia di nodi è contata una sola volta.
+ *
+ * Se il grafo non è pesato, o tutti gli archi hanno lo stesso peso, la visita
+ * è in ampiezza; altrimenti è l' algoritmo di Dijkstra con la coda
+ * {@code BinaryHeapMinPriorityQueue}, e i pesi devono essere positivi.
+ *
+ * Le sorgenti sono divise in blocchi elaborati in parallelo da un
+ * {@code ForkJoinPool}. Ogni thread ha le sue aree di lavoro e il suo
+ * accumulatore delle centralità, quindi non c' è sincronizzazione durante il
+ * calcolo; gli accumulatori sono sommati alla fine.
+ *
+ * Il calcolo esatto richiede una visita per nodo. Il calcolo approssimato usa
+ * solo {@code k} sorgenti (pivot) scelte a caso in modo uniforme e moltiplica
+ * il risultato per {@code n / k}, che ne fa uno stimatore non distorto. Per la
+ * disuguaglianza di Hoeffding, con probabilità almeno {@code 1 - delta} l'
+ * errore di tutte le centralità normalizzate (divise per il valore massimo
+ * possibile, vedi {@code getNormalizedScores()}) è al più
+ * {@code n / (n - 1) * sqrt(ln(2n / delta) / (2k))}.
+ *
+ * I risultati sono indicizzati come la {@code GraphSnapshot<L>} presa alla
+ * costruzione; modifiche successive del grafo non vi si riflettono.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class BetweennessCentrality<L> {
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final ForkJoinPool pool;
+
+    private final boolean weighted;
+
+    private double[] scores;
+
+    // sorgenti usate dall' ultimo calcolo, n nel calcolo esatto
+    private int pivots;
+
+    private boolean exact;
+
+    /**
+     * Crea un calcolatore di centralità che usa il pool comune.
+     *
+     * @param graph
+     *                  il grafo di cui calcolare le centralità
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo contiene sia archi
+     *                                      pesati che non pesati
+     * @throws IllegalArgumentException
+     *                                      se il grafo contiene archi con peso
+     *                                      non positivo
+     */
+    public BetweennessCentrality(Graph<L> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un calcolatore di centralità che usa il pool passato.
+     *
+     * @param graph
+     *                  il grafo di cui calcolare le centralità
+     * @param pool
+     *                  il pool su cui eseguire le visite
+     * @throws NullPointerException
+     *                                      se il grafo o il pool passati sono
+     *                                      nulli
+     * @throws IllegalArgumentException
+     *                                      se il grafo contiene sia archi
+     *                                      pesati che non pesati
+     * @throws IllegalArgumentException
+     *                                      se il grafo contiene archi con peso
+     *                                      non positivo
+     */
+    public BetweennessCentrality(Graph<L> graph, ForkJoinPool pool) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(pool == null) throw new NullPointerException("Pool can't be null");
+
+        this.snapshot = new GraphSnapshot<>(graph);
+        this.pool = pool;
+        this.weighted = isWeighted(this.snapshot);
+    }
+
+    /*
+     * Determina se servono le distanze pesate: false se nessun arco è pesato
+     * o se tutti hanno lo stesso peso positivo, che dà gli stessi cammini
+     * minimi della visita in ampiezza.
+     */
+    static boolean isWeighted(GraphSnapshot<?> snapshot) {
+        double[] weights = snapshot.getWeights();
+        if(weights.length == 0 || Double.isNaN(weights[0])) {
+            for (double weight : weights)
+                if(!Double.isNaN(weight))
+                    throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
+            return false;
+        }
+        boolean uniform = true;
+        for (double weight : weights) {
+            if(Double.isNaN(weight))
+                throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
+            if(!(weight > 0.0))
+                throw new IllegalArgumentException("Graph can't contain non-positive weights");
+            uniform &= weight == weights[0];
+        }
+        return !uniform;
+    }
+
+    /**
+     * Calcola le centralità esatte, con una visita da ogni nodo.
+     */
+    public void computeExact() {
+        int n = this.snapshot.nodeCount();
+        int[] sources = new int[n];
+        for (int u = 0; u < n; u++)
+            sources[u] = u;
+        this.compute(sources, 1.0);
+        this.exact = true;
+    }
+
+    /**
+     * Calcola una stima delle centralità con un certo numero di sorgenti
+     * scelte a caso in modo uniforme (con ripetizione).
+     *
+     * @param pivots
+     *                   il numero di sorgenti da visitare
+     * @param seed
+     *                   il seme del generatore casuale
+     * @throws IllegalArgumentException
+     *                                      se il numero di sorgenti non è
+     *                                      positivo
+     * @throws IllegalStateException
+     *                                      se il grafo è vuoto
+     */
+    public void computeApproximate(int pivots, long seed) {
+        if(pivots <= 0) throw new IllegalArgumentException("Pivots must be positive");
+        int n = this.snapshot.nodeCount();
+        if(n == 0) throw new IllegalStateException("Graph can't be empty");
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] sources = new int[pivots];
+        for (int i = 0; i < pivots; i++)
+            sources[i] = random.nextInt(n);
+        this.compute(sources, (double) n / pivots);
+        this.exact = false;
+    }
+
+    /**
+     * Restituisce il numero di sorgenti da usare in
+     * {@code computeApproximate(int, long)} perché, con probabilità almeno
+     * {@code 1 - delta}, l' errore di tutte le centralità normalizzate sia al
+     * più {@code epsilon}.
+     *
+     * @param epsilon
+     *                      l' errore massimo sulle centralità normalizzate
+     * @param delta
+     *                      la probabilità di superare l' errore massimo
+     * @param nodeCount
+     *                      il numero di nodi del grafo
+     * @return il numero di sorgenti
+     * @throws IllegalArgumentException
+     *                                      se epsilon non è positivo, se delta
+     *                                      non è strettamente compreso tra 0 e
+     *                                      1 o se il numero di nodi è minore
+     *                                      di 2
+     */
+    public static int pivotsFor(double epsilon, double delta, int nodeCount) {
+        if(!(epsilon > 0.0)) throw new IllegalArgumentException("Epsilon must be positive");
+        if(!(delta > 0.0 && delta < 1.0)) throw new IllegalArgumentException("Delta must be between 0 and 1");
+        if(nodeCount < 2) throw new IllegalArgumentException("Graph must contain at least two nodes");
+        double ratio = (double) nodeCount / (nodeCount - 1);
+        return (int) Math.ceil(ratio * ratio * Math.log(2.0 * nodeCount / delta) / (2.0 * epsilon * epsilon));
+    }
+
+    /**
+     * Restituisce l' errore massimo dell' ultimo calcolo sulle centralità
+     * normalizzate, che vale con probabilità almeno {@code 1 - delta}. Per il
+     * calcolo esatto è 0.
+     *
+     * @param delta
+     *                  la probabilità di superare l' errore restituito
+     * @return l' errore massimo sulle centralità normalizzate
+     * @throws IllegalArgumentException
+     *                                      se delta non è strettamente
+     *                                      compreso tra 0 e 1
+     * @throws IllegalStateException
+     *                                      se le centralità non sono ancora
+     *                                      state calcolate
+     */
+    public double getErrorBound(double delta) {
+        if(!(delta > 0.0 && delta < 1.0)) throw new IllegalArgumentException("Delta must be between 0 and 1");
+        if(!this.isComputed()) throw new IllegalStateException("This graph isn't yet computed");
+        int n = this.snapshot.nodeCount();
+        if(this.exact || n < 2) return 0.0;
+        return (double) n / (n - 1) * Math.sqrt(Math.log(2.0 * n / delta) / (2.0 * this.pivots));
+    }
+
+    /*
+     * Esegue l' algoritmo di Brandes dalle sorgenti date, in parallelo, e
+     * moltiplica per scale la somma delle dipendenze.
+     */
+    private void compute(int[] sources, double scale) {
+        int n = this.snapshot.nodeCount();
+        ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Worker> local = ThreadLocal.withInitial(() -> {
+            Worker worker = new Worker();
+            workers.add(worker);
+            return worker;
+        });
+        int chunkSize = Math.max(1, sources.length / (this.pool.getParallelism() * 8));
+        this.pool.invoke(new SourcesTask(sources, 0, sources.length, chunkSize, local));
+
+        double[] result = new double[n];
+        for (Worker worker : workers)
+            for (int v = 0; v < n; v++)
+                result[v] += worker.centrality[v];
+        // nei grafi non orientati ogni coppia è stata contata nei due versi
+        if(!this.snapshot.isDirected())
+            scale /= 2.0;
+        for (int v = 0; v < n; v++)
+            result[v] *= scale;
+        this.scores = result;
+        this.pivots = sources.length;
+    }
+
+    /*
+     * Aree di lavoro e accumulatore di un thread.
+     */
+    private final class Worker {
+
+        private final SourceSearch search = new SourceSearch(snapshot, weighted);
+
+        private final double[] dependency = new double[snapshot.nodeCount()];
+
+        private final double[] centrality = new double[snapshot.nodeCount()];
+
+        void accumulate(int source) {
+            int[] offsets = snapshot.getOffsets();
+            int[] to = snapshot.getTo();
+            int count = this.search.run(source);
+            int[] order = this.search.order();
+            double[] sigma = this.search.sigma();
+            // i nodi più lontani sono elaborati per primi
+            for (int i = count - 1; i >= 0; i--) {
+                int v = order[i];
+                double sum = 0.0;
+                for (int arc = offsets[v]; arc < offsets[v + 1]; arc++)
+                    if(this.search.isTight(v, arc)) {
+                        int w = to[arc];
+                        sum += sigma[v] / sigma[w] * (1.0 + this.dependency[w]);
+                    }
+                this.dependency[v] = sum;
+                if(v != source)
+                    this.centrality[v] += sum;
+            }
+            for (int i = 0; i < count; i++)
+                this.dependency[order[i]] = 0.0;
+        }
+    }
+
+    /*
+     * Task che elabora un intervallo di sorgenti, dividendolo a metà finché è
+     * più grande della dimensione di blocco.
+     */
+    private final class SourcesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+
+        private final int from;
+
+        private final int to;
+
+        private final int chunkSize;
+
+        private final ThreadLocal<Worker> local;
+
+        SourcesTask(int[] sources, int from, int to, int chunkSize, ThreadLocal<Worker> local) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.local = local;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from <= this.chunkSize) {
+                Worker worker = this.local.get();
+                for (int i = this.from; i < this.to; i++)
+                    worker.accumulate(this.sources[i]);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new SourcesTask(this.sources, this.from, middle, this.chunkSize, this.local),
+                    new SourcesTask(this.sources, middle, this.to, this.chunkSize, this.local));
+        }
+    }
+
+    /**
+     * Determina se le centralità sono state calcolate almeno una volta.
+     *
+     * @return true se le centralità sono state calcolate, false altrimenti
+     */
+    public boolean isComputed() {
+        return this.scores != null;
+    }
+
+    /**
+     * Determina se le visite usano i pesi degli archi (algoritmo di Dijkstra)
+     * o sono in ampiezza.
+     *
+     * @return true se le visite usano i pesi, false altrimenti
+     */
+    public boolean isWeighted() {
+        return this.weighted;
+    }
+
+    /**
+     * Restituisce la fotografia del grafo, i cui indici di nodo sono quelli
+     * usati da {@code getScores()}.
+     *
+     * @return la fotografia del grafo
+     */
+    public GraphSnapshot<L> getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Restituisce le centralità dell' ultimo calcolo per indice di nodo nella
+     * fotografia. L' array è quello interno e non deve essere modificato.
+     *
+     * @return le centralità dei nodi
+     * @throws IllegalStateException
+     *                                   se le centralità non sono ancora state
+     *                                   calcolate
+     */
+    public double[] getScores() {
+        if(!this.isComputed()) throw new IllegalStateException("This graph isn't yet computed");
+        return this.scores;
+    }
+
+    /**
+     * Restituisce le centralità dell' ultimo calcolo divise per il valore
+     * massimo possibile, cioè il numero di coppie di altri nodi:
+     * {@code (n - 1)(n - 2)} nei grafi orientati e la metà in quelli non
+     * orientati.
+     *
+     * @return una copia delle centralità normalizzate
+     * @throws IllegalStateException
+     *                                   se le centralità non sono ancora state
+     *                                   calcolate
+     */
+    public double[] getNormalizedScores() {
+        double[] normalized = Arrays.copyOf(this.getScores(), this.scores.length);
+        int n = this.snapshot.nodeCount();
+        if(n < 3) return normalized;
+        double pairs = (double) (n - 1) * (n - 2);
+        if(!this.snapshot.isDirected())
+            pairs /= 2.0;
+        for (int v = 0; v < n; v++)
+            normalized[v] /= pairs;
+        return normalized;
+    }
+
+    /**
+     * Restituisce la centralità di un nodo nell' ultimo calcolo.
+     *
+     * @param node
+     *                 il nodo
+     * @return la centralità del nodo
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     * @throws IllegalStateException
+     *                                      se le centralità non sono ancora
+     *                                      state calcolate
+     */
+    public double getScore(GraphNode<L> node) {
+        int u = this.snapshot.indexOf(node);
+        if(u == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        return this.getScores()[u];
+    }
+
+}
@@ -0,0 +1,141 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class BetweennessCentralityTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+
+    private Graph<String> repeatedCode() {
+        // cammino non orientato s - u - x - y
+        Graph<String> g = new MapAdjacentListUndirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addEdge(new GraphEdge<String>(ns, nu, false));
+        g.addEdge(new GraphEdge<String>(nu, nx, false));
+        g.addEdge(new GraphEdge<String>(nx, ny, false));
+        return g;
+    }
+
+    @Test
+    final void testBetweennessCentrality() {
+        assertThrows(NullPointerException.class, () -> new BetweennessCentrality<String>(null));
+        assertThrows(NullPointerException.class, () -> new BetweennessCentrality<String>(repeatedCode(), null));
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addEdge(new GraphEdge<>(ns, nu, true, 1.0));
+        g.addEdge(new GraphEdge<>(nu, nx, true));
+        assertThrows(IllegalArgumentException.class, () -> new BetweennessCentrality<>(g));
+        g.removeEdge(new GraphEdge<>(nu, nx, true));
+        g.addEdge(new GraphEdge<>(nu, nx, true, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new BetweennessCentrality<>(g));
+        BetweennessCentrality<String> centrality = new BetweennessCentrality<>(repeatedCode());
+        assertFalse(centrality.isComputed());
+        assertFalse(centrality.isWeighted());
+        assertThrows(IllegalStateException.class, () -> centrality.getScores());
+        assertThrows(IllegalArgumentException.class, () -> centrality.computeApproximate(0, 1));
+    }
+
+    @Test
+    final void testComputeExact() {
+        BetweennessCentrality<String> centrality = new BetweennessCentrality<>(repeatedCode());
+        centrality.computeExact();
+        assertEquals(0.0, centrality.getScore(ns), 1e-9);
+        // u è su s-x e s-y, x è su s-y e u-y
+        assertEquals(2.0, centrality.getScore(nu), 1e-9);
+        assertEquals(2.0, centrality.getScore(nx), 1e-9);
+        assertEquals(0.0, centrality.getScore(ny), 1e-9);
+        assertEquals(2.0 / 3.0, centrality.getNormalizedScores()[centrality.getSnapshot().indexOf(nu)], 1e-9);
+        assertEquals(0.0, centrality.getErrorBound(0.1));
+        assertThrows(IllegalArgumentException.class, () -> centrality.getScore(new GraphNode<>("notExistingNode")));
+    }
+
+    @Test
+    final void testWeighted() {
+        // s -> u -> y costa 2, s -> x -> y costa 3: solo u è intermedio
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addEdge(new GraphEdge<>(ns, nu, true, 1.0));
+        g.addEdge(new GraphEdge<>(nu, ny, true, 1.0));
+        g.addEdge(new GraphEdge<>(ns, nx, true, 1.0));
+        g.addEdge(new GraphEdge<>(nx, ny, true, 2.0));
+        BetweennessCentrality<String> centrality = new BetweennessCentrality<>(g);
+        assertTrue(centrality.isWeighted());
+        centrality.computeExact();
+        assertEquals(1.0, centrality.getScore(nu), 1e-9);
+        assertEquals(0.0, centrality.getScore(nx), 1e-9);
+    }
+
+    @Test
+    final void testSameResultAsPairCounting() {
+        Random random = new Random(47);
+        int n = 60;
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        for (int k = 0; k < 240; k++)
+            g.addEdge(new GraphEdge<>(nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n)), true));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BetweennessCentrality<Integer> centrality = new BetweennessCentrality<>(g, pool);
+            centrality.computeExact();
+            GraphSnapshot<Integer> snapshot = centrality.getSnapshot();
+            // distanze e numero di cammini minimi tra tutte le coppie
+            double[][] dist = new double[n][];
+            double[][] paths = new double[n][];
+            for (int s = 0; s < n; s++) {
+                SourceSearch search = new SourceSearch(snapshot, false);
+                search.run(s);
+                dist[s] = search.distance().clone();
+                paths[s] = search.sigma().clone();
+            }
+            for (int v = 0; v < n; v++) {
+                double expected = 0.0;
+                for (int s = 0; s < n; s++)
+                    for (int t = 0; t < n; t++)
+                        if(s != v && t != v && s != t && dist[s][t] < Double.POSITIVE_INFINITY
+                                && dist[s][v] + dist[v][t] == dist[s][t])
+                            expected += paths[s][v] * paths[v][t] / paths[s][t];
+                assertEquals(expected, centrality.getScores()[v], 1e-6);
+            }
+
+            // con molte sorgenti la stima rispetta l' errore garantito
+            double[] exact = centrality.getNormalizedScores();
+            int pivots = BetweennessCentrality.pivotsFor(0.2, 0.1, n);
+            centrality.computeApproximate(pivots, 7);
+            double bound = centrality.getErrorBound(0.1);
+            assertTrue(bound <= 0.2 + 1e-9);
+            double[] approximate = centrality.getNormalizedScores();
+            for (int v = 0; v < n; v++)
+                assertEquals(exact[v], approximate[v], bound);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
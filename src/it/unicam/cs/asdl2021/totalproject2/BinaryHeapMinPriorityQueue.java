@@ -138,7 +138,11 @@ public class BinaryHeapMinPriorityQueue<E> {
      *                                      priority of the element
      */
     public void decreasePriority(PriorityQueueElement element, double newPriority) {
-        if(!this.heap.contains(element))
+        // la handle permette di verificare la presenza in tempo costante; la
+        // ricerca lineare resta solo per elementi con handle non valida
+        int handle = element.getHandle();
+        boolean atHandle = handle >= 0 && handle < this.heap.size() && this.heap.get(handle) == element;
+        if(!atHandle && !this.heap.contains(element))
             throw new NoSuchElementException("This element is not contained in this heap");
         if(newPriority >= element.getPriority())
             throw new IllegalArgumentException("The specified newPriority is not strictly less than the current priority of the element");
@@ -0,0 +1,259 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Calcolatore delle distanze in numero di archi (hop) tra tutte le coppie di
+ * nodi, o da molte sorgenti, con visite in ampiezza "bit-parallele": fino a 64
+ * sorgenti vengono visitate insieme mantenendo per ogni nodo una maschera
+ * {@code long} in cui il bit {@code k} indica se il nodo è stato raggiunto
+ * dalla sorgente {@code k}. Ad ogni livello le maschere della frontiera sono
+ * propagate lungo gli archi con un OR bit a bit, quindi ogni scansione delle
+ * liste di adiacenza serve 64 sorgenti invece di una. Il tempo è
+ * {@code O(ceil(k / 64) (n + m) D)} per {@code k} sorgenti e diametro
+ * {@code D}, contro {@code O(n^3)} di Floyd-Warshall.
+ *
+ * I pesi degli archi vengono ignorati. Se il grafo non è orientato ogni arco
+ * è percorribile nei due versi.
+ *
+ * La matrice delle distanze ha la stessa forma di quella restituita da
+ * {@code FloydWarshallAllPairsShortestPathComputer.getCostMatrix()}: l'
+ * elemento in posizione i, j è il numero di archi di un cammino minimo dal
+ * nodo di indice i al nodo di indice j, 0 se i e j coincidono,
+ * {@code Double.POSITIVE_INFINITY} se j non è raggiungibile da i. Gli indici
+ * sono quelli di una {@code GraphSnapshot<L>} del grafo, cioè quelli del grafo
+ * stesso se è un {@code AdjacencyMatrixDirectedGraph<L>}, e si ottengono con
+ * {@code indexOf(GraphNode<L>)}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class BitParallelBfsAllPairsComputer<L> {
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private double[][] costMatrix;
+
+    private boolean isComputed = false;
+
+    /**
+     * Crea un calcolatore di distanze in numero di archi per un grafo. Non
+     * esegue il calcolo, che viene eseguito invocando successivamente il metodo
+     * computeShortestPaths() o computeHopDistancesFrom(List).
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     */
+    public BitParallelBfsAllPairsComputer(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(graph.isEmpty()) throw new IllegalArgumentException("Graph can't be empty");
+
+        this.graph = graph;
+        this.snapshot = new GraphSnapshot<>(graph);
+    }
+
+    /**
+     * Calcola la matrice delle distanze in numero di archi tra tutte le coppie
+     * di nodi, restituita poi da getCostMatrix().
+     */
+    public void computeShortestPaths() {
+        int n = this.snapshot.nodeCount();
+        int[] sources = new int[n];
+        for (int i = 0; i < n; i++)
+            sources[i] = i;
+        this.costMatrix = this.computeRows(sources);
+        this.isComputed = true;
+    }
+
+    /**
+     * Calcola le distanze in numero di archi da un insieme di sorgenti verso
+     * tutti i nodi. Non modifica la matrice restituita da getCostMatrix().
+     *
+     * @param sources
+     *                    le sorgenti, anche ripetute
+     * @return una matrice con una riga per ogni sorgente, nello stesso ordine,
+     *         in cui l' elemento in colonna j è la distanza dalla sorgente al
+     *         nodo di indice j
+     * @throws NullPointerException
+     *                                      se la lista o una delle sorgenti
+     *                                      sono nulle
+     * @throws IllegalArgumentException
+     *                                      se una delle sorgenti non esiste
+     *                                      nel grafo
+     */
+    public double[][] computeHopDistancesFrom(List<GraphNode<L>> sources) {
+        if(sources == null) throw new NullPointerException("Sources can't be null");
+        int[] indexes = new int[sources.size()];
+        for (int k = 0; k < indexes.length; k++) {
+            indexes[k] = this.snapshot.indexOf(sources.get(k));
+            if(indexes[k] == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        }
+        return this.computeRows(indexes);
+    }
+
+    /*
+     * Esegue le visite a gruppi di 64 sorgenti e restituisce una riga di
+     * distanze per sorgente.
+     */
+    private double[][] computeRows(int[] sources) {
+        int n = this.snapshot.nodeCount();
+        double[][] rows = new double[sources.length][];
+        long[] visited = new long[n];
+        long[] frontier = new long[n];
+        long[] next = new long[n];
+        for (int first = 0; first < sources.length; first += Long.SIZE) {
+            int batch = Math.min(Long.SIZE, sources.length - first);
+            Arrays.fill(visited, 0L);
+            Arrays.fill(frontier, 0L);
+            for (int k = 0; k < batch; k++) {
+                double[] row = new double[n];
+                Arrays.fill(row, Double.POSITIVE_INFINITY);
+                row[sources[first + k]] = 0.0;
+                rows[first + k] = row;
+                visited[sources[first + k]] |= 1L << k;
+                frontier[sources[first + k]] |= 1L << k;
+            }
+            this.visitBatch(rows, first, visited, frontier, next);
+        }
+        return rows;
+    }
+
+    /*
+     * Visita in ampiezza simultanea delle sorgenti di un gruppo: a ogni
+     * livello next[v] raccoglie l' OR delle maschere di frontiera dei
+     * predecessori di v, e i bit non ancora visitati diventano la nuova
+     * frontiera.
+     */
+    private void visitBatch(double[][] rows, int first, long[] visited, long[] frontier, long[] next) {
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        boolean active = true;
+        for (int level = 1; active; level++) {
+            Arrays.fill(next, 0L);
+            for (int u = 0; u < n; u++) {
+                long bits = frontier[u];
+                if(bits == 0L) continue;
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++)
+                    next[to[arc]] |= bits;
+            }
+            active = false;
+            for (int v = 0; v < n; v++) {
+                long discovered = next[v] & ~visited[v];
+                frontier[v] = discovered;
+                if(discovered == 0L) continue;
+                active = true;
+                visited[v] |= discovered;
+                // un bit per ogni sorgente che raggiunge v a questo livello
+                while(discovered != 0L) {
+                    int k = Long.numberOfTrailingZeros(discovered);
+                    rows[first + k][v] = level;
+                    discovered &= discovered - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Determina se è stata invocata la procedura di calcolo su tutte le coppie.
+     *
+     * @return true se le distanze sono state calcolate, false altrimenti
+     */
+    public boolean isComputed() {
+        return this.isComputed;
+    }
+
+    /**
+     * Restituisce il grafo su cui opera questo calcolatore.
+     *
+     * @return il grafo su cui opera questo calcolatore
+     */
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Restituisce l' indice di riga e colonna di un nodo nelle matrici delle
+     * distanze.
+     *
+     * @param node
+     *                 il nodo
+     * @return l' indice del nodo, -1 se il nodo non appartiene al grafo
+     * @throws NullPointerException
+     *                                  se il nodo passato è nullo
+     */
+    public int indexOf(GraphNode<L> node) {
+        return this.snapshot.indexOf(node);
+    }
+
+    /**
+     * Restituisce il numero di archi di un cammino minimo tra due nodi.
+     *
+     * @param sourceNode
+     *                       il nodo di partenza
+     * @param targetNode
+     *                       il nodo di arrivo
+     * @return il numero di archi del cammino minimo,
+     *         {@code Double.POSITIVE_INFINITY} se il nodo di arrivo non è
+     *         raggiungibile
+     * @throws NullPointerException
+     *                                      se almeno uno dei nodi passati è
+     *                                      nullo
+     * @throws IllegalArgumentException
+     *                                      se almeno uno dei nodi passati non
+     *                                      esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito il calcolo
+     *                                      su tutte le coppie
+     */
+    public double getShortestPathCost(GraphNode<L> sourceNode, GraphNode<L> targetNode) {
+        if(sourceNode == null || targetNode == null) throw new NullPointerException("Nodes can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        int target = this.snapshot.indexOf(targetNode);
+        if(source == -1 || target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.costMatrix[source][target];
+    }
+
+    /**
+     * Determina se un nodo è raggiungibile da un altro.
+     *
+     * @param sourceNode
+     *                       il nodo di partenza
+     * @param targetNode
+     *                       il nodo di arrivo
+     * @return true se esiste un cammino dal nodo di partenza al nodo di arrivo,
+     *         false altrimenti
+     * @throws NullPointerException
+     *                                      se almeno uno dei nodi passati è
+     *                                      nullo
+     * @throws IllegalArgumentException
+     *                                      se almeno uno dei nodi passati non
+     *                                      esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito il calcolo
+     *                                      su tutte le coppie
+     */
+    public boolean isReachable(GraphNode<L> sourceNode, GraphNode<L> targetNode) {
+        return this.getShortestPathCost(sourceNode, targetNode) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return la matrice delle distanze in numero di archi, null se non è
+     *         stato eseguito il calcolo su tutte le coppie
+     */
+    public double[][] getCostMatrix() {
+        return this.costMatrix;
+    }
+
+}
@@ -0,0 +1,114 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class BitParallelBfsAllPairsComputerTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 10.1));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, 2.05));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, 2.0));
+        g.addEdge(new GraphEdge<String>(ny, nv, true, 6.0));
+        return g;
+    }
+
+    @Test
+    final void testBitParallelBfsAllPairsComputer() {
+        assertThrows(NullPointerException.class, () -> new BitParallelBfsAllPairsComputer<String>(null));
+        assertThrows(IllegalArgumentException.class, () -> new BitParallelBfsAllPairsComputer<String>(new AdjacencyMatrixDirectedGraph<>()));
+        BitParallelBfsAllPairsComputer<String> c = new BitParallelBfsAllPairsComputer<>(repeatedCode());
+        assertFalse(c.isComputed());
+        assertNull(c.getCostMatrix());
+        assertThrows(IllegalStateException.class, () -> c.getShortestPathCost(ns, nu));
+        assertThrows(NullPointerException.class, () -> c.computeHopDistancesFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> c.computeHopDistancesFrom(List.of(new GraphNode<>("notExistingNode"))));
+    }
+
+    @Test
+    final void testComputeShortestPaths() {
+        Graph<String> g = repeatedCode();
+        BitParallelBfsAllPairsComputer<String> c = new BitParallelBfsAllPairsComputer<>(g);
+        c.computeShortestPaths();
+        assertTrue(c.isComputed());
+        assertEquals(0.0, c.getShortestPathCost(ns, ns));
+        assertEquals(1.0, c.getShortestPathCost(ns, nx));
+        assertEquals(2.0, c.getShortestPathCost(ns, ny));
+        assertEquals(3.0, c.getShortestPathCost(ns, nv));
+        assertEquals(Double.POSITIVE_INFINITY, c.getShortestPathCost(nv, ns));
+        assertTrue(c.isReachable(nu, nv));
+        assertFalse(c.isReachable(nx, nu));
+        // gli indici coincidono con quelli del grafo
+        assertEquals(g.getNodeIndexOf("s"), c.indexOf(ns));
+        assertEquals(3.0, c.getCostMatrix()[g.getNodeIndexOf("s")][g.getNodeIndexOf("v")]);
+    }
+
+    @Test
+    final void testUndirectedGraph() {
+        Graph<String> g = new MapAdjacentListUndirectedGraph<>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<>(ns, nu, false));
+        g.addEdge(new GraphEdge<>(nu, nv, false));
+        BitParallelBfsAllPairsComputer<String> c = new BitParallelBfsAllPairsComputer<>(g);
+        c.computeShortestPaths();
+        assertEquals(2.0, c.getShortestPathCost(nv, ns));
+        assertEquals(2.0, c.getShortestPathCost(ns, nv));
+    }
+
+    @Test
+    final void testSameResultAsSingleSourceBfs() {
+        // più di 64 sorgenti per avere più gruppi, sorgenti ripetute comprese
+        Random random = new Random(29);
+        int n = 150;
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        for (int i = 0; i < n; i++)
+            g.addNode(new GraphNode<>(i));
+        for (int u = 0; u < n; u++)
+            for (int k = 0; k < 2; k++)
+                g.addEdge(new GraphEdge<>(g.getNodeOf(u), g.getNodeOf(random.nextInt(n)), true, 1.0));
+        BitParallelBfsAllPairsComputer<Integer> c = new BitParallelBfsAllPairsComputer<>(g);
+        c.computeShortestPaths();
+        List<GraphNode<Integer>> sources = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            sources.add(g.getNodeOf(random.nextInt(n)));
+        double[][] rows = c.computeHopDistancesFrom(sources);
+        ShortestPathFacade<Integer> bfs = new ShortestPathFacade<>(g);
+        for (int s = 0; s < n; s++) {
+            bfs.computeShortestPathsFrom(g.getNodeOf(s));
+            double[] expected = new double[n];
+            for (int t = 0; t < n; t++)
+                expected[t] = bfs.getShortestPathCost(g.getNodeOf(t));
+            assertArrayEquals(expected, c.getCostMatrix()[c.indexOf(g.getNodeOf(s))]);
+            for (int k = 0; k < sources.size(); k++)
+                if(sources.get(k).getLabel() == s)
+                    assertTrue(Arrays.equals(expected, rows[k]));
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ponti e punti di articolazione di un grafo non orientato, calcolati in tempo
+ * {@code O(n + m)} con una sola visita in profondità.
+ *
+ * Un ponte è un arco la cui rimozione aumenta il numero di componenti
+ * connesse; un punto di articolazione è un nodo la cui rimozione, insieme ai
+ * suoi archi, aumenta il numero di componenti connesse.
+ *
+ * La visita è quella iterativa di {@code GraphTraversal<L>}, di cui si usano
+ * i tempi di scoperta e di fine (con lo stesso significato di
+ * {@code enteringTime} ed {@code exitingTime} dei nodi) e gli arc dell'
+ * albero, tutti in array della visita: i campi dei nodi non vengono
+ * modificati. Il low-link di un nodo {@code u} è il minimo tempo di scoperta
+ * raggiungibile dal sottoalbero di {@code u} con al più un arco che non è
+ * dell' albero. Viene calcolato dopo la visita scorrendo i nodi per tempo di
+ * fine crescente, in modo che ogni figlio sia elaborato prima del padre:
+ * <ul>
+ * <li>l' arco dell' albero da {@code u} al figlio {@code w} è un ponte se e
+ * solo se {@code low(w) > d(u)};</li>
+ * <li>una radice è un punto di articolazione se e solo se ha almeno due
+ * figli; un altro nodo {@code u} lo è se e solo se ha un figlio {@code w} con
+ * {@code low(w) >= d(u)}.</li>
+ * </ul>
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class BridgesAndArticulationPoints<L> {
+
+    private final GraphTraversal<L> traversal;
+
+    private final int[] low;
+
+    private final boolean[] articulation;
+
+    private final Set<GraphEdge<L>> bridges;
+
+    private final Set<GraphNode<L>> articulationPoints;
+
+    /**
+     * Calcola ponti e punti di articolazione di un grafo non orientato.
+     *
+     * @param graph
+     *                  il grafo da analizzare
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è orientato
+     */
+    public BridgesAndArticulationPoints(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(graph.isDirected()) throw new IllegalArgumentException("This graph can't be directed");
+
+        this.traversal = new GraphTraversal<>(graph);
+        this.traversal.depthFirstSearch(new GraphVisitor<L>() {
+        });
+        GraphSnapshot<L> snapshot = this.traversal.getSnapshot();
+        int n = snapshot.nodeCount();
+        int[] offsets = snapshot.getOffsets();
+        int[] to = snapshot.getTo();
+        int[] discovery = this.traversal.getDiscoveryTimes();
+        int[] finish = this.traversal.getFinishTimes();
+        int[] previousArc = this.traversal.getPreviousArcs();
+
+        // nodi per tempo di fine: i tempi sono distinti e al più 2n
+        int[] byFinish = new int[2 * n + 1];
+        for (int u = 0; u < n; u++)
+            byFinish[finish[u]] = u + 1;
+
+        this.low = new int[n];
+        this.articulation = new boolean[n];
+        this.bridges = new HashSet<>();
+        this.articulationPoints = new HashSet<>();
+        for (int time = 1; time <= 2 * n; time++) {
+            if(byFinish[time] == 0) continue;
+            int u = byFinish[time] - 1;
+            GraphEdge<L> parentEdge = previousArc[u] == -1 ? null : snapshot.getEdge(previousArc[u]);
+            int children = 0;
+            this.low[u] = discovery[u];
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int w = to[arc];
+                if(previousArc[w] == arc) {
+                    // figlio nell' albero, già elaborato
+                    children++;
+                    this.low[u] = Math.min(this.low[u], this.low[w]);
+                    if(this.low[w] > discovery[u])
+                        this.bridges.add(snapshot.getEdge(arc));
+                    if(parentEdge != null && this.low[w] >= discovery[u])
+                        this.articulation[u] = true;
+                } else if(snapshot.getEdge(arc) != parentEdge)
+                    this.low[u] = Math.min(this.low[u], discovery[w]);
+            }
+            if(parentEdge == null && children >= 2)
+                this.articulation[u] = true;
+            if(this.articulation[u])
+                this.articulationPoints.add(snapshot.getNode(u));
+        }
+    }
+
+    /**
+     * Restituisce gli archi che sono ponti.
+     *
+     * @return l' insieme dei ponti del grafo
+     */
+    public Set<GraphEdge<L>> getBridges() {
+        return this.bridges;
+    }
+
+    /**
+     * Restituisce i nodi che sono punti di articolazione.
+     *
+     * @return l' insieme dei punti di articolazione del grafo
+     */
+    public Set<GraphNode<L>> getArticulationPoints() {
+        return this.articulationPoints;
+    }
+
+    /**
+     * Determina se un arco è un ponte.
+     *
+     * @param edge
+     *                 l' arco
+     * @return true se l' arco è un ponte, false altrimenti
+     * @throws NullPointerException
+     *                                  se l' arco passato è nullo
+     */
+    public boolean isBridge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        return this.bridges.contains(edge);
+    }
+
+    /**
+     * Determina se un nodo è un punto di articolazione.
+     *
+     * @param node
+     *                 il nodo
+     * @return true se il nodo è un punto di articolazione, false altrimenti
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public boolean isArticulationPoint(GraphNode<L> node) {
+        int u = this.traversal.getSnapshot().indexOf(node);
+        if(u == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        return this.articulation[u];
+    }
+
+    /**
+     * Restituisce il low-link di ogni nodo, per indice nella fotografia della
+     * visita. L' array è quello interno e non deve essere modificato.
+     *
+     * @return i low-link dei nodi
+     */
+    public int[] getLowLinks() {
+        return this.low;
+    }
+
+    /**
+     * Restituisce la visita in profondità usata per il calcolo, con i tempi di
+     * scoperta e di fine e gli arc dell' albero.
+     *
+     * @return la visita in profondità
+     */
+    public GraphTraversal<L> getTraversal() {
+        return this.traversal;
+    }
+
+}
@@ -0,0 +1,126 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class BridgesAndArticulationPointsTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+    private final GraphEdge<String> esu = new GraphEdge<String>(ns, nu, false);
+    private final GraphEdge<String> eux = new GraphEdge<String>(nu, nx, false);
+    private final GraphEdge<String> exs = new GraphEdge<String>(nx, ns, false);
+    private final GraphEdge<String> exy = new GraphEdge<String>(nx, ny, false);
+    private final GraphEdge<String> eyv = new GraphEdge<String>(ny, nv, false);
+
+    private Graph<String> repeatedCode() {
+        // triangolo s - u - x, poi x - y - v
+        Graph<String> g = new MapAdjacentListUndirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(esu);
+        g.addEdge(eux);
+        g.addEdge(exs);
+        g.addEdge(exy);
+        g.addEdge(eyv);
+        return g;
+    }
+
+    @Test
+    final void testBridgesAndArticulationPoints() {
+        assertThrows(NullPointerException.class, () -> new BridgesAndArticulationPoints<String>(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BridgesAndArticulationPoints<String>(new AdjacencyMatrixDirectedGraph<>()));
+        BridgesAndArticulationPoints<String> result = new BridgesAndArticulationPoints<>(repeatedCode());
+        assertThrows(NullPointerException.class, () -> result.isBridge(null));
+        assertThrows(NullPointerException.class, () -> result.isArticulationPoint(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> result.isArticulationPoint(new GraphNode<>("notExistingNode")));
+        assertEquals(5, result.getLowLinks().length);
+    }
+
+    @Test
+    final void testGetBridges() {
+        BridgesAndArticulationPoints<String> result = new BridgesAndArticulationPoints<>(repeatedCode());
+        assertEquals(2, result.getBridges().size());
+        assertTrue(result.isBridge(exy));
+        assertTrue(result.isBridge(eyv));
+        assertFalse(result.isBridge(esu));
+        assertFalse(result.isBridge(exs));
+    }
+
+    @Test
+    final void testGetArticulationPoints() {
+        BridgesAndArticulationPoints<String> result = new BridgesAndArticulationPoints<>(repeatedCode());
+        assertEquals(2, result.getArticulationPoints().size());
+        assertTrue(result.isArticulationPoint(nx));
+        assertTrue(result.isArticulationPoint(ny));
+        assertFalse(result.isArticulationPoint(ns));
+        assertFalse(result.isArticulationPoint(nv));
+        // i campi dei nodi non vengono modificati
+        assertEquals(0, nx.getEnteringTime());
+    }
+
+    @Test
+    final void testSameResultAsRemoval() {
+        Random random = new Random(43);
+        int n = 40;
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            nodes.add(new GraphNode<>(i));
+        List<GraphEdge<Integer>> edges = new ArrayList<>();
+        for (int k = 0; k < 50; k++) {
+            GraphEdge<Integer> edge = new GraphEdge<>(nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n)), false);
+            if(!edges.contains(edge))
+                edges.add(edge);
+        }
+        BridgesAndArticulationPoints<Integer> result =
+                new BridgesAndArticulationPoints<>(buildGraph(nodes, edges, null, null));
+        int components = new ConnectedComponents<>(buildGraph(nodes, edges, null, null)).componentCount();
+        for (GraphEdge<Integer> edge : edges) {
+            int without = new ConnectedComponents<>(buildGraph(nodes, edges, edge, null)).componentCount();
+            assertEquals(without > components, result.isBridge(edge));
+        }
+        for (GraphNode<Integer> node : nodes) {
+            // il nodo rimosso non conta come componente
+            int without = new ConnectedComponents<>(buildGraph(nodes, edges, null, node)).componentCount();
+            assertEquals(without > components - (isIsolated(node, edges) ? 1 : 0), result.isArticulationPoint(node));
+        }
+    }
+
+    private static boolean isIsolated(GraphNode<Integer> node, List<GraphEdge<Integer>> edges) {
+        for (GraphEdge<Integer> edge : edges)
+            if(edge.getNode1().equals(node) != edge.getNode2().equals(node))
+                return false;
+        return true;
+    }
+
+    private static Graph<Integer> buildGraph(List<GraphNode<Integer>> nodes, List<GraphEdge<Integer>> edges,
+            GraphEdge<Integer> skippedEdge, GraphNode<Integer> skippedNode) {
+        Graph<Integer> g = new MapAdjacentListUndirectedGraph<>();
+        for (GraphNode<Integer> node : nodes)
+            if(!node.equals(skippedNode))
+                g.addNode(node);
+        for (GraphEdge<Integer> edge : edges)
+            if(edge != skippedEdge && !edge.getNode1().equals(skippedNode) && !edge.getNode2().equals(skippedNode))
+                g.addEdge(edge);
+        return g;
+    }
+
+}
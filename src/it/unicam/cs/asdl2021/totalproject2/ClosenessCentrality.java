@@ -0,0 +1,393 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Centralità di vicinanza (closeness) e armonica dei nodi di un grafo,
+ * orientato o non orientato, calcolate con una visita da ogni nodo lungo gli
+ * archi uscenti. Detta {@code d(u, v)} la distanza da {@code u} a {@code v},
+ * {@code r(u)} il numero di altri nodi raggiungibili da {@code u} e
+ * {@code S(u)} la somma delle loro distanze:
+ * <ul>
+ * <li>la centralità di vicinanza è {@code r(u) / (n - 1) * r(u) / S(u)}
+ * (normalizzazione di Wasserman e Faust, che tiene conto dei nodi non
+ * raggiungibili), 0 se {@code r(u) = 0};</li>
+ * <li>la centralità armonica è la somma di {@code 1 / d(u, v)} sugli altri
+ * nodi, in cui i nodi non raggiungibili contano 0.</li>
+ * </ul>
+ *
+ * Le visite sono in ampiezza se il grafo non è pesato, o tutti gli archi
+ * hanno lo stesso peso, per cui viene moltiplicato il numero di archi, e con
+ * l' algoritmo di Dijkstra altrimenti; i pesi devono essere positivi.
+ * Lavorano sulla {@code GraphSnapshot<L>} presa alla costruzione: le
+ * sorgenti sono divise in blocchi contigui elaborati in parallelo da un
+ * {@code ForkJoinPool} e ogni thread riusa le stesse aree di lavoro per tutte
+ * le sorgenti del blocco, riportando allo stato iniziale solo i nodi
+ * raggiunti, senza copiare i nodi del grafo.
+ *
+ * Il calcolo dei soli {@code k} nodi più centrali visita le sorgenti in
+ * ordine di grado uscente decrescente e mantiene il k-esimo valore trovato
+ * finora. Durante ogni visita un limite superiore della centralità della
+ * sorgente viene calcolato dai nodi già raggiunti, supponendo che tutti gli
+ * altri siano alla distanza minima possibile; appena il limite scende sotto
+ * il k-esimo valore la visita viene interrotta.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class ClosenessCentrality<L> {
+
+    /**
+     * Misure di centralità disponibili.
+     */
+    public enum Measure {
+        /**
+         * Centralità di vicinanza, con la normalizzazione di Wasserman e
+         * Faust.
+         */
+        CLOSENESS,
+        /**
+         * Centralità armonica.
+         */
+        HARMONIC
+    }
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final ForkJoinPool pool;
+
+    private final boolean weighted;
+
+    // lunghezza di un passo della visita in ampiezza: il peso comune degli
+    // archi, 1 se il grafo non è pesato
+    private final double hopLength;
+
+    private double[] scores;
+
+    /**
+     * Crea un calcolatore di centralità che usa il pool comune.
+     *
+     * @param graph
+     *                  il grafo di cui calcolare le centralità
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo contiene sia archi
+     *                                      pesati che non pesati
+     * @throws IllegalArgumentException
+     *                                      se il grafo contiene archi con peso
+     *                                      non positivo
+     */
+    public ClosenessCentrality(Graph<L> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un calcolatore di centralità che usa il pool passato.
+     *
+     * @param graph
+     *                  il grafo di cui calcolare le centralità
+     * @param pool
+     *                  il pool su cui eseguire le visite
+     * @throws NullPointerException
+     *                                      se il grafo o il pool passati sono
+     *                                      nulli
+     * @throws IllegalArgumentException
+     *                                      se il grafo contiene sia archi
+     *                                      pesati che non pesati
+     * @throws IllegalArgumentException
+     *                                      se il grafo contiene archi con peso
+     *                                      non positivo
+     */
+    public ClosenessCentrality(Graph<L> graph, ForkJoinPool pool) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(pool == null) throw new NullPointerException("Pool can't be null");
+
+        this.snapshot = new GraphSnapshot<>(graph);
+        this.pool = pool;
+        this.weighted = BetweennessCentrality.isWeighted(this.snapshot);
+        double[] weights = this.snapshot.getWeights();
+        this.hopLength = !this.weighted && weights.length > 0 && !Double.isNaN(weights[0]) ? weights[0] : 1.0;
+    }
+
+    /**
+     * Calcola la centralità di tutti i nodi.
+     *
+     * @param measure
+     *                    la misura da calcolare
+     * @return le centralità per indice di nodo nella fotografia, lo stesso
+     *         array restituito poi da {@code getScores()}
+     * @throws NullPointerException
+     *                                  se la misura passata è nulla
+     */
+    public double[] computeAll(Measure measure) {
+        if(measure == null) throw new NullPointerException("Measure can't be null");
+        int n = this.snapshot.nodeCount();
+        int[] sources = new int[n];
+        for (int u = 0; u < n; u++)
+            sources[u] = u;
+        this.scores = new double[n];
+        this.run(sources, measure, null);
+        return this.scores;
+    }
+
+    /**
+     * Calcola i k nodi con centralità più alta. Dopo il calcolo
+     * {@code getScores()} contiene la centralità esatta dei nodi le cui visite
+     * sono state completate e {@code Double.NaN} per quelli scartati.
+     *
+     * @param measure
+     *                    la misura da calcolare
+     * @param k
+     *                    il numero di nodi da restituire
+     * @return i k nodi più centrali (tutti se sono meno di k) in ordine di
+     *         centralità decrescente
+     * @throws NullPointerException
+     *                                      se la misura passata è nulla
+     * @throws IllegalArgumentException
+     *                                      se k non è positivo
+     */
+    public List<GraphNode<L>> computeTopK(Measure measure, int k) {
+        if(measure == null) throw new NullPointerException("Measure can't be null");
+        if(k <= 0) throw new IllegalArgumentException("K must be positive");
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        // sorgenti per grado uscente decrescente, che di solito hanno
+        // centralità alta e alzano presto la soglia
+        Integer[] byDegree = new Integer[n];
+        for (int u = 0; u < n; u++)
+            byDegree[u] = u;
+        Arrays.sort(byDegree, (a, b) -> Integer.compare(offsets[b + 1] - offsets[b], offsets[a + 1] - offsets[a]));
+        int[] sources = new int[n];
+        for (int i = 0; i < n; i++)
+            sources[i] = byDegree[i];
+        this.scores = new double[n];
+        Arrays.fill(this.scores, Double.NaN);
+        TopK best = new TopK(k, this.scores);
+        this.run(sources, measure, best);
+
+        List<GraphNode<L>> result = new ArrayList<>();
+        for (int u : best.sorted())
+            result.add(this.snapshot.getNode(u));
+        return result;
+    }
+
+    private void run(int[] sources, Measure measure, TopK best) {
+        ThreadLocal<SourceSearch> local = ThreadLocal.withInitial(() -> new SourceSearch(this.snapshot, this.weighted));
+        int chunkSize = Math.max(1, sources.length / (this.pool.getParallelism() * 8));
+        // con la soglia conviene iniziare presto dalle sorgenti migliori
+        if(best != null)
+            chunkSize = Math.min(chunkSize, 64);
+        this.pool.invoke(new SourcesTask(sources, 0, sources.length, chunkSize, measure, best, local));
+    }
+
+    /*
+     * Visita il grafo da una sorgente e ne restituisce la centralità, o
+     * Double.NaN se la visita è stata interrotta perché la centralità non può
+     * superare la soglia. Le distanze della visita sono moltiplicate per la
+     * lunghezza di un passo, 1 per le visite pesate.
+     */
+    private double score(SourceSearch search, int source, Measure measure, double threshold) {
+        int n = this.snapshot.nodeCount();
+        double scale = this.weighted ? 1.0 : this.hopLength;
+        double[] distance = search.distance();
+        search.start(source);
+        search.next();
+        double sum = 0.0;
+        int u;
+        while((u = search.next()) != -1) {
+            double d = distance[u] * scale;
+            sum += measure == Measure.HARMONIC ? 1.0 / d : d;
+            if(threshold > Double.NEGATIVE_INFINITY
+                    && upperBound(measure, n, search.settled() - 1, sum, search.nextDistance() * scale) < threshold)
+                return Double.NaN;
+        }
+        if(measure == Measure.HARMONIC)
+            return sum;
+        return closeness(n, search.settled() - 1, sum);
+    }
+
+    private static double closeness(int n, double reached, double sum) {
+        if(reached == 0) return 0.0;
+        return reached / (n - 1) * reached / sum;
+    }
+
+    /*
+     * Limite superiore della centralità di una sorgente che ha raggiunto
+     * reached altri nodi con somma sum, se i nodi rimasti sono a distanza
+     * almeno next. Per la vicinanza la funzione del numero x di nodi ancora
+     * raggiungibili, (reached + x)^2 / (sum + x * next), è convessa, quindi
+     * il massimo è a uno degli estremi.
+     */
+    private static double upperBound(Measure measure, int n, int reached, double sum, double next) {
+        int remaining = n - 1 - reached;
+        if(next == Double.POSITIVE_INFINITY || remaining == 0)
+            return measure == Measure.HARMONIC ? sum : closeness(n, reached, sum);
+        if(measure == Measure.HARMONIC)
+            return sum + remaining / next;
+        return Math.max(closeness(n, reached, sum), closeness(n, n - 1, sum + remaining * next));
+    }
+
+    /*
+     * I k valori migliori trovati finora, condivisi tra i thread.
+     */
+    private static final class TopK {
+
+        private final int k;
+
+        private final double[] scores;
+
+        private final PriorityQueue<Integer> heap;
+
+        // k-esimo valore, -infinito finché non ci sono k valori
+        private volatile double threshold = Double.NEGATIVE_INFINITY;
+
+        TopK(int k, double[] scores) {
+            this.k = k;
+            this.scores = scores;
+            this.heap = new PriorityQueue<>((a, b) -> Double.compare(scores[a], scores[b]));
+        }
+
+        synchronized void offer(int u, double score) {
+            this.scores[u] = score;
+            if(this.heap.size() < this.k)
+                this.heap.add(u);
+            else if(score > this.scores[this.heap.peek()]) {
+                this.heap.poll();
+                this.heap.add(u);
+            } else
+                return;
+            if(this.heap.size() == this.k)
+                this.threshold = this.scores[this.heap.peek()];
+        }
+
+        synchronized int[] sorted() {
+            int[] result = new int[this.heap.size()];
+            for (int i = result.length - 1; i >= 0; i--)
+                result[i] = this.heap.poll();
+            return result;
+        }
+    }
+
+    /*
+     * Task che elabora un intervallo di sorgenti, dividendolo a metà finché è
+     * più grande della dimensione di blocco.
+     */
+    private final class SourcesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+
+        private final int from;
+
+        private final int to;
+
+        private final int chunkSize;
+
+        private final Measure measure;
+
+        private final TopK best;
+
+        private final ThreadLocal<SourceSearch> local;
+
+        SourcesTask(int[] sources, int from, int to, int chunkSize, Measure measure, TopK best,
+                ThreadLocal<SourceSearch> local) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.measure = measure;
+            this.best = best;
+            this.local = local;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from <= this.chunkSize) {
+                SourceSearch search = this.local.get();
+                for (int i = this.from; i < this.to; i++) {
+                    int u = this.sources[i];
+                    if(this.best == null)
+                        scores[u] = score(search, u, this.measure, Double.NEGATIVE_INFINITY);
+                    else {
+                        double score = score(search, u, this.measure, this.best.threshold);
+                        if(!Double.isNaN(score))
+                            this.best.offer(u, score);
+                    }
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(
+                    new SourcesTask(this.sources, this.from, middle, this.chunkSize, this.measure, this.best,
+                            this.local),
+                    new SourcesTask(this.sources, middle, this.to, this.chunkSize, this.measure, this.best,
+                            this.local));
+        }
+    }
+
+    /**
+     * Determina se le visite usano i pesi degli archi (algoritmo di Dijkstra)
+     * o sono in ampiezza.
+     *
+     * @return true se le visite usano i pesi, false altrimenti
+     */
+    public boolean isWeighted() {
+        return this.weighted;
+    }
+
+    /**
+     * Restituisce la fotografia del grafo, i cui indici di nodo sono quelli
+     * usati da {@code getScores()}.
+     *
+     * @return la fotografia del grafo
+     */
+    public GraphSnapshot<L> getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Restituisce le centralità dell' ultimo calcolo per indice di nodo nella
+     * fotografia. L' array è quello interno e non deve essere modificato.
+     *
+     * @return le centralità dei nodi
+     * @throws IllegalStateException
+     *                                   se le centralità non sono ancora state
+     *                                   calcolate
+     */
+    public double[] getScores() {
+        if(this.scores == null) throw new IllegalStateException("This graph isn't yet computed");
+        return this.scores;
+    }
+
+    /**
+     * Restituisce la centralità di un nodo nell' ultimo calcolo.
+     *
+     * @param node
+     *                 il nodo
+     * @return la centralità del nodo, {@code Double.NaN} se il nodo è stato
+     *         scartato dal calcolo dei più centrali
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     * @throws IllegalStateException
+     *                                      se le centralità non sono ancora
+     *                                      state calcolate
+     */
+    public double getScore(GraphNode<L> node) {
+        int u = this.snapshot.indexOf(node);
+        if(u == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        return this.getScores()[u];
+    }
+
+}
@@ -0,0 +1,171 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class ClosenessCentralityTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+
+    private Graph<String> repeatedCode() {
+        // cammino non orientato s - u - x, y isolato
+        Graph<String> g = new MapAdjacentListUndirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addEdge(new GraphEdge<String>(ns, nu, false));
+        g.addEdge(new GraphEdge<String>(nu, nx, false));
+        return g;
+    }
+
+    @Test
+    final void testClosenessCentrality() {
+        assertThrows(NullPointerException.class, () -> new ClosenessCentrality<String>(null));
+        assertThrows(NullPointerException.class, () -> new ClosenessCentrality<String>(repeatedCode(), null));
+        ClosenessCentrality<String> centrality = new ClosenessCentrality<>(repeatedCode());
+        assertFalse(centrality.isWeighted());
+        assertThrows(IllegalStateException.class, () -> centrality.getScores());
+        assertThrows(NullPointerException.class, () -> centrality.computeAll(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> centrality.computeTopK(ClosenessCentrality.Measure.HARMONIC, 0));
+    }
+
+    @Test
+    final void testComputeAll() {
+        ClosenessCentrality<String> centrality = new ClosenessCentrality<>(repeatedCode());
+        centrality.computeAll(ClosenessCentrality.Measure.HARMONIC);
+        assertEquals(1.5, centrality.getScore(ns), 1e-9);
+        assertEquals(2.0, centrality.getScore(nu), 1e-9);
+        assertEquals(0.0, centrality.getScore(ny), 1e-9);
+        centrality.computeAll(ClosenessCentrality.Measure.CLOSENESS);
+        // 2 nodi raggiungibili su 3, a distanza totale 3
+        assertEquals(2.0 / 3.0 * 2.0 / 3.0, centrality.getScore(ns), 1e-9);
+        assertEquals(2.0 / 3.0, centrality.getScore(nu), 1e-9);
+        assertEquals(0.0, centrality.getScore(ny), 1e-9);
+    }
+
+    @Test
+    final void testWeighted() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addEdge(new GraphEdge<>(ns, nu, true, 2.0));
+        g.addEdge(new GraphEdge<>(nu, nx, true, 4.0));
+        g.addEdge(new GraphEdge<>(ns, nx, true, 8.0));
+        ClosenessCentrality<String> centrality = new ClosenessCentrality<>(g);
+        assertTrue(centrality.isWeighted());
+        centrality.computeAll(ClosenessCentrality.Measure.HARMONIC);
+        assertEquals(1.0 / 2.0 + 1.0 / 6.0, centrality.getScore(ns), 1e-9);
+        assertEquals(1.0 / 4.0, centrality.getScore(nu), 1e-9);
+        assertEquals(0.0, centrality.getScore(nx), 1e-9);
+    }
+
+    @Test
+    final void testUniformWeights() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addEdge(new GraphEdge<>(ns, nu, true, 5.0));
+        g.addEdge(new GraphEdge<>(nu, nx, true, 5.0));
+        ClosenessCentrality<String> centrality = new ClosenessCentrality<>(g);
+        // visita in ampiezza, ma le distanze sono in unità di peso
+        assertFalse(centrality.isWeighted());
+        centrality.computeAll(ClosenessCentrality.Measure.HARMONIC);
+        assertEquals(1.0 / 5.0 + 1.0 / 10.0, centrality.getScore(ns), 1e-9);
+        assertEquals(1.0 / 5.0, centrality.getScore(nu), 1e-9);
+        centrality.computeAll(ClosenessCentrality.Measure.CLOSENESS);
+        assertEquals(2.0 / 2.0 * 2.0 / 15.0, centrality.getScore(ns), 1e-9);
+        assertEquals(1.0 / 2.0 * 1.0 / 5.0, centrality.getScore(nu), 1e-9);
+        assertEquals(0.0, centrality.getScore(nx), 1e-9);
+
+        // su un grafo più grande: centralità del grafo con pesi unitari
+        // divise per il peso comune, stessi k nodi più centrali
+        Random random = new Random(59);
+        int n = 300;
+        Graph<Integer> unit = new AdjacencyMatrixDirectedGraph<>();
+        Graph<Integer> scaled = new AdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            unit.addNode(nodes.get(i));
+            scaled.addNode(nodes.get(i));
+        }
+        for (int k = 0; k < 900; k++) {
+            GraphNode<Integer> a = nodes.get(random.nextInt(n));
+            GraphNode<Integer> b = nodes.get(random.nextInt(n));
+            unit.addEdge(new GraphEdge<>(a, b, true, 1.0));
+            scaled.addEdge(new GraphEdge<>(a, b, true, 5.0));
+        }
+        ClosenessCentrality<Integer> expected = new ClosenessCentrality<>(unit);
+        ClosenessCentrality<Integer> actual = new ClosenessCentrality<>(scaled);
+        for (ClosenessCentrality.Measure measure : ClosenessCentrality.Measure.values()) {
+            double[] unitScores = expected.computeAll(measure).clone();
+            double[] scaledScores = actual.computeAll(measure).clone();
+            for (int u = 0; u < n; u++)
+                assertEquals(unitScores[u] / 5.0, scaledScores[u], 1e-12);
+            double[] sorted = scaledScores.clone();
+            Arrays.sort(sorted);
+            List<GraphNode<Integer>> top = actual.computeTopK(measure, 10);
+            assertEquals(10, top.size());
+            for (int i = 0; i < 10; i++) {
+                int u = actual.getSnapshot().indexOf(top.get(i));
+                assertEquals(sorted[n - 1 - i], scaledScores[u], 1e-12);
+                assertEquals(scaledScores[u], actual.getScores()[u], 1e-12);
+            }
+        }
+    }
+
+    @Test
+    final void testTopKSameAsComputeAll() {
+        Random random = new Random(53);
+        int n = 400;
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        for (int k = 0; k < 1200; k++)
+            g.addEdge(new GraphEdge<>(nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n)), true,
+                    1 + random.nextInt(10)));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ClosenessCentrality<Integer> centrality = new ClosenessCentrality<>(g, pool);
+            for (ClosenessCentrality.Measure measure : ClosenessCentrality.Measure.values()) {
+                double[] all = centrality.computeAll(measure).clone();
+                double[] sorted = all.clone();
+                Arrays.sort(sorted);
+                List<GraphNode<Integer>> top = centrality.computeTopK(measure, 10);
+                assertEquals(10, top.size());
+                for (int i = 0; i < 10; i++) {
+                    int u = centrality.getSnapshot().indexOf(top.get(i));
+                    assertEquals(sorted[n - 1 - i], all[u], 1e-12);
+                    assertEquals(all[u], centrality.getScores()[u], 1e-12);
+                }
+                // almeno una visita è stata interrotta
+                assertTrue(Arrays.stream(centrality.getScores()).anyMatch(Double::isNaN));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,398 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Grafo orientato con matrice di adiacenza che può essere letto e modificato
+ * da più thread contemporaneamente senza sincronizzazione esterna. Non sono
+ * accettate etichette dei nodi null e non sono accettate etichette duplicate
+ * nei nodi (che in quel caso sono lo stesso nodo).
+ *
+ * Come in {@code AdjacencyMatrixDirectedGraph<L>}, i nodi sono indicizzati da
+ * 0 a nodeCount() - 1 in ordine di inserimento e la cella i,j della matrice è
+ * null oppure contiene l' arco dal nodo i al nodo j. Le righe sono però
+ * {@code AtomicReferenceArray}: un arco viene inserito o rimosso con una sola
+ * operazione atomica sulla sua cella, quindi thread diversi modificano celle
+ * diverse in parallelo senza lock sulle righe.
+ *
+ * Per non ricopiare la matrice a ogni nuovo nodo, le righe hanno una
+ * capacità che raddoppia quando si riempie. Nodi, righe e numero di nodi sono
+ * raccolti in una tabella immutabile pubblicata con un campo volatile:
+ * l' aggiunta di un nodo pubblica una nuova tabella, che condivide le righe
+ * con la precedente finché non serve ingrandirle. I lettori leggono la
+ * tabella corrente senza prendere lock. Chi modifica gli archi prende il lock
+ * in lettura della struttura, condiviso tra tutti gli scrittori di archi, e
+ * chi aggiunge un nodo prende quello in scrittura, così una riga non viene
+ * modificata mentre è ricopiata in una più grande. Per una vista consistente
+ * di tutto il grafo si usa {@code snapshot()}.
+ *
+ * Questa classe non supporta la cancellazione di nodi.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class ConcurrentAdjacencyMatrixDirectedGraph<L> extends Graph<L> {
+
+    // capacità iniziale delle righe
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile Table<L> table;
+
+    private final ReentrantReadWriteLock structure;
+
+    private final AtomicInteger edgeCount;
+
+    // numero di modifiche riuscite, cambia solo con il lock della struttura
+    // preso
+    private final AtomicLong epoch;
+
+    // ultimo stato congelato da snapshot(), condiviso finché il grafo non
+    // cambia
+    private final AtomicReference<GraphVersion.Frozen<L>> lastVersion;
+
+    /**
+     * Crea un grafo vuoto.
+     */
+    public ConcurrentAdjacencyMatrixDirectedGraph() {
+        this.table = new Table<>(INITIAL_CAPACITY);
+        this.structure = new ReentrantReadWriteLock();
+        this.edgeCount = new AtomicInteger();
+        this.epoch = new AtomicLong();
+        this.lastVersion = new AtomicReference<>();
+    }
+
+    /*
+     * Nodi, indici e righe della matrice; solo i primi count nodi e le prime
+     * count colonne di ogni riga fanno parte del grafo. Nodi e righe oltre
+     * count vengono riempiti prima di pubblicare la tabella che li include.
+     * L' indice dei nodi è condiviso da tutte le tabelle fino a clear(), che
+     * ne crea uno nuovo, così un lettore non confonde gli indici di prima e
+     * dopo uno svuotamento.
+     */
+    private static final class Table<L> {
+
+        private final ConcurrentHashMap<GraphNode<L>, Integer> index;
+
+        private final GraphNode<L>[] nodes;
+
+        private final AtomicReferenceArray<GraphEdge<L>>[] rows;
+
+        private final int count;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Table(int capacity) {
+            this.index = new ConcurrentHashMap<>();
+            this.nodes = new GraphNode[capacity];
+            this.rows = new AtomicReferenceArray[capacity];
+            for (int i = 0; i < capacity; i++)
+                this.rows[i] = new AtomicReferenceArray<>(capacity);
+            this.count = 0;
+        }
+
+        Table(ConcurrentHashMap<GraphNode<L>, Integer> index, GraphNode<L>[] nodes,
+                AtomicReferenceArray<GraphEdge<L>>[] rows, int count) {
+            this.index = index;
+            this.nodes = nodes;
+            this.rows = rows;
+            this.count = count;
+        }
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.table.count;
+    }
+
+    @Override
+    public int edgeCount() {
+        return this.edgeCount.get();
+    }
+
+    @Override
+    public void clear() {
+        this.structure.writeLock().lock();
+        try {
+            this.table = new Table<>(INITIAL_CAPACITY);
+            this.edgeCount.set(0);
+            this.epoch.incrementAndGet();
+        } finally {
+            this.structure.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        Table<L> t = this.table;
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        for (int i = 0; i < t.count; i++)
+            setToReturn.add(t.nodes[i]);
+        return setToReturn;
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public boolean addNode(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Null element");
+        this.structure.writeLock().lock();
+        try {
+            Table<L> t = this.table;
+            if(t.index.containsKey(node)) return false;
+            int n = t.count;
+            GraphNode<L>[] nodes = t.nodes;
+            AtomicReferenceArray<GraphEdge<L>>[] rows = t.rows;
+            if(n == nodes.length) {
+                // raddoppia la capacità ricopiando le celle occupate
+                int capacity = n * 2;
+                nodes = new GraphNode[capacity];
+                System.arraycopy(t.nodes, 0, nodes, 0, n);
+                rows = new AtomicReferenceArray[capacity];
+                for (int i = 0; i < capacity; i++) {
+                    rows[i] = new AtomicReferenceArray<>(capacity);
+                    if(i < n)
+                        for (int j = 0; j < n; j++)
+                            rows[i].set(j, t.rows[i].get(j));
+                }
+            }
+            nodes[n] = node;
+            // la tabella viene pubblicata prima dell' indice, così chi trova
+            // il nodo nell' indice lo trova anche nella tabella
+            this.table = new Table<>(t.index, nodes, rows, n + 1);
+            t.index.put(node, n);
+            this.epoch.incrementAndGet();
+            return true;
+        } finally {
+            this.structure.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean removeNode(GraphNode<L> node) {
+        throw new UnsupportedOperationException("Remove di nodi non supportata");
+    }
+
+    @Override
+    public boolean containsNode(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        return this.table.index.containsKey(node);
+    }
+
+    @Override
+    public GraphNode<L> getNodeOf(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        Table<L> t = this.table;
+        Integer index = t.index.get(new GraphNode<>(label));
+        return index == null || index >= t.count ? null : t.nodes[index];
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        Integer index = this.table.index.get(new GraphNode<>(label));
+        if(index == null)
+            throw new IllegalArgumentException("This label is not contained in this graph");
+        return index;
+    }
+
+    @Override
+    public GraphNode<L> getNodeAtIndex(int i) {
+        Table<L> t = this.table;
+        if(i < 0 || i >= t.count)
+            throw new IndexOutOfBoundsException("Input must be between 0 and nodesIndex.size()-1");
+        return t.nodes[i];
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        for (GraphEdge<L> edge : this.getEdgesOf(node))
+            setToReturn.add(edge.getNode2());
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        for (GraphEdge<L> edge : this.getIngoingEdgesOf(node))
+            setToReturn.add(edge.getNode1());
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        Table<L> t = this.table;
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        for (int i = 0; i < t.count; i++)
+            for (int j = 0; j < t.count; j++) {
+                GraphEdge<L> edge = t.rows[i].get(j);
+                if(edge != null)
+                    setToReturn.add(edge);
+            }
+        return setToReturn;
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        if(!edge.isDirected())
+            throw new IllegalArgumentException("Edge must be directed in order to being add");
+        this.structure.readLock().lock();
+        try {
+            int i = this.indexOf(edge.getNode1());
+            int j = this.indexOf(edge.getNode2());
+            if(!this.table.rows[i].compareAndSet(j, null, edge)) return false;
+            this.edgeCount.incrementAndGet();
+            this.epoch.incrementAndGet();
+            return true;
+        } finally {
+            this.structure.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean removeEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        this.structure.readLock().lock();
+        try {
+            int i = this.indexOf(edge.getNode1());
+            int j = this.indexOf(edge.getNode2());
+            if(this.table.rows[i].getAndSet(j, null) == null) return false;
+            this.edgeCount.decrementAndGet();
+            this.epoch.incrementAndGet();
+            return true;
+        } finally {
+            this.structure.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        GraphEdge<L> found = this.getEdge(edge.getNode1(), edge.getNode2());
+        return found != null && found.equals(edge);
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        Table<L> t = this.table;
+        int i = this.indexOf(node, t);
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        for (int j = 0; j < t.count; j++) {
+            GraphEdge<L> edge = t.rows[i].get(j);
+            if(edge != null)
+                setToReturn.add(edge);
+        }
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        Table<L> t = this.table;
+        int j = this.indexOf(node, t);
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        for (int i = 0; i < t.count; i++) {
+            GraphEdge<L> edge = t.rows[i].get(j);
+            if(edge != null)
+                setToReturn.add(edge);
+        }
+        return setToReturn;
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        if(node1 == null || node2 == null) throw new NullPointerException("nodes can't be null");
+        Table<L> t = this.table;
+        return t.rows[this.indexOf(node1, t)].get(this.indexOf(node2, t));
+    }
+
+    @Override
+    public GraphEdge<L> getEdgeAtNodeIndexes(int i, int j) {
+        Table<L> t = this.table;
+        if(i < 0 || i >= t.count || j < 0 || j >= t.count)
+            throw new IndexOutOfBoundsException("These indexes must be valid");
+        return t.rows[i].get(j);
+    }
+
+    /**
+     * Restituisce una versione immutabile e consistente del grafo, su cui un
+     * thread può eseguire algoritmi lunghi mentre altri thread continuano a
+     * modificare questo grafo. Se il grafo non è cambiato dall' ultimo
+     * stato congelato ancora in uso la versione condivide quello, altrimenti
+     * ne viene congelato uno nuovo prendendo il lock in scrittura della
+     * struttura per il tempo della copia: le modifiche aspettano, le letture
+     * no. I nodi della versione hanno gli stessi indici che hanno in questo
+     * grafo. Ogni chiamata restituisce una versione con nodi e archi propri,
+     * che va chiusa con {@code close()}.
+     *
+     * Nodi e archi della versione sono copie, quindi cambiare il peso di un arco
+     * del grafo non cambia le versioni già prese; d' altra parte un cambio
+     * di peso fatto direttamente sull' arco non è una modifica del grafo e
+     * non invalida l' ultima versione.
+     *
+     * @return una versione del grafo con la sua epoca
+     */
+    public GraphVersion<L> snapshot() {
+        GraphVersion<L> version = GraphVersion.reuse(this.lastVersion, this.epoch.get());
+        if(version != null) return version;
+        this.structure.writeLock().lock();
+        try {
+            long epoch = this.epoch.get();
+            version = GraphVersion.reuse(this.lastVersion, epoch);
+            if(version != null) return version;
+            Table<L> t = this.table;
+            ArrayList<GraphNode<L>> nodes = new ArrayList<>(t.count);
+            for (int i = 0; i < t.count; i++)
+                nodes.add(GraphVersion.freeze(t.nodes[i]));
+            ArrayList<GraphEdge<L>> edges = new ArrayList<>(this.edgeCount.get());
+            for (int i = 0; i < t.count; i++)
+                for (int j = 0; j < t.count; j++) {
+                    GraphEdge<L> edge = t.rows[i].get(j);
+                    if(edge != null)
+                        edges.add(GraphVersion.freeze(edge, nodes.get(i), nodes.get(j)));
+                }
+            version = GraphVersion.create(epoch, true, nodes, edges, this.lastVersion);
+            return version;
+        } finally {
+            this.structure.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Indice di un nodo nella tabella corrente, da chiamare con il lock in
+     * lettura della struttura.
+     */
+    private int indexOf(GraphNode<L> node) {
+        Integer index = this.table.index.get(node);
+        if(index == null)
+            throw new IllegalArgumentException("Both nodes must be contained in this graph");
+        return index;
+    }
+
+    /*
+     * Indice di un nodo in una tabella letta senza lock: un nodo aggiunto
+     * dopo la lettura della tabella non ne fa parte.
+     */
+    private int indexOf(GraphNode<L> node, Table<L> t) {
+        Integer index = t.index.get(node);
+        if(index == null || index >= t.count)
+            throw new IllegalArgumentException("This node doesn't exist in this graph");
+        return index;
+    }
+
+}
@@ -0,0 +1,198 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class ConcurrentAdjacencyMatrixDirectedGraphTest {
+
+    private final GraphNode<String> na = new GraphNode<String>("a");
+    private final GraphNode<String> nb = new GraphNode<String>("b");
+    private final GraphNode<String> nc = new GraphNode<String>("c");
+
+    @Test
+    final void testNodes() {
+        Graph<String> g = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        assertThrows(NullPointerException.class, () -> g.addNode(null));
+        assertTrue(g.addNode(na));
+        assertFalse(g.addNode(new GraphNode<>("a")));
+        assertTrue(g.addNode(nb));
+        assertEquals(2, g.nodeCount());
+        assertEquals(1, g.getNodeIndexOf("b"));
+        assertSame(nb, g.getNodeAtIndex(1));
+        assertSame(na, g.getNodeOf("a"));
+        assertNull(g.getNodeOf("z"));
+        assertThrows(IndexOutOfBoundsException.class, () -> g.getNodeAtIndex(2));
+        assertThrows(IllegalArgumentException.class, () -> g.getNodeIndexOf("z"));
+        assertThrows(UnsupportedOperationException.class, () -> g.removeNode(na));
+        assertEquals(Set.of(na, nb), g.getNodes());
+        // le righe vengono ingrandite senza perdere gli archi
+        g.addEdge(new GraphEdge<>(na, nb, true, 3.0));
+        for (int i = 0; i < 100; i++)
+            g.addNode(new GraphNode<>("n" + i));
+        assertEquals(102, g.nodeCount());
+        assertEquals(3.0, g.getEdgeAtNodeIndexes(0, 1).getWeight());
+        assertSame(g.getNodeOf("n99"), g.getNodeAtIndex(101));
+        g.clear();
+        assertTrue(g.isEmpty());
+        assertEquals(0, g.edgeCount());
+        assertFalse(g.containsNode(na));
+    }
+
+    @Test
+    final void testEdges() {
+        Graph<String> g = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        g.addNode(na);
+        g.addNode(nb);
+        g.addNode(nc);
+        assertThrows(IllegalArgumentException.class, () -> g.addEdge(new GraphEdge<>(na, nb, false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> g.addEdge(new GraphEdge<>(na, new GraphNode<>("z"), true)));
+        GraphEdge<String> ab = new GraphEdge<>(na, nb, true, 2.0);
+        assertTrue(g.addEdge(ab));
+        assertFalse(g.addEdge(new GraphEdge<>(na, nb, true, 5.0)));
+        assertTrue(g.addEdge(new GraphEdge<>(nb, na, true)));
+        assertTrue(g.addEdge(new GraphEdge<>(nc, na, true)));
+        assertEquals(3, g.edgeCount());
+        assertSame(ab, g.getEdge(na, nb));
+        assertSame(ab, g.getEdgeAtNodeIndexes(0, 1));
+        assertNull(g.getEdge(na, nc));
+        assertTrue(g.containsEdge(new GraphEdge<>(nc, na, true)));
+        assertFalse(g.containsEdge(new GraphEdge<>(na, nc, true)));
+        assertEquals(Set.of(nb), g.getAdjacentNodesOf(na));
+        assertEquals(Set.of(nb, nc), g.getPredecessorNodesOf(na));
+        assertEquals(2, g.getIngoingEdgesOf(na).size());
+        assertEquals(3, g.getDegreeOf(na));
+        assertEquals(3, g.getEdges().size());
+
+        assertTrue(g.removeEdge(new GraphEdge<>(na, nb, true)));
+        assertFalse(g.removeEdge(ab));
+        assertEquals(2, g.edgeCount());
+        assertTrue(g.getEdgesOf(na).isEmpty());
+    }
+
+    @Test
+    final void testAlgorithms() {
+        Graph<String> g = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        g.addNode(na);
+        g.addNode(nb);
+        g.addNode(nc);
+        g.addEdge(new GraphEdge<>(na, nb, true, 1.0));
+        g.addEdge(new GraphEdge<>(nb, nc, true, 2.0));
+        g.addEdge(new GraphEdge<>(na, nc, true, 4.0));
+        DijkstraShortestPathComputer<String> dijkstra = new DijkstraShortestPathComputer<>(g);
+        dijkstra.computeShortestPathsFrom(na);
+        assertEquals(2, dijkstra.getShortestPathTo(nc).size());
+    }
+
+    /*
+     * Uno scrittore aggiunge nodi, facendo ingrandire più volte le righe,
+     * mentre altri scrittori inseriscono e rimuovono archi tra i nodi già
+     * presenti e alcuni lettori scorrono la matrice: nessun arco deve andare
+     * perso durante gli ingrandimenti e i lettori devono vedere solo archi
+     * coerenti con la cella in cui si trovano.
+     */
+    @Test
+    final void testConcurrentStress() throws InterruptedException {
+        ConcurrentAdjacencyMatrixDirectedGraph<Integer> g = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        int base = 50;
+        int added = 300;
+        int writers = 3;
+        for (int i = 0; i < base; i++)
+            g.addNode(new GraphNode<>(i));
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            try {
+                start.await();
+                for (int i = base; i < base + added; i++)
+                    g.addNode(new GraphNode<>(i));
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        }));
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    // ogni scrittore usa le righe congrue a writer: celle
+                    // disgiunte, quindi il risultato è deterministico
+                    for (int round = 0; round < 5; round++)
+                        for (int i = writer; i < base; i += writers)
+                            for (int j = 0; j < base; j++) {
+                                GraphEdge<Integer> edge = new GraphEdge<>(g.getNodeAtIndex(i),
+                                        g.getNodeAtIndex(j), true, i * base + j);
+                                g.addEdge(edge);
+                                if((i + j) % 3 == 0)
+                                    g.removeEdge(edge);
+                            }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        ArrayList<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while(!done.get())
+                        for (int i = 0; i < base; i++) {
+                            GraphNode<Integer> node = g.getNodeAtIndex(i);
+                            for (GraphEdge<Integer> edge : g.getEdgesOf(node))
+                                if(!edge.getNode1().equals(node))
+                                    throw new AssertionError("Edge " + edge + " isn't in row " + i);
+                            for (int j = 0; j < g.nodeCount(); j++) {
+                                GraphEdge<Integer> edge = g.getEdgeAtNodeIndexes(i, j);
+                                if(edge != null && edge.getWeight() != i * base + j)
+                                    throw new AssertionError("Edge " + edge + " isn't in cell " + i + "," + j);
+                            }
+                        }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        for (Thread t : threads)
+            t.start();
+        for (Thread t : readers)
+            t.start();
+        start.countDown();
+        for (Thread t : threads)
+            t.join();
+        done.set(true);
+        for (Thread t : readers)
+            t.join();
+        assertTrue(failures.isEmpty(), () -> failures.peek().toString());
+
+        assertEquals(base + added, g.nodeCount());
+        int expected = 0;
+        for (int i = 0; i < base; i++)
+            for (int j = 0; j < base; j++) {
+                GraphEdge<Integer> edge = g.getEdgeAtNodeIndexes(i, j);
+                if((i + j) % 3 == 0)
+                    assertNull(edge);
+                else {
+                    assertEquals(i * base + j, edge.getWeight());
+                    expected++;
+                }
+            }
+        assertEquals(expected, g.edgeCount());
+        assertEquals(expected, g.getEdges().size());
+    }
+
+}
@@ -0,0 +1,443 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Costruzione di un grafo da parte di più thread contemporaneamente. A
+ * differenza di {@code GraphBuilder<L>}, i metodi {@code addNode} e
+ * {@code addEdge} possono essere chiamati da qualunque numero di thread
+ * senza sincronizzazione esterna:
+ * <ul>
+ * <li>gli indici dei nodi sono assegnati da una {@code ConcurrentHashMap}
+ * etichetta -> indice, l' unica struttura condivisa durante l'
+ * inserimento;</li>
+ * <li>ogni thread accumula i propri archi in un buffer di array primitivi
+ * tutto suo, ottenuto con un {@code ThreadLocal}, quindi l' inserimento di un
+ * arco non contende con gli altri thread.</li>
+ * </ul>
+ * Quando tutti i produttori hanno finito, {@code build()} o
+ * {@code buildSnapshot()} fondono i buffer in parallelo su un
+ * {@code ForkJoinPool}: copia dei buffer in array unici, conteggio dei gradi
+ * con contatori atomici, somme prefisse, distribuzione degli archi nelle
+ * righe CSR, ordinamento di ogni riga per nodo di arrivo con eliminazione
+ * delle ripetizioni (resta il peso minimo, come in {@code GraphBuilder<L>}) e
+ * compattazione finale. Il risultato non dipende dall' ordine in cui i thread
+ * hanno inserito gli archi.
+ *
+ * I metodi di costruzione vanno chiamati dopo che tutti i produttori hanno
+ * terminato (per esempio dopo averli attesi con {@code join}), non mentre
+ * stanno ancora inserendo.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class ConcurrentGraphBuilder<L> {
+
+    // numero minimo di elementi elaborati da un singolo task
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    // capacità iniziale del buffer di archi di un thread
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final boolean directed;
+
+    private final ForkJoinPool pool;
+
+    private final ConcurrentHashMap<L, Integer> nodesIndex;
+
+    private final AtomicInteger nodeCount;
+
+    // buffer di tutti i thread che hanno inserito archi
+    private final ConcurrentLinkedQueue<Buffer> buffers;
+
+    private final ThreadLocal<Buffer> local;
+
+    /**
+     * Crea un costruttore concorrente di grafi che usa il pool comune per la
+     * fusione dei buffer.
+     *
+     * @param directed
+     *                     true per costruire un grafo orientato
+     */
+    public ConcurrentGraphBuilder(boolean directed) {
+        this(directed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un costruttore concorrente di grafi che usa il pool passato per la
+     * fusione dei buffer.
+     *
+     * @param directed
+     *                     true per costruire un grafo orientato
+     * @param pool
+     *                     il pool su cui eseguire la fusione
+     * @throws NullPointerException
+     *                                  se il pool passato è nullo
+     */
+    public ConcurrentGraphBuilder(boolean directed, ForkJoinPool pool) {
+        if(pool == null) throw new NullPointerException("Pool can't be null");
+        this.directed = directed;
+        this.pool = pool;
+        this.nodesIndex = new ConcurrentHashMap<>();
+        this.nodeCount = new AtomicInteger();
+        this.buffers = new ConcurrentLinkedQueue<>();
+        this.local = ThreadLocal.withInitial(() -> {
+            Buffer buffer = new Buffer();
+            this.buffers.add(buffer);
+            return buffer;
+        });
+    }
+
+    /**
+     * @return true se il grafo costruito sarà orientato
+     */
+    public boolean isDirected() {
+        return this.directed;
+    }
+
+    /**
+     * @return il numero di nodi inseriti finora
+     */
+    public int nodeCount() {
+        return this.nodeCount.get();
+    }
+
+    /**
+     * Aggiunge un nodo, se non è già presente. Può essere chiamato da più
+     * thread contemporaneamente.
+     *
+     * @param label
+     *                  l' etichetta del nodo
+     * @return l' indice del nodo
+     * @throws NullPointerException
+     *                                  se l' etichetta passata è nulla
+     */
+    public int addNode(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        Integer index = this.nodesIndex.get(label);
+        if(index != null) return index;
+        return this.nodesIndex.computeIfAbsent(label, l -> this.nodeCount.getAndIncrement());
+    }
+
+    /**
+     * Aggiunge un arco pesato al buffer del thread chiamante, inserendo i nodi
+     * se non sono presenti. Può essere chiamato da più thread
+     * contemporaneamente.
+     *
+     * @param label1
+     *                   l' etichetta del primo nodo (sorgente se il grafo è
+     *                   orientato)
+     * @param label2
+     *                   l' etichetta del secondo nodo (destinazione se il
+     *                   grafo è orientato)
+     * @param weight
+     *                   il peso dell' arco, {@code Double.NaN} se l' arco non
+     *                   è pesato
+     * @return questo costruttore
+     * @throws NullPointerException
+     *                                  se una delle etichette passate è nulla
+     */
+    public ConcurrentGraphBuilder<L> addEdge(L label1, L label2, double weight) {
+        int u = this.addNode(label1);
+        int v = this.addNode(label2);
+        this.local.get().add(u, v, weight);
+        return this;
+    }
+
+    /**
+     * Aggiunge un arco non pesato al buffer del thread chiamante, inserendo i
+     * nodi se non sono presenti. Può essere chiamato da più thread
+     * contemporaneamente.
+     *
+     * @param label1
+     *                   l' etichetta del primo nodo (sorgente se il grafo è
+     *                   orientato)
+     * @param label2
+     *                   l' etichetta del secondo nodo (destinazione se il
+     *                   grafo è orientato)
+     * @return questo costruttore
+     * @throws NullPointerException
+     *                                  se una delle etichette passate è nulla
+     */
+    public ConcurrentGraphBuilder<L> addEdge(L label1, L label2) {
+        return this.addEdge(label1, label2, Double.NaN);
+    }
+
+    /**
+     * Costruisce il grafo con i nodi e gli archi inseriti da tutti i thread:
+     * un {@code AdjacencyMatrixDirectedGraph<L>} se orientato, un
+     * {@code MapAdjacentListUndirectedGraph<L>} altrimenti.
+     *
+     * @return il nuovo grafo
+     * @throws IllegalArgumentException
+     *                                      se un arco ha peso infinito
+     */
+    public Graph<L> build() {
+        ArrayList<GraphNode<L>> nodes = this.nodeList();
+        return GraphBuilder.emit(this.directed, nodes, this.merge(nodes.size()));
+    }
+
+    /**
+     * Costruisce direttamente la fotografia CSR del grafo con i nodi e gli
+     * archi inseriti da tutti i thread, senza creare un {@code Graph<L>}. Gli
+     * indici dei nodi sono quelli restituiti da {@code addNode} e gli arc di
+     * ogni nodo sono ordinati per nodo di arrivo.
+     *
+     * @return la fotografia del grafo
+     * @throws IllegalArgumentException
+     *                                      se un arco ha peso infinito
+     */
+    public GraphSnapshot<L> buildSnapshot() {
+        ArrayList<GraphNode<L>> nodes = this.nodeList();
+        int n = nodes.size();
+        GraphBuilder.EdgeList edges = this.merge(n);
+        int chunkSize = this.chunkSize(edges.count);
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        GraphEdge<L>[] edgeObjects = new GraphEdge[edges.count];
+        this.forEach(edges.count, chunkSize, e -> edgeObjects[e] = new GraphEdge<>(nodes.get(edges.from[e]),
+                nodes.get(edges.to[e]), this.directed, edges.weights[e]));
+
+        // un arco non orientato genera un arc per verso, uno solo se è un cappio
+        Rows arcs = this.scatter(n, edges.from, edges.to, edges.count, !this.directed);
+        this.forEach(n, this.chunkSize(n), u -> this.sortRow(arcs, edges.from, edges.to, null, u));
+        int m = arcs.offsets[n];
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] weights = new double[m];
+        ArrayList<GraphEdge<L>> arcEdges = new ArrayList<>(Collections.nCopies(m, (GraphEdge<L>) null));
+        this.forEach(n, this.chunkSize(n), u -> {
+            for (int arc = arcs.offsets[u]; arc < arcs.offsets[u + 1]; arc++) {
+                int e = arcs.edges[arc];
+                from[arc] = u;
+                to[arc] = edges.from[e] == u ? edges.to[e] : edges.from[e];
+                weights[arc] = edges.weights[e];
+                arcEdges.set(arc, edgeObjects[e]);
+            }
+        });
+        return new GraphSnapshot<>(this.directed, nodes, arcs.offsets, from, to, weights, arcEdges);
+    }
+
+    private ArrayList<GraphNode<L>> nodeList() {
+        int n = this.nodeCount.get();
+        ArrayList<GraphNode<L>> nodes = new ArrayList<>(Collections.nCopies(n, (GraphNode<L>) null));
+        for (Map.Entry<L, Integer> entry : this.nodesIndex.entrySet())
+            nodes.set(entry.getValue(), new GraphNode<>(entry.getKey()));
+        return nodes;
+    }
+
+    private int chunkSize(int size) {
+        return Math.max(MIN_CHUNK_SIZE, size / (this.pool.getParallelism() * 4));
+    }
+
+    private void forEach(int size, int chunkSize, IntConsumer action) {
+        if(size > 0)
+            this.pool.invoke(new RangeTask(0, size, chunkSize, action));
+    }
+
+    /*
+     * Fonde i buffer di tutti i thread negli archi ordinati e senza
+     * ripetizioni.
+     */
+    private GraphBuilder.EdgeList merge(int n) {
+        Buffer[] all = this.buffers.toArray(new Buffer[0]);
+        // posizione di ogni buffer negli array unici
+        int[] start = new int[all.length + 1];
+        for (int i = 0; i < all.length; i++) {
+            long end = (long) start[i] + all[i].count;
+            if(end > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many edges");
+            start[i + 1] = (int) end;
+        }
+        int m = start[all.length];
+        int[] a = new int[m];
+        int[] b = new int[m];
+        double[] w = new double[m];
+        // un buffer per task; in un grafo non orientato il nodo di indice
+        // minore viene messo per primo
+        this.forEach(all.length, 1, i -> {
+            Buffer buffer = all[i];
+            for (int k = 0; k < buffer.count; k++) {
+                if(Double.isInfinite(buffer.weights[k]))
+                    throw new IllegalArgumentException("Weights must be finite or NaN");
+                int u = buffer.from[k];
+                int v = buffer.to[k];
+                a[start[i] + k] = this.directed ? u : Math.min(u, v);
+                b[start[i] + k] = this.directed ? v : Math.max(u, v);
+            }
+            System.arraycopy(buffer.weights, 0, w, start[i], buffer.count);
+        });
+
+        Rows rows = this.scatter(n, a, b, m, false);
+        int[] unique = new int[n];
+        this.forEach(n, this.chunkSize(n), u -> unique[u] = this.sortRow(rows, a, b, w, u));
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++)
+            offsets[u + 1] = offsets[u] + unique[u];
+        int count = offsets[n];
+        int[] from = new int[count];
+        int[] to = new int[count];
+        double[] weights = new double[count];
+        this.forEach(n, this.chunkSize(n), u -> {
+            for (int k = 0; k < unique[u]; k++) {
+                int e = rows.edges[rows.offsets[u] + k];
+                from[offsets[u] + k] = u;
+                to[offsets[u] + k] = b[e];
+                weights[offsets[u] + k] = w[e];
+            }
+        });
+        return new GraphBuilder.EdgeList(offsets, from, to, weights, count);
+    }
+
+    /*
+     * Archi raggruppati per nodo: gli archi del nodo u sono gli indici
+     * edges[offsets[u]] ... edges[offsets[u + 1] - 1] degli array di input.
+     */
+    private static final class Rows {
+
+        final int[] offsets;
+
+        final int[] edges;
+
+        Rows(int[] offsets, int[] edges) {
+            this.offsets = offsets;
+            this.edges = edges;
+        }
+    }
+
+    /*
+     * Distribuisce gli archi nelle righe dei nodi di partenza (e, se
+     * reverse, anche in quelle dei nodi di arrivo): conteggio dei gradi con
+     * contatori atomici, somme prefisse e distribuzione con cursori atomici.
+     */
+    private Rows scatter(int n, int[] a, int[] b, int m, boolean reverse) {
+        int chunkSize = this.chunkSize(m);
+        AtomicIntegerArray degree = new AtomicIntegerArray(n);
+        this.forEach(m, chunkSize, e -> {
+            degree.incrementAndGet(a[e]);
+            if(reverse && a[e] != b[e])
+                degree.incrementAndGet(b[e]);
+        });
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++)
+            offsets[u + 1] = offsets[u] + degree.get(u);
+        AtomicIntegerArray next = new AtomicIntegerArray(Arrays.copyOf(offsets, n));
+        int[] edges = new int[offsets[n]];
+        this.forEach(m, chunkSize, e -> {
+            edges[next.getAndIncrement(a[e])] = e;
+            if(reverse && a[e] != b[e])
+                edges[next.getAndIncrement(b[e])] = e;
+        });
+        return new Rows(offsets, edges);
+    }
+
+    /*
+     * Ordina la riga di u per nodo di arrivo e, se weights non è null, ne
+     * elimina le ripetizioni tenendo l' arco di peso minimo. Gli archi
+     * rimasti vengono spostati all' inizio della riga; restituisce il loro
+     * numero.
+     */
+    private int sortRow(Rows rows, int[] a, int[] b, double[] weights, int u) {
+        int start = rows.offsets[u];
+        int length = rows.offsets[u + 1] - start;
+        if(length == 0) return 0;
+        // nodo di arrivo nei 32 bit alti e indice dell' arco in quelli bassi
+        long[] keys = new long[length];
+        for (int k = 0; k < length; k++) {
+            int e = rows.edges[start + k];
+            int target = a[e] == u ? b[e] : a[e];
+            keys[k] = ((long) target << 32) | e;
+        }
+        Arrays.sort(keys);
+        int count = 0;
+        int previous = -1;
+        for (long key : keys) {
+            int target = (int) (key >>> 32);
+            int e = (int) key;
+            if(weights != null && count > 0 && target == previous) {
+                int kept = rows.edges[start + count - 1];
+                if(Double.isNaN(weights[kept]) || weights[e] < weights[kept])
+                    rows.edges[start + count - 1] = e;
+                continue;
+            }
+            rows.edges[start + count++] = e;
+            previous = target;
+        }
+        return count;
+    }
+
+    /*
+     * Archi inseriti da un singolo thread.
+     */
+    private static final class Buffer {
+
+        private int[] from = new int[INITIAL_BUFFER_SIZE];
+
+        private int[] to = new int[INITIAL_BUFFER_SIZE];
+
+        private double[] weights = new double[INITIAL_BUFFER_SIZE];
+
+        private int count;
+
+        void add(int u, int v, double weight) {
+            if(this.count == this.from.length) {
+                if(this.count == Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many edges");
+                int capacity = (int) Math.min(this.count * 2L, Integer.MAX_VALUE - 8);
+                this.from = Arrays.copyOf(this.from, capacity);
+                this.to = Arrays.copyOf(this.to, capacity);
+                this.weights = Arrays.copyOf(this.weights, capacity);
+            }
+            this.from[this.count] = u;
+            this.to[this.count] = v;
+            this.weights[this.count] = weight;
+            this.count++;
+        }
+    }
+
+    /*
+     * Task che applica un' azione a un intervallo di indici, dividendolo a
+     * metà finché è più grande della dimensione di blocco.
+     */
+    private static class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        private final int chunkSize;
+
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, int chunkSize, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from <= this.chunkSize) {
+                for (int i = this.from; i < this.to; i++)
+                    this.action.accept(i);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new RangeTask(this.from, middle, this.chunkSize, this.action),
+                    new RangeTask(middle, this.to, this.chunkSize, this.action));
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class ConcurrentGraphBuilderTest {
+
+    private final GraphNode<String> na = new GraphNode<String>("a");
+    private final GraphNode<String> nb = new GraphNode<String>("b");
+    private final GraphNode<String> nc = new GraphNode<String>("c");
+
+    @Test
+    final void testConcurrentGraphBuilder() {
+        assertThrows(NullPointerException.class, () -> new ConcurrentGraphBuilder<String>(true, null));
+        ConcurrentGraphBuilder<String> builder = new ConcurrentGraphBuilder<>(true);
+        assertTrue(builder.isDirected());
+        assertThrows(NullPointerException.class, () -> builder.addNode(null));
+        assertThrows(NullPointerException.class, () -> builder.addEdge("a", null));
+        assertEquals(0, builder.addNode("a"));
+        assertEquals(1, builder.addNode("b"));
+        assertEquals(0, builder.addNode("a"));
+        assertEquals(2, builder.nodeCount());
+        Graph<String> g = builder.build();
+        assertEquals(2, g.nodeCount());
+        assertEquals(0, g.edgeCount());
+        assertEquals(0, builder.buildSnapshot().arcCount());
+    }
+
+    @Test
+    final void testValidation() {
+        ConcurrentGraphBuilder<String> builder = new ConcurrentGraphBuilder<>(false);
+        builder.addEdge("a", "b", Double.NEGATIVE_INFINITY);
+        assertThrows(IllegalArgumentException.class, () -> builder.build());
+        assertThrows(IllegalArgumentException.class, () -> builder.buildSnapshot());
+    }
+
+    @Test
+    final void testDirectedDeduplication() {
+        ConcurrentGraphBuilder<String> builder = new ConcurrentGraphBuilder<>(true);
+        builder.addEdge("a", "b", 5.0).addEdge("a", "b", 2.0).addEdge("b", "a", 7.0).addEdge("c", "a");
+        builder.addEdge("c", "a", 1.0);
+        Graph<String> g = builder.build();
+        assertTrue(g.isDirected());
+        assertEquals(3, g.edgeCount());
+        assertEquals(2.0, g.getEdge(na, nb).getWeight());
+        assertEquals(7.0, g.getEdge(nb, na).getWeight());
+        assertEquals(1.0, g.getEdge(nc, na).getWeight());
+        assertEquals(new GraphEdge<>(nc, na, true), g.getEdgeAtNodeIndexes(2, 0));
+        assertNull(g.getEdgeAtNodeIndexes(0, 2));
+    }
+
+    @Test
+    final void testUndirectedDeduplication() {
+        ConcurrentGraphBuilder<String> builder = new ConcurrentGraphBuilder<>(false);
+        builder.addEdge("a", "b", 5.0).addEdge("b", "a", 2.0).addEdge("c", "c").addEdge("b", "c");
+        Graph<String> g = builder.build();
+        assertFalse(g.isDirected());
+        assertEquals(3, g.edgeCount());
+        assertEquals(2.0, g.getEdge(na, nb).getWeight());
+        assertEquals(2, g.getEdgesOf(nb).size());
+        assertTrue(g.containsEdge(new GraphEdge<>(nc, nc, false)));
+        GraphSnapshot<String> snapshot = builder.buildSnapshot();
+        // a-b e b-c in entrambi i versi, il cappio una volta sola
+        assertEquals(5, snapshot.arcCount());
+        assertEquals(1, degree(snapshot, snapshot.indexOf(na)));
+        assertEquals(2, degree(snapshot, snapshot.indexOf(nb)));
+        assertEquals(2, degree(snapshot, snapshot.indexOf(nc)));
+    }
+
+    @Test
+    final void testManyProducers() throws InterruptedException {
+        for (boolean directed : new boolean[] { true, false }) {
+            int n = 300;
+            int threads = 8;
+            int perThread = 2000;
+            ConcurrentGraphBuilder<Integer> concurrent = new ConcurrentGraphBuilder<>(directed, new ForkJoinPool(4));
+            GraphBuilder<Integer> sequential = new GraphBuilder<>(directed);
+            // stessi archi, generati con un seme per thread
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(t);
+                for (int k = 0; k < perThread; k++)
+                    sequential.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(100));
+            }
+            ArrayList<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                Thread producer = new Thread(() -> {
+                    Random random = new Random(seed);
+                    for (int k = 0; k < perThread; k++)
+                        concurrent.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(100));
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            for (Thread producer : producers)
+                producer.join();
+
+            Graph<Integer> expected = sequential.build();
+            Graph<Integer> g = concurrent.build();
+            assertEquals(expected.nodeCount(), g.nodeCount());
+            assertEquals(expected.edgeCount(), g.edgeCount());
+            // getEdge del grafo a liste non distingue i cappi, quindi gli archi
+            // vengono confrontati per uguaglianza
+            HashMap<GraphEdge<Integer>, Double> weights = new HashMap<>();
+            for (GraphEdge<Integer> edge : g.getEdges())
+                weights.put(edge, edge.getWeight());
+            for (GraphEdge<Integer> edge : expected.getEdges())
+                assertEquals(edge.getWeight(), weights.get(edge));
+
+            GraphSnapshot<Integer> snapshot = concurrent.buildSnapshot();
+            GraphSnapshot<Integer> reference = new GraphSnapshot<>(expected);
+            assertEquals(reference.arcCount(), snapshot.arcCount());
+            for (int u = 0; u < snapshot.nodeCount(); u++) {
+                GraphNode<Integer> node = snapshot.getNode(u);
+                assertEquals(degree(reference, reference.indexOf(node)), degree(snapshot, u));
+                int[] offsets = snapshot.getOffsets();
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    GraphNode<Integer> target = snapshot.getNode(snapshot.getTo()[arc]);
+                    if(arc > offsets[u])
+                        assertTrue(snapshot.getTo()[arc - 1] < snapshot.getTo()[arc]);
+                    GraphEdge<Integer> edge = new GraphEdge<>(node, target, directed);
+                    assertEquals(edge, snapshot.getEdge(arc));
+                    assertEquals(weights.get(edge), snapshot.getWeights()[arc]);
+                }
+            }
+        }
+    }
+
+    private static int degree(GraphSnapshot<?> snapshot, int u) {
+        return snapshot.getOffsets()[u + 1] - snapshot.getOffsets()[u];
+    }
+
+}
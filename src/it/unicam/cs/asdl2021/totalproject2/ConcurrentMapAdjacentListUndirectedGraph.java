@@ -0,0 +1,373 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Grafo non orientato con liste di adiacenza che può essere letto e
+ * modificato da più thread contemporaneamente senza sincronizzazione
+ * esterna. Non sono accettate etichette dei nodi null e non sono accettate
+ * etichette duplicate nei nodi (che in quel caso sono lo stesso nodo).
+ *
+ * Come in {@code MapAdjacentListUndirectedGraph<L>}, ogni nodo è associato
+ * agli archi collegati, ma sia la mappa dei nodi sia gli insiemi di archi di
+ * ogni nodo sono {@code ConcurrentHashMap}. Gli archi di un nodo sono
+ * indicizzati dall' altro nodo dell' arco, quindi la ricerca di un arco tra
+ * due nodi costa tempo pseudo-costante invece di scorrere gli archi.
+ *
+ * Le letture non prendono lock: {@code ConcurrentHashMap} permette letture
+ * senza blocco, quindi i lettori non si rallentano tra loro e procedono
+ * anche mentre un thread modifica il grafo. Le modifiche che toccano gli
+ * archi di due nodi (aggiunta e rimozione di un arco) prendono i lock delle
+ * strisce dei due nodi, sempre in ordine di striscia per evitare stalli:
+ * modifiche su nodi di strisce diverse procedono in parallelo. La rimozione
+ * di un nodo e {@code clear()} prendono tutti i lock.
+ *
+ * Ogni operazione è atomica, ma i metodi che restituiscono insiemi ne
+ * restituiscono una copia costruita mentre altri thread possono modificare
+ * il grafo: gli archi di un singolo nodo sono sempre consistenti, mentre
+ * {@code getEdges()} può riflettere solo in parte le modifiche concorrenti.
+ * Per una vista consistente di tutto il grafo si usa {@code snapshot()}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class ConcurrentMapAdjacentListUndirectedGraph<L> extends Graph<L> {
+
+    // numero di strisce di lock, una potenza di 2
+    private static final int STRIPES = 64;
+
+    // ogni nodo è associato alle sue adiacenze, chiavi confrontate per
+    // etichetta
+    private final ConcurrentHashMap<GraphNode<L>, Adjacency<L>> adjacentLists;
+
+    private final ReentrantLock[] stripes;
+
+    private final AtomicInteger edgeCount;
+
+    // numero di modifiche riuscite, cambia solo con i lock presi
+    private final AtomicLong epoch;
+
+    // ultimo stato congelato da snapshot(), condiviso finché il grafo non
+    // cambia
+    private final AtomicReference<GraphVersion.Frozen<L>> lastVersion;
+
+    /**
+     * Crea un grafo vuoto.
+     */
+    public ConcurrentMapAdjacentListUndirectedGraph() {
+        this.adjacentLists = new ConcurrentHashMap<>();
+        this.stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++)
+            this.stripes[i] = new ReentrantLock();
+        this.edgeCount = new AtomicInteger();
+        this.epoch = new AtomicLong();
+        this.lastVersion = new AtomicReference<>();
+    }
+
+    /*
+     * Il nodo memorizzato e i suoi archi, indicizzati dall' altro nodo
+     * dell' arco (il nodo stesso per un cappio).
+     */
+    private static final class Adjacency<L> {
+
+        private final GraphNode<L> node;
+
+        private final ConcurrentHashMap<GraphNode<L>, GraphEdge<L>> edges;
+
+        Adjacency(GraphNode<L> node) {
+            this.node = node;
+            this.edges = new ConcurrentHashMap<>();
+        }
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.adjacentLists.size();
+    }
+
+    @Override
+    public int edgeCount() {
+        return this.edgeCount.get();
+    }
+
+    @Override
+    public void clear() {
+        this.lockAll();
+        try {
+            this.adjacentLists.clear();
+            this.edgeCount.set(0);
+            this.epoch.incrementAndGet();
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    @Override
+    public boolean isDirected() {
+        return false;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        return new HashSet<>(this.adjacentLists.keySet());
+    }
+
+    @Override
+    public boolean addNode(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        ReentrantLock lock = this.stripeOf(node);
+        lock.lock();
+        try {
+            if(this.adjacentLists.putIfAbsent(node, new Adjacency<>(node)) != null) return false;
+            this.epoch.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeNode(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        // gli archi del nodo vanno tolti anche dai vicini, che possono essere
+        // in qualunque striscia
+        this.lockAll();
+        try {
+            Adjacency<L> adjacency = this.adjacentLists.remove(node);
+            if(adjacency == null) return false;
+            for (GraphNode<L> other : adjacency.edges.keySet())
+                if(!other.equals(node))
+                    this.adjacentLists.get(other).edges.remove(node);
+            this.edgeCount.addAndGet(-adjacency.edges.size());
+            this.epoch.incrementAndGet();
+            return true;
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    @Override
+    public boolean containsNode(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        return this.adjacentLists.containsKey(node);
+    }
+
+    @Override
+    public GraphNode<L> getNodeOf(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        Adjacency<L> adjacency = this.adjacentLists.get(new GraphNode<>(label));
+        return adjacency == null ? null : adjacency.node;
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        throw new UnsupportedOperationException("Ricerca dei nodi con indice non supportata");
+    }
+
+    @Override
+    public GraphNode<L> getNodeAtIndex(int i) {
+        throw new UnsupportedOperationException("Ricerca dei nodi con indice non supportata");
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        Set<GraphNode<L>> setToReturn = new HashSet<>(this.adjacencyOf(node).edges.keySet());
+        setToReturn.remove(node);
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Ricerca dei nodi predecessori non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        for (Adjacency<L> adjacency : this.adjacentLists.values())
+            setToReturn.addAll(adjacency.edges.values());
+        return setToReturn;
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        if(edge.isDirected()) throw new IllegalArgumentException("Edge must be undirected");
+        GraphNode<L> node1 = edge.getNode1();
+        GraphNode<L> node2 = edge.getNode2();
+        this.lockBoth(node1, node2);
+        try {
+            Adjacency<L> adjacency1 = this.adjacentLists.get(node1);
+            Adjacency<L> adjacency2 = this.adjacentLists.get(node2);
+            if(adjacency1 == null || adjacency2 == null)
+                throw new IllegalArgumentException("Linked nodes to this edge must exist");
+            if(adjacency1.edges.putIfAbsent(node2, edge) != null) return false;
+            adjacency2.edges.put(node1, edge);
+            this.edgeCount.incrementAndGet();
+            this.epoch.incrementAndGet();
+            return true;
+        } finally {
+            this.unlockBoth(node1, node2);
+        }
+    }
+
+    @Override
+    public boolean removeEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        if(edge.isDirected()) throw new UnsupportedOperationException("Edge must be undirected");
+        GraphNode<L> node1 = edge.getNode1();
+        GraphNode<L> node2 = edge.getNode2();
+        this.lockBoth(node1, node2);
+        try {
+            Adjacency<L> adjacency1 = this.adjacentLists.get(node1);
+            Adjacency<L> adjacency2 = this.adjacentLists.get(node2);
+            if(adjacency1 == null || adjacency2 == null)
+                throw new IllegalArgumentException("Linked nodes to this edge must exist");
+            if(adjacency1.edges.remove(node2) == null) return false;
+            adjacency2.edges.remove(node1);
+            this.edgeCount.decrementAndGet();
+            this.epoch.incrementAndGet();
+            return true;
+        } finally {
+            this.unlockBoth(node1, node2);
+        }
+    }
+
+    @Override
+    public boolean containsEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        Adjacency<L> adjacency1 = this.adjacentLists.get(edge.getNode1());
+        if(adjacency1 == null || !this.adjacentLists.containsKey(edge.getNode2()))
+            throw new IllegalArgumentException("Linked nodes to this edge must exist");
+        return !edge.isDirected() && adjacency1.edges.containsKey(edge.getNode2());
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        return new HashSet<>(this.adjacencyOf(node).edges.values());
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        throw new UnsupportedOperationException(
+                "Ricerca degli archi entranti non supportata in un grafo non orientato");
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        if(node1 == null || node2 == null) throw new NullPointerException("Nodes can't be null");
+        Adjacency<L> adjacency1 = this.adjacentLists.get(node1);
+        if(adjacency1 == null || !this.adjacentLists.containsKey(node2))
+            throw new IllegalArgumentException("Both nodes must exist in this adjacency list");
+        return adjacency1.edges.get(node2);
+    }
+
+    @Override
+    public GraphEdge<L> getEdgeAtNodeIndexes(int i, int j) {
+        throw new UnsupportedOperationException(
+                "Operazioni con indici non supportate");
+    }
+
+    /**
+     * Restituisce una versione immutabile e consistente del grafo, su cui un
+     * thread può eseguire algoritmi lunghi mentre altri thread continuano a
+     * modificare questo grafo. Se il grafo non è cambiato dall' ultimo
+     * stato congelato ancora in uso la versione condivide quello, altrimenti
+     * ne viene congelato uno nuovo fermando per il tempo della copia solo le
+     * modifiche, non le letture. Ogni chiamata restituisce una versione con
+     * nodi e archi propri, che va chiusa con {@code close()}.
+     *
+     * Nodi e archi della versione sono copie, quindi cambiare il peso di un arco
+     * del grafo non cambia le versioni già prese; d' altra parte un cambio
+     * di peso fatto direttamente sull' arco non è una modifica del grafo e
+     * non invalida l' ultima versione.
+     *
+     * @return una versione del grafo con la sua epoca
+     */
+    public GraphVersion<L> snapshot() {
+        GraphVersion<L> version = GraphVersion.reuse(this.lastVersion, this.epoch.get());
+        if(version != null) return version;
+        this.lockAll();
+        try {
+            long epoch = this.epoch.get();
+            version = GraphVersion.reuse(this.lastVersion, epoch);
+            if(version != null) return version;
+            ArrayList<GraphNode<L>> nodes = new ArrayList<>(this.adjacentLists.size());
+            HashMap<GraphNode<L>, GraphNode<L>> copies = new HashMap<>(GraphBuilder.capacityFor(this.adjacentLists.size()));
+            for (Adjacency<L> adjacency : this.adjacentLists.values()) {
+                GraphNode<L> copy = GraphVersion.freeze(adjacency.node);
+                nodes.add(copy);
+                copies.put(copy, copy);
+            }
+            ArrayList<GraphEdge<L>> edges = new ArrayList<>(this.edgeCount.get());
+            for (Adjacency<L> adjacency : this.adjacentLists.values())
+                // ogni arco una sola volta, dal nodo 1
+                for (GraphEdge<L> edge : adjacency.edges.values())
+                    if(edge.getNode1().equals(adjacency.node))
+                        edges.add(GraphVersion.freeze(edge, copies.get(edge.getNode1()),
+                                copies.get(edge.getNode2())));
+            version = GraphVersion.create(epoch, false, nodes, edges, this.lastVersion);
+            return version;
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    private Adjacency<L> adjacencyOf(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        Adjacency<L> adjacency = this.adjacentLists.get(node);
+        if(adjacency == null) throw new IllegalArgumentException("Node doesn't exist in this adjacency list");
+        return adjacency;
+    }
+
+    private int stripeIndexOf(GraphNode<L> node) {
+        int h = node.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private ReentrantLock stripeOf(GraphNode<L> node) {
+        return this.stripes[this.stripeIndexOf(node)];
+    }
+
+    /*
+     * Prende i lock delle strisce di due nodi, prima quello di indice minore,
+     * una sola volta se coincidono.
+     */
+    private void lockBoth(GraphNode<L> node1, GraphNode<L> node2) {
+        int s1 = this.stripeIndexOf(node1);
+        int s2 = this.stripeIndexOf(node2);
+        this.stripes[Math.min(s1, s2)].lock();
+        if(s1 != s2)
+            this.stripes[Math.max(s1, s2)].lock();
+    }
+
+    private void unlockBoth(GraphNode<L> node1, GraphNode<L> node2) {
+        int s1 = this.stripeIndexOf(node1);
+        int s2 = this.stripeIndexOf(node2);
+        if(s1 != s2)
+            this.stripes[Math.max(s1, s2)].unlock();
+        this.stripes[Math.min(s1, s2)].unlock();
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : this.stripes)
+            lock.lock();
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--)
+            this.stripes[i].unlock();
+    }
+
+}
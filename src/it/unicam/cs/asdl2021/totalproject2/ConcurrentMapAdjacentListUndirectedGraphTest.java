@@ -0,0 +1,186 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class ConcurrentMapAdjacentListUndirectedGraphTest {
+
+    private final GraphNode<String> na = new GraphNode<String>("a");
+    private final GraphNode<String> nb = new GraphNode<String>("b");
+    private final GraphNode<String> nc = new GraphNode<String>("c");
+
+    @Test
+    final void testNodes() {
+        Graph<String> g = new ConcurrentMapAdjacentListUndirectedGraph<>();
+        assertThrows(NullPointerException.class, () -> g.addNode(null));
+        assertTrue(g.addNode(na));
+        assertFalse(g.addNode(new GraphNode<>("a")));
+        assertTrue(g.addNode(nb));
+        assertEquals(2, g.nodeCount());
+        assertTrue(g.containsNode(new GraphNode<>("b")));
+        assertSame(na, g.getNodeOf("a"));
+        assertNull(g.getNodeOf("z"));
+        assertThrows(UnsupportedOperationException.class, () -> g.getNodeAtIndex(0));
+        assertEquals(Set.of(na, nb), g.getNodes());
+    }
+
+    @Test
+    final void testEdges() {
+        Graph<String> g = new ConcurrentMapAdjacentListUndirectedGraph<>();
+        g.addNode(na);
+        g.addNode(nb);
+        g.addNode(nc);
+        assertThrows(IllegalArgumentException.class, () -> g.addEdge(new GraphEdge<>(na, nb, true)));
+        assertThrows(IllegalArgumentException.class,
+                () -> g.addEdge(new GraphEdge<>(na, new GraphNode<>("z"), false)));
+        GraphEdge<String> ab = new GraphEdge<>(na, nb, false, 2.0);
+        assertTrue(g.addEdge(ab));
+        assertFalse(g.addEdge(new GraphEdge<>(nb, na, false, 5.0)));
+        assertTrue(g.addEdge(new GraphEdge<>(nc, nc, false)));
+        assertTrue(g.addEdge(new GraphEdge<>(nb, nc, false)));
+        assertEquals(3, g.edgeCount());
+        assertSame(ab, g.getEdge(nb, na));
+        assertNull(g.getEdge(na, nc));
+        assertEquals(new GraphEdge<>(nc, nc, false), g.getEdge(nc, nc));
+        assertTrue(g.containsEdge(new GraphEdge<>(nb, na, false)));
+        assertEquals(Set.of(nb), g.getAdjacentNodesOf(na));
+        assertEquals(Set.of(nb), g.getAdjacentNodesOf(nc));
+        assertEquals(2, g.getEdgesOf(nc).size());
+        assertEquals(3, g.getEdges().size());
+        assertThrows(UnsupportedOperationException.class, () -> g.getIngoingEdgesOf(na));
+
+        assertTrue(g.removeEdge(new GraphEdge<>(nb, na, false)));
+        assertFalse(g.removeEdge(ab));
+        assertEquals(2, g.edgeCount());
+        assertTrue(g.getEdgesOf(na).isEmpty());
+        assertTrue(g.removeNode(nc));
+        assertFalse(g.removeNode(nc));
+        assertEquals(0, g.edgeCount());
+        assertTrue(g.getEdgesOf(nb).isEmpty());
+        g.clear();
+        assertTrue(g.isEmpty());
+    }
+
+    @Test
+    final void testAlgorithms() {
+        Graph<String> g = new ConcurrentMapAdjacentListUndirectedGraph<>();
+        g.addNode(na);
+        g.addNode(nb);
+        g.addNode(nc);
+        g.addEdge(new GraphEdge<>(na, nb, false, 1.0));
+        g.addEdge(new GraphEdge<>(nb, nc, false, 2.0));
+        g.addEdge(new GraphEdge<>(na, nc, false, 4.0));
+        Set<GraphEdge<String>> msp = new KruskalMSP<String>().computeMSP(g);
+        assertEquals(Set.of(new GraphEdge<>(na, nb, false), new GraphEdge<>(nb, nc, false)), msp);
+    }
+
+    /*
+     * Più thread aggiungono e rimuovono archi, anche sugli stessi nodi,
+     * mentre altri leggono: nessun lettore deve vedere un arco collegato a un
+     * nodo diverso da quello richiesto e alla fine il grafo deve contenere
+     * gli archi che nessuno rimuove, nessun arco estraneo e ogni arco in
+     * entrambi i suoi nodi.
+     */
+    @Test
+    final void testConcurrentStress() throws InterruptedException {
+        ConcurrentMapAdjacentListUndirectedGraph<Integer> g = new ConcurrentMapAdjacentListUndirectedGraph<>();
+        int n = 200;
+        int writers = 4;
+        int readers = 4;
+        ArrayList<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    // ogni scrittore aggiunge gli archi (i, i + writer + 1) e
+                    // rimuove quelli con i dispari
+                    for (int round = 0; round < 3; round++)
+                        for (int i = 0; i < n; i++) {
+                            GraphEdge<Integer> edge = new GraphEdge<>(nodes.get(i),
+                                    nodes.get((i + writer + 1) % n), false, writer);
+                            g.addEdge(edge);
+                            if(i % 2 == 1)
+                                g.removeEdge(edge);
+                        }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        ArrayList<Thread> readerThreads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            readerThreads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while(!done.get())
+                        for (GraphNode<Integer> node : nodes) {
+                            for (GraphEdge<Integer> edge : g.getEdgesOf(node))
+                                if(!edge.getNode1().equals(node) && !edge.getNode2().equals(node))
+                                    throw new AssertionError("Edge " + edge + " isn't linked to " + node);
+                            for (GraphNode<Integer> other : g.getAdjacentNodesOf(node))
+                                g.getEdge(node, other);
+                        }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        for (Thread t : threads)
+            t.start();
+        for (Thread t : readerThreads)
+            t.start();
+        start.countDown();
+        for (Thread t : threads)
+            t.join();
+        done.set(true);
+        for (Thread t : readerThreads)
+            t.join();
+        assertTrue(failures.isEmpty(), () -> failures.peek().toString());
+
+        Set<GraphEdge<Integer>> expected = new HashSet<>();
+        for (int writer = 0; writer < writers; writer++)
+            for (int i = 0; i < n; i += 2)
+                expected.add(new GraphEdge<>(nodes.get(i), nodes.get((i + writer + 1) % n), false));
+        // gli archi con i pari di uno scrittore possono coincidere con archi
+        // con i dispari di un altro, rimossi o meno a seconda dell' ordine:
+        // si controllano solo gli archi che nessuno rimuove
+        Set<GraphEdge<Integer>> removable = new HashSet<>();
+        for (int writer = 0; writer < writers; writer++)
+            for (int i = 1; i < n; i += 2)
+                removable.add(new GraphEdge<>(nodes.get(i), nodes.get((i + writer + 1) % n), false));
+        Set<GraphEdge<Integer>> edges = g.getEdges();
+        assertEquals(edges.size(), g.edgeCount());
+        for (GraphEdge<Integer> edge : expected)
+            if(!removable.contains(edge))
+                assertTrue(edges.contains(edge));
+        for (GraphEdge<Integer> edge : edges)
+            assertTrue(expected.contains(edge) || removable.contains(edge));
+        int degrees = 0;
+        for (GraphNode<Integer> node : nodes)
+            degrees += g.getEdgesOf(node).size();
+        assertEquals(2 * g.edgeCount(), degrees);
+    }
+
+}
@@ -0,0 +1,371 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Componenti connesse di un grafo non orientato, calcolate una volta sola su
+ * una {@code GraphSnapshot<L>} del grafo e interrogate in tempo costante.
+ *
+ * Le componenti sono identificate da interi densi nell' intervallo
+ * <code>[0, componentCount() - 1]</code>, numerate nell' ordine in cui
+ * compare il loro primo nodo nella fotografia.
+ *
+ * Sono disponibili due algoritmi:
+ * <ul>
+ * <li>il costruttore senza pool usa una struttura union-find su array di
+ * interi, con dimezzamento del cammino e unione per dimensione, esaminando
+ * ogni arco una volta;</li>
+ * <li>il costruttore con un {@code ForkJoinPool} usa l' algoritmo Afforest
+ * (Sutton, Ben-Nun e Barak), variante di Shiloach-Vishkin, su una struttura
+ * union-find concorrente senza lock: i puntatori ai padri sono in un
+ * {@code AtomicIntegerArray} e l' unione aggancia con compare-and-set la
+ * radice di indice maggiore a quella di indice minore. Prima si uniscono in
+ * parallelo solo i primi vicini di ogni nodo, che di solito bastano a
+ * formare la componente più grande; poi, stimata questa componente con un
+ * campionamento, si esaminano i restanti archi dei soli nodi che non vi
+ * appartengono.</li>
+ * </ul>
+ * Utile, ad esempio, per verificare prima di {@code KruskalMSP<L>} o
+ * {@code PrimMSP<L>} se il grafo è connesso.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class ConnectedComponents<L> {
+
+    // vicini di ogni nodo uniti nella prima fase di Afforest
+    private static final int NEIGHBOR_ROUNDS = 2;
+
+    // nodi campionati per stimare la componente più grande
+    private static final int SAMPLES = 1024;
+
+    // numero minimo di nodi elaborati da un singolo task
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private final GraphSnapshot<L> snapshot;
+
+    // componente di ogni nodo, per indice nella fotografia
+    private final int[] component;
+
+    private final int[] sizes;
+
+    /**
+     * Calcola le componenti connesse di un grafo non orientato con una
+     * struttura union-find sequenziale.
+     *
+     * @param graph
+     *                  il grafo da decomporre
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è orientato
+     */
+    public ConnectedComponents(Graph<L> graph) {
+        this(graph, null, true);
+    }
+
+    /**
+     * Calcola le componenti connesse di un grafo non orientato con l'
+     * algoritmo parallelo Afforest.
+     *
+     * @param graph
+     *                  il grafo da decomporre
+     * @param pool
+     *                  il pool su cui eseguire le unioni
+     * @throws NullPointerException
+     *                                      se il grafo o il pool passati sono
+     *                                      nulli
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è orientato
+     */
+    public ConnectedComponents(Graph<L> graph, ForkJoinPool pool) {
+        this(graph, pool, false);
+    }
+
+    private ConnectedComponents(Graph<L> graph, ForkJoinPool pool, boolean sequential) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(!sequential && pool == null) throw new NullPointerException("Pool can't be null");
+        if(graph.isDirected()) throw new IllegalArgumentException("This graph can't be directed");
+
+        this.snapshot = new GraphSnapshot<>(graph);
+        int n = this.snapshot.nodeCount();
+        int[] root = sequential ? this.unionFind() : this.afforest(pool);
+
+        // identificatori densi nell' ordine del primo nodo di ogni componente
+        this.component = new int[n];
+        int[] id = new int[n];
+        Arrays.fill(id, -1);
+        int count = 0;
+        for (int u = 0; u < n; u++) {
+            if(id[root[u]] == -1)
+                id[root[u]] = count++;
+            this.component[u] = id[root[u]];
+        }
+        this.sizes = new int[count];
+        for (int u = 0; u < n; u++)
+            this.sizes[this.component[u]]++;
+    }
+
+    /*
+     * Union-find sequenziale. Restituisce la radice di ogni nodo.
+     */
+    private int[] unionFind() {
+        int n = this.snapshot.nodeCount();
+        int[] from = this.snapshot.getFrom();
+        int[] to = this.snapshot.getTo();
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int u = 0; u < n; u++) {
+            parent[u] = u;
+            size[u] = 1;
+        }
+        for (int arc = 0; arc < to.length; arc++) {
+            // ogni arco compare nei due versi: basta uno
+            if(from[arc] > to[arc]) continue;
+            int i = find(parent, from[arc]);
+            int j = find(parent, to[arc]);
+            if(i == j) continue;
+            // unione per dimensione
+            if(size[i] < size[j]) {
+                int swap = i;
+                i = j;
+                j = swap;
+            }
+            parent[j] = i;
+            size[i] += size[j];
+        }
+        for (int u = 0; u < n; u++)
+            parent[u] = find(parent, u);
+        return parent;
+    }
+
+    // find con dimezzamento del cammino
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /*
+     * Algoritmo Afforest. Restituisce la radice di ogni nodo.
+     */
+    private int[] afforest(ForkJoinPool pool) {
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int u = 0; u < n; u++)
+            parent.set(u, u);
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, n / (pool.getParallelism() * 4));
+
+        // prima fase: solo i primi vicini di ogni nodo
+        for (int r = 0; r < NEIGHBOR_ROUNDS; r++) {
+            int round = r;
+            pool.invoke(new RangeTask(0, n, chunkSize, u -> {
+                if(offsets[u] + round < offsets[u + 1])
+                    link(parent, u, to[offsets[u] + round]);
+            }));
+            pool.invoke(new RangeTask(0, n, chunkSize, u -> compress(parent, u)));
+        }
+
+        // componente più frequente in un campione di nodi
+        int largest = 0;
+        if(n > 0) {
+            SplittableRandom random = new SplittableRandom(n);
+            int[] samples = new int[SAMPLES];
+            for (int k = 0; k < SAMPLES; k++)
+                samples[k] = parent.get(random.nextInt(n));
+            Arrays.sort(samples);
+            int bestCount = 0;
+            for (int k = 0, run = 0; k < SAMPLES; k++) {
+                run = k > 0 && samples[k] == samples[k - 1] ? run + 1 : 1;
+                if(run > bestCount) {
+                    bestCount = run;
+                    largest = samples[k];
+                }
+            }
+        }
+
+        // seconda fase: gli archi restanti dei nodi fuori dalla componente
+        // più grande; quelli dei nodi dentro sono esaminati dall' altro
+        // estremo oppure collegano due nodi già nella stessa componente
+        int skipped = largest;
+        pool.invoke(new RangeTask(0, n, chunkSize, u -> {
+            if(find(parent, u) == skipped) return;
+            for (int arc = offsets[u] + NEIGHBOR_ROUNDS; arc < offsets[u + 1]; arc++)
+                link(parent, u, to[arc]);
+        }));
+        pool.invoke(new RangeTask(0, n, chunkSize, u -> compress(parent, u)));
+
+        int[] root = new int[n];
+        for (int u = 0; u < n; u++)
+            root[u] = parent.get(u);
+        return root;
+    }
+
+    // find concorrente, senza compressione
+    private static int find(AtomicIntegerArray parent, int x) {
+        int p = parent.get(x);
+        while(p != x) {
+            x = p;
+            p = parent.get(x);
+        }
+        return x;
+    }
+
+    /*
+     * Unione senza lock: la radice di indice maggiore viene agganciata con
+     * compare-and-set a quella di indice minore; se nel frattempo ha
+     * cambiato padre non è più una radice e si riprova.
+     */
+    private static void link(AtomicIntegerArray parent, int u, int v) {
+        while(true) {
+            int i = find(parent, u);
+            int j = find(parent, v);
+            if(i == j) return;
+            int high = Math.max(i, j);
+            int low = Math.min(i, j);
+            if(parent.compareAndSet(high, high, low)) return;
+        }
+    }
+
+    /*
+     * Fa puntare un nodo direttamente alla sua radice. Eseguita tra due fasi
+     * di unione, quando le radici non cambiano.
+     */
+    private static void compress(AtomicIntegerArray parent, int u) {
+        parent.set(u, find(parent, u));
+    }
+
+    /*
+     * Task che applica un' azione a un intervallo di nodi, dividendolo a metà
+     * finché è più grande della dimensione di blocco.
+     */
+    private static class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        private final int chunkSize;
+
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, int chunkSize, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from <= this.chunkSize) {
+                for (int u = this.from; u < this.to; u++)
+                    this.action.accept(u);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new RangeTask(this.from, middle, this.chunkSize, this.action),
+                    new RangeTask(middle, this.to, this.chunkSize, this.action));
+        }
+    }
+
+    /**
+     * Restituisce la fotografia del grafo, i cui indici di nodo sono quelli
+     * usati da {@code getComponents()}.
+     *
+     * @return la fotografia del grafo
+     */
+    public GraphSnapshot<L> getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Restituisce il numero di componenti connesse.
+     *
+     * @return il numero di componenti
+     */
+    public int componentCount() {
+        return this.sizes.length;
+    }
+
+    /**
+     * Determina se il grafo è connesso, cioè ha al più una componente.
+     *
+     * @return true se il grafo è connesso, false altrimenti
+     */
+    public boolean isConnected() {
+        return this.sizes.length <= 1;
+    }
+
+    /**
+     * Restituisce la componente di ogni nodo, per indice nella fotografia.
+     * L' array è quello interno e non deve essere modificato.
+     *
+     * @return gli identificatori delle componenti dei nodi
+     */
+    public int[] getComponents() {
+        return this.component;
+    }
+
+    /**
+     * Restituisce il numero di nodi di ogni componente, per identificatore.
+     * L' array è quello interno e non deve essere modificato.
+     *
+     * @return le dimensioni delle componenti
+     */
+    public int[] getComponentSizes() {
+        return this.sizes;
+    }
+
+    /**
+     * Restituisce la componente di un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return l' identificatore della componente del nodo
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public int getComponentOf(GraphNode<L> node) {
+        int u = this.snapshot.indexOf(node);
+        if(u == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        return this.component[u];
+    }
+
+    /**
+     * Determina se due nodi appartengono alla stessa componente connessa, cioè
+     * se esiste un cammino tra loro.
+     *
+     * @param node1
+     *                  il primo nodo
+     * @param node2
+     *                  il secondo nodo
+     * @return true se i due nodi sono nella stessa componente, false
+     *         altrimenti
+     * @throws NullPointerException
+     *                                      se uno dei nodi passati è nullo
+     * @throws IllegalArgumentException
+     *                                      se uno dei nodi passati non esiste
+     *                                      nel grafo
+     */
+    public boolean sameComponent(GraphNode<L> node1, GraphNode<L> node2) {
+        return this.getComponentOf(node1) == this.getComponentOf(node2);
+    }
+
+}
@@ -0,0 +1,115 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class ConnectedComponentsTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        // s - u - x, y - y, v isolato
+        Graph<String> g = new MapAdjacentListUndirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, false));
+        g.addEdge(new GraphEdge<String>(nu, nx, false));
+        g.addEdge(new GraphEdge<String>(ny, ny, false));
+        return g;
+    }
+
+    @Test
+    final void testConnectedComponents() {
+        assertThrows(NullPointerException.class, () -> new ConnectedComponents<String>(null));
+        assertThrows(NullPointerException.class, () -> new ConnectedComponents<String>(repeatedCode(), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectedComponents<String>(new AdjacencyMatrixDirectedGraph<>()));
+        ConnectedComponents<String> components = new ConnectedComponents<>(repeatedCode());
+        assertEquals(3, components.componentCount());
+        assertFalse(components.isConnected());
+        assertThrows(NullPointerException.class, () -> components.getComponentOf(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> components.sameComponent(ns, new GraphNode<>("notExistingNode")));
+        assertTrue(new ConnectedComponents<>(new MapAdjacentListUndirectedGraph<String>()).isConnected());
+    }
+
+    @Test
+    final void testSameComponent() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<ConnectedComponents<String>> all = new ArrayList<>();
+            all.add(new ConnectedComponents<>(repeatedCode()));
+            all.add(new ConnectedComponents<>(repeatedCode(), pool));
+            for (ConnectedComponents<String> components : all) {
+                assertTrue(components.sameComponent(ns, nx));
+                assertTrue(components.sameComponent(ny, ny));
+                assertFalse(components.sameComponent(ns, ny));
+                assertFalse(components.sameComponent(nv, nx));
+                assertEquals(3, components.getComponentSizes()[components.getComponentOf(nu)]);
+                assertEquals(1, components.getComponentSizes()[components.getComponentOf(nv)]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    final void testParallelSameResultAsUnionFind() {
+        Random random = new Random(41);
+        int n = 3000;
+        MapAdjacentListUndirectedGraph<Integer> g = new MapAdjacentListUndirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        // archi inseriti direttamente nelle liste: addEdge costa O(n)
+        for (int k = 0; k < 2800; k++) {
+            GraphNode<Integer> a = nodes.get(random.nextInt(n));
+            GraphNode<Integer> b = nodes.get(random.nextInt(n));
+            GraphEdge<Integer> edge = new GraphEdge<>(a, b, false);
+            g.adjacentLists.get(a).add(edge);
+            g.adjacentLists.get(b).add(edge);
+        }
+        ConnectedComponents<Integer> sequential = new ConnectedComponents<>(g);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ConnectedComponents<Integer> parallel = new ConnectedComponents<>(g, pool);
+            assertTrue(sequential.componentCount() > 1);
+            assertEquals(sequential.componentCount(), parallel.componentCount());
+            // identificatori assegnati nello stesso ordine
+            assertArrayEquals(sequential.getComponents(), parallel.getComponents());
+            assertArrayEquals(sequential.getComponentSizes(), parallel.getComponentSizes());
+            // ogni arco collega nodi della stessa componente
+            GraphSnapshot<Integer> snapshot = sequential.getSnapshot();
+            int[] component = sequential.getComponents();
+            for (int arc = 0; arc < snapshot.arcCount(); arc++)
+                assertEquals(component[snapshot.getFrom()[arc]], component[snapshot.getTo()[arc]]);
+            int total = 0;
+            for (int size : sequential.getComponentSizes())
+                total += size;
+            assertEquals(n, total);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+/**
+ * Programma per {@code VertexCentricEngine<L>} che calcola le componenti
+ * connesse di un grafo non orientato propagando etichette: ogni nodo parte
+ * con il proprio indice e adotta il minimo tra le etichette ricevute, che
+ * propaga ai vicini quando cambia. I messaggi sono ridotti con il minimo.
+ *
+ * Al termine il valore di ogni nodo è il minimo indice dei nodi della sua
+ * componente, quindi due nodi sono nella stessa componente se e solo se
+ * hanno lo stesso valore. Su un grafo orientato le etichette si propagano
+ * solo lungo gli archi e il risultato non sono le componenti connesse.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class ConnectedComponentsVertexProgram<L> implements VertexProgram<L> {
+
+    @Override
+    public double initialValue(VertexContext<L> vertex) {
+        return vertex.index();
+    }
+
+    @Override
+    public void compute(VertexContext<L> vertex) {
+        if(vertex.superstep() == 0)
+            vertex.sendMessageToNeighbors(vertex.getValue());
+        else if(vertex.hasMessage() && vertex.getMessage() < vertex.getValue()) {
+            vertex.setValue(vertex.getMessage());
+            vertex.sendMessageToNeighbors(vertex.getValue());
+        }
+        vertex.voteToHalt();
+    }
+
+    @Override
+    public double combine(double message1, double message2) {
+        return Math.min(message1, message2);
+    }
+
+}
@@ -0,0 +1,194 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.List;
+
+/**
+ * Calcolatore di cammini minimi a sorgente singola per grafi orientati
+ * aciclici (DAG), anche con pesi negativi, in tempo {@code O(n + m)}: gli
+ * archi vengono rilassati una sola volta, seguendo un ordinamento topologico
+ * dei nodi, perché quando si considerano gli archi uscenti da un nodo tutti i
+ * suoi predecessori sono già stati considerati e la sua distanza è definitiva.
+ *
+ * L' ordinamento topologico è calcolato alla costruzione, con
+ * {@code GraphSnapshot.topologicalOrder()}, e la costruzione fallisce subito
+ * se il grafo contiene un ciclo. Come {@code BellmanFordShortestPathComputer<L>},
+ * che può sostituire sui grafi aciclici, al termine del calcolo imposta su ogni
+ * nodo del grafo la distanza dalla sorgente ({@code floatingPointDistance},
+ * infinita per i nodi non raggiungibili) e il predecessore nel cammino minimo.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class DagShortestPathComputer<L> implements SingleSourceShortestPathComputer<L> {
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    // indici dei nodi in ordine topologico e posizione di ogni nodo nell' ordine
+    private final int[] order;
+
+    private final int[] position;
+
+    private GraphNode<L> lastSourceNode;
+
+    private int lastSourceIndex;
+
+    private boolean isComputed = false;
+
+    private final double[] distance;
+
+    private final int[] previousArc;
+
+    /**
+     * Crea un calcolatore di cammini minimi a sorgente singola per un grafo
+     * orientato, aciclico e pesato.
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore di cammini minimi
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è orientato
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è pesato,
+     *                                      cioè esiste almeno un arco il cui
+     *                                      peso è {@code Double.NaN}
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato contiene un
+     *                                      ciclo
+     */
+    public DagShortestPathComputer(Graph<L> graph) {
+        this(graph, snapshotOf(graph));
+    }
+
+    /*
+     * Costruttore che riusa una fotografia già presa del grafo, ad esempio da
+     * ShortestPathFacade.
+     */
+    DagShortestPathComputer(Graph<L> graph, GraphSnapshot<L> snapshot) {
+        this.graph = graph;
+        this.snapshot = snapshot;
+        this.order = snapshot.topologicalOrder();
+        if(this.order == null) throw new IllegalArgumentException("Graph must be acyclic");
+        int n = snapshot.nodeCount();
+        this.position = new int[n];
+        this.distance = new double[n];
+        this.previousArc = new int[n];
+        for (int i = 0; i < n; i++)
+            this.position[this.order[i]] = i;
+    }
+
+    private static <L> GraphSnapshot<L> snapshotOf(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(graph.isEmpty()) throw new IllegalArgumentException("Graph can't be empty");
+        if(!graph.isDirected()) throw new IllegalArgumentException("Graph must be directed");
+
+        GraphSnapshot<L> snapshot = new GraphSnapshot<>(graph);
+        for (double weight : snapshot.getWeights())
+            if(Double.isNaN(weight))
+                throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
+        return snapshot;
+    }
+
+    @Override
+    public void computeShortestPathsFrom(GraphNode<L> sourceNode) {
+        if(sourceNode == null) throw new NullPointerException("Source node can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        if(source == -1) throw new IllegalArgumentException("This node isn't contained in this graph");
+
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        double[] weights = this.snapshot.getWeights();
+        for (int u = 0; u < n; u++) {
+            this.distance[u] = Double.POSITIVE_INFINITY;
+            this.previousArc[u] = -1;
+        }
+        this.distance[source] = 0.0;
+        // i nodi che precedono la sorgente nell' ordine non sono raggiungibili
+        for (int i = this.position[source]; i < n; i++) {
+            int u = this.order[i];
+            double du = this.distance[u];
+            if(du == Double.POSITIVE_INFINITY) continue;
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = to[arc];
+                if(du + weights[arc] < this.distance[v]) {
+                    this.distance[v] = du + weights[arc];
+                    this.previousArc[v] = arc;
+                }
+            }
+        }
+
+        // risultati sui nodi del grafo, come in BellmanFordShortestPathComputer
+        int[] from = this.snapshot.getFrom();
+        for (int u = 0; u < n; u++) {
+            GraphNode<L> node = this.snapshot.getNode(u);
+            node.setFloatingPointDistance(this.distance[u]);
+            node.setPrevious(this.previousArc[u] == -1 ? null : this.snapshot.getNode(from[this.previousArc[u]]));
+        }
+        this.lastSourceNode = this.snapshot.getNode(source);
+        this.lastSourceIndex = source;
+        this.isComputed = true;
+    }
+
+    @Override
+    public boolean isComputed() {
+        return this.isComputed;
+    }
+
+    @Override
+    public GraphNode<L> getLastSource() {
+        if (!this.isComputed)
+            throw new IllegalStateException("This graph isn't yet computed");
+        return this.lastSourceNode;
+    }
+
+    @Override
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    @Override
+    public List<GraphEdge<L>> getShortestPathTo(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.snapshot.buildPath(this.previousArc, this.lastSourceIndex, target);
+    }
+
+    /**
+     * Restituisce il costo di un cammino minimo dall' ultima sorgente al nodo
+     * passato.
+     *
+     * @param targetNode
+     *                       il nodo di arrivo del cammino minimo
+     * @return il costo del cammino minimo, {@code Double.POSITIVE_INFINITY} se
+     *         il nodo non è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito nemmeno una
+     *                                      volta il calcolo dei cammini minimi
+     */
+    public double getShortestPathCost(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.distance[target];
+    }
+
+}
@@ -0,0 +1,111 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class DagShortestPathComputerTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 10.1));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, -2.05));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, 2.0));
+        g.addEdge(new GraphEdge<String>(nu, nv, true, 1.0));
+        g.addEdge(new GraphEdge<String>(ny, nv, true, 6.0));
+        return g;
+    }
+
+    @Test
+    final void testDagShortestPathComputer() {
+        assertThrows(NullPointerException.class, () -> new DagShortestPathComputer<String>(null));
+        Graph<String> emptyGraph = new AdjacencyMatrixDirectedGraph<>();
+        assertThrows(IllegalArgumentException.class, () -> new DagShortestPathComputer<String>(emptyGraph));
+        Graph<String> notDirectedGraph = new MapAdjacentListUndirectedGraph<>();
+        notDirectedGraph.addNode(ns);
+        assertThrows(IllegalArgumentException.class, () -> new DagShortestPathComputer<String>(notDirectedGraph));
+        Graph<String> notWeightedGraph = repeatedCode();
+        notWeightedGraph.addEdge(new GraphEdge<>(ns, nv, true));
+        assertThrows(IllegalArgumentException.class, () -> new DagShortestPathComputer<String>(notWeightedGraph));
+        Graph<String> cyclicGraph = repeatedCode();
+        cyclicGraph.addEdge(new GraphEdge<>(nv, ns, true, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new DagShortestPathComputer<String>(cyclicGraph));
+    }
+
+    @Test
+    final void testGetShortestPathTo() {
+        Graph<String> g = repeatedCode();
+        DagShortestPathComputer<String> c = new DagShortestPathComputer<>(g);
+        assertThrows(IllegalStateException.class, () -> c.getShortestPathTo(nu));
+        assertThrows(NullPointerException.class, () -> c.computeShortestPathsFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> c.computeShortestPathsFrom(new GraphNode<>("notExistingNode")));
+        c.computeShortestPathsFrom(ns);
+        assertTrue(c.isComputed());
+        assertEquals(ns, c.getLastSource());
+        List<GraphEdge<String>> pathTest = new ArrayList<GraphEdge<String>>();
+        assertEquals(pathTest, c.getShortestPathTo(ns));
+        pathTest.add(new GraphEdge<String>(ns, nx, true, 5.12));
+        pathTest.add(new GraphEdge<String>(nx, nu, true, -2.05));
+        assertEquals(pathTest, c.getShortestPathTo(nu));
+        pathTest.add(new GraphEdge<String>(nu, nv, true, 1.0));
+        assertEquals(pathTest, c.getShortestPathTo(nv));
+        assertEquals(5.12 - 2.05 + 1.0, c.getShortestPathCost(nv), 1e-9);
+        assertEquals(5.12 - 2.05 + 1.0, g.getNodeOf("v").getFloatingPointDistance(), 1e-9);
+        assertEquals(nu, g.getNodeOf("v").getPrevious());
+        c.computeShortestPathsFrom(nx);
+        assertNull(c.getShortestPathTo(ns));
+        assertEquals(Double.POSITIVE_INFINITY, c.getShortestPathCost(ns));
+        assertNull(g.getNodeOf("s").getPrevious());
+    }
+
+    @Test
+    final void testSameResultAsBellmanFord() {
+        // DAG casuale: archi solo da indici minori a maggiori, pesi anche negativi
+        Random random = new Random(37);
+        int n = 120;
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        for (int i = 0; i < n; i++)
+            g.addNode(new GraphNode<>(i));
+        for (int u = 0; u < n - 1; u++)
+            for (int k = 0; k < 4; k++)
+                g.addEdge(new GraphEdge<>(g.getNodeOf(u), g.getNodeOf(u + 1 + random.nextInt(n - u - 1)), true,
+                        random.nextInt(41) - 20));
+        DagShortestPathComputer<Integer> dag = new DagShortestPathComputer<>(g);
+        SpfaShortestPathComputer<Integer> spfa = new SpfaShortestPathComputer<>(g);
+        for (int s = 0; s < n; s += 17) {
+            dag.computeShortestPathsFrom(g.getNodeOf(s));
+            spfa.computeShortestPathsFrom(g.getNodeOf(s));
+            for (int t = 0; t < n; t++) {
+                double expected = spfa.getShortestPathCost(g.getNodeOf(t));
+                assertEquals(expected, dag.getShortestPathCost(g.getNodeOf(t)));
+                if(expected == Double.POSITIVE_INFINITY) continue;
+                double cost = 0.0;
+                for (GraphEdge<Integer> edge : dag.getShortestPathTo(g.getNodeOf(t)))
+                    cost += edge.getWeight();
+                assertEquals(expected, cost);
+            }
+        }
+    }
+
+}
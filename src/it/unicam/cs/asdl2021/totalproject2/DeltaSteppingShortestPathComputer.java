@@ -0,0 +1,438 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implementazione parallela dell' algoritmo delta-stepping (Meyer e Sanders)
+ * per il calcolo di cammini minimi a sorgente singola in un grafo orientato e
+ * pesato privo di pesi negativi. Calcola le stesse distanze di
+ * {@code DijkstraShortestPathComputer<L>}.
+ *
+ * I nodi con distanza provvisoria sono raggruppati in bucket di ampiezza
+ * {@code delta}: il bucket {@code i} contiene i nodi con distanza in
+ * <code>[i * delta, (i + 1) * delta)</code>. I bucket vengono svuotati in
+ * ordine; gli archi "leggeri" (peso al più {@code delta}) uscenti dai nodi del
+ * bucket corrente vengono rilassati in parallelo, ripetendo finché il bucket
+ * non si svuota, perché possono reinserire nodi nello stesso bucket. Gli archi
+ * "pesanti" non possono farlo e vengono rilassati una sola volta, in
+ * parallelo, quando il bucket è definitivamente vuoto. Poiché ogni distanza
+ * provvisoria supera quella del bucket corrente di al più il peso massimo,
+ * bastano {@code maxPeso / delta + 2} bucket usati in modo circolare.
+ *
+ * Se non viene indicato, {@code delta} è calcolato dalla distribuzione dei
+ * pesi come peso massimo diviso il grado uscente medio, che per pesi
+ * distribuiti uniformemente dà il valore suggerito dagli autori
+ * dell' algoritmo.
+ *
+ * Come in {@code ParallelBellmanFordShortestPathComputer<L>} le distanze sono
+ * aggiornate con un minimo atomico tramite {@code VarHandle} e i predecessori
+ * sono ricostruiti alla fine lungo gli archi stretti.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                il tipo delle etichette dei nodi del grafo
+ */
+public class DeltaSteppingShortestPathComputer<L> implements SingleSourceShortestPathComputer<L> {
+
+    // accesso atomico agli elementi di un array double[]
+    private static final VarHandle DISTANCE = MethodHandles.arrayElementVarHandle(double[].class);
+
+    // numero di nodi della frontiera sotto il quale non conviene usare il pool
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    // massimo numero di bucket circolari, cioè di peso massimo / delta
+    private static final int MAX_BUCKETS = 1 << 24;
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final ForkJoinPool pool;
+
+    private final double delta;
+
+    /*
+     * Per ogni nodo u le posizioni dei suoi arc nella fotografia, tra
+     * offsets[u] e offsets[u + 1], riordinate con gli arc leggeri prima di
+     * quelli pesanti; lightEnd[u] è la fine degli arc leggeri.
+     */
+    private final int[] arcOrder;
+
+    private final int[] lightEnd;
+
+    private final int bucketCount;
+
+    private GraphNode<L> lastSourceNode;
+
+    private int lastSourceIndex;
+
+    private boolean isComputed = false;
+
+    private final double[] distance;
+
+    private final int[] previousArc;
+
+    /**
+     * Crea un calcolatore di cammini minimi con delta-stepping che usa il pool
+     * comune e un valore di delta calcolato dai pesi del grafo.
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore di cammini minimi
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è orientato
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è pesato,
+     *                                      cioè esiste almeno un arco il cui
+     *                                      peso è {@code Double.NaN}
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato contiene almeno
+     *                                      un peso negativo
+     */
+    public DeltaSteppingShortestPathComputer(Graph<L> graph) {
+        this(graph, ForkJoinPool.commonPool(), Double.NaN);
+    }
+
+    /**
+     * Crea un calcolatore di cammini minimi con delta-stepping con un pool e
+     * un valore di delta dati.
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore di cammini minimi
+     * @param pool
+     *                  il pool su cui eseguire i rilassamenti
+     * @param delta
+     *                  l' ampiezza dei bucket; se è {@code Double.NaN} viene
+     *                  calcolata dalla distribuzione dei pesi
+     * @throws NullPointerException
+     *                                      se il grafo o il pool passati sono
+     *                                      nulli
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è orientato
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è pesato,
+     *                                      cioè esiste almeno un arco il cui
+     *                                      peso è {@code Double.NaN}
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato contiene almeno
+     *                                      un peso negativo
+     * @throws IllegalArgumentException
+     *                                      se delta non è positivo e finito o
+     *                                      è così piccolo rispetto ai pesi da
+     *                                      richiedere più di 2^24 bucket
+     */
+    public DeltaSteppingShortestPathComputer(Graph<L> graph, ForkJoinPool pool, double delta) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(pool == null) throw new NullPointerException("Pool can't be null");
+        if(graph.isEmpty()) throw new IllegalArgumentException("Graph can't be empty");
+        if(!graph.isDirected()) throw new IllegalArgumentException("Graph can't be undirected");
+        if(!Double.isNaN(delta) && !(delta > 0 && delta < Double.POSITIVE_INFINITY))
+            throw new IllegalArgumentException("Delta must be positive and finite");
+
+        this.graph = graph;
+        this.pool = pool;
+        this.snapshot = new GraphSnapshot<>(graph);
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        double[] weights = this.snapshot.getWeights();
+        double maxWeight = 0.0;
+        for (double weight : weights) {
+            if(Double.isNaN(weight))
+                throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
+            if(weight < 0.0)
+                throw new IllegalArgumentException("This graph contains almost one negative weighted edge");
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        if(Double.isNaN(delta)) {
+            // peso massimo diviso il grado medio, 1 se tutti i pesi sono nulli
+            double averageDegree = Math.max(1.0, (double) weights.length / n);
+            delta = maxWeight > 0 ? maxWeight / averageDegree : 1.0;
+        }
+        if(maxWeight / delta > MAX_BUCKETS)
+            throw new IllegalArgumentException("Delta is too small for the weights of this graph");
+        this.delta = delta;
+        this.bucketCount = (int) Math.ceil(maxWeight / delta) + 2;
+
+        // arc leggeri prima di quelli pesanti, nodo per nodo
+        this.arcOrder = new int[weights.length];
+        this.lightEnd = new int[n];
+        for (int u = 0; u < n; u++) {
+            int light = offsets[u];
+            int heavy = offsets[u + 1];
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                if(weights[arc] <= delta)
+                    this.arcOrder[light++] = arc;
+                else
+                    this.arcOrder[--heavy] = arc;
+            }
+            this.lightEnd[u] = light;
+        }
+        this.distance = new double[n];
+        this.previousArc = new int[n];
+    }
+
+    /**
+     * Restituisce l' ampiezza dei bucket usata da questo calcolatore.
+     *
+     * @return il valore di delta
+     */
+    public double getDelta() {
+        return this.delta;
+    }
+
+    @Override
+    public void computeShortestPathsFrom(GraphNode<L> sourceNode) {
+        if(sourceNode == null) throw new NullPointerException("sourceNode can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        if(source == -1) throw new IllegalArgumentException("sourceNode must be contained in this graph");
+
+        int n = this.snapshot.nodeCount();
+        Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+        this.distance[source] = 0.0;
+
+        // bucket circolari; un nodo può comparire più volte con distanze
+        // superate, le copie non più valide vengono scartate all' estrazione
+        IntBuffer[] buckets = new IntBuffer[this.bucketCount];
+        for (int i = 0; i < this.bucketCount; i++)
+            buckets[i] = new IntBuffer();
+        long[] insertedInBucket = new long[n];
+        Arrays.fill(insertedInBucket, -1);
+        buckets[0].add(source);
+        insertedInBucket[source] = 0;
+        long pending = 1;
+
+        long[] frontierMark = new long[n];
+        long[] settledMark = new long[n];
+        Arrays.fill(frontierMark, -1);
+        Arrays.fill(settledMark, -1);
+        long round = 0;
+        long phase = 0;
+        for (long current = 0; pending > 0; current++) {
+            IntBuffer bucket = buckets[(int) (current % this.bucketCount)];
+            // il ciclo esterno serve solo se un arco pesante, per
+            // arrotondamento, riporta un nodo nel bucket corrente
+            while(bucket.size > 0) {
+                IntBuffer settled = new IntBuffer();
+                // fase leggera: si ripete finché il bucket corrente non resta vuoto
+                while(bucket.size > 0) {
+                    IntBuffer frontier = new IntBuffer();
+                    pending -= bucket.size;
+                    for (int k = 0; k < bucket.size; k++) {
+                        int v = bucket.values[k];
+                        if(this.bucketOf(this.distance[v]) == current && frontierMark[v] != round) {
+                            frontierMark[v] = round;
+                            frontier.add(v);
+                            if(settledMark[v] != phase) {
+                                settledMark[v] = phase;
+                                settled.add(v);
+                            }
+                        }
+                        if(insertedInBucket[v] == current)
+                            insertedInBucket[v] = -1;
+                    }
+                    bucket.size = 0;
+                    round++;
+                    pending += this.relax(frontier, true, buckets, insertedInBucket);
+                }
+                phase++;
+                // fase pesante: una sola volta per i nodi definitivi del bucket
+                pending += this.relax(settled, false, buckets, insertedInBucket);
+            }
+        }
+
+        this.snapshot.buildShortestPathTree(this.distance, source, this.previousArc);
+        this.lastSourceNode = this.snapshot.getNode(source);
+        this.lastSourceIndex = source;
+        this.isComputed = true;
+    }
+
+    private long bucketOf(double dist) {
+        return (long) Math.floor(dist / this.delta);
+    }
+
+    /*
+     * Rilassa gli arc leggeri o pesanti uscenti dai nodi passati, in parallelo
+     * se sono abbastanza, e inserisce nei bucket i nodi la cui distanza è
+     * diminuita. Restituisce il numero di nodi inseriti.
+     */
+    private long relax(IntBuffer nodes, boolean light, IntBuffer[] buckets, long[] insertedInBucket) {
+        if(nodes.size == 0) return 0;
+
+        ConcurrentLinkedQueue<IntBuffer> results = new ConcurrentLinkedQueue<>();
+        RelaxTask task = new RelaxTask(nodes.values, 0, nodes.size, light, results);
+        if(nodes.size <= SEQUENTIAL_THRESHOLD)
+            task.compute();
+        else
+            this.pool.invoke(task);
+
+        long inserted = 0;
+        for (IntBuffer improved : results)
+            for (int k = 0; k < improved.size; k++) {
+                int v = improved.values[k];
+                long bucket = this.bucketOf(this.distance[v]);
+                if(insertedInBucket[v] != bucket) {
+                    insertedInBucket[v] = bucket;
+                    buckets[(int) (bucket % this.bucketCount)].add(v);
+                    inserted++;
+                }
+            }
+        return inserted;
+    }
+
+    /*
+     * Rilassa gli arc leggeri o pesanti dei nodi in [from, to) e aggiunge a
+     * improved i nodi la cui distanza è diminuita.
+     */
+    private void relaxRange(int[] nodes, int from, int to, boolean light, IntBuffer improved) {
+        int[] offsets = this.snapshot.getOffsets();
+        int[] arcTo = this.snapshot.getTo();
+        double[] weights = this.snapshot.getWeights();
+        for (int k = from; k < to; k++) {
+            int u = nodes[k];
+            double du = (double) DISTANCE.getOpaque(this.distance, u);
+            int start = light ? offsets[u] : this.lightEnd[u];
+            int end = light ? this.lightEnd[u] : offsets[u + 1];
+            for (int i = start; i < end; i++) {
+                int arc = this.arcOrder[i];
+                int v = arcTo[arc];
+                double dist = du + weights[arc];
+                // minimo atomico sulla distanza di v
+                double current = (double) DISTANCE.getOpaque(this.distance, v);
+                while(dist < current) {
+                    if(DISTANCE.compareAndSet(this.distance, v, current, dist)) {
+                        improved.add(v);
+                        break;
+                    }
+                    current = (double) DISTANCE.getVolatile(this.distance, v);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isComputed() {
+        return this.isComputed;
+    }
+
+    @Override
+    public GraphNode<L> getLastSource() {
+        if (!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+        return this.lastSourceNode;
+    }
+
+    @Override
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    @Override
+    public List<GraphEdge<L>> getShortestPathTo(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.snapshot.buildPath(this.previousArc, this.lastSourceIndex, target);
+    }
+
+    /**
+     * Restituisce il costo di un cammino minimo dall' ultima sorgente al nodo
+     * passato.
+     *
+     * @param targetNode
+     *                       il nodo di arrivo del cammino minimo
+     * @return il costo del cammino minimo, {@code Double.POSITIVE_INFINITY} se
+     *         il nodo non è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito nemmeno una
+     *                                      volta il calcolo dei cammini minimi
+     */
+    public double getShortestPathCost(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.distance[target];
+    }
+
+    /*
+     * Lista di interi ridimensionabile, senza boxing.
+     */
+    private static class IntBuffer {
+
+        private int[] values = new int[8];
+
+        private int size;
+
+        void add(int value) {
+            if(this.size == this.values.length)
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            this.values[this.size++] = value;
+        }
+    }
+
+    /*
+     * Task che rilassa gli arc di un intervallo di nodi, dividendolo a metà
+     * finché è più grande della soglia sequenziale. Ogni foglia raccoglie i
+     * nodi migliorati in un proprio buffer.
+     */
+    private class RelaxTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] nodes;
+
+        private final int from;
+
+        private final int to;
+
+        private final boolean light;
+
+        private final ConcurrentLinkedQueue<IntBuffer> results;
+
+        RelaxTask(int[] nodes, int from, int to, boolean light, ConcurrentLinkedQueue<IntBuffer> results) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from <= SEQUENTIAL_THRESHOLD) {
+                IntBuffer improved = new IntBuffer();
+                relaxRange(this.nodes, this.from, this.to, this.light, improved);
+                this.results.add(improved);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new RelaxTask(this.nodes, this.from, middle, this.light, this.results),
+                    new RelaxTask(this.nodes, middle, this.to, this.light, this.results));
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class DeltaSteppingShortestPathComputerTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 10.1));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, 2.05));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 3.04));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, 2.0));
+        g.addEdge(new GraphEdge<String>(ny, ns, true, 7.03));
+        g.addEdge(new GraphEdge<String>(nu, nv, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nx, nv, true, 9.05));
+        g.addEdge(new GraphEdge<String>(ny, nv, true, 6.0));
+        g.addEdge(new GraphEdge<String>(nv, ny, true, 4.07));
+        return g;
+    }
+
+    @Test
+    final void testDeltaSteppingShortestPathComputer() {
+        assertThrows(NullPointerException.class, () -> new DeltaSteppingShortestPathComputer<String>(null));
+        assertThrows(NullPointerException.class, () -> new DeltaSteppingShortestPathComputer<String>(repeatedCode(), null, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSteppingShortestPathComputer<String>(repeatedCode(), ForkJoinPool.commonPool(), 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSteppingShortestPathComputer<String>(repeatedCode(), ForkJoinPool.commonPool(), 1e-9));
+        Graph<String> emptyGraph = new AdjacencyMatrixDirectedGraph<>();
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSteppingShortestPathComputer<String>(emptyGraph));
+        Graph<String> notDirectedGraph = new MapAdjacentListUndirectedGraph<>();
+        notDirectedGraph.addNode(ns);
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSteppingShortestPathComputer<String>(notDirectedGraph));
+        Graph<String> notWeightedGraph = new AdjacencyMatrixDirectedGraph<>();
+        notWeightedGraph.addNode(ns);
+        notWeightedGraph.addNode(nu);
+        notWeightedGraph.addEdge(new GraphEdge<>(ns, nu, true));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSteppingShortestPathComputer<String>(notWeightedGraph));
+        Graph<String> negativeGraph = repeatedCode();
+        negativeGraph.addEdge(new GraphEdge<>(nv, nu, true, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSteppingShortestPathComputer<String>(negativeGraph));
+        // 10 archi su 5 nodi: grado medio 2, peso massimo 10.1
+        assertEquals(10.1 / 2, new DeltaSteppingShortestPathComputer<String>(repeatedCode()).getDelta(), 1e-9);
+    }
+
+    @Test
+    final void testGetShortestPathTo() {
+        DeltaSteppingShortestPathComputer<String> c = new DeltaSteppingShortestPathComputer<>(repeatedCode());
+        assertThrows(IllegalStateException.class, () -> c.getShortestPathTo(nu));
+        assertThrows(IllegalStateException.class, () -> c.getLastSource());
+        assertThrows(NullPointerException.class, () -> c.computeShortestPathsFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> c.computeShortestPathsFrom(new GraphNode<>("notExistingNode")));
+        c.computeShortestPathsFrom(ns);
+        assertTrue(c.isComputed());
+        assertEquals(ns, c.getLastSource());
+        List<GraphEdge<String>> pathTest = new ArrayList<GraphEdge<String>>();
+        assertEquals(pathTest, c.getShortestPathTo(ns));
+        pathTest.add(new GraphEdge<String>(ns, nx, true, 5.12));
+        assertEquals(pathTest, c.getShortestPathTo(nx));
+        pathTest.add(new GraphEdge<String>(nx, nu, true, 3.04));
+        assertEquals(pathTest, c.getShortestPathTo(nu));
+        pathTest.add(new GraphEdge<String>(nu, nv, true, 1.0));
+        assertEquals(pathTest, c.getShortestPathTo(nv));
+        assertEquals(5.12 + 2.0, c.getShortestPathCost(ny), 1e-9);
+        c.computeShortestPathsFrom(nv);
+        assertEquals(nv, c.getLastSource());
+        assertEquals(4.07, c.getShortestPathCost(ny), 1e-9);
+    }
+
+    @Test
+    final void testUnreachableNode() {
+        Graph<String> g = repeatedCode();
+        GraphNode<String> isolated = new GraphNode<>("w");
+        g.addNode(isolated);
+        DeltaSteppingShortestPathComputer<String> c = new DeltaSteppingShortestPathComputer<>(g);
+        c.computeShortestPathsFrom(ns);
+        assertNull(c.getShortestPathTo(isolated));
+        assertEquals(Double.POSITIVE_INFINITY, c.getShortestPathCost(isolated));
+    }
+
+    @Test
+    final void testSameResultAsDijkstra() {
+        // grafo casuale con frontiere abbastanza grandi da usare il pool
+        Random random = new Random(11);
+        int n = 1500;
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        for (int u = 0; u < n; u++)
+            for (int k = 0; k < 6; k++)
+                g.addEdge(new GraphEdge<>(nodes.get(u), nodes.get(random.nextInt(n)), true, random.nextInt(40) * 0.25));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<DeltaSteppingShortestPathComputer<Integer>> computers = new ArrayList<>();
+            computers.add(new DeltaSteppingShortestPathComputer<>(g, pool, Double.NaN));
+            computers.add(new DeltaSteppingShortestPathComputer<>(g, pool, 0.1));
+            computers.add(new DeltaSteppingShortestPathComputer<>(g, pool, 1000.0));
+            DijkstraShortestPathComputer<Integer> dijkstra = new DijkstraShortestPathComputer<>(g);
+            for (int s = 0; s < n; s += 499) {
+                dijkstra.computeShortestPathsFrom(nodes.get(s));
+                for (DeltaSteppingShortestPathComputer<Integer> c : computers) {
+                    c.computeShortestPathsFrom(nodes.get(s));
+                    for (GraphNode<Integer> node : nodes) {
+                        double expected = g.getNodeOf(node.getLabel()).getFloatingPointDistance();
+                        assertEquals(expected, c.getShortestPathCost(node), 1e-9);
+                        List<GraphEdge<Integer>> path = c.getShortestPathTo(node);
+                        if(expected == Double.POSITIVE_INFINITY) {
+                            assertNull(path);
+                            continue;
+                        }
+                        double cost = 0.0;
+                        for (GraphEdge<Integer> edge : path)
+                            cost += edge.getWeight();
+                        assertEquals(expected, cost, 1e-9);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Coda di Dial: coda con priorità monotona a bucket per priorità intere in cui
+ * ogni elemento in coda ha priorità al più {@code maxSpan} maggiore dell'
+ * ultima priorità estratta, come nell' algoritmo di Dijkstra con peso massimo
+ * {@code maxSpan}. Bastano quindi {@code maxSpan + 1} bucket, uno per
+ * priorità, usati in modo circolare.
+ *
+ * L' inserimento richiede tempo costante; l' estrazione scorre i bucket vuoti
+ * a partire dall' ultima priorità estratta, quindi l' intero algoritmo di
+ * Dijkstra richiede tempo {@code O(m + D)} con {@code D} la distanza massima.
+ * Conviene quando {@code maxSpan} è piccolo; altrimenti è preferibile
+ * {@code RadixHeap}.
+ *
+ * @author Damiano Pasquini
+ *
+ */
+public class DialBucketQueue implements MonotoneIntegerPriorityQueue {
+
+    // elementi di ogni bucket, come pile di interi
+    private final int[][] buckets;
+
+    private final int[] bucketSizes;
+
+    private final int maxSpan;
+
+    private int current;
+
+    private int size;
+
+    /**
+     * Crea una coda vuota.
+     *
+     * @param maxSpan
+     *                    la differenza massima tra la priorità di un elemento
+     *                    inserito e l' ultima priorità estratta
+     * @throws IllegalArgumentException
+     *                                      se maxSpan è negativo o uguale a
+     *                                      {@code Integer.MAX_VALUE}
+     */
+    public DialBucketQueue(int maxSpan) {
+        if(maxSpan < 0 || maxSpan == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Max span must be between 0 and Integer.MAX_VALUE - 1");
+        this.maxSpan = maxSpan;
+        this.buckets = new int[maxSpan + 1][];
+        this.bucketSizes = new int[maxSpan + 1];
+    }
+
+    @Override
+    public void insert(int element, int priority) {
+        if(priority < this.current || priority - this.current > this.maxSpan)
+            throw new IllegalArgumentException("Priority out of the range of this queue");
+        int b = priority % this.buckets.length;
+        if(this.buckets[b] == null)
+            this.buckets[b] = new int[4];
+        else if(this.bucketSizes[b] == this.buckets[b].length)
+            this.buckets[b] = Arrays.copyOf(this.buckets[b], this.bucketSizes[b] * 2);
+        this.buckets[b][this.bucketSizes[b]++] = element;
+        this.size++;
+    }
+
+    @Override
+    public int extractMinimum() {
+        if(this.size == 0) throw new NoSuchElementException("Queue is empty");
+        // la coda non è vuota, quindi un bucket entro maxSpan passi non è vuoto
+        int b = this.current % this.buckets.length;
+        while(this.bucketSizes[b] == 0) {
+            this.current++;
+            b = b + 1 == this.buckets.length ? 0 : b + 1;
+        }
+        this.size--;
+        return this.buckets[b][--this.bucketSizes[b]];
+    }
+
+    @Override
+    public int lastExtractedPriority() {
+        return this.current;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.bucketSizes, 0);
+        this.current = 0;
+        this.size = 0;
+    }
+
+}
@@ -0,0 +1,70 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class DialBucketQueueTest {
+
+    @Test
+    final void testDialBucketQueue() {
+        assertThrows(IllegalArgumentException.class, () -> new DialBucketQueue(-1));
+        assertThrows(IllegalArgumentException.class, () -> new DialBucketQueue(Integer.MAX_VALUE));
+        DialBucketQueue queue = new DialBucketQueue(10);
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertThrows(NoSuchElementException.class, () -> queue.extractMinimum());
+    }
+
+    @Test
+    final void testInsertAndExtractMinimum() {
+        DialBucketQueue queue = new DialBucketQueue(10);
+        queue.insert(1, 7);
+        queue.insert(2, 3);
+        queue.insert(3, 10);
+        assertThrows(IllegalArgumentException.class, () -> queue.insert(4, 11));
+        assertEquals(3, queue.size());
+        assertEquals(2, queue.extractMinimum());
+        assertEquals(3, queue.lastExtractedPriority());
+        assertThrows(IllegalArgumentException.class, () -> queue.insert(4, 2));
+        queue.insert(4, 13);
+        assertEquals(1, queue.extractMinimum());
+        assertEquals(3, queue.extractMinimum());
+        assertEquals(4, queue.extractMinimum());
+        assertEquals(13, queue.lastExtractedPriority());
+        assertTrue(queue.isEmpty());
+        queue.clear();
+        assertEquals(0, queue.lastExtractedPriority());
+        queue.insert(5, 0);
+        assertEquals(5, queue.extractMinimum());
+    }
+
+    @Test
+    final void testMonotoneSequence() {
+        // confronto con java.util.PriorityQueue su una sequenza monotona casuale
+        Random random = new Random(3);
+        DialBucketQueue queue = new DialBucketQueue(50);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        for (int i = 0; i < 5000; i++) {
+            if(expected.isEmpty() || random.nextInt(3) > 0) {
+                int priority = queue.lastExtractedPriority() + random.nextInt(51);
+                queue.insert(priority, priority);
+                expected.add(priority);
+            } else
+                assertEquals((int) expected.poll(), queue.extractMinimum());
+        }
+        while(!expected.isEmpty())
+            assertEquals((int) expected.poll(), queue.extractMinimum());
+        assertTrue(queue.isEmpty());
+    }
+
+}
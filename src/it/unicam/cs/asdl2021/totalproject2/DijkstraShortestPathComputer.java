@@ -13,6 +13,13 @@ import java.util.*;
  * realizzata con uno heap binario). In questo caso il tempo di esecuzione
  * dell' algoritmo di Dijkstra è {@code O(n log m)} dove {@code n} è il numero di
  * nodi del grafo e {@code m} è il numero di archi.
+ *
+ * Se tutti i pesi sono interi e le distanze possibili sono rappresentabili
+ * come {@code int}, il calcolo è delegato a
+ * {@code IntegerDijkstraShortestPathComputer<L>}, che usa una coda a bucket
+ * con operazioni in tempo costante ammortizzato e imposta sui nodi gli stessi
+ * campi. Il controllo dei pesi e la fotografia del grafo sono fatti a ogni
+ * calcolo, così il calcolatore vede sempre il grafo nel suo stato corrente.
  * 
  * @author Template: Luca Tesei
  * @author Implementation: Damiano Pasquini
@@ -26,6 +33,8 @@ public class DijkstraShortestPathComputer<L> implements SingleSourceShortestPath
     private GraphNode<L> lastSourceNode;
     private boolean isComputed = false;
 
+    // true se il calcolo può essere delegato alla variante a pesi interi
+    private final boolean integerQueue;
 
     /**
      * Crea un calcolatore di cammini minimi a sorgente singola per un grafo
@@ -51,6 +60,14 @@ public class DijkstraShortestPathComputer<L> implements SingleSourceShortestPath
      *                                      un peso negativo
      */
     public DijkstraShortestPathComputer(Graph<L> graph) {
+        this(graph, true);
+    }
+
+    /*
+     * Costruttore che permette di escludere la variante a pesi interi, ad
+     * esempio per confrontarla con lo heap binario.
+     */
+    DijkstraShortestPathComputer(Graph<L> graph, boolean integerQueue) {
         if(graph == null) throw new NullPointerException("Graph can't be null");
         if(graph.isEmpty()) throw new IllegalArgumentException("Graph can't be empty");
         if(!graph.isDirected()) throw new IllegalArgumentException("Graph can't be undirected");
@@ -62,6 +79,7 @@ public class DijkstraShortestPathComputer<L> implements SingleSourceShortestPath
                 throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
 
         this.graph = graph;
+        this.integerQueue = integerQueue;
     }
 
 
@@ -71,6 +89,17 @@ public class DijkstraShortestPathComputer<L> implements SingleSourceShortestPath
         if(sourceNode == null) throw new NullPointerException("sourceNode can't be null");
         if(!this.graph.containsNode(sourceNode)) throw new IllegalArgumentException("sourceNode must be contained in this graph");
 
+        if(this.integerQueue && IntegerDijkstraShortestPathComputer.hasIntegerWeights(this.graph)) {
+            // il grafo può essere cambiato dalla costruzione, quindi la
+            // fotografia viene presa ora
+            IntegerDijkstraShortestPathComputer<L> integerComputer = new IntegerDijkstraShortestPathComputer<>(
+                    this.graph);
+            integerComputer.computeShortestPathsFrom(sourceNode);
+            this.lastSourceNode = integerComputer.getLastSource();
+            this.isComputed = true;
+            return;
+        }
+
         // inizializzo la coda con priorità
         BinaryHeapMinPriorityQueue<GraphNode<L>> queue = new BinaryHeapMinPriorityQueue<>();
         // imposto tutti i nodi previous a null e tutte le distanze dai nodi al nodo sorgente ad infinito,
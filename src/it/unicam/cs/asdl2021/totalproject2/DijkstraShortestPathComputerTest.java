@@ -200,4 +200,35 @@ class DijkstraShortestPathComputerTest {
         GraphNode<String> npTest = new GraphNode<String>("p");
         assertTrue(c.getShortestPathTo(npTest) == null);
     }
+
+    @Test
+    final void testGraphChangedAfterConstruction() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        GraphNode<String> ns = new GraphNode<String>("s");
+        GraphNode<String> nt = new GraphNode<String>("t");
+        GraphNode<String> nx = new GraphNode<String>("x");
+        g.addNode(ns);
+        g.addNode(nt);
+        GraphEdge<String> est = new GraphEdge<String>(ns, nt, true, 10.0);
+        g.addEdge(est);
+        DijkstraShortestPathComputer<String> c = new DijkstraShortestPathComputer<String>(g);
+        c.computeShortestPathsFrom(ns);
+        assertEquals(List.of(est), c.getShortestPathTo(nt));
+        // il calcolatore vede le modifiche fatte dopo la costruzione
+        g.addNode(nx);
+        GraphEdge<String> esx = new GraphEdge<String>(ns, nx, true, 1.0);
+        GraphEdge<String> ext = new GraphEdge<String>(nx, nt, true, 1.0);
+        g.addEdge(esx);
+        g.addEdge(ext);
+        c.computeShortestPathsFrom(ns);
+        assertEquals(List.of(esx, ext), c.getShortestPathTo(nt));
+        c.computeShortestPathsFrom(nx);
+        assertEquals(nx, c.getLastSource());
+        assertEquals(List.of(ext), c.getShortestPathTo(nt));
+        // un peso non intero fa passare allo heap binario
+        esx.setWeight(1.5);
+        c.computeShortestPathsFrom(ns);
+        assertEquals(List.of(esx, ext), c.getShortestPathTo(nt));
+        assertEquals(2.5, nt.getFloatingPointDistance());
+    }
 }
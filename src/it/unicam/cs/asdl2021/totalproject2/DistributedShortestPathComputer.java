@@ -0,0 +1,487 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calcolo di cammini minimi a sorgente singola su un
+ * {@code PartitionedGraph<L>} con un processo (worker) per parte, che
+ * comunicano solo scambiandosi messaggi: è la versione distribuita dell'
+ * algoritmo di Bellman-Ford, per grafi orientati e pesati che possono
+ * contenere anche pesi negativi, ma non cicli di peso negativo.
+ *
+ * Ogni worker conosce solo gli archi uscenti dai nodi della propria parte e
+ * ha le distanze provvisorie di quei nodi. Il calcolo procede per round
+ * sincronizzati da una barriera; in ogni round ogni worker:
+ * <ol>
+ * <li>applica i miglioramenti di distanza ricevuti nel round precedente;</li>
+ * <li>rilassa gli archi interni alla parte fino a un punto fisso, con una coda
+ * FIFO dei nodi migliorati come in {@code SpfaShortestPathComputer<L>}: i
+ * cammini che restano nella parte si propagano quindi in un solo round;</li>
+ * <li>invia i miglioramenti delle copie (ghost) dei nodi remoti, uno solo per
+ * nodo (il minimo) e raggruppati in un' unica busta per parte di
+ * destinazione.</li>
+ * </ol>
+ * Il calcolo termina dopo il primo round in cui nessun worker invia messaggi.
+ * Il numero di round è al più il massimo numero di volte in cui un cammino
+ * minimo attraversa il taglio, più uno: con una buona suddivisione è molto
+ * minore del numero di passate del Bellman-Ford sequenziale.
+ *
+ * Insieme alla distanza viaggia il numero di archi del cammino che l' ha
+ * prodotta: ogni distanza assegnata corrisponde a un cammino in cui ogni
+ * prefisso è stato a sua volta un miglioramento, quindi un cammino con almeno
+ * n archi ripete un nodo passando per un ciclo di peso negativo. Il controllo
+ * è locale a ogni worker e non richiede passate ulteriori.
+ *
+ * I worker sono thread dello stesso processo, creati a ogni calcolo; le buste
+ * passano per code concorrenti, alternate tra round pari e dispari. I
+ * predecessori sono ricostruiti alla fine sugli archi "stretti", come in
+ * {@code ParallelBellmanFordShortestPathComputer<L>}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class DistributedShortestPathComputer<L> implements SingleSourceShortestPathComputer<L> {
+
+    private final PartitionedGraph<L> partitionedGraph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private GraphNode<L> lastSourceNode;
+
+    private int lastSourceIndex;
+
+    private boolean isComputed = false;
+
+    private final double[] distance;
+
+    private final int[] previousArc;
+
+    private int roundCount;
+
+    private long messageCount;
+
+    private long batchCount;
+
+    // stato condiviso dai worker, scritto nell' azione della barriera
+    private volatile boolean done;
+
+    // primo errore di un worker, anche un Error, riportato al chiamante
+    private volatile Throwable failure;
+
+    private final LongAdder sentInRound = new LongAdder();
+
+    private final LongAdder batchesInRound = new LongAdder();
+
+    /**
+     * Crea un calcolatore distribuito di cammini minimi a sorgente singola per
+     * un grafo suddiviso, orientato e pesato.
+     *
+     * @param partitionedGraph
+     *                             il grafo suddiviso su cui opera il
+     *                             calcolatore di cammini minimi
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è diretto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è pesato,
+     *                                      cioè esiste almeno un arco il cui
+     *                                      peso è {@code Double.NaN}.
+     */
+    public DistributedShortestPathComputer(PartitionedGraph<L> partitionedGraph) {
+        if(partitionedGraph == null) throw new NullPointerException("Graph can't be null");
+        this.snapshot = partitionedGraph.getSnapshot();
+        if(this.snapshot.nodeCount() == 0) throw new IllegalArgumentException("Graph can't be empty");
+        if(!this.snapshot.isDirected()) throw new IllegalArgumentException("Graph must be directed");
+        for (double weight : this.snapshot.getWeights())
+            if(Double.isNaN(weight))
+                throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
+
+        this.partitionedGraph = partitionedGraph;
+        this.distance = new double[this.snapshot.nodeCount()];
+        this.previousArc = new int[this.snapshot.nodeCount()];
+    }
+
+    @Override
+    public void computeShortestPathsFrom(GraphNode<L> sourceNode) {
+        if(sourceNode == null)
+            throw new NullPointerException("Source node can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        if(source == -1)
+            throw new IllegalArgumentException("This node isn't contained in this graph");
+
+        this.isComputed = false;
+        int parts = this.partitionedGraph.partitionCount();
+        int n = this.snapshot.nodeCount();
+        List<Worker> workers = new ArrayList<>();
+        for (int p = 0; p < parts; p++)
+            workers.add(new Worker(this.partitionedGraph.getPartition(p), n));
+        for (Worker worker : workers)
+            worker.peers = workers;
+        Worker first = workers.get(this.partitionedGraph.getOwners()[source]);
+        first.improve(this.partitionedGraph.getLocalIndices()[source], 0.0, 0);
+
+        this.roundCount = 0;
+        this.messageCount = 0;
+        this.batchCount = 0;
+        this.done = false;
+        this.failure = null;
+        this.sentInRound.reset();
+        this.batchesInRound.reset();
+        CyclicBarrier barrier = new CyclicBarrier(parts, () -> {
+            long sent = this.sentInRound.sumThenReset();
+            this.messageCount += sent;
+            this.batchCount += this.batchesInRound.sumThenReset();
+            this.roundCount++;
+            if(sent == 0 || this.failure != null)
+                this.done = true;
+        });
+        for (Worker worker : workers)
+            worker.barrier = barrier;
+
+        ExecutorService executor = Executors.newFixedThreadPool(parts);
+        try {
+            for (Future<Void> future : executor.invokeAll(workers))
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Computation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        if(this.failure instanceof RuntimeException)
+            throw (RuntimeException) this.failure;
+        if(this.failure instanceof Error)
+            throw (Error) this.failure;
+        if(this.failure != null)
+            throw new IllegalStateException("Worker failed", this.failure);
+
+        for (Worker worker : workers)
+            for (int local = 0; local < worker.nodes.length; local++)
+                this.distance[worker.nodes[local]] = worker.distance[local];
+        this.snapshot.buildShortestPathTree(this.distance, source, this.previousArc);
+        this.lastSourceNode = this.snapshot.getNode(source);
+        this.lastSourceIndex = source;
+        this.isComputed = true;
+    }
+
+    @Override
+    public boolean isComputed() {
+        return this.isComputed;
+    }
+
+    @Override
+    public GraphNode<L> getLastSource() {
+        if (!this.isComputed)
+            throw new IllegalStateException("This graph isn't yet computed");
+        return this.lastSourceNode;
+    }
+
+    @Override
+    public Graph<L> getGraph() {
+        return this.partitionedGraph.getGraph();
+    }
+
+    /**
+     * @return il grafo suddiviso su cui opera il calcolatore
+     */
+    public PartitionedGraph<L> getPartitionedGraph() {
+        return this.partitionedGraph;
+    }
+
+    @Override
+    public List<GraphEdge<L>> getShortestPathTo(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.snapshot.buildPath(this.previousArc, this.lastSourceIndex, target);
+    }
+
+    /**
+     * Restituisce il costo di un cammino minimo dall' ultima sorgente al nodo
+     * passato.
+     *
+     * @param targetNode
+     *                       il nodo di arrivo del cammino minimo
+     * @return il costo del cammino minimo, {@code Double.POSITIVE_INFINITY} se
+     *         il nodo non è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito nemmeno una
+     *                                      volta il calcolo dei cammini minimi
+     */
+    public double getShortestPathCost(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.distance[target];
+    }
+
+    /**
+     * @return il numero di round dell' ultimo calcolo
+     * @throws IllegalStateException
+     *                                   se non è stato eseguito nemmeno una
+     *                                   volta il calcolo dei cammini minimi
+     */
+    public int getRoundCount() {
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+        return this.roundCount;
+    }
+
+    /**
+     * @return il numero di aggiornamenti di distanza scambiati tra le parti
+     *         nell' ultimo calcolo
+     * @throws IllegalStateException
+     *                                   se non è stato eseguito nemmeno una
+     *                                   volta il calcolo dei cammini minimi
+     */
+    public long getMessageCount() {
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+        return this.messageCount;
+    }
+
+    /**
+     * @return il numero di buste, cioè gruppi di aggiornamenti inviati insieme
+     *         da una parte a un' altra, nell' ultimo calcolo
+     * @throws IllegalStateException
+     *                                   se non è stato eseguito nemmeno una
+     *                                   volta il calcolo dei cammini minimi
+     */
+    public long getBatchCount() {
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+        return this.batchCount;
+    }
+
+    /*
+     * Aggiornamenti inviati insieme da una parte a un' altra: indici locali
+     * nella parte di destinazione, distanze e numero di archi dei cammini.
+     */
+    private static final class Batch {
+
+        private final int[] targets;
+
+        private final double[] distances;
+
+        private final int[] lengths;
+
+        Batch(int size) {
+            this.targets = new int[size];
+            this.distances = new double[size];
+            this.lengths = new int[size];
+        }
+    }
+
+    /*
+     * Processo che lavora su una parte del grafo.
+     */
+    private final class Worker implements Callable<Void> {
+
+        private final PartitionedGraph.Partition partition;
+
+        private final int[] nodes;
+
+        // numero totale di nodi, limite per la lunghezza dei cammini
+        private final int nodeCount;
+
+        private final double[] distance;
+
+        private final int[] length;
+
+        // coda circolare dei nodi locali da rilassare
+        private final int[] queue;
+
+        private final boolean[] queued;
+
+        private int head;
+
+        private int size;
+
+        // miglior distanza già inviata per ogni ghost e ghost da inviare
+        private final double[] ghostDistance;
+
+        private final int[] ghostLength;
+
+        private final boolean[] ghostPending;
+
+        private final int[] pending;
+
+        private int pendingCount;
+
+        // buste in arrivo nei round pari e dispari
+        private final ConcurrentLinkedQueue<Batch> evenInbox = new ConcurrentLinkedQueue<>();
+
+        private final ConcurrentLinkedQueue<Batch> oddInbox = new ConcurrentLinkedQueue<>();
+
+        private List<Worker> peers;
+
+        private CyclicBarrier barrier;
+
+        Worker(PartitionedGraph.Partition partition, int nodeCount) {
+            this.partition = partition;
+            this.nodes = partition.nodes;
+            this.nodeCount = nodeCount;
+            int size = this.nodes.length;
+            int ghosts = partition.ghosts.length;
+            this.distance = new double[size];
+            Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+            this.length = new int[size];
+            this.queue = new int[size];
+            this.queued = new boolean[size];
+            this.ghostDistance = new double[ghosts];
+            Arrays.fill(this.ghostDistance, Double.POSITIVE_INFINITY);
+            this.ghostLength = new int[ghosts];
+            this.ghostPending = new boolean[ghosts];
+            this.pending = new int[ghosts];
+        }
+
+        @Override
+        public Void call() throws InterruptedException, BrokenBarrierException {
+            boolean finished = false;
+            try {
+                int round = 0;
+                while(true) {
+                    // anche un Error arriva alla barriera, così gli altri
+                    // worker non restano in attesa e il calcolo fallisce
+                    try {
+                        if(failure == null)
+                            this.step(round);
+                    } catch (Throwable e) {
+                        if(failure == null)
+                            failure = e;
+                    }
+                    barrier.await();
+                    if(done) {
+                        finished = true;
+                        return null;
+                    }
+                    round++;
+                }
+            } finally {
+                // un worker che esce prima della fine, per esempio perché
+                // interrotto, rompe la barriera per sbloccare gli altri
+                if(!finished)
+                    barrier.reset();
+            }
+        }
+
+        private ConcurrentLinkedQueue<Batch> inbox(int round) {
+            return (round & 1) == 0 ? this.evenInbox : this.oddInbox;
+        }
+
+        private void step(int round) {
+            ConcurrentLinkedQueue<Batch> received = this.inbox(round);
+            Batch batch;
+            while((batch = received.poll()) != null)
+                for (int i = 0; i < batch.targets.length; i++)
+                    this.improve(batch.targets[i], batch.distances[i], batch.lengths[i]);
+            this.relax();
+            this.send(round);
+        }
+
+        /*
+         * Abbassa la distanza di un nodo locale, se migliora, e lo mette in
+         * coda.
+         */
+        void improve(int local, double dist, int pathLength) {
+            if(dist >= this.distance[local]) return;
+            if(pathLength >= this.nodeCount)
+                throw new IllegalStateException("This graph contains negative-weigh cycle");
+            this.distance[local] = dist;
+            this.length[local] = pathLength;
+            if(!this.queued[local]) {
+                this.queued[local] = true;
+                this.queue[(this.head + this.size++) % this.queue.length] = local;
+            }
+        }
+
+        private void relax() {
+            int[] offsets = this.partition.offsets;
+            int[] targets = this.partition.targets;
+            double[] weights = this.partition.weights;
+            while(this.size > 0) {
+                int u = this.queue[this.head];
+                this.head = (this.head + 1) % this.queue.length;
+                this.size--;
+                this.queued[u] = false;
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    double dist = this.distance[u] + weights[arc];
+                    int v = targets[arc];
+                    if(v >= 0)
+                        this.improve(v, dist, this.length[u] + 1);
+                    else if(dist < this.ghostDistance[-1 - v]) {
+                        int g = -1 - v;
+                        this.ghostDistance[g] = dist;
+                        this.ghostLength[g] = this.length[u] + 1;
+                        if(!this.ghostPending[g]) {
+                            this.ghostPending[g] = true;
+                            this.pending[this.pendingCount++] = g;
+                        }
+                    }
+                }
+            }
+        }
+
+        /*
+         * Invia i ghost migliorati nel round, una busta per parte di
+         * destinazione.
+         */
+        private void send(int round) {
+            if(this.pendingCount == 0) return;
+            int[] owners = this.partition.ghostOwners;
+            int[] indices = this.partition.ghostIndices;
+            int[] count = new int[this.peers.size()];
+            for (int i = 0; i < this.pendingCount; i++)
+                count[owners[this.pending[i]]]++;
+            Batch[] batches = new Batch[count.length];
+            for (int p = 0; p < count.length; p++)
+                if(count[p] > 0) {
+                    batches[p] = new Batch(count[p]);
+                    count[p] = 0;
+                }
+            for (int i = 0; i < this.pendingCount; i++) {
+                int g = this.pending[i];
+                Batch batch = batches[owners[g]];
+                int slot = count[owners[g]]++;
+                batch.targets[slot] = indices[g];
+                batch.distances[slot] = this.ghostDistance[g];
+                batch.lengths[slot] = this.ghostLength[g];
+                this.ghostPending[g] = false;
+            }
+            for (int p = 0; p < batches.length; p++)
+                if(batches[p] != null) {
+                    this.peers.get(p).inbox(round + 1).add(batches[p]);
+                    batchesInRound.increment();
+                }
+            sentInRound.add(this.pendingCount);
+            this.pendingCount = 0;
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class DistributedShortestPathComputerTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 10.1));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, -2.05));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 3.04));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, 2.0));
+        g.addEdge(new GraphEdge<String>(ny, ns, true, 7.03));
+        g.addEdge(new GraphEdge<String>(nu, nv, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nx, nv, true, 9.05));
+        g.addEdge(new GraphEdge<String>(ny, nv, true, 6.0));
+        g.addEdge(new GraphEdge<String>(nv, ny, true, 4.07));
+        return g;
+    }
+
+    private PartitionedGraph<String> partitioned(Graph<String> g, int parts) {
+        return new PartitionedGraph<>(g, new GraphPartitioner(GraphPartitioner.Strategy.HASH), parts);
+    }
+
+    @Test
+    final void testDistributedShortestPathComputer() {
+        assertThrows(NullPointerException.class, () -> new DistributedShortestPathComputer<String>(null));
+        Graph<String> emptyGraph = new AdjacencyMatrixDirectedGraph<>();
+        assertThrows(IllegalArgumentException.class, () -> new DistributedShortestPathComputer<String>(partitioned(emptyGraph, 2)));
+        Graph<String> notDirectedGraph = new MapAdjacentListUndirectedGraph<>();
+        notDirectedGraph.addNode(ns);
+        assertThrows(IllegalArgumentException.class, () -> new DistributedShortestPathComputer<String>(partitioned(notDirectedGraph, 2)));
+        Graph<String> notWeightedGraph = new AdjacencyMatrixDirectedGraph<>();
+        notWeightedGraph.addNode(ns);
+        notWeightedGraph.addNode(nu);
+        notWeightedGraph.addEdge(new GraphEdge<>(ns, nu, true));
+        assertThrows(IllegalArgumentException.class, () -> new DistributedShortestPathComputer<String>(partitioned(notWeightedGraph, 2)));
+    }
+
+    @Test
+    final void testGetShortestPathTo() {
+        DistributedShortestPathComputer<String> c = new DistributedShortestPathComputer<>(partitioned(repeatedCode(), 3));
+        assertThrows(IllegalStateException.class, () -> c.getShortestPathTo(nu));
+        assertThrows(IllegalStateException.class, () -> c.getRoundCount());
+        assertThrows(NullPointerException.class, () -> c.computeShortestPathsFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> c.computeShortestPathsFrom(new GraphNode<>("notExistingNode")));
+        c.computeShortestPathsFrom(ns);
+        assertTrue(c.isComputed());
+        assertEquals(ns, c.getLastSource());
+        List<GraphEdge<String>> pathTest = new ArrayList<GraphEdge<String>>();
+        assertEquals(pathTest, c.getShortestPathTo(ns));
+        pathTest.add(new GraphEdge<String>(ns, nx, true, 5.12));
+        assertEquals(pathTest, c.getShortestPathTo(nx));
+        pathTest.add(new GraphEdge<String>(nx, nu, true, 3.04));
+        assertEquals(pathTest, c.getShortestPathTo(nu));
+        pathTest.add(new GraphEdge<String>(nu, nv, true, 1.0));
+        assertEquals(pathTest, c.getShortestPathTo(nv));
+        assertEquals(5.12 + 2.0, c.getShortestPathCost(ny), 1e-9);
+        assertTrue(c.getRoundCount() >= 1);
+        assertTrue(c.getBatchCount() <= c.getMessageCount());
+    }
+
+    @Test
+    final void testSinglePartitionNeedsOneRound() {
+        DistributedShortestPathComputer<String> c = new DistributedShortestPathComputer<>(partitioned(repeatedCode(), 1));
+        c.computeShortestPathsFrom(ns);
+        assertEquals(1, c.getRoundCount());
+        assertEquals(0, c.getMessageCount());
+        assertEquals(5.12 + 3.04 + 1.0, c.getShortestPathCost(nv), 1e-9);
+    }
+
+    @Test
+    final void testNegativeWeightCycle() {
+        Graph<String> g = repeatedCode();
+        g.removeEdge(new GraphEdge<String>(nx, nu, true));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 1.0));
+        for (int parts = 1; parts <= 3; parts++) {
+            DistributedShortestPathComputer<String> c = new DistributedShortestPathComputer<>(partitioned(g, parts));
+            assertThrows(IllegalStateException.class, () -> c.computeShortestPathsFrom(ns));
+            assertFalse(c.isComputed());
+        }
+    }
+
+    @Test
+    final void testSameResultAsSequential() {
+        Random random = new Random(43);
+        int n = 300;
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        int[] potential = new int[n];
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+            potential[i] = random.nextInt(50);
+        }
+        // archi soprattutto tra nodi vicini, più qualche arco lontano; i
+        // potenziali rendono negativi alcuni pesi senza creare cicli negativi
+        for (int u = 0; u < n; u++)
+            for (int k = 0; k < 4; k++) {
+                int v = k < 3 ? Math.floorMod(u + random.nextInt(7) - 3, n) : random.nextInt(n);
+                g.addEdge(new GraphEdge<>(nodes.get(u), nodes.get(v), true,
+                        1 + random.nextInt(30) + potential[u] - potential[v]));
+            }
+        SpfaShortestPathComputer<Integer> sequential = new SpfaShortestPathComputer<>(g);
+        for (GraphPartitioner.Strategy strategy : GraphPartitioner.Strategy.values()) {
+            PartitionedGraph<Integer> pg = new PartitionedGraph<>(g, new GraphPartitioner(strategy), 4);
+            DistributedShortestPathComputer<Integer> distributed = new DistributedShortestPathComputer<>(pg);
+            for (int s = 0; s < n; s += 37) {
+                distributed.computeShortestPathsFrom(nodes.get(s));
+                sequential.computeShortestPathsFrom(nodes.get(s));
+                for (GraphNode<Integer> node : nodes) {
+                    double expected = sequential.getShortestPathCost(node);
+                    assertEquals(expected, distributed.getShortestPathCost(node), 1e-9);
+                    List<GraphEdge<Integer>> path = distributed.getShortestPathTo(node);
+                    if(expected == Double.POSITIVE_INFINITY) {
+                        assertNull(path);
+                        continue;
+                    }
+                    double cost = 0.0;
+                    for (GraphEdge<Integer> edge : path)
+                        cost += edge.getWeight();
+                    assertEquals(expected, cost, 1e-9);
+                }
+            }
+        }
+    }
+
+}
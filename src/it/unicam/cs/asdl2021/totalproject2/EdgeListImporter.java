@@ -0,0 +1,666 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importazione in parallelo di grandi liste di archi in formato testo. I nodi
+ * sono identificati da interi, che diventano le etichette dei nodi del grafo.
+ * Sono supportati tre formati, scelti con {@link Format}:
+ * <ul>
+ * <li>{@link Format#DIMACS}: il formato {@code .gr} delle sfide DIMACS sui
+ * cammini minimi, con righe di commento {@code c ...}, una riga
+ * {@code p sp n m} e una riga {@code a u v w} per arco;</li>
+ * <li>{@link Format#SNAP}: righe {@code u v} separate da spazi o tabulazioni,
+ * con un eventuale peso come terza colonna e commenti che iniziano con
+ * {@code #} o {@code %};</li>
+ * <li>{@link Format#CSV}: righe {@code u,v} o {@code u,v,w}; le righe che non
+ * iniziano con un numero (per esempio l' intestazione) vengono saltate.</li>
+ * </ul>
+ * Gli archi senza peso hanno peso {@code Double.NaN}.
+ *
+ * Il lavoro è diviso in una pipeline:
+ * <ol>
+ * <li>un file non compresso viene diviso in intervalli di byte di circa
+ * {@code RANGE_SIZE} byte, estesi fino alla fine dell' ultima riga, che
+ * vengono mappati in memoria e assegnati ai thread di analisi man mano che si
+ * liberano; un file compresso con gzip (riconosciuto dai primi due byte)
+ * viene invece decompresso da un thread dedicato in blocchi di righe intere,
+ * passati ai thread di analisi attraverso una coda limitata;</li>
+ * <li>i thread di analisi leggono i numeri direttamente dai byte, senza creare
+ * una {@code String} per riga, e raccolgono gli archi in blocchi di array
+ * primitivi di {@code BLOCK_SIZE} archi;</li>
+ * <li>i blocchi passano attraverso una seconda coda limitata al thread che ha
+ * chiamato l' importazione, l' unico che li consegna alla destinazione.</li>
+ * </ol>
+ * Le code limitate fanno sì che la memoria usata non dipenda dalla dimensione
+ * del file: se la destinazione è lenta, i thread di analisi si fermano.
+ *
+ * @author Damiano Pasquini
+ *
+ */
+public class EdgeListImporter {
+
+    /**
+     * Formati di file supportati.
+     */
+    public enum Format {
+        /**
+         * Formato {@code .gr} delle sfide DIMACS.
+         */
+        DIMACS,
+        /**
+         * Liste di archi separate da spazi, come quelle della raccolta SNAP.
+         */
+        SNAP,
+        /**
+         * Valori separati da virgole, con il peso nella terza colonna.
+         */
+        CSV
+    }
+
+    /**
+     * Destinazione degli archi importati. Viene chiamata sempre dallo stesso
+     * thread, quello che ha avviato l' importazione, con blocchi di archi i cui
+     * array sono validi solo durante la chiamata.
+     */
+    @FunctionalInterface
+    public interface EdgeConsumer {
+
+        /**
+         * Riceve un blocco di archi.
+         *
+         * @param sources
+         *                    i nodi di partenza
+         * @param targets
+         *                    i nodi di arrivo
+         * @param weights
+         *                    i pesi, {@code Double.NaN} per gli archi senza
+         *                    peso
+         * @param count
+         *                    il numero di archi validi all' inizio degli array
+         */
+        public void accept(int[] sources, int[] targets, double[] weights, int count);
+    }
+
+    // dimensione indicativa degli intervalli in cui viene diviso un file e
+    // dei blocchi prodotti dalla decompressione
+    static final int RANGE_SIZE = 4 << 20;
+
+    // numero di archi di un blocco consegnato alla destinazione
+    static final int BLOCK_SIZE = 8192;
+
+    private final Format format;
+
+    private final int threads;
+
+    private final int rangeSize;
+
+    private int declaredNodeCount;
+
+    /**
+     * Crea un importatore per un formato che usa un thread di analisi per
+     * processore.
+     *
+     * @param format
+     *                   il formato dei file
+     * @throws NullPointerException
+     *                                  se il formato passato è nullo
+     */
+    public EdgeListImporter(Format format) {
+        this(format, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crea un importatore per un formato con un numero di thread di analisi
+     * dato.
+     *
+     * @param format
+     *                    il formato dei file
+     * @param threads
+     *                    il numero di thread di analisi
+     * @throws NullPointerException
+     *                                      se il formato passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il numero di thread non è
+     *                                      positivo
+     */
+    public EdgeListImporter(Format format, int threads) {
+        this(format, threads, RANGE_SIZE);
+    }
+
+    /*
+     * Costruttore con la dimensione degli intervalli, usato nei test per
+     * dividere anche file piccoli.
+     */
+    EdgeListImporter(Format format, int threads, int rangeSize) {
+        if(format == null) throw new NullPointerException("Format can't be null");
+        if(threads <= 0) throw new IllegalArgumentException("Threads must be positive");
+        this.format = format;
+        this.threads = threads;
+        this.rangeSize = rangeSize;
+    }
+
+    /**
+     * @return il formato dei file
+     */
+    public Format getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Restituisce il numero di nodi dichiarato dalla riga {@code p} dell'
+     * ultimo file DIMACS importato, 0 se il file non la contiene o ha un
+     * altro formato.
+     *
+     * @return il numero di nodi dichiarato
+     */
+    public int getDeclaredNodeCount() {
+        return this.declaredNodeCount;
+    }
+
+    /**
+     * Importa un file in un grafo: un {@code AdjacencyMatrixDirectedGraph}
+     * se orientato, un {@code MapAdjacentListUndirectedGraph} altrimenti. Il
+     * grafo è costruito con {@code GraphBuilder<L>}, senza i controlli di
+     * {@code addEdge}; degli archi ripetuti resta uno solo, con il peso
+     * minimo. Per i file DIMACS vengono creati anche i nodi
+     * dichiarati e privi di archi.
+     *
+     * @param file
+     *                     il file da importare, eventualmente compresso con
+     *                     gzip
+     * @param directed
+     *                     true per creare un grafo orientato
+     * @return il grafo importato
+     * @throws NullPointerException
+     *                                      se il file passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se una riga del file non è valida
+     * @throws UncheckedIOException
+     *                                      se la lettura del file fallisce
+     */
+    public Graph<Integer> importGraph(Path file, boolean directed) {
+        if(file == null) throw new NullPointerException("File can't be null");
+        GraphBuilder<Integer> builder = new GraphBuilder<>(directed);
+        this.importEdges(file, (sources, targets, weights, count) -> {
+            for (int i = 0; i < count; i++)
+                builder.addEdge(sources[i], targets[i], weights[i]);
+        });
+        for (int id = 1; id <= this.declaredNodeCount; id++)
+            builder.addNode(id);
+        return builder.build();
+    }
+
+    /**
+     * Importa un file consegnando gli archi, a blocchi, a una destinazione.
+     * L' ordine dei blocchi non è quello del file.
+     *
+     * @param file
+     *                     il file da importare, eventualmente compresso con
+     *                     gzip
+     * @param consumer
+     *                     la destinazione degli archi
+     * @return il numero di archi importati
+     * @throws NullPointerException
+     *                                      se uno dei parametri passati è
+     *                                      nullo
+     * @throws IllegalArgumentException
+     *                                      se una riga del file non è valida
+     * @throws UncheckedIOException
+     *                                      se la lettura del file fallisce
+     */
+    public long importEdges(Path file, EdgeConsumer consumer) {
+        if(file == null) throw new NullPointerException("File can't be null");
+        if(consumer == null) throw new NullPointerException("Consumer can't be null");
+
+        this.declaredNodeCount = 0;
+        BlockingQueue<EdgeBlock> output = new ArrayBlockingQueue<>(4 * this.threads);
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads + 1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ChunkSource source;
+            if(isGzip(channel)) {
+                BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(2 * this.threads);
+                executor.execute(() -> decompress(file, this.rangeSize, chunks, output));
+                source = () -> {
+                    Chunk chunk = chunks.take();
+                    if(chunk == Chunk.END)
+                        // anche gli altri thread di analisi devono vederla
+                        chunks.put(chunk);
+                    return chunk;
+                };
+            } else
+                source = new RangeSource(channel, this.rangeSize);
+            Parser[] parsers = new Parser[this.threads];
+            for (int t = 0; t < this.threads; t++) {
+                parsers[t] = new Parser(this.format, source, output);
+                executor.execute(parsers[t]);
+            }
+
+            long edges = 0;
+            int finished = 0;
+            while(finished < this.threads) {
+                EdgeBlock block = output.take();
+                if(block.failure != null)
+                    throw block.failure;
+                if(block.count == -1) {
+                    finished++;
+                    continue;
+                }
+                consumer.accept(block.sources, block.targets, block.weights, block.count);
+                edges += block.count;
+            }
+            for (Parser parser : parsers)
+                this.declaredNodeCount = Math.max(this.declaredNodeCount, parser.declaredNodeCount);
+            return edges;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } finally {
+            // interrompe i thread ancora bloccati sulle code in caso di errore
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isGzip(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        while(magic.hasRemaining() && channel.read(magic, magic.position()) > 0)
+            ;
+        return magic.position() == 2 && (magic.get(0) & 0xff) == 0x1f && (magic.get(1) & 0xff) == 0x8b;
+    }
+
+    /*
+     * Decompressione di un file gzip in blocchi di righe intere: la riga
+     * spezzata alla fine di un blocco viene spostata all' inizio del
+     * successivo.
+     */
+    private static void decompress(Path file, int chunkSize, BlockingQueue<Chunk> chunks, BlockingQueue<EdgeBlock> output) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+            byte[] buffer = new byte[chunkSize];
+            int length = 0;
+            long position = 0;
+            while(true) {
+                int read = in.read(buffer, length, buffer.length - length);
+                if(read == -1) break;
+                length += read;
+                if(length < buffer.length) continue;
+                int end = length;
+                while(end > 0 && buffer[end - 1] != '\n')
+                    end--;
+                if(end == 0) {
+                    // riga più lunga del blocco
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+                chunks.put(new Chunk(ByteBuffer.wrap(Arrays.copyOf(buffer, end)), position));
+                position += end;
+                System.arraycopy(buffer, end, buffer, 0, length - end);
+                length -= end;
+            }
+            if(length > 0)
+                chunks.put(new Chunk(ByteBuffer.wrap(Arrays.copyOf(buffer, length)), position));
+            chunks.put(Chunk.END);
+        } catch (InterruptedException e) {
+            // importazione annullata
+        } catch (IOException e) {
+            fail(output, new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            fail(output, e);
+        }
+    }
+
+    private static void fail(BlockingQueue<EdgeBlock> output, RuntimeException failure) {
+        EdgeBlock block = new EdgeBlock(0);
+        block.failure = failure;
+        try {
+            output.put(block);
+        } catch (InterruptedException e) {
+            // importazione annullata
+        }
+    }
+
+    /*
+     * Porzione del file fatta di righe intere, con la posizione del suo primo
+     * byte nel file (decompresso).
+     */
+    private static final class Chunk {
+
+        static final Chunk END = new Chunk(ByteBuffer.allocate(0), -1);
+
+        final ByteBuffer bytes;
+
+        final long position;
+
+        Chunk(ByteBuffer bytes, long position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+    }
+
+    /*
+     * Sorgente dei blocchi da analizzare, condivisa dai thread di analisi:
+     * restituisce Chunk.END quando il file è finito.
+     */
+    @FunctionalInterface
+    private interface ChunkSource {
+        Chunk next() throws IOException, InterruptedException;
+    }
+
+    /*
+     * Divisione di un file non compresso in intervalli di righe intere,
+     * mappati in memoria uno alla volta su richiesta dei thread di analisi.
+     */
+    private static final class RangeSource implements ChunkSource {
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final int rangeSize;
+
+        private final ByteBuffer probe = ByteBuffer.allocate(4096);
+
+        private long position;
+
+        RangeSource(FileChannel channel, int rangeSize) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.rangeSize = rangeSize;
+        }
+
+        @Override
+        public Chunk next() throws IOException {
+            long start;
+            long end;
+            synchronized (this) {
+                if(this.position >= this.size) return Chunk.END;
+                start = this.position;
+                end = Math.min(start + this.rangeSize, this.size);
+                // estende l' intervallo fino alla fine della riga
+                while(end < this.size && this.byteBefore(end) != '\n')
+                    end = this.nextLineEnd(end);
+                this.position = end;
+            }
+            if(end - start > Integer.MAX_VALUE) throw new IllegalArgumentException("Line too long");
+            return new Chunk(this.channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), start);
+        }
+
+        private byte byteBefore(long position) throws IOException {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            this.channel.read(one, position - 1);
+            return one.get(0);
+        }
+
+        // posizione successiva al primo '\n' da position in poi, o fine file
+        private long nextLineEnd(long position) throws IOException {
+            while(position < this.size) {
+                this.probe.clear();
+                int read = this.channel.read(this.probe, position);
+                if(read <= 0) break;
+                for (int i = 0; i < read; i++)
+                    if(this.probe.get(i) == '\n')
+                        return position + i + 1;
+                position += read;
+            }
+            return this.size;
+        }
+    }
+
+    /*
+     * Blocco di archi in array primitivi; count == -1 segnala la fine del
+     * lavoro di un thread di analisi.
+     */
+    private static final class EdgeBlock {
+
+        final int[] sources;
+
+        final int[] targets;
+
+        final double[] weights;
+
+        int count;
+
+        RuntimeException failure;
+
+        EdgeBlock(int size) {
+            this.sources = new int[size];
+            this.targets = new int[size];
+            this.weights = new double[size];
+        }
+    }
+
+    /*
+     * Thread di analisi: legge i numeri direttamente dai byte dei blocchi.
+     */
+    private static final class Parser implements Runnable {
+
+        // massimo intero rappresentabile esattamente in un double
+        private static final long MAX_EXACT = 1L << 53;
+
+        private static final double[] POWERS_OF_TEN = new double[23];
+
+        static {
+            POWERS_OF_TEN[0] = 1.0;
+            for (int i = 1; i < POWERS_OF_TEN.length; i++)
+                POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+
+        private final Format format;
+
+        private final ChunkSource source;
+
+        private final BlockingQueue<EdgeBlock> output;
+
+        private EdgeBlock block = new EdgeBlock(BLOCK_SIZE);
+
+        private int declaredNodeCount;
+
+        // blocco corrente, posizione di lettura e fine della riga corrente
+        private ByteBuffer bytes;
+
+        private long base;
+
+        private int position;
+
+        private int lineEnd;
+
+        Parser(Format format, ChunkSource source, BlockingQueue<EdgeBlock> output) {
+            this.format = format;
+            this.source = source;
+            this.output = output;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Chunk chunk;
+                while((chunk = this.source.next()) != Chunk.END)
+                    this.parse(chunk);
+                if(this.block.count > 0)
+                    this.output.put(this.block);
+                EdgeBlock end = new EdgeBlock(0);
+                end.count = -1;
+                this.output.put(end);
+            } catch (InterruptedException e) {
+                // importazione annullata
+            } catch (IOException e) {
+                fail(this.output, new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                fail(this.output, e);
+            }
+        }
+
+        private void parse(Chunk chunk) throws InterruptedException {
+            this.bytes = chunk.bytes;
+            this.base = chunk.position;
+            int limit = this.bytes.limit();
+            int lineStart = 0;
+            while(lineStart < limit) {
+                this.lineEnd = lineStart;
+                while(this.lineEnd < limit && this.bytes.get(this.lineEnd) != '\n')
+                    this.lineEnd++;
+                this.position = lineStart;
+                this.parseLine(lineStart);
+                lineStart = this.lineEnd + 1;
+            }
+        }
+
+        private void parseLine(int lineStart) throws InterruptedException {
+            this.skipSeparators();
+            if(this.position == this.lineEnd) return;
+            byte first = this.bytes.get(this.position);
+            switch (this.format) {
+            case DIMACS:
+                if(first == 'p') {
+                    // p sp n m
+                    this.position++;
+                    this.skipSeparators();
+                    while(this.position < this.lineEnd && !this.isSeparator(this.bytes.get(this.position)))
+                        this.position++;
+                    this.declaredNodeCount = this.parseNode(lineStart);
+                    return;
+                }
+                if(first != 'a') {
+                    if(first == 'c') return;
+                    throw this.malformed(lineStart);
+                }
+                this.position++;
+                break;
+            case SNAP:
+                if(first == '#' || first == '%') return;
+                break;
+            case CSV:
+                if(!(first >= '0' && first <= '9') && first != '-' && first != '+') return;
+                break;
+            }
+            int u = this.parseNode(lineStart);
+            int v = this.parseNode(lineStart);
+            double weight = Double.NaN;
+            this.skipSeparators();
+            if(this.position < this.lineEnd)
+                weight = this.parseDouble(lineStart);
+            this.skipSeparators();
+            if(this.position < this.lineEnd && this.format != Format.CSV)
+                throw this.malformed(lineStart);
+            this.emit(u, v, weight);
+        }
+
+        private void emit(int u, int v, double weight) throws InterruptedException {
+            EdgeBlock current = this.block;
+            current.sources[current.count] = u;
+            current.targets[current.count] = v;
+            current.weights[current.count] = weight;
+            if(++current.count == BLOCK_SIZE) {
+                this.output.put(current);
+                this.block = new EdgeBlock(BLOCK_SIZE);
+            }
+        }
+
+        private boolean isSeparator(byte b) {
+            return b == ' ' || b == '\t' || b == ',' || b == '\r' || b == ';';
+        }
+
+        private void skipSeparators() {
+            while(this.position < this.lineEnd && this.isSeparator(this.bytes.get(this.position)))
+                this.position++;
+        }
+
+        private IllegalArgumentException malformed(int lineStart) {
+            return new IllegalArgumentException("Malformed line at byte " + (this.base + lineStart));
+        }
+
+        private int parseNode(int lineStart) {
+            this.skipSeparators();
+            int start = this.position;
+            long value = 0;
+            while(this.position < this.lineEnd) {
+                int digit = this.bytes.get(this.position) - '0';
+                if(digit < 0 || digit > 9) break;
+                value = value * 10 + digit;
+                if(value > Integer.MAX_VALUE) throw this.malformed(lineStart);
+                this.position++;
+            }
+            if(this.position == start || (this.position < this.lineEnd && !this.isSeparator(this.bytes.get(this.position))))
+                throw this.malformed(lineStart);
+            return (int) value;
+        }
+
+        /*
+         * Legge un numero decimale. Se mantissa ed esponente sono abbastanza
+         * piccoli il risultato è esatto con una sola moltiplicazione o
+         * divisione per una potenza di dieci esatta; negli altri casi, rari,
+         * si passa da Double.parseDouble.
+         */
+        private double parseDouble(int lineStart) {
+            int start = this.position;
+            boolean negative = false;
+            byte b = this.bytes.get(this.position);
+            if(b == '-' || b == '+') {
+                negative = b == '-';
+                this.position++;
+            }
+            long mantissa = 0;
+            int exponent = 0;
+            int digits = 0;
+            boolean exact = true;
+            boolean dot = false;
+            while(this.position < this.lineEnd) {
+                b = this.bytes.get(this.position);
+                if(b >= '0' && b <= '9') {
+                    if(mantissa < MAX_EXACT / 10) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        if(dot) exponent--;
+                    } else {
+                        exact = false;
+                        if(!dot) exponent++;
+                    }
+                    digits++;
+                } else if(b == '.' && !dot)
+                    dot = true;
+                else
+                    break;
+                this.position++;
+            }
+            if(digits == 0) throw this.malformed(lineStart);
+            if(this.position < this.lineEnd && (b == 'e' || b == 'E')) {
+                this.position++;
+                boolean negativeExponent = false;
+                if(this.position < this.lineEnd && (this.bytes.get(this.position) == '-' || this.bytes.get(this.position) == '+'))
+                    negativeExponent = this.bytes.get(this.position++) == '-';
+                int value = 0;
+                int exponentStart = this.position;
+                while(this.position < this.lineEnd && this.bytes.get(this.position) >= '0' && this.bytes.get(this.position) <= '9') {
+                    value = Math.min(value * 10 + (this.bytes.get(this.position) - '0'), 100000);
+                    this.position++;
+                }
+                if(this.position == exponentStart) throw this.malformed(lineStart);
+                exponent += negativeExponent ? -value : value;
+            }
+            if(this.position < this.lineEnd && !this.isSeparator(this.bytes.get(this.position)))
+                throw this.malformed(lineStart);
+            if(exact && exponent >= -22 && exponent <= 22) {
+                double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+                return negative ? -value : value;
+            }
+            byte[] text = new byte[this.position - start];
+            this.bytes.get(start, text);
+            return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+        }
+    }
+
+}
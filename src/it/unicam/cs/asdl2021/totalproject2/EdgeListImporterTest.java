@@ -0,0 +1,167 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class EdgeListImporterTest {
+
+    private static Path write(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static Path writeGzip(Path file, String text) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    /*
+     * Archi importati indicizzati per "u v", con il peso.
+     */
+    private static Map<String, Double> collect(EdgeListImporter importer, Path file) {
+        Map<String, Double> edges = new HashMap<>();
+        long count = importer.importEdges(file, (sources, targets, weights, n) -> {
+            for (int i = 0; i < n; i++)
+                assertNull(edges.put(sources[i] + " " + targets[i], weights[i]));
+        });
+        assertEquals(edges.size(), count);
+        return edges;
+    }
+
+    @Test
+    final void testEdgeListImporter(@TempDir Path tempDirectory) throws IOException {
+        assertThrows(NullPointerException.class, () -> new EdgeListImporter(null));
+        assertThrows(IllegalArgumentException.class, () -> new EdgeListImporter(EdgeListImporter.Format.CSV, 0));
+        EdgeListImporter importer = new EdgeListImporter(EdgeListImporter.Format.CSV, 2);
+        assertEquals(EdgeListImporter.Format.CSV, importer.getFormat());
+        Path file = write(tempDirectory.resolve("g.csv"), "1,2,3\n");
+        assertThrows(NullPointerException.class, () -> importer.importEdges(null, (s, t, w, n) -> {
+        }));
+        assertThrows(NullPointerException.class, () -> importer.importEdges(file, null));
+        assertThrows(NullPointerException.class, () -> importer.importGraph(null, true));
+    }
+
+    @Test
+    final void testDimacs(@TempDir Path tempDirectory) throws IOException {
+        Path file = write(tempDirectory.resolve("g.gr"),
+                "c road network\np sp 5 4\nc arcs\na 1 2 7\na 2 3 4\r\na 3 1 12\n\na 4 1 1");
+        EdgeListImporter importer = new EdgeListImporter(EdgeListImporter.Format.DIMACS, 2);
+        Map<String, Double> edges = collect(importer, file);
+        assertEquals(4, edges.size());
+        assertEquals(7.0, edges.get("1 2"));
+        assertEquals(4.0, edges.get("2 3"));
+        assertEquals(1.0, edges.get("4 1"));
+        assertEquals(5, importer.getDeclaredNodeCount());
+        Graph<Integer> g = importer.importGraph(file, true);
+        // il nodo 5 è dichiarato ma non ha archi
+        assertEquals(5, g.nodeCount());
+        assertEquals(4, g.edgeCount());
+        assertEquals(12.0, g.getEdge(new GraphNode<>(3), new GraphNode<>(1)).getWeight());
+        write(file, "p sp 2 1\na 1 x 3\n");
+        assertThrows(IllegalArgumentException.class, () -> importer.importEdges(file, (s, t, w, n) -> {
+        }));
+        write(file, "q 1 2 3\n");
+        assertThrows(IllegalArgumentException.class, () -> importer.importEdges(file, (s, t, w, n) -> {
+        }));
+    }
+
+    @Test
+    final void testSnap(@TempDir Path tempDirectory) throws IOException {
+        Path file = write(tempDirectory.resolve("g.txt"),
+                "# Directed graph\n# FromNodeId\tToNodeId\n0\t1\n1\t2\n2 0\n% other comment\n3\t0\t2.5\n");
+        Map<String, Double> edges = collect(new EdgeListImporter(EdgeListImporter.Format.SNAP, 1), file);
+        assertEquals(4, edges.size());
+        assertTrue(Double.isNaN(edges.get("0 1")));
+        assertEquals(2.5, edges.get("3 0"));
+        Graph<Integer> g = new EdgeListImporter(EdgeListImporter.Format.SNAP).importGraph(file, false);
+        assertFalse(g.isDirected());
+        assertEquals(4, g.nodeCount());
+        assertEquals(4, g.getEdges().size());
+    }
+
+    @Test
+    final void testCsvWeights(@TempDir Path tempDirectory) throws IOException {
+        Path file = write(tempDirectory.resolve("g.csv"),
+                "source,target,weight\n1,2,0.5\n2,3,-1.25\n3,4,1e3\n4,5,2.5E-2\n5,6,123456789012345678\n6,7,+3\n7,8,0.1\n");
+        Map<String, Double> edges = collect(new EdgeListImporter(EdgeListImporter.Format.CSV, 2), file);
+        assertEquals(0.5, edges.get("1 2"));
+        assertEquals(-1.25, edges.get("2 3"));
+        assertEquals(1000.0, edges.get("3 4"));
+        assertEquals(0.025, edges.get("4 5"));
+        assertEquals(123456789012345678.0, edges.get("5 6"));
+        assertEquals(3.0, edges.get("6 7"));
+        assertEquals(0.1, edges.get("7 8"));
+    }
+
+    @Test
+    final void testRepeatedEdgesKeepMinimumWeight(@TempDir Path tempDirectory) throws IOException {
+        Path file = write(tempDirectory.resolve("g.csv"), "1,2,5\n2,1,3\n1,2,4\n1,1,9\n1,1,8\n");
+        Graph<Integer> undirected = new EdgeListImporter(EdgeListImporter.Format.CSV, 2, 8).importGraph(file, false);
+        assertEquals(2, undirected.getEdges().size());
+        assertEquals(3.0, undirected.getEdge(new GraphNode<>(1), new GraphNode<>(2)).getWeight());
+        assertEquals(8.0, undirected.getEdge(new GraphNode<>(1), new GraphNode<>(1)).getWeight());
+        Graph<Integer> directed = new EdgeListImporter(EdgeListImporter.Format.CSV, 2, 8).importGraph(file, true);
+        assertEquals(3, directed.edgeCount());
+        assertEquals(4.0, directed.getEdge(new GraphNode<>(1), new GraphNode<>(2)).getWeight());
+        assertEquals(3.0, directed.getEdge(new GraphNode<>(2), new GraphNode<>(1)).getWeight());
+    }
+
+    @Test
+    final void testSplitAndGzipSameResult(@TempDir Path tempDirectory) throws IOException {
+        Random random = new Random(45);
+        StringBuilder text = new StringBuilder("c random graph\np sp 1000 20000\n");
+        Map<String, Double> expected = new HashMap<>();
+        while(expected.size() < 20000) {
+            int u = 1 + random.nextInt(1000);
+            int v = 1 + random.nextInt(1000);
+            int w = random.nextInt(100000);
+            if(expected.putIfAbsent(u + " " + v, (double) w) == null)
+                text.append("a ").append(u).append(' ').append(v).append(' ').append(w).append('\n');
+        }
+        Path plain = write(tempDirectory.resolve("g.gr"), text.toString());
+        Path gzip = writeGzip(tempDirectory.resolve("g.gr.gz"), text.toString());
+        // intervalli piccoli: il file viene diviso in molte parti
+        for (int threads = 1; threads <= 4; threads++) {
+            EdgeListImporter importer = new EdgeListImporter(EdgeListImporter.Format.DIMACS, threads, 997);
+            assertEquals(expected, collect(importer, plain));
+            assertEquals(1000, importer.getDeclaredNodeCount());
+            assertEquals(expected, collect(importer, gzip));
+            assertEquals(1000, importer.getDeclaredNodeCount());
+        }
+        assertEquals(expected, collect(new EdgeListImporter(EdgeListImporter.Format.DIMACS), gzip));
+    }
+
+    @Test
+    final void testConsumerFailureStopsImport(@TempDir Path tempDirectory) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50000; i++)
+            text.append(i).append('\t').append(i + 1).append('\n');
+        Path file = write(tempDirectory.resolve("g.txt"), text.toString());
+        EdgeListImporter importer = new EdgeListImporter(EdgeListImporter.Format.SNAP, 3, 1000);
+        assertThrows(IllegalStateException.class, () -> importer.importEdges(file, (s, t, w, n) -> {
+            throw new IllegalStateException("stop");
+        }));
+        // l' importatore resta utilizzabile
+        assertEquals(50000, collect(importer, file).size());
+    }
+
+}
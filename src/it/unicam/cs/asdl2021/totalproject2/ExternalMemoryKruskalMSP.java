@@ -0,0 +1,513 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Classe che implementa l' algoritmo di Kruskal in memoria secondaria per
+ * trovare un Minimum Spanning Tree di un grafo non orientato, pesato e con pesi
+ * non negativi i cui archi non possono essere tutti contenuti nello heap.
+ *
+ * A differenza di {@code KruskalMSP<L>} il grafo non viene mai materializzato:
+ * gli archi vengono consumati da un iteratore (che può leggere, ad esempio, da
+ * un file) e accumulati in blocchi ("run") di al più {@code runSize} archi
+ * rappresentati con array primitivi. Ogni run viene ordinata per peso e
+ * scritta su un file temporaneo; le run vengono poi fuse (merge a k vie con la
+ * coda {@code BinaryHeapMinPriorityQueue}) e gli archi, in ordine di peso
+ * crescente, vengono processati con una struttura union-find su array di
+ * interi. Ogni merge apre al più {@code fanIn} run contemporaneamente: se le
+ * run sono di più, vengono prima fuse a gruppi in run più lunghe, con più
+ * passate se serve, così il numero di file aperti resta limitato qualunque
+ * sia il numero di archi. La memoria occupata è quindi {@code O(n + runSize)} dove {@code n} è
+ * il numero di nodi, indipendentemente dal numero di archi.
+ *
+ * Se tutti gli archi stanno in una sola run il disco non viene usato.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ *
+ */
+public class ExternalMemoryKruskalMSP<L> {
+
+    /**
+     * Numero di archi per run usato dal costruttore di default.
+     */
+    public static final int DEFAULT_RUN_SIZE = 1 << 20;
+
+    /**
+     * Numero massimo di run aperte contemporaneamente durante un merge,
+     * usato dai costruttori che non lo ricevono.
+     */
+    public static final int DEFAULT_FAN_IN = 64;
+
+    // dimensione in byte di un arco scritto su file: due indici e un peso
+    private static final int RECORD_SIZE = 2 * Integer.BYTES + Double.BYTES;
+
+    // dimensione del buffer di lettura di ciascuna run durante il merge
+    private static final int MERGE_BUFFER_SIZE = 8 * 1024;
+
+    private final int runSize;
+
+    private final int fanIn;
+
+    private final Path tempDirectory;
+
+    /*
+     * Stato per nodo: associazione nodo -> indice e nodo per indice. Sono le
+     * uniche strutture dati la cui dimensione dipende dal grafo.
+     */
+    private final Map<GraphNode<L>, Integer> nodesIndex;
+
+    private final ArrayList<GraphNode<L>> nodes;
+
+    // Insiemi disgiunti rappresentati con foresta di alberi su array
+    private int[] parent;
+
+    private byte[] rank;
+
+    // Run corrente in memoria
+    private final int[] runNode1;
+
+    private final int[] runNode2;
+
+    private final double[] runWeight;
+
+    private int runLength;
+
+    // run su disco ancora da fondere, nell' ordine in cui sono state scritte
+    private final List<Path> runFiles;
+
+    // tutti i file temporanei creati dal calcolo corrente, da cancellare
+    private final List<Path> tempFiles;
+
+    private final Set<GraphEdge<L>> mspEdgeSet;
+
+    /**
+     * Costruisce un calcolatore che usa run di {@code DEFAULT_RUN_SIZE} archi e
+     * la cartella temporanea di sistema.
+     */
+    public ExternalMemoryKruskalMSP() {
+        this(DEFAULT_RUN_SIZE, null);
+    }
+
+    /**
+     * Costruisce un calcolatore con una dimensione delle run e una cartella
+     * per i file temporanei date.
+     *
+     * @param runSize
+     *                          numero massimo di archi tenuti in memoria
+     *                          contemporaneamente
+     * @param tempDirectory
+     *                          cartella in cui scrivere le run ordinate, se
+     *                          null viene usata la cartella temporanea di
+     *                          sistema
+     * @throws IllegalArgumentException
+     *                                      se {@code runSize} non è positivo
+     */
+    public ExternalMemoryKruskalMSP(int runSize, Path tempDirectory) {
+        this(runSize, DEFAULT_FAN_IN, tempDirectory);
+    }
+
+    /**
+     * Costruisce un calcolatore con una dimensione delle run, un numero
+     * massimo di run fuse insieme e una cartella per i file temporanei dati.
+     *
+     * @param runSize
+     *                          numero massimo di archi tenuti in memoria
+     *                          contemporaneamente
+     * @param fanIn
+     *                          numero massimo di run aperte
+     *                          contemporaneamente durante un merge
+     * @param tempDirectory
+     *                          cartella in cui scrivere le run ordinate, se
+     *                          null viene usata la cartella temporanea di
+     *                          sistema
+     * @throws IllegalArgumentException
+     *                                      se {@code runSize} non è positivo o
+     *                                      se {@code fanIn} è minore di 2
+     */
+    public ExternalMemoryKruskalMSP(int runSize, int fanIn, Path tempDirectory) {
+        if(runSize <= 0) throw new IllegalArgumentException("Run size must be positive");
+        if(fanIn < 2) throw new IllegalArgumentException("Fan-in must be at least 2");
+
+        this.runSize = runSize;
+        this.fanIn = fanIn;
+        this.tempDirectory = tempDirectory;
+        this.nodesIndex = new HashMap<>();
+        this.nodes = new ArrayList<>();
+        this.parent = new int[16];
+        this.rank = new byte[16];
+        this.runNode1 = new int[runSize];
+        this.runNode2 = new int[runSize];
+        this.runWeight = new double[runSize];
+        this.runFiles = new ArrayList<>();
+        this.tempFiles = new ArrayList<>();
+        this.mspEdgeSet = new HashSet<>();
+    }
+
+    /**
+     * Utilizza l' algoritmo di Kruskal per trovare un albero di copertura
+     * minimo (una foresta se il grafo non è connesso) degli archi forniti
+     * dall' iteratore passato, che viene consumato una sola volta. Gli archi
+     * restituiti sono nuovi oggetti uguali (secondo {@code equals}) a quelli
+     * forniti dall' iteratore e con lo stesso peso.
+     *
+     * @param edges
+     *                  un iteratore sugli archi di un grafo non orientato,
+     *                  pesato, con pesi non negativi
+     * @return l'insieme degli archi che costituiscono l' albero di copertura
+     *         minimo trovato
+     * @throws NullPointerException
+     *                                      se l' iteratore o uno degli archi
+     *                                      forniti è null
+     * @throws IllegalArgumentException
+     *                                      se uno degli archi è orientato, non
+     *                                      pesato o con peso negativo
+     * @throws UncheckedIOException
+     *                                      se la scrittura o la lettura delle
+     *                                      run su disco fallisce
+     */
+    public Set<GraphEdge<L>> computeMSP(Iterator<GraphEdge<L>> edges) {
+        if(edges == null) throw new NullPointerException("Edge iterator can't be null");
+
+        // inizializzazione
+        this.nodesIndex.clear();
+        this.nodes.clear();
+        this.mspEdgeSet.clear();
+        this.runFiles.clear();
+        this.tempFiles.clear();
+        this.runLength = 0;
+        try {
+            // fase 1: lettura degli archi e creazione delle run ordinate
+            while (edges.hasNext()) {
+                GraphEdge<L> edge = edges.next();
+                if(edge == null) throw new NullPointerException("Edge can't be null");
+                if(edge.isDirected()) throw new IllegalArgumentException("Edges can't be directed");
+                if(!edge.hasWeight()) throw new IllegalArgumentException("Edges can't be unweighted");
+                if(edge.getWeight() < 0) throw new IllegalArgumentException("Edges can't have negative weights");
+
+                this.runNode1[this.runLength] = this.indexOf(edge.getNode1());
+                this.runNode2[this.runLength] = this.indexOf(edge.getNode2());
+                this.runWeight[this.runLength] = edge.getWeight();
+                this.runLength++;
+                if(this.runLength == this.runSize)
+                    this.flushRun();
+            }
+
+            // fase 2: inizializzazione degli insiemi disgiunti, uno per nodo
+            for (int i = 0; i < this.nodes.size(); i++) {
+                this.parent[i] = i;
+                this.rank[i] = 0;
+            }
+
+            // fase 3: algoritmo di Kruskal sugli archi in ordine di peso
+            if(this.runFiles.isEmpty()) {
+                this.sortRun();
+                this.processInMemoryRun();
+            } else {
+                this.flushRun();
+                this.mergeRuns();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            this.deleteRuns();
+        }
+        return this.mspEdgeSet;
+    }
+
+    /*
+     * Restituisce l' indice associato al nodo, assegnandone uno nuovo se il nodo
+     * non è mai stato incontrato.
+     */
+    private int indexOf(GraphNode<L> node) {
+        Integer index = this.nodesIndex.get(node);
+        if(index != null) return index;
+
+        int newIndex = this.nodes.size();
+        this.nodesIndex.put(node, newIndex);
+        this.nodes.add(node);
+        if(newIndex == this.parent.length) {
+            this.parent = Arrays.copyOf(this.parent, newIndex * 2);
+            this.rank = Arrays.copyOf(this.rank, newIndex * 2);
+        }
+        return newIndex;
+    }
+
+    /*
+     * Esamina un arco nell' ordine di Kruskal: se collega due insiemi diversi
+     * lo aggiunge all' albero e unisce gli insiemi. Restituisce true se l' arco
+     * è stato aggiunto.
+     */
+    private boolean process(int u, int v, double weight) {
+        int i = this.find(u);
+        int j = this.find(v);
+        if(i == j) return false;
+
+        this.mspEdgeSet.add(new GraphEdge<>(this.nodes.get(u), this.nodes.get(v), false, weight));
+        this.union(i, j);
+        return true;
+    }
+
+    private void processInMemoryRun() {
+        int missingEdges = this.nodes.size() - 1;
+        for (int k = 0; k < this.runLength && missingEdges > 0; k++)
+            if(this.process(this.runNode1[k], this.runNode2[k], this.runWeight[k]))
+                missingEdges--;
+    }
+
+    /*
+     * Merge a k vie delle run su disco. Ogni run è rappresentata da un cursore
+     * la cui priorità è il peso dell' arco corrente; il cursore con peso minimo
+     * viene estratto, il suo arco processato e, se la run non è finita,
+     * reinserito con il peso dell' arco successivo. Prima dell' ultimo merge
+     * le run vengono fuse a gruppi di fanIn finché non sono al più fanIn.
+     */
+    private void mergeRuns() throws IOException {
+        while(this.runFiles.size() > this.fanIn) {
+            List<Path> merged = new ArrayList<>();
+            for (int first = 0; first < this.runFiles.size(); first += this.fanIn) {
+                List<Path> group = this.runFiles.subList(first, Math.min(first + this.fanIn, this.runFiles.size()));
+                if(group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                merged.add(this.mergeGroup(group));
+                // le run fuse non servono più
+                for (Path runFile : group)
+                    this.deleteRun(runFile);
+            }
+            this.runFiles.clear();
+            this.runFiles.addAll(merged);
+        }
+
+        BinaryHeapMinPriorityQueue<RunCursor> queue = new BinaryHeapMinPriorityQueue<>();
+        List<RunCursor> cursors = new ArrayList<>();
+        try {
+            this.openCursors(this.runFiles, cursors, queue);
+            // ci si ferma appena l' albero è completo, senza leggere il resto delle run
+            int missingEdges = this.nodes.size() - 1;
+            while(!queue.isEmpty() && missingEdges > 0) {
+                RunCursor cursor = (RunCursor) queue.extractMinimum();
+                if(this.process(cursor.node1, cursor.node2, cursor.weight))
+                    missingEdges--;
+                if(cursor.advance())
+                    queue.insert(cursor);
+            }
+        } finally {
+            for (RunCursor cursor : cursors)
+                cursor.close();
+        }
+    }
+
+    /*
+     * Fonde un gruppo di run in una nuova run ordinata, senza processare gli
+     * archi, e restituisce il file della nuova run.
+     */
+    private Path mergeGroup(List<Path> group) throws IOException {
+        Path runFile = this.createRunFile();
+        BinaryHeapMinPriorityQueue<RunCursor> queue = new BinaryHeapMinPriorityQueue<>();
+        List<RunCursor> cursors = new ArrayList<>();
+        try (DataOutputStream out = this.openRun(runFile)) {
+            this.openCursors(group, cursors, queue);
+            while(!queue.isEmpty()) {
+                RunCursor cursor = (RunCursor) queue.extractMinimum();
+                out.writeInt(cursor.node1);
+                out.writeInt(cursor.node2);
+                out.writeDouble(cursor.weight);
+                if(cursor.advance())
+                    queue.insert(cursor);
+            }
+        } finally {
+            for (RunCursor cursor : cursors)
+                cursor.close();
+        }
+        return runFile;
+    }
+
+    /*
+     * Apre un cursore per ogni run e inserisce nella coda quelli non vuoti;
+     * i cursori aperti vengono aggiunti alla lista anche in caso di errore,
+     * così il chiamante può chiuderli.
+     */
+    private void openCursors(List<Path> runs, List<RunCursor> cursors,
+            BinaryHeapMinPriorityQueue<RunCursor> queue) throws IOException {
+        for (Path runFile : runs) {
+            RunCursor cursor = new RunCursor(runFile);
+            cursors.add(cursor);
+            if(cursor.advance())
+                queue.insert(cursor);
+        }
+    }
+
+    /*
+     * Ordina la run corrente e la scrive su un nuovo file temporaneo.
+     */
+    private void flushRun() throws IOException {
+        if(this.runLength == 0) return;
+
+        this.sortRun();
+        Path runFile = this.createRunFile();
+        this.runFiles.add(runFile);
+        try (DataOutputStream out = this.openRun(runFile)) {
+            for (int k = 0; k < this.runLength; k++) {
+                out.writeInt(this.runNode1[k]);
+                out.writeInt(this.runNode2[k]);
+                out.writeDouble(this.runWeight[k]);
+            }
+        }
+        this.runLength = 0;
+    }
+
+    private Path createRunFile() throws IOException {
+        Path runFile = Files.createTempFile(this.tempDirectory == null
+                ? Path.of(System.getProperty("java.io.tmpdir")) : this.tempDirectory, "kruskal-run", ".bin");
+        this.tempFiles.add(runFile);
+        return runFile;
+    }
+
+    private DataOutputStream openRun(Path runFile) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile), RECORD_SIZE * 4096));
+    }
+
+    private void deleteRun(Path runFile) {
+        try {
+            Files.deleteIfExists(runFile);
+        } catch (IOException e) {
+            // il file temporaneo resta su disco, non compromette il risultato
+        }
+    }
+
+    private void deleteRuns() {
+        for (Path runFile : this.tempFiles)
+            this.deleteRun(runFile);
+        this.runFiles.clear();
+        this.tempFiles.clear();
+    }
+
+    /*
+     * Heapsort sul posto dei tre array paralleli della run, per peso
+     * crescente. Non richiede memoria aggiuntiva né ricorsione.
+     */
+    private void sortRun() {
+        for (int i = this.runLength / 2 - 1; i >= 0; i--)
+            this.siftDown(i, this.runLength);
+        for (int end = this.runLength - 1; end > 0; end--) {
+            this.swap(0, end);
+            this.siftDown(0, end);
+        }
+    }
+
+    private void siftDown(int index, int length) {
+        while (true) {
+            int largest = index;
+            int left = (index * 2) + 1;
+            int right = (index * 2) + 2;
+            if(left < length && this.runWeight[left] > this.runWeight[largest])
+                largest = left;
+            if(right < length && this.runWeight[right] > this.runWeight[largest])
+                largest = right;
+            if(largest == index) return;
+            this.swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int node1 = this.runNode1[i];
+        this.runNode1[i] = this.runNode1[j];
+        this.runNode1[j] = node1;
+        int node2 = this.runNode2[i];
+        this.runNode2[i] = this.runNode2[j];
+        this.runNode2[j] = node2;
+        double weight = this.runWeight[i];
+        this.runWeight[i] = this.runWeight[j];
+        this.runWeight[j] = weight;
+    }
+
+    // find con dimezzamento del cammino
+    private int find(int x) {
+        while (this.parent[x] != x) {
+            this.parent[x] = this.parent[this.parent[x]];
+            x = this.parent[x];
+        }
+        return x;
+    }
+
+    // unione per rango di due radici distinte
+    private void union(int i, int j) {
+        if(this.rank[i] < this.rank[j])
+            this.parent[i] = j;
+        else if(this.rank[i] > this.rank[j])
+            this.parent[j] = i;
+        else {
+            this.parent[j] = i;
+            this.rank[i]++;
+        }
+    }
+
+    /*
+     * Cursore su una run su disco, inserito nella coda con priorità durante il
+     * merge. La priorità è il peso dell' arco corrente.
+     */
+    private static class RunCursor implements PriorityQueueElement, Closeable {
+
+        private final DataInputStream in;
+
+        private int node1;
+
+        private int node2;
+
+        private double weight;
+
+        private int handle;
+
+        RunCursor(Path runFile) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile), MERGE_BUFFER_SIZE));
+        }
+
+        /*
+         * Legge l' arco successivo, restituisce false se la run è finita.
+         */
+        boolean advance() throws IOException {
+            try {
+                this.node1 = this.in.readInt();
+                this.node2 = this.in.readInt();
+                this.weight = this.in.readDouble();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public double getPriority() {
+            return this.weight;
+        }
+
+        @Override
+        public void setPriority(double newPriority) {
+            this.weight = newPriority;
+        }
+
+        @Override
+        public int getHandle() {
+            return this.handle;
+        }
+
+        @Override
+        public void setHandle(int newHandle) {
+            this.handle = newHandle;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class ExternalMemoryKruskalMSPTest {
+
+    private final GraphNode<String> a = new GraphNode<String>("a");
+    private final GraphNode<String> b = new GraphNode<String>("b");
+    private final GraphNode<String> c = new GraphNode<String>("c");
+    private final GraphNode<String> d = new GraphNode<String>("d");
+    private final GraphNode<String> e = new GraphNode<String>("e");
+    private final GraphNode<String> f = new GraphNode<String>("f");
+    private final GraphNode<String> g = new GraphNode<String>("g");
+    private final GraphNode<String> h = new GraphNode<String>("h");
+    private final GraphNode<String> i = new GraphNode<String>("i");
+
+    private List<GraphEdge<String>> repeatedCode() {
+        List<GraphEdge<String>> edges = new ArrayList<>();
+        edges.add(new GraphEdge<String>(a, b, false, 4));
+        edges.add(new GraphEdge<String>(a, h, false, 8.5));
+        edges.add(new GraphEdge<String>(b, h, false, 11));
+        edges.add(new GraphEdge<String>(b, c, false, 8));
+        edges.add(new GraphEdge<String>(c, i, false, 2));
+        edges.add(new GraphEdge<String>(c, d, false, 7));
+        edges.add(new GraphEdge<String>(c, f, false, 4));
+        edges.add(new GraphEdge<String>(d, f, false, 14));
+        edges.add(new GraphEdge<String>(d, e, false, 9));
+        edges.add(new GraphEdge<String>(e, f, false, 10));
+        edges.add(new GraphEdge<String>(f, g, false, 2));
+        edges.add(new GraphEdge<String>(g, i, false, 6));
+        edges.add(new GraphEdge<String>(g, h, false, 1));
+        edges.add(new GraphEdge<String>(h, i, false, 7));
+        return edges;
+    }
+
+    private Set<GraphEdge<String>> expectedResult() {
+        Set<GraphEdge<String>> result = new HashSet<GraphEdge<String>>();
+        result.add(new GraphEdge<String>(a, b, false, 4));
+        result.add(new GraphEdge<String>(b, c, false, 8));
+        result.add(new GraphEdge<String>(c, i, false, 2));
+        result.add(new GraphEdge<String>(c, d, false, 7));
+        result.add(new GraphEdge<String>(c, f, false, 4));
+        result.add(new GraphEdge<String>(d, e, false, 9));
+        result.add(new GraphEdge<String>(f, g, false, 2));
+        result.add(new GraphEdge<String>(g, h, false, 1));
+        return result;
+    }
+
+    @Test
+    final void testEccezioni() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalMemoryKruskalMSP<String>(0, null));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalMemoryKruskalMSP<String>(4, 1, null));
+        ExternalMemoryKruskalMSP<String> calculator = new ExternalMemoryKruskalMSP<>();
+        assertThrows(NullPointerException.class, () -> calculator.computeMSP(null));
+        List<GraphEdge<String>> directed = List.of(new GraphEdge<>(a, b, true, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> calculator.computeMSP(directed.iterator()));
+        List<GraphEdge<String>> unWeighted = List.of(new GraphEdge<>(a, b, false));
+        assertThrows(IllegalArgumentException.class, () -> calculator.computeMSP(unWeighted.iterator()));
+        List<GraphEdge<String>> negativeWeighted = List.of(new GraphEdge<>(a, b, false, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> calculator.computeMSP(negativeWeighted.iterator()));
+    }
+
+    @Test
+    final void testComputeMSPInMemory() {
+        ExternalMemoryKruskalMSP<String> alg = new ExternalMemoryKruskalMSP<>();
+        assertEquals(expectedResult(), alg.computeMSP(repeatedCode().iterator()));
+        // il calcolatore è riutilizzabile
+        assertEquals(expectedResult(), alg.computeMSP(repeatedCode().iterator()));
+    }
+
+    @Test
+    final void testComputeMSPOnDisk(@TempDir Path tempDirectory) throws Exception {
+        // run di 3 archi: 5 run su disco da fondere
+        ExternalMemoryKruskalMSP<String> alg = new ExternalMemoryKruskalMSP<>(3, tempDirectory);
+        Set<GraphEdge<String>> msp = alg.computeMSP(repeatedCode().iterator());
+        assertEquals(expectedResult(), msp);
+        // i pesi degli archi restituiti sono quelli originali
+        double totalWeight = 0.0;
+        for (GraphEdge<String> edge : msp)
+            totalWeight += edge.getWeight();
+        assertEquals(37.0, totalWeight);
+        // le run temporanee vengono cancellate
+        try (var files = Files.list(tempDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    final void testComputeMSPSameAsKruskal(@TempDir Path tempDirectory) {
+        Graph<String> gr = new MapAdjacentListUndirectedGraph<String>();
+        for (GraphNode<String> node : List.of(a, b, c, d, e, f, g, h, i))
+            gr.addNode(node);
+        for (GraphEdge<String> edge : repeatedCode())
+            gr.addEdge(edge);
+        Set<GraphEdge<String>> expected = new KruskalMSP<String>().computeMSP(gr);
+        ExternalMemoryKruskalMSP<String> alg = new ExternalMemoryKruskalMSP<>(4, tempDirectory);
+        assertEquals(expected, alg.computeMSP(gr.getEdges().iterator()));
+    }
+
+    @Test
+    final void testComputeMSPBoundedFanIn(@TempDir Path tempDirectory) throws Exception {
+        Graph<String> gr = new MapAdjacentListUndirectedGraph<String>();
+        for (GraphNode<String> node : List.of(a, b, c, d, e, f, g, h, i))
+            gr.addNode(node);
+        for (GraphEdge<String> edge : repeatedCode())
+            gr.addEdge(edge);
+        Set<GraphEdge<String>> expected = new KruskalMSP<String>().computeMSP(gr);
+        // run di un arco e merge di al più 2 run: 14 run, 4 passate intermedie
+        ExternalMemoryKruskalMSP<String> alg = new ExternalMemoryKruskalMSP<>(1, 2, tempDirectory);
+        Set<GraphEdge<String>> msp = alg.computeMSP(repeatedCode().iterator());
+        assertEquals(expected, msp);
+        double totalWeight = 0.0;
+        for (GraphEdge<String> edge : msp)
+            totalWeight += edge.getWeight();
+        assertEquals(37.0, totalWeight);
+        // 5 run con fan-in 3: una passata intermedia con un gruppo di una sola run
+        assertEquals(expected, new ExternalMemoryKruskalMSP<String>(3, 3, tempDirectory)
+                .computeMSP(repeatedCode().iterator()));
+        try (var files = Files.list(tempDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    final void testComputeMSPDisconnected() {
+        // grafo non connesso: viene restituita una foresta di copertura minima
+        List<GraphEdge<String>> edges = new ArrayList<>();
+        edges.add(new GraphEdge<String>(a, b, false, 1));
+        edges.add(new GraphEdge<String>(b, c, false, 2));
+        edges.add(new GraphEdge<String>(a, c, false, 3));
+        edges.add(new GraphEdge<String>(d, e, false, 5));
+        Set<GraphEdge<String>> result = new HashSet<GraphEdge<String>>();
+        result.add(new GraphEdge<String>(a, b, false, 1));
+        result.add(new GraphEdge<String>(b, c, false, 2));
+        result.add(new GraphEdge<String>(d, e, false, 5));
+        ExternalMemoryKruskalMSP<String> alg = new ExternalMemoryKruskalMSP<>(2, null);
+        assertEquals(result, alg.computeMSP(edges.iterator()));
+    }
+
+}
@@ -0,0 +1,457 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Costruzione di un grafo a partire da gruppi di nodi e di archi, senza i
+ * controlli che {@code addNode} e {@code addEdge} ripetono a ogni chiamata.
+ * I nodi ricevono un indice denso in ordine di inserimento; gli archi sono
+ * accumulati in array primitivi e tutto il lavoro è rimandato a
+ * {@code build()}, che:
+ * <ol>
+ * <li>controlla una sola volta indici e pesi di tutti gli archi;</li>
+ * <li>ordina gli archi per nodo di partenza e di arrivo con due passate di
+ * counting sort, in tempo {@code O(n + m)}, e ne elimina le ripetizioni: di
+ * più archi tra gli stessi nodi resta il peso minimo (o {@code Double.NaN} se
+ * nessuno è pesato); in un grafo non orientato gli archi {@code (u, v)} e
+ * {@code (v, u)} sono lo stesso arco;</li>
+ * <li>crea il grafo con le strutture già dimensionate: un
+ * {@code AdjacencyMatrixDirectedGraph<L>} con le righe della matrice allocate
+ * una sola volta, o un {@code MapAdjacentListUndirectedGraph<L>} con gli
+ * insiemi di archi dimensionati sul grado di ogni nodo.</li>
+ * </ol>
+ * Il costruttore non viene modificato da {@code build()} e può continuare a
+ * ricevere nodi e archi.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class GraphBuilder<L> {
+
+    private final boolean directed;
+
+    // nodi per indice e associazione inversa etichetta -> indice
+    private final ArrayList<GraphNode<L>> nodes;
+
+    private final Map<L, Integer> nodesIndex;
+
+    private int[] from;
+
+    private int[] to;
+
+    private double[] weights;
+
+    private int edgeCount;
+
+    /**
+     * Crea un costruttore di grafi vuoto.
+     *
+     * @param directed
+     *                     true per costruire un grafo orientato
+     */
+    public GraphBuilder(boolean directed) {
+        this(directed, 16, 16);
+    }
+
+    /**
+     * Crea un costruttore di grafi vuoto con le strutture dimensionate per un
+     * certo numero di nodi e di archi.
+     *
+     * @param directed
+     *                          true per costruire un grafo orientato
+     * @param expectedNodes
+     *                          il numero di nodi previsto
+     * @param expectedEdges
+     *                          il numero di archi previsto
+     * @throws IllegalArgumentException
+     *                                      se uno dei numeri previsti è
+     *                                      negativo
+     */
+    public GraphBuilder(boolean directed, int expectedNodes, int expectedEdges) {
+        if(expectedNodes < 0 || expectedEdges < 0)
+            throw new IllegalArgumentException("Expected sizes can't be negative");
+        this.directed = directed;
+        this.nodes = new ArrayList<>(expectedNodes);
+        this.nodesIndex = new HashMap<>(capacityFor(expectedNodes));
+        this.from = new int[expectedEdges];
+        this.to = new int[expectedEdges];
+        this.weights = new double[expectedEdges];
+    }
+
+    // capacità di una tabella hash che contiene size elementi senza crescere
+    static int capacityFor(int size) {
+        return (int) Math.min((size * 4L) / 3 + 1, 1 << 30);
+    }
+
+    /**
+     * @return true se il grafo costruito sarà orientato
+     */
+    public boolean isDirected() {
+        return this.directed;
+    }
+
+    /**
+     * @return il numero di nodi inseriti
+     */
+    public int nodeCount() {
+        return this.nodes.size();
+    }
+
+    /**
+     * @return il numero di archi inseriti, comprese le ripetizioni
+     */
+    public int edgeCount() {
+        return this.edgeCount;
+    }
+
+    /**
+     * Aggiunge un nodo, se non è già presente.
+     *
+     * @param label
+     *                  l' etichetta del nodo
+     * @return l' indice del nodo
+     * @throws NullPointerException
+     *                                  se l' etichetta passata è nulla
+     */
+    public int addNode(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        Integer index = this.nodesIndex.get(label);
+        if(index != null) return index;
+        this.nodesIndex.put(label, this.nodes.size());
+        this.nodes.add(new GraphNode<>(label));
+        return this.nodes.size() - 1;
+    }
+
+    /**
+     * Aggiunge un gruppo di nodi, saltando quelli già presenti.
+     *
+     * @param labels
+     *                   le etichette dei nodi
+     * @return questo costruttore
+     * @throws NullPointerException
+     *                                  se l' array o una delle etichette
+     *                                  passate sono nulli
+     */
+    public GraphBuilder<L> addNodes(L[] labels) {
+        if(labels == null) throw new NullPointerException("Labels can't be null");
+        this.nodes.ensureCapacity(this.nodes.size() + labels.length);
+        for (L label : labels)
+            this.addNode(label);
+        return this;
+    }
+
+    /**
+     * Aggiunge i nodi di uno stream, saltando quelli già presenti.
+     *
+     * @param labels
+     *                   le etichette dei nodi
+     * @return questo costruttore
+     * @throws NullPointerException
+     *                                  se lo stream o una delle etichette
+     *                                  passate sono nulli
+     */
+    public GraphBuilder<L> addNodes(Stream<L> labels) {
+        if(labels == null) throw new NullPointerException("Labels can't be null");
+        labels.forEachOrdered(this::addNode);
+        return this;
+    }
+
+    /**
+     * Restituisce l' indice di un nodo.
+     *
+     * @param label
+     *                  l' etichetta del nodo
+     * @return l' indice del nodo, -1 se il nodo non è stato inserito
+     * @throws NullPointerException
+     *                                  se l' etichetta passata è nulla
+     */
+    public int indexOf(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        Integer index = this.nodesIndex.get(label);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Aggiunge un arco pesato, inserendo i nodi se non sono presenti.
+     *
+     * @param label1
+     *                   l' etichetta del primo nodo (sorgente se il grafo è
+     *                   orientato)
+     * @param label2
+     *                   l' etichetta del secondo nodo (destinazione se il
+     *                   grafo è orientato)
+     * @param weight
+     *                   il peso dell' arco, {@code Double.NaN} se l' arco non
+     *                   è pesato
+     * @return questo costruttore
+     * @throws NullPointerException
+     *                                  se una delle etichette passate è nulla
+     */
+    public GraphBuilder<L> addEdge(L label1, L label2, double weight) {
+        int u = this.addNode(label1);
+        int v = this.addNode(label2);
+        this.ensureEdgeCapacity(1);
+        this.from[this.edgeCount] = u;
+        this.to[this.edgeCount] = v;
+        this.weights[this.edgeCount] = weight;
+        this.edgeCount++;
+        return this;
+    }
+
+    /**
+     * Aggiunge un arco non pesato, inserendo i nodi se non sono presenti.
+     *
+     * @param label1
+     *                   l' etichetta del primo nodo (sorgente se il grafo è
+     *                   orientato)
+     * @param label2
+     *                   l' etichetta del secondo nodo (destinazione se il
+     *                   grafo è orientato)
+     * @return questo costruttore
+     * @throws NullPointerException
+     *                                  se una delle etichette passate è nulla
+     */
+    public GraphBuilder<L> addEdge(L label1, L label2) {
+        return this.addEdge(label1, label2, Double.NaN);
+    }
+
+    /**
+     * Aggiunge un gruppo di archi tra nodi già inseriti, identificati dal loro
+     * indice. Gli indici vengono controllati solo da {@code build()}.
+     *
+     * @param sources
+     *                    gli indici dei primi nodi
+     * @param targets
+     *                    gli indici dei secondi nodi
+     * @param weights
+     *                    i pesi degli archi, null se nessun arco è pesato
+     * @param count
+     *                    il numero di archi da prendere dall' inizio degli
+     *                    array
+     * @return questo costruttore
+     * @throws NullPointerException
+     *                                      se uno degli array di indici è
+     *                                      nullo
+     * @throws IllegalArgumentException
+     *                                      se gli array contengono meno di
+     *                                      {@code count} elementi
+     */
+    public GraphBuilder<L> addEdges(int[] sources, int[] targets, double[] weights, int count) {
+        if(sources == null || targets == null) throw new NullPointerException("Indices can't be null");
+        if(count < 0 || sources.length < count || targets.length < count || (weights != null && weights.length < count))
+            throw new IllegalArgumentException("Arrays must contain count elements");
+        this.ensureEdgeCapacity(count);
+        System.arraycopy(sources, 0, this.from, this.edgeCount, count);
+        System.arraycopy(targets, 0, this.to, this.edgeCount, count);
+        if(weights == null)
+            Arrays.fill(this.weights, this.edgeCount, this.edgeCount + count, Double.NaN);
+        else
+            System.arraycopy(weights, 0, this.weights, this.edgeCount, count);
+        this.edgeCount += count;
+        return this;
+    }
+
+    /**
+     * Aggiunge gli archi di uno stream, inserendo i nodi se non sono
+     * presenti.
+     *
+     * @param edges
+     *                  gli archi
+     * @return questo costruttore
+     * @throws NullPointerException
+     *                                      se lo stream o uno degli archi
+     *                                      passati sono nulli
+     * @throws IllegalArgumentException
+     *                                      se un arco è orientato e il grafo
+     *                                      no, o viceversa
+     */
+    public GraphBuilder<L> addEdges(Stream<GraphEdge<L>> edges) {
+        if(edges == null) throw new NullPointerException("Edges can't be null");
+        edges.forEachOrdered(edge -> {
+            if(edge.isDirected() != this.directed)
+                throw new IllegalArgumentException("Edge direction doesn't match the graph");
+            this.addEdge(edge.getNode1().getLabel(), edge.getNode2().getLabel(), edge.getWeight());
+        });
+        return this;
+    }
+
+    private void ensureEdgeCapacity(int more) {
+        int needed = this.edgeCount + more;
+        if(needed < 0) throw new IllegalStateException("Too many edges");
+        if(needed <= this.from.length) return;
+        int capacity = (int) Math.min(Math.max(needed, this.from.length * 2L), Integer.MAX_VALUE - 8);
+        this.from = Arrays.copyOf(this.from, capacity);
+        this.to = Arrays.copyOf(this.to, capacity);
+        this.weights = Arrays.copyOf(this.weights, capacity);
+    }
+
+    /**
+     * Costruisce il grafo con i nodi e gli archi inseriti: un
+     * {@code AdjacencyMatrixDirectedGraph<L>} se orientato, un
+     * {@code MapAdjacentListUndirectedGraph<L>} altrimenti.
+     *
+     * @return il nuovo grafo
+     * @throws IllegalArgumentException
+     *                                      se un arco si riferisce a un indice
+     *                                      di nodo non valido o ha peso
+     *                                      infinito
+     */
+    public Graph<L> build() {
+        return emit(this.directed, this.nodes, this.sortedUniqueEdges());
+    }
+
+    /*
+     * Crea il grafo con nodi e archi senza ripetizioni, ordinati per nodo di
+     * partenza.
+     */
+    static <L> Graph<L> emit(boolean directed, List<GraphNode<L>> nodes, EdgeList edges) {
+        return directed ? buildMatrix(nodes, edges) : buildLists(nodes, edges);
+    }
+
+    /*
+     * Archi ordinati per nodo di partenza e di arrivo, senza ripetizioni, con
+     * gli offset CSR per nodo di partenza.
+     */
+    static final class EdgeList {
+
+        final int[] offsets;
+
+        final int[] from;
+
+        final int[] to;
+
+        final double[] weights;
+
+        final int count;
+
+        EdgeList(int[] offsets, int[] from, int[] to, double[] weights, int count) {
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+            this.weights = weights;
+            this.count = count;
+        }
+    }
+
+    EdgeList sortedUniqueEdges() {
+        int n = this.nodes.size();
+        int m = this.edgeCount;
+        // controllo unico di indici e pesi; in un grafo non orientato l'
+        // arco è memorizzato con il nodo di indice minore per primo
+        int[] a = new int[m];
+        int[] b = new int[m];
+        for (int i = 0; i < m; i++) {
+            int u = this.from[i];
+            int v = this.to[i];
+            if(u < 0 || u >= n || v < 0 || v >= n)
+                throw new IllegalArgumentException("Edge refers to a node that doesn't exist");
+            if(Double.isInfinite(this.weights[i]))
+                throw new IllegalArgumentException("Weights must be finite or NaN");
+            a[i] = this.directed ? u : Math.min(u, v);
+            b[i] = this.directed ? v : Math.max(u, v);
+        }
+        // counting sort stabile per nodo di arrivo, poi per nodo di partenza
+        int[] byTarget = countingSort(b, n, null);
+        int[] order = countingSort(a, n, byTarget);
+        return unique(a, b, this.weights, order, n);
+    }
+
+    /*
+     * Restituisce la permutazione che ordina keys in modo stabile, partendo
+     * dall' ordine input (null per l' ordine naturale).
+     */
+    static int[] countingSort(int[] keys, int n, int[] input) {
+        int m = keys.length;
+        int[] next = new int[n + 1];
+        for (int key : keys)
+            next[key + 1]++;
+        for (int u = 0; u < n; u++)
+            next[u + 1] += next[u];
+        int[] output = new int[m];
+        for (int k = 0; k < m; k++) {
+            int i = input == null ? k : input[k];
+            output[next[keys[i]]++] = i;
+        }
+        return output;
+    }
+
+    /*
+     * Elimina le ripetizioni da archi già ordinati, tenendo il peso minimo.
+     */
+    static EdgeList unique(int[] a, int[] b, double[] weights, int[] order, int n) {
+        int m = order.length;
+        int[] offsets = new int[n + 1];
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] w = new double[m];
+        int count = 0;
+        for (int k = 0; k < m; k++) {
+            int i = order[k];
+            if(count > 0 && from[count - 1] == a[i] && to[count - 1] == b[i]) {
+                if(Double.isNaN(w[count - 1]) || weights[i] < w[count - 1])
+                    w[count - 1] = weights[i];
+                continue;
+            }
+            from[count] = a[i];
+            to[count] = b[i];
+            w[count] = weights[i];
+            offsets[a[i] + 1]++;
+            count++;
+        }
+        for (int u = 0; u < n; u++)
+            offsets[u + 1] += offsets[u];
+        return new EdgeList(offsets, from, to, w, count);
+    }
+
+    private static <L> Graph<L> buildMatrix(List<GraphNode<L>> nodes, EdgeList edges) {
+        int n = nodes.size();
+        AdjacencyMatrixDirectedGraph<L> graph = new AdjacencyMatrixDirectedGraph<>();
+        graph.nodesIndex = new HashMap<>(capacityFor(n));
+        graph.matrix = new ArrayList<>(n);
+        for (int u = 0; u < n; u++) {
+            graph.nodesIndex.put(nodes.get(u), u);
+            // ogni riga è allocata una sola volta con la dimensione finale
+            ArrayList<GraphEdge<L>> row = new ArrayList<>(Collections.nCopies(n, (GraphEdge<L>) null));
+            for (int k = edges.offsets[u]; k < edges.offsets[u + 1]; k++)
+                row.set(edges.to[k], new GraphEdge<>(nodes.get(u), nodes.get(edges.to[k]), true, edges.weights[k]));
+            graph.matrix.add(row);
+        }
+        return graph;
+    }
+
+    private static <L> Graph<L> buildLists(List<GraphNode<L>> nodes, EdgeList edges) {
+        int n = nodes.size();
+        int[] degree = new int[n];
+        for (int k = 0; k < edges.count; k++) {
+            degree[edges.from[k]]++;
+            if(edges.from[k] != edges.to[k])
+                degree[edges.to[k]]++;
+        }
+        MapAdjacentListUndirectedGraph<L> graph = new MapAdjacentListUndirectedGraph<>(n);
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Set<GraphEdge<L>>[] sets = new Set[n];
+        for (int u = 0; u < n; u++) {
+            sets[u] = new HashSet<>(capacityFor(degree[u]));
+            graph.adjacentLists.put(nodes.get(u), sets[u]);
+        }
+        for (int k = 0; k < edges.count; k++) {
+            int u = edges.from[k];
+            int v = edges.to[k];
+            GraphEdge<L> edge = new GraphEdge<>(nodes.get(u), nodes.get(v), false, edges.weights[k]);
+            sets[u].add(edge);
+            sets[v].add(edge);
+        }
+        return graph;
+    }
+
+}
@@ -0,0 +1,119 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class GraphBuilderTest {
+
+    private final GraphNode<String> na = new GraphNode<String>("a");
+    private final GraphNode<String> nb = new GraphNode<String>("b");
+    private final GraphNode<String> nc = new GraphNode<String>("c");
+
+    @Test
+    final void testGraphBuilder() {
+        assertThrows(IllegalArgumentException.class, () -> new GraphBuilder<String>(true, -1, 0));
+        GraphBuilder<String> builder = new GraphBuilder<>(true);
+        assertTrue(builder.isDirected());
+        assertThrows(NullPointerException.class, () -> builder.addNode(null));
+        assertThrows(NullPointerException.class, () -> builder.addEdge("a", null));
+        assertThrows(NullPointerException.class, () -> builder.addNodes((String[]) null));
+        assertThrows(NullPointerException.class, () -> builder.addEdges(null, new int[0], null, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdges(new int[1], new int[1], null, 2));
+        assertEquals(0, builder.addNode("a"));
+        assertEquals(1, builder.addNode("b"));
+        assertEquals(0, builder.addNode("a"));
+        assertEquals(-1, builder.indexOf("c"));
+        assertEquals(2, builder.nodeCount());
+        Graph<String> g = builder.build();
+        assertEquals(2, g.nodeCount());
+        assertEquals(0, g.edgeCount());
+    }
+
+    @Test
+    final void testValidation() {
+        GraphBuilder<String> builder = new GraphBuilder<>(true);
+        builder.addNodes(new String[] { "a", "b" });
+        builder.addEdges(new int[] { 0 }, new int[] { 2 }, null, 1);
+        assertThrows(IllegalArgumentException.class, () -> builder.build());
+        GraphBuilder<String> infinite = new GraphBuilder<>(false);
+        infinite.addEdge("a", "b", Double.POSITIVE_INFINITY);
+        assertThrows(IllegalArgumentException.class, () -> infinite.build());
+        GraphBuilder<String> undirected = new GraphBuilder<>(false);
+        assertThrows(IllegalArgumentException.class,
+                () -> undirected.addEdges(Stream.of(new GraphEdge<>(na, nb, true))));
+    }
+
+    @Test
+    final void testDirectedDeduplication() {
+        GraphBuilder<String> builder = new GraphBuilder<>(true, 3, 6);
+        builder.addEdge("a", "b", 5.0).addEdge("a", "b", 2.0).addEdge("b", "a", 7.0).addEdge("c", "a");
+        builder.addEdges(new int[] { 0, 2 }, new int[] { 1, 0 }, new double[] { 3.0, 1.0 }, 2);
+        assertEquals(6, builder.edgeCount());
+        Graph<String> g = builder.build();
+        assertTrue(g.isDirected());
+        assertEquals(3, g.edgeCount());
+        assertEquals(2.0, g.getEdge(na, nb).getWeight());
+        assertEquals(7.0, g.getEdge(nb, na).getWeight());
+        // un arco pesato prevale su quelli senza peso
+        assertEquals(1.0, g.getEdge(nc, na).getWeight());
+        // ogni arco è nella cella della matrice dei suoi nodi
+        assertEquals(new GraphEdge<>(na, nb, true), g.getEdgeAtNodeIndexes(0, 1));
+        assertEquals(new GraphEdge<>(nc, na, true), g.getEdgeAtNodeIndexes(2, 0));
+        assertNull(g.getEdgeAtNodeIndexes(0, 2));
+        assertTrue(g.containsEdge(new GraphEdge<>(nb, na, true)));
+        // il grafo costruito si può ancora modificare normalmente
+        assertTrue(g.addEdge(new GraphEdge<>(na, nc, true, 4.0)));
+        assertEquals(4, g.edgeCount());
+    }
+
+    @Test
+    final void testUndirectedDeduplication() {
+        GraphBuilder<String> builder = new GraphBuilder<>(false);
+        builder.addEdges(Stream.of(new GraphEdge<>(na, nb, false, 3.0), new GraphEdge<>(nb, na, false, 2.0),
+                new GraphEdge<>(nc, nc, false, 1.0), new GraphEdge<>(nb, nc, false)));
+        Graph<String> g = builder.build();
+        assertFalse(g.isDirected());
+        assertEquals(3, g.getEdges().size());
+        assertEquals(2.0, g.getEdge(na, nb).getWeight());
+        assertEquals(2, g.getEdgesOf(nb).size());
+        assertEquals(2, g.getEdgesOf(nc).size());
+        assertFalse(g.getEdge(nb, nc).hasWeight());
+    }
+
+    @Test
+    final void testSameGraphAsAddEdge() {
+        Random random = new Random(46);
+        for (boolean directed : new boolean[] { true, false }) {
+            GraphBuilder<Integer> builder = new GraphBuilder<>(directed);
+            Graph<Integer> expected = directed ? new AdjacencyMatrixDirectedGraph<>() : new MapAdjacentListUndirectedGraph<>();
+            for (int i = 0; i < 60; i++) {
+                builder.addNode(i);
+                expected.addNode(new GraphNode<>(i));
+            }
+            for (int k = 0; k < 400; k++) {
+                int u = random.nextInt(60);
+                int v = random.nextInt(60);
+                builder.addEdge(u, v, 1.0);
+                expected.addEdge(new GraphEdge<>(new GraphNode<>(u), new GraphNode<>(v), directed, 1.0));
+            }
+            Graph<Integer> built = builder.build();
+            assertEquals(expected.getNodes(), built.getNodes());
+            assertEquals(expected.getEdges(), built.getEdges());
+            for (GraphNode<Integer> node : expected.getNodes())
+                assertEquals(expected.getEdgesOf(node), built.getEdgesOf(node));
+            // il costruttore resta utilizzabile dopo build()
+            builder.addEdge(1000, 1001, 1.0);
+            assertEquals(expected.getEdges().size() + 1, builder.build().getEdges().size());
+        }
+    }
+
+}
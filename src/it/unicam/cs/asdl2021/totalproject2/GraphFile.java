@@ -0,0 +1,231 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Formato binario compatto per salvare un grafo su file e ricaricarlo senza
+ * ricostruirlo arco per arco: il file contiene la rappresentazione CSR di una
+ * {@code GraphSnapshot<L>} e viene letto da {@code MappedGraph<L>} mappandolo
+ * in memoria, senza copie.
+ *
+ * Tutti i valori sono little-endian e ogni sezione inizia a un multiplo di 8
+ * byte. Il file è composto da:
+ * <ol>
+ * <li>intestazione di {@code HEADER_SIZE} byte: {@code MAGIC} e
+ * {@code VERSION} (int), flag (int, bit 0 se il grafo è orientato), un int
+ * riservato, numero di nodi e di arc (long) e la posizione nel file delle
+ * cinque sezioni seguenti (long);</li>
+ * <li>dizionario delle etichette: {@code n + 1} long, dove l' etichetta del
+ * nodo {@code u} occupa i byte da {@code [u]} (incluso) a {@code [u + 1]}
+ * (escluso) della sezione successiva;</li>
+ * <li>byte delle etichette, codificate con una {@code LabelCodec<L>};</li>
+ * <li>offsets: {@code n + 1} long, gli arc uscenti dal nodo {@code u} sono
+ * quelli da {@code offsets[u]} (incluso) a {@code offsets[u + 1]}
+ * (escluso);</li>
+ * <li>destinazioni degli arc: {@code m} int;</li>
+ * <li>pesi degli arc: {@code m} double, {@code Double.NaN} per gli archi non
+ * pesati.</li>
+ * </ol>
+ * Come nella fotografia, un arco non orientato compare una volta per verso
+ * (una sola se è un cappio).
+ *
+ * @author Damiano Pasquini
+ *
+ */
+public final class GraphFile {
+
+    /**
+     * Primi quattro byte di ogni file: "GRPH".
+     */
+    public static final int MAGIC = 0x48505247;
+
+    /**
+     * Versione del formato.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Dimensione in byte dell' intestazione.
+     */
+    public static final int HEADER_SIZE = 4 * Integer.BYTES + 7 * Long.BYTES;
+
+    // flag dell' intestazione
+    static final int DIRECTED = 1;
+
+    // dimensione del buffer di scrittura
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private GraphFile() {
+    }
+
+    /**
+     * Salva un grafo in un file, sovrascrivendolo se esiste.
+     *
+     * @param <L>
+     *                  etichette dei nodi del grafo
+     * @param graph
+     *                  il grafo da salvare
+     * @param file
+     *                  il file da scrivere
+     * @param codec
+     *                  la codifica delle etichette dei nodi
+     * @throws NullPointerException
+     *                                  se uno dei parametri passati è nullo
+     * @throws UncheckedIOException
+     *                                  se la scrittura del file fallisce
+     */
+    public static <L> void write(Graph<L> graph, Path file, LabelCodec<L> codec) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        write(new GraphSnapshot<>(graph), file, codec);
+    }
+
+    /**
+     * Salva la fotografia di un grafo in un file, sovrascrivendolo se esiste.
+     * Gli indici dei nodi nel file sono quelli della fotografia.
+     *
+     * @param <L>
+     *                     etichette dei nodi del grafo
+     * @param snapshot
+     *                     la fotografia da salvare
+     * @param file
+     *                     il file da scrivere
+     * @param codec
+     *                     la codifica delle etichette dei nodi
+     * @throws NullPointerException
+     *                                  se uno dei parametri passati è nullo
+     * @throws UncheckedIOException
+     *                                  se la scrittura del file fallisce
+     */
+    public static <L> void write(GraphSnapshot<L> snapshot, Path file, LabelCodec<L> codec) {
+        if(snapshot == null) throw new NullPointerException("Snapshot can't be null");
+        if(file == null) throw new NullPointerException("File can't be null");
+        if(codec == null) throw new NullPointerException("Codec can't be null");
+
+        int n = snapshot.nodeCount();
+        int m = snapshot.arcCount();
+        byte[][] labels = new byte[n][];
+        long labelBytes = 0;
+        for (int u = 0; u < n; u++) {
+            labels[u] = codec.encode(snapshot.getNode(u).getLabel());
+            labelBytes += labels[u].length;
+        }
+        long dictionary = HEADER_SIZE;
+        long labelData = dictionary + (long) (n + 1) * Long.BYTES;
+        long offsets = align(labelData + labelBytes);
+        long targets = offsets + (long) (n + 1) * Long.BYTES;
+        long weights = align(targets + (long) m * Integer.BYTES);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(snapshot.isDirected() ? DIRECTED : 0);
+            out.putInt(0);
+            out.putLong(n);
+            out.putLong(m);
+            out.putLong(dictionary);
+            out.putLong(labelData);
+            out.putLong(offsets);
+            out.putLong(targets);
+            out.putLong(weights);
+
+            long position = 0;
+            out.putLong(position);
+            for (int u = 0; u < n; u++) {
+                position += labels[u].length;
+                out.putLong(position);
+            }
+            for (int u = 0; u < n; u++)
+                out.put(labels[u]);
+            out.pad();
+            for (int offset : snapshot.getOffsets())
+                out.putLong(offset);
+            for (int target : snapshot.getTo())
+                out.putInt(target);
+            out.pad();
+            for (double weight : snapshot.getWeights())
+                out.putDouble(weight);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Arrotonda una posizione al multiplo di 8 successivo.
+     */
+    static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /*
+     * Scrittura sequenziale su un canale attraverso un buffer.
+     */
+    private static final class Output {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer;
+
+        private long written;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if(this.buffer.remaining() < bytes)
+                this.flush();
+        }
+
+        void putInt(int value) throws IOException {
+            this.ensure(Integer.BYTES);
+            this.buffer.putInt(value);
+            this.written += Integer.BYTES;
+        }
+
+        void putLong(long value) throws IOException {
+            this.ensure(Long.BYTES);
+            this.buffer.putLong(value);
+            this.written += Long.BYTES;
+        }
+
+        void putDouble(double value) throws IOException {
+            this.ensure(Double.BYTES);
+            this.buffer.putDouble(value);
+            this.written += Double.BYTES;
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int done = 0;
+            while(done < bytes.length) {
+                this.ensure(1);
+                int chunk = Math.min(this.buffer.remaining(), bytes.length - done);
+                this.buffer.put(bytes, done, chunk);
+                done += chunk;
+            }
+            this.written += bytes.length;
+        }
+
+        // zeri fino al prossimo multiplo di 8
+        void pad() throws IOException {
+            this.put(new byte[(int) (align(this.written) - this.written)]);
+        }
+
+        void flush() throws IOException {
+            this.buffer.flip();
+            while(this.buffer.hasRemaining())
+                this.channel.write(this.buffer);
+            this.buffer.clear();
+        }
+    }
+
+}
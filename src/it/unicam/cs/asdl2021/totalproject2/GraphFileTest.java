@@ -0,0 +1,81 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class GraphFileTest {
+
+    private final GraphNode<String> na = new GraphNode<String>("a");
+    private final GraphNode<String> nb = new GraphNode<String>("bb");
+    private final GraphNode<String> nc = new GraphNode<String>("ccc");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(na);
+        g.addNode(nb);
+        g.addNode(nc);
+        g.addEdge(new GraphEdge<String>(na, nb, true, 1.5));
+        g.addEdge(new GraphEdge<String>(na, nc, true, -2.0));
+        g.addEdge(new GraphEdge<String>(nc, nb, true));
+        return g;
+    }
+
+    @Test
+    final void testWrite(@TempDir Path tempDirectory) {
+        Path file = tempDirectory.resolve("g.bin");
+        assertThrows(NullPointerException.class, () -> GraphFile.write((Graph<String>) null, file, LabelCodec.STRING));
+        assertThrows(NullPointerException.class, () -> GraphFile.write(repeatedCode(), null, LabelCodec.STRING));
+        assertThrows(NullPointerException.class, () -> GraphFile.write(repeatedCode(), file, null));
+    }
+
+    @Test
+    final void testLayout(@TempDir Path tempDirectory) throws Exception {
+        Path file = tempDirectory.resolve("g.bin");
+        GraphFile.write(repeatedCode(), file, LabelCodec.STRING);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(GraphFile.MAGIC, buffer.getInt());
+        assertEquals(GraphFile.VERSION, buffer.getInt());
+        assertEquals(1, buffer.getInt());
+        assertEquals(0, buffer.getInt());
+        assertEquals(3, buffer.getLong());
+        assertEquals(3, buffer.getLong());
+        long dictionary = buffer.getLong();
+        long labelData = buffer.getLong();
+        long offsets = buffer.getLong();
+        long targets = buffer.getLong();
+        long weights = buffer.getLong();
+        assertEquals(GraphFile.HEADER_SIZE, dictionary);
+        assertEquals(dictionary + 4 * Long.BYTES, labelData);
+        // sei byte di etichette arrotondati a otto
+        assertEquals(labelData + 8, offsets);
+        assertEquals(offsets + 4 * Long.BYTES, targets);
+        assertEquals(targets + 16, weights);
+        assertEquals(weights + 3 * Double.BYTES, Files.size(file));
+        for (long position : new long[] { dictionary, labelData, offsets, targets, weights })
+            assertEquals(0, position % 8);
+        assertEquals(6, buffer.getLong((int) dictionary + 3 * Long.BYTES));
+        assertEquals(3, buffer.getLong((int) offsets + 3 * Long.BYTES));
+    }
+
+    @Test
+    final void testOverwrite(@TempDir Path tempDirectory) throws Exception {
+        Path file = tempDirectory.resolve("g.bin");
+        Files.write(file, new byte[10000]);
+        GraphFile.write(repeatedCode(), file, LabelCodec.STRING);
+        assertTrue(Files.size(file) < 10000);
+        assertEquals(3, new MappedGraph<>(file, LabelCodec.STRING).nodeCount());
+    }
+
+}
@@ -0,0 +1,164 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+
+/**
+ * Suddivisione dei nodi di un grafo in un certo numero di parti, per
+ * distribuirli tra più processi. Le parti sono rappresentate da un array che
+ * associa a ogni indice di nodo di una {@code GraphSnapshot<L>} il numero
+ * della sua parte, nell' intervallo <code>[0, parts - 1]</code>.
+ *
+ * Sono disponibili due strategie:
+ * <ul>
+ * <li>{@link Strategy#HASH}: la parte è determinata dall' hashCode del nodo,
+ * quindi ogni processo può calcolarla da solo senza conoscere il grafo; le
+ * parti hanno dimensioni simili ma quasi tutti gli archi le attraversano;</li>
+ * <li>{@link Strategy#BFS}: le parti vengono fatte crescere una alla volta
+ * con una visita in ampiezza da un nodo non ancora assegnato, fino alla
+ * dimensione {@code ceil(n / parts)}. I nodi vicini finiscono di solito nella
+ * stessa parte, quindi gli archi tagliati sono molti meno.</li>
+ * </ul>
+ * La qualità di una suddivisione si misura con {@code edgeCut}, il numero di
+ * archi i cui estremi sono in parti diverse.
+ *
+ * @author Damiano Pasquini
+ *
+ */
+public class GraphPartitioner {
+
+    /**
+     * Strategie di suddivisione disponibili.
+     */
+    public enum Strategy {
+        /**
+         * Parte determinata dall' hashCode del nodo.
+         */
+        HASH,
+        /**
+         * Parti bilanciate fatte crescere con visite in ampiezza.
+         */
+        BFS
+    }
+
+    private final Strategy strategy;
+
+    /**
+     * Crea un partizionatore che usa una certa strategia.
+     *
+     * @param strategy
+     *                     la strategia di suddivisione
+     * @throws NullPointerException
+     *                                  se la strategia passata è nulla
+     */
+    public GraphPartitioner(Strategy strategy) {
+        if(strategy == null) throw new NullPointerException("Strategy can't be null");
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return la strategia di suddivisione
+     */
+    public Strategy getStrategy() {
+        return this.strategy;
+    }
+
+    /**
+     * Suddivide i nodi di un grafo.
+     *
+     * @param snapshot
+     *                     la fotografia del grafo
+     * @param parts
+     *                     il numero di parti
+     * @return la parte di ogni nodo, per indice nella fotografia
+     * @throws NullPointerException
+     *                                      se la fotografia passata è nulla
+     * @throws IllegalArgumentException
+     *                                      se il numero di parti non è
+     *                                      positivo
+     */
+    public int[] partition(GraphSnapshot<?> snapshot, int parts) {
+        if(snapshot == null) throw new NullPointerException("Snapshot can't be null");
+        if(parts <= 0) throw new IllegalArgumentException("Parts must be positive");
+        return this.strategy == Strategy.HASH ? hashPartition(snapshot, parts) : bfsPartition(snapshot, parts);
+    }
+
+    private static int[] hashPartition(GraphSnapshot<?> snapshot, int parts) {
+        int n = snapshot.nodeCount();
+        int[] owner = new int[n];
+        for (int u = 0; u < n; u++) {
+            // i bit alti vengono mescolati con quelli bassi, come in HashMap
+            int h = snapshot.getNode(u).hashCode();
+            owner[u] = Math.floorMod(h ^ (h >>> 16), parts);
+        }
+        return owner;
+    }
+
+    private static int[] bfsPartition(GraphSnapshot<?> snapshot, int parts) {
+        int n = snapshot.nodeCount();
+        int[] offsets = snapshot.getOffsets();
+        int[] to = snapshot.getTo();
+        int capacity = (n + parts - 1) / parts;
+        int[] owner = new int[n];
+        Arrays.fill(owner, -1);
+        int[] queue = new int[n];
+        int nextSeed = 0;
+        for (int p = 0; p < parts; p++) {
+            int size = 0;
+            int head = 0;
+            int tail = 0;
+            while(size < capacity) {
+                if(head == tail) {
+                    // componente esaurita: nuovo seme tra i nodi non assegnati
+                    while(nextSeed < n && owner[nextSeed] != -1)
+                        nextSeed++;
+                    if(nextSeed == n) break;
+                    owner[nextSeed] = p;
+                    size++;
+                    queue[tail++] = nextSeed;
+                    continue;
+                }
+                int u = queue[head++];
+                for (int arc = offsets[u]; arc < offsets[u + 1] && size < capacity; arc++) {
+                    int v = to[arc];
+                    if(owner[v] == -1) {
+                        owner[v] = p;
+                        size++;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * Conta gli archi del grafo i cui estremi sono in parti diverse.
+     *
+     * @param snapshot
+     *                     la fotografia del grafo
+     * @param owner
+     *                     la parte di ogni nodo, per indice nella fotografia
+     * @return il numero di archi tagliati dalla suddivisione
+     * @throws NullPointerException
+     *                                      se la fotografia o la suddivisione
+     *                                      passate sono nulle
+     * @throws IllegalArgumentException
+     *                                      se la suddivisione non ha un
+     *                                      elemento per nodo
+     */
+    public static long edgeCut(GraphSnapshot<?> snapshot, int[] owner) {
+        if(snapshot == null) throw new NullPointerException("Snapshot can't be null");
+        if(owner == null) throw new NullPointerException("Partition can't be null");
+        if(owner.length != snapshot.nodeCount())
+            throw new IllegalArgumentException("Partition must have one element per node");
+        int[] from = snapshot.getFrom();
+        int[] to = snapshot.getTo();
+        long cut = 0;
+        for (int arc = 0; arc < to.length; arc++)
+            // in un grafo non orientato ogni arco compare nei due versi
+            if(owner[from[arc]] != owner[to[arc]] && (snapshot.isDirected() || from[arc] < to[arc]))
+                cut++;
+        return cut;
+    }
+
+}
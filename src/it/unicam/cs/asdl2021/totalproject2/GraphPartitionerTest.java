@@ -0,0 +1,86 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class GraphPartitionerTest {
+
+    /*
+     * Griglia non orientata side x side, con gli archi inseriti direttamente
+     * nelle liste: addEdge costa O(n).
+     */
+    private MapAdjacentListUndirectedGraph<Integer> grid(int side) {
+        MapAdjacentListUndirectedGraph<Integer> g = new MapAdjacentListUndirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < side * side; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        for (int r = 0; r < side; r++)
+            for (int c = 0; c < side; c++) {
+                GraphNode<Integer> a = nodes.get(r * side + c);
+                if(c + 1 < side) {
+                    GraphEdge<Integer> edge = new GraphEdge<>(a, nodes.get(r * side + c + 1), false);
+                    g.adjacentLists.get(a).add(edge);
+                    g.adjacentLists.get(edge.getNode2()).add(edge);
+                }
+                if(r + 1 < side) {
+                    GraphEdge<Integer> edge = new GraphEdge<>(a, nodes.get((r + 1) * side + c), false);
+                    g.adjacentLists.get(a).add(edge);
+                    g.adjacentLists.get(edge.getNode2()).add(edge);
+                }
+            }
+        return g;
+    }
+
+    @Test
+    final void testGraphPartitioner() {
+        assertThrows(NullPointerException.class, () -> new GraphPartitioner(null));
+        GraphPartitioner partitioner = new GraphPartitioner(GraphPartitioner.Strategy.BFS);
+        assertEquals(GraphPartitioner.Strategy.BFS, partitioner.getStrategy());
+        assertThrows(NullPointerException.class, () -> partitioner.partition(null, 2));
+        GraphSnapshot<Integer> snapshot = new GraphSnapshot<>(grid(3));
+        assertThrows(IllegalArgumentException.class, () -> partitioner.partition(snapshot, 0));
+        assertThrows(IllegalArgumentException.class, () -> GraphPartitioner.edgeCut(snapshot, new int[3]));
+    }
+
+    @Test
+    final void testPartitionsAreBalanced() {
+        GraphSnapshot<Integer> snapshot = new GraphSnapshot<>(grid(20));
+        for (GraphPartitioner.Strategy strategy : GraphPartitioner.Strategy.values()) {
+            int[] owner = new GraphPartitioner(strategy).partition(snapshot, 4);
+            assertEquals(400, owner.length);
+            int[] size = new int[4];
+            for (int p : owner) {
+                assertTrue(p >= 0 && p < 4);
+                size[p]++;
+            }
+            for (int p = 0; p < 4; p++)
+                assertTrue(size[p] > 0 && size[p] <= (strategy == GraphPartitioner.Strategy.BFS ? 100 : 150));
+        }
+        // una sola parte: nessun arco tagliato
+        int[] single = new GraphPartitioner(GraphPartitioner.Strategy.HASH).partition(snapshot, 1);
+        assertEquals(0, GraphPartitioner.edgeCut(snapshot, single));
+    }
+
+    @Test
+    final void testBfsCutsFewerEdgesThanHash() {
+        GraphSnapshot<Integer> snapshot = new GraphSnapshot<>(grid(20));
+        long hashCut = GraphPartitioner.edgeCut(snapshot, new GraphPartitioner(GraphPartitioner.Strategy.HASH).partition(snapshot, 4));
+        long bfsCut = GraphPartitioner.edgeCut(snapshot, new GraphPartitioner(GraphPartitioner.Strategy.BFS).partition(snapshot, 4));
+        // 760 archi in tutto: ogni arco non orientato è contato una volta
+        assertTrue(hashCut <= 760);
+        assertTrue(bfsCut < hashCut);
+        assertTrue(bfsCut < 760 / 4);
+    }
+
+}
@@ -0,0 +1,359 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.*;
+
+/**
+ * Fotografia immutabile di un grafo rappresentata con array primitivi, da usare
+ * negli algoritmi che scorrono molte volte tutti gli archi. La costruzione
+ * richiede una sola chiamata a {@code getNodes()} e una sola chiamata a
+ * {@code getEdges()} sul grafo originale, cioè tempo {@code O(n + m)}.
+ *
+ * Ai nodi vengono assegnati indici densi nell' intervallo
+ * <code>[0, nodeCount() - 1]</code>. Se il grafo è un
+ * {@code AdjacencyMatrixDirectedGraph<L>} gli indici coincidono con quelli del
+ * grafo, altrimenti seguono l' ordine di iterazione di {@code getNodes()}.
+ *
+ * Gli archi sono memorizzati come "archi orientati" (arc) ordinati per nodo
+ * sorgente (formato CSR, compressed sparse row): gli archi uscenti dal nodo
+ * {@code u} occupano le posizioni da {@code getOffsets()[u]} (incluso) a
+ * {@code getOffsets()[u + 1]} (escluso) degli array {@code getFrom()},
+ * {@code getTo()} e {@code getWeights()}. Nel caso di grafo non orientato ogni
+ * arco genera due arc, uno per verso (uno solo se è un cappio). Per ogni arc è
+ * mantenuto anche l' oggetto {@code GraphEdge<L>} da cui proviene, in modo da
+ * poter restituire i cammini come liste di archi del grafo.
+ *
+ * I metodi che restituiscono array restituiscono gli array interni, senza
+ * copia, che non devono essere modificati.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class GraphSnapshot<L> {
+
+    private final boolean directed;
+
+    // nodi per indice e associazione inversa nodo -> indice
+    private final ArrayList<GraphNode<L>> nodes;
+
+    private final Map<GraphNode<L>, Integer> nodesIndex;
+
+    private final int[] offsets;
+
+    private final int[] from;
+
+    private final int[] to;
+
+    private final double[] weights;
+
+    private final ArrayList<GraphEdge<L>> arcEdges;
+
+    /**
+     * Costruisce la fotografia del grafo passato nel suo stato corrente.
+     * Modifiche successive del grafo non si riflettono sulla fotografia.
+     *
+     * @param graph
+     *                  il grafo da fotografare
+     * @throws NullPointerException
+     *                                  se il grafo passato è nullo
+     */
+    public GraphSnapshot(Graph<L> graph) {
+        this(Objects.requireNonNull(graph, "Graph can't be null").isDirected(), nodesOf(graph), graph.getEdges());
+    }
+
+    /*
+     * Nodi del grafo in ordine di indice: per AdjacencyMatrixDirectedGraph si
+     * riusano gli indici del grafo, senza passare da getNodeAtIndex che costa
+     * O(n), altrimenti si segue l' ordine di iterazione di getNodes().
+     */
+    private static <L> ArrayList<GraphNode<L>> nodesOf(Graph<L> graph) {
+        if(!(graph instanceof AdjacencyMatrixDirectedGraph))
+            return new ArrayList<>(graph.getNodes());
+        Map<GraphNode<L>, Integer> graphIndex = ((AdjacencyMatrixDirectedGraph<L>) graph).nodesIndex;
+        ArrayList<GraphNode<L>> nodes = new ArrayList<>(Collections.nCopies(graphIndex.size(), (GraphNode<L>) null));
+        for (Map.Entry<GraphNode<L>, Integer> entry : graphIndex.entrySet())
+            nodes.set(entry.getValue(), entry.getKey());
+        return nodes;
+    }
+
+    /*
+     * Costruisce la fotografia di un grafo dati i nodi, in ordine di indice,
+     * e gli archi; la lista dei nodi passata diventa quella interna.
+     */
+    GraphSnapshot(boolean directed, ArrayList<GraphNode<L>> nodes, Collection<GraphEdge<L>> edges) {
+        this.directed = directed;
+        int n = nodes.size();
+        this.nodes = nodes;
+        this.nodesIndex = new HashMap<>(GraphBuilder.capacityFor(n));
+        for (int i = 0; i < n; i++)
+            this.nodesIndex.put(nodes.get(i), i);
+
+        // conteggio degli archi uscenti da ogni nodo
+        this.offsets = new int[n + 1];
+        int arcCount = 0;
+        for (GraphEdge<L> edge : edges) {
+            int u = this.nodesIndex.get(edge.getNode1());
+            int v = this.nodesIndex.get(edge.getNode2());
+            this.offsets[u + 1]++;
+            arcCount++;
+            if(!this.directed && u != v) {
+                this.offsets[v + 1]++;
+                arcCount++;
+            }
+        }
+        // somme prefisse: offsets[u] diventa la prima posizione degli archi di u
+        for (int u = 0; u < n; u++)
+            this.offsets[u + 1] += this.offsets[u];
+
+        // distribuzione degli archi nelle rispettive posizioni
+        this.from = new int[arcCount];
+        this.to = new int[arcCount];
+        this.weights = new double[arcCount];
+        this.arcEdges = new ArrayList<>(Collections.nCopies(arcCount, (GraphEdge<L>) null));
+        int[] next = Arrays.copyOf(this.offsets, n);
+        for (GraphEdge<L> edge : edges) {
+            int u = this.nodesIndex.get(edge.getNode1());
+            int v = this.nodesIndex.get(edge.getNode2());
+            this.putArc(next[u]++, u, v, edge);
+            if(!this.directed && u != v)
+                this.putArc(next[v]++, v, u, edge);
+        }
+    }
+
+    /*
+     * Costruisce una fotografia con gli stessi arc di un' altra ma con nodi e
+     * archi propri, nello stesso ordine; indici e array CSR sono condivisi.
+     */
+    GraphSnapshot(GraphSnapshot<L> other, ArrayList<GraphNode<L>> nodes, ArrayList<GraphEdge<L>> arcEdges) {
+        this.directed = other.directed;
+        this.nodes = nodes;
+        this.nodesIndex = other.nodesIndex;
+        this.offsets = other.offsets;
+        this.from = other.from;
+        this.to = other.to;
+        this.weights = other.weights;
+        this.arcEdges = arcEdges;
+    }
+
+    /*
+     * Costruisce una fotografia da array CSR già pronti, senza passare da un
+     * grafo; gli array e le liste passati diventano quelli interni.
+     */
+    GraphSnapshot(boolean directed, ArrayList<GraphNode<L>> nodes, int[] offsets, int[] from, int[] to,
+            double[] weights, ArrayList<GraphEdge<L>> arcEdges) {
+        this.directed = directed;
+        this.nodes = nodes;
+        this.nodesIndex = new HashMap<>(GraphBuilder.capacityFor(nodes.size()));
+        for (int i = 0; i < nodes.size(); i++)
+            this.nodesIndex.put(nodes.get(i), i);
+        this.offsets = offsets;
+        this.from = from;
+        this.to = to;
+        this.weights = weights;
+        this.arcEdges = arcEdges;
+    }
+
+    private void putArc(int position, int u, int v, GraphEdge<L> edge) {
+        this.from[position] = u;
+        this.to[position] = v;
+        this.weights[position] = edge.getWeight();
+        this.arcEdges.set(position, edge);
+    }
+
+    /**
+     * Determina se il grafo fotografato è orientato.
+     *
+     * @return true se il grafo fotografato è orientato, false altrimenti
+     */
+    public boolean isDirected() {
+        return this.directed;
+    }
+
+    /**
+     * Restituisce il numero di nodi.
+     *
+     * @return il numero di nodi
+     */
+    public int nodeCount() {
+        return this.nodes.size();
+    }
+
+    /**
+     * Restituisce il numero di arc, cioè di archi orientati. In un grafo non
+     * orientato è circa il doppio del numero di archi.
+     *
+     * @return il numero di arc
+     */
+    public int arcCount() {
+        return this.to.length;
+    }
+
+    /**
+     * Restituisce il nodo associato a un indice.
+     *
+     * @param i
+     *              l' indice del nodo
+     * @return il nodo con indice i
+     * @throws IndexOutOfBoundsException
+     *                                       se l' indice è fuori dall'
+     *                                       intervallo
+     *                                       <code>[0, nodeCount() - 1]</code>
+     */
+    public GraphNode<L> getNode(int i) {
+        return this.nodes.get(i);
+    }
+
+    /**
+     * Restituisce l' indice associato a un nodo.
+     *
+     * @param node
+     *                 il nodo di cui restituire l' indice
+     * @return l' indice del nodo, -1 se il nodo non è presente
+     * @throws NullPointerException
+     *                                  se il nodo passato è nullo
+     */
+    public int indexOf(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        Integer index = this.nodesIndex.get(node);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Restituisce l' arco del grafo da cui proviene un certo arc.
+     *
+     * @param arc
+     *                la posizione dell' arc
+     * @return l' arco del grafo corrispondente
+     */
+    public GraphEdge<L> getEdge(int arc) {
+        return this.arcEdges.get(arc);
+    }
+
+    /**
+     * @return gli offset CSR, di lunghezza {@code nodeCount() + 1}
+     */
+    public int[] getOffsets() {
+        return this.offsets;
+    }
+
+    /**
+     * @return i nodi sorgente degli arc
+     */
+    public int[] getFrom() {
+        return this.from;
+    }
+
+    /**
+     * @return i nodi destinazione degli arc
+     */
+    public int[] getTo() {
+        return this.to;
+    }
+
+    /**
+     * @return i pesi degli arc
+     */
+    public double[] getWeights() {
+        return this.weights;
+    }
+
+    /**
+     * Calcola un ordinamento topologico dei nodi con l' algoritmo di Kahn:
+     * si estraggono ripetutamente i nodi senza arc entranti non ancora
+     * considerati. Se il grafo contiene un ciclo a un certo punto nessun nodo
+     * rimasto è estraibile e il calcolo si interrompe. In un grafo non
+     * orientato ogni arco forma un ciclo con l' arc inverso.
+     *
+     * @return gli indici dei nodi in ordine topologico, null se il grafo
+     *         contiene un ciclo
+     */
+    public int[] topologicalOrder() {
+        int n = this.nodeCount();
+        int[] inDegree = new int[n];
+        for (int v : this.to)
+            inDegree[v]++;
+        // l' array dell' ordine fa anche da coda dei nodi estraibili
+        int[] order = new int[n];
+        int tail = 0;
+        for (int u = 0; u < n; u++)
+            if(inDegree[u] == 0)
+                order[tail++] = u;
+        for (int head = 0; head < tail; head++) {
+            int u = order[head];
+            for (int arc = this.offsets[u]; arc < this.offsets[u + 1]; arc++)
+                if(--inDegree[this.to[arc]] == 0)
+                    order[tail++] = this.to[arc];
+        }
+        return tail == n ? order : null;
+    }
+
+    /**
+     * Costruisce un albero dei cammini minimi a partire dalle distanze finali
+     * calcolate da una sorgente, con una visita in ampiezza lungo gli arc
+     * "stretti", cioè quelli per cui {@code d(u) + w(u, v) == d(v)}. Ogni
+     * cammino di arc stretti dalla sorgente è un cammino minimo, quindi l'
+     * albero ottenuto è corretto anche se le distanze sono state calcolate da
+     * più thread senza mantenere i predecessori.
+     *
+     * @param distance
+     *                        le distanze dalla sorgente, per indice di nodo
+     * @param source
+     *                        indice del nodo sorgente
+     * @param previousArc
+     *                        array in cui scrivere, per ogni nodo, la posizione
+     *                        dell' arc con cui lo si raggiunge dal predecessore,
+     *                        -1 per la sorgente e per i nodi non raggiungibili
+     */
+    public void buildShortestPathTree(double[] distance, int source, int[] previousArc) {
+        int n = this.nodeCount();
+        Arrays.fill(previousArc, -1);
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        visited[source] = true;
+        while(head < tail) {
+            int u = queue[head++];
+            for (int arc = this.offsets[u]; arc < this.offsets[u + 1]; arc++) {
+                int v = this.to[arc];
+                if(!visited[v] && distance[u] + this.weights[arc] == distance[v]) {
+                    visited[v] = true;
+                    previousArc[v] = arc;
+                    queue[tail++] = v;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ricostruisce, a partire da un array di predecessori, il cammino dalla
+     * radice dell' albero dei predecessori al nodo target come lista di archi
+     * del grafo.
+     *
+     * @param previousArc
+     *                        per ogni nodo, la posizione dell' arc con cui si
+     *                        raggiunge il nodo dal suo predecessore, -1 per la
+     *                        radice e per i nodi non raggiunti
+     * @param source
+     *                        indice del nodo radice
+     * @param target
+     *                        indice del nodo di arrivo
+     * @return la lista di archi dalla radice al target, vuota se coincidono,
+     *         null se il target non è stato raggiunto
+     */
+    public List<GraphEdge<L>> buildPath(int[] previousArc, int source, int target) {
+        ArrayList<GraphEdge<L>> listToReturn = new ArrayList<>();
+        int currNode = target;
+        while(currNode != source) {
+            int arc = previousArc[currNode];
+            if(arc == -1) return null;
+            listToReturn.add(this.arcEdges.get(arc));
+            currNode = this.from[arc];
+        }
+        Collections.reverse(listToReturn);
+        return listToReturn;
+    }
+
+}
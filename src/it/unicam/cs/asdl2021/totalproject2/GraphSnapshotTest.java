@@ -0,0 +1,105 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class GraphSnapshotTest {
+
+    private final GraphNode<String> a = new GraphNode<String>("a");
+    private final GraphNode<String> b = new GraphNode<String>("b");
+    private final GraphNode<String> c = new GraphNode<String>("c");
+
+    @Test
+    final void testDirectedGraph() {
+        assertThrows(NullPointerException.class, () -> new GraphSnapshot<String>(null));
+        AdjacencyMatrixDirectedGraph<String> g = new AdjacencyMatrixDirectedGraph<>();
+        g.addNode(a);
+        g.addNode(b);
+        g.addNode(c);
+        g.addEdge(new GraphEdge<>(a, b, true, 1.0));
+        g.addEdge(new GraphEdge<>(a, c, true, 2.0));
+        g.addEdge(new GraphEdge<>(c, a, true, 3.0));
+        GraphSnapshot<String> snapshot = new GraphSnapshot<>(g);
+        assertTrue(snapshot.isDirected());
+        assertEquals(3, snapshot.nodeCount());
+        assertEquals(3, snapshot.arcCount());
+        // gli indici coincidono con quelli del grafo
+        assertEquals(0, snapshot.indexOf(a));
+        assertEquals(1, snapshot.indexOf(b));
+        assertEquals(2, snapshot.indexOf(c));
+        assertEquals(-1, snapshot.indexOf(new GraphNode<>("d")));
+        assertThrows(NullPointerException.class, () -> snapshot.indexOf(null));
+        assertEquals(c, snapshot.getNode(2));
+        int[] offsets = snapshot.getOffsets();
+        assertArrayEquals(new int[] { 0, 2, 2, 3 }, offsets);
+        Set<GraphEdge<String>> outOfA = new HashSet<>();
+        for (int arc = offsets[0]; arc < offsets[1]; arc++) {
+            assertEquals(0, snapshot.getFrom()[arc]);
+            assertEquals(snapshot.getEdge(arc).getWeight(), snapshot.getWeights()[arc]);
+            outOfA.add(snapshot.getEdge(arc));
+        }
+        assertEquals(g.getEdgesOf(a), outOfA);
+        assertEquals(0, snapshot.getTo()[offsets[2]]);
+    }
+
+    @Test
+    final void testUndirectedGraph() {
+        Graph<String> g = new MapAdjacentListUndirectedGraph<>();
+        g.addNode(a);
+        g.addNode(b);
+        g.addNode(c);
+        g.addEdge(new GraphEdge<>(a, b, false, 1.0));
+        g.addEdge(new GraphEdge<>(b, c, false, 2.0));
+        g.addEdge(new GraphEdge<>(c, c, false, 0.5));
+        GraphSnapshot<String> snapshot = new GraphSnapshot<>(g);
+        assertFalse(snapshot.isDirected());
+        // due arc per arco, uno solo per il cappio
+        assertEquals(5, snapshot.arcCount());
+        int[] offsets = snapshot.getOffsets();
+        int bIndex = snapshot.indexOf(b);
+        assertEquals(2, offsets[bIndex + 1] - offsets[bIndex]);
+    }
+
+    @Test
+    final void testBuildPath() {
+        AdjacencyMatrixDirectedGraph<String> g = new AdjacencyMatrixDirectedGraph<>();
+        g.addNode(a);
+        g.addNode(b);
+        g.addNode(c);
+        GraphEdge<String> ab = new GraphEdge<>(a, b, true, 1.0);
+        g.addEdge(ab);
+        GraphEdge<String> bc = new GraphEdge<>(b, c, true, 1.0);
+        g.addEdge(bc);
+        GraphSnapshot<String> snapshot = new GraphSnapshot<>(g);
+        int[] previousArc = { -1, snapshot.getOffsets()[0], snapshot.getOffsets()[1] };
+        assertEquals(List.of(ab, bc), snapshot.buildPath(previousArc, 0, 2));
+        assertEquals(List.of(), snapshot.buildPath(previousArc, 0, 0));
+        previousArc[2] = -1;
+        assertNull(snapshot.buildPath(previousArc, 0, 2));
+    }
+
+    @Test
+    final void testTopologicalOrder() {
+        AdjacencyMatrixDirectedGraph<String> g = new AdjacencyMatrixDirectedGraph<>();
+        g.addNode(a);
+        g.addNode(b);
+        g.addNode(c);
+        g.addEdge(new GraphEdge<>(c, a, true));
+        g.addEdge(new GraphEdge<>(a, b, true));
+        g.addEdge(new GraphEdge<>(c, b, true));
+        assertArrayEquals(new int[] { 2, 0, 1 }, new GraphSnapshot<>(g).topologicalOrder());
+        g.addEdge(new GraphEdge<>(b, c, true));
+        assertNull(new GraphSnapshot<>(g).topologicalOrder());
+    }
+
+}
@@ -0,0 +1,335 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+
+/**
+ * Motore di visita in profondità e in ampiezza per qualunque {@code Graph<L>}.
+ * Le visite sono iterative, con una pila o una coda esplicita su array
+ * primitivi, quindi non c' è ricorsione e non si rischia
+ * {@code StackOverflowError} neanche con decine di milioni di nodi.
+ *
+ * Il motore lavora su una {@code GraphSnapshot<L>} presa alla costruzione e
+ * registra, per ogni nodo, il tempo di scoperta, il tempo di fine e l' arc
+ * con cui il nodo è stato raggiunto nella foresta della visita, in array
+ * indicizzati come la fotografia. I tempi sono assegnati da un unico
+ * contatore che parte da 1, come in Cormen et al.; 0 indica un nodo non
+ * ancora scoperto o non ancora terminato. Durante la visita vengono chiamati i
+ * metodi di un {@code GraphVisitor<L>}.
+ *
+ * I risultati dell' ultima visita possono essere copiati nei campi
+ * {@code color}, {@code enteringTime}, {@code exitingTime} e
+ * {@code previous} dei nodi del grafo con {@code applyToNodes()}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class GraphTraversal<L> {
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final int[] discoveryTime;
+
+    private final int[] finishTime;
+
+    private final int[] previousArc;
+
+    // pila o coda della visita e, per la pila, prossimo arc da esaminare
+    private final int[] pending;
+
+    private final int[] nextArc;
+
+    private int time;
+
+    /**
+     * Crea un motore di visita per un grafo.
+     *
+     * @param graph
+     *                  il grafo da visitare
+     * @throws NullPointerException
+     *                                  se il grafo passato è nullo
+     */
+    public GraphTraversal(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+
+        this.graph = graph;
+        this.snapshot = new GraphSnapshot<>(graph);
+        int n = this.snapshot.nodeCount();
+        this.discoveryTime = new int[n];
+        this.finishTime = new int[n];
+        this.previousArc = new int[n];
+        this.pending = new int[n];
+        this.nextArc = new int[n];
+    }
+
+    /**
+     * Restituisce il grafo visitato da questo motore.
+     *
+     * @return il grafo visitato
+     */
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Restituisce la fotografia su cui lavora il motore, i cui indici sono gli
+     * stessi degli array restituiti.
+     *
+     * @return la fotografia del grafo
+     */
+    public GraphSnapshot<L> getSnapshot() {
+        return this.snapshot;
+    }
+
+    private void reset() {
+        Arrays.fill(this.discoveryTime, 0);
+        Arrays.fill(this.finishTime, 0);
+        Arrays.fill(this.previousArc, -1);
+        this.time = 0;
+    }
+
+    private int indexOfSource(GraphNode<L> sourceNode) {
+        if(sourceNode == null) throw new NullPointerException("Source node can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        if(source == -1) throw new IllegalArgumentException("This node isn't contained in this graph");
+        return source;
+    }
+
+    /**
+     * Esegue una visita in profondità completa: i nodi non ancora scoperti
+     * vengono usati come radici nell' ordine degli indici della fotografia.
+     *
+     * @param visitor
+     *                    le azioni da eseguire durante la visita
+     * @throws NullPointerException
+     *                                  se il visitatore passato è nullo
+     */
+    public void depthFirstSearch(GraphVisitor<L> visitor) {
+        if(visitor == null) throw new NullPointerException("Visitor can't be null");
+        this.reset();
+        for (int root = 0; root < this.snapshot.nodeCount(); root++)
+            if(this.discoveryTime[root] == 0)
+                this.depthFirstVisit(root, visitor);
+    }
+
+    /**
+     * Esegue una visita in profondità dei soli nodi raggiungibili da una
+     * sorgente.
+     *
+     * @param sourceNode
+     *                       il nodo da cui iniziare la visita
+     * @param visitor
+     *                       le azioni da eseguire durante la visita
+     * @throws NullPointerException
+     *                                      se il nodo o il visitatore passati
+     *                                      sono nulli
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public void depthFirstSearchFrom(GraphNode<L> sourceNode, GraphVisitor<L> visitor) {
+        int source = this.indexOfSource(sourceNode);
+        if(visitor == null) throw new NullPointerException("Visitor can't be null");
+        this.reset();
+        this.depthFirstVisit(source, visitor);
+    }
+
+    /*
+     * Visita in profondità iterativa da una radice: la pila contiene il
+     * cammino dalla radice al nodo corrente e nextArc[u] è la posizione del
+     * prossimo arc uscente da u da esaminare.
+     */
+    private void depthFirstVisit(int root, GraphVisitor<L> visitor) {
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        boolean directed = this.snapshot.isDirected();
+        int depth = 0;
+        this.pending[0] = root;
+        this.discover(root, visitor);
+        while(depth >= 0) {
+            int u = this.pending[depth];
+            if(this.nextArc[u] == offsets[u + 1]) {
+                this.finishTime[u] = ++this.time;
+                visitor.finishNode(this.snapshot.getNode(u));
+                depth--;
+                continue;
+            }
+            int arc = this.nextArc[u]++;
+            int v = to[arc];
+            GraphEdge<L> edge = this.snapshot.getEdge(arc);
+            // in un grafo non orientato l' arco dell' albero non si ripercorre all' indietro
+            if(!directed && this.previousArc[u] != -1 && this.snapshot.getEdge(this.previousArc[u]) == edge)
+                continue;
+            GraphNode<L> from = this.snapshot.getNode(u);
+            if(this.discoveryTime[v] == 0) {
+                visitor.treeEdge(from, edge);
+                this.previousArc[v] = arc;
+                this.pending[++depth] = v;
+                this.discover(v, visitor);
+            } else if(this.finishTime[v] == 0)
+                visitor.backEdge(from, edge);
+            else if(directed && this.discoveryTime[u] < this.discoveryTime[v])
+                visitor.forwardEdge(from, edge);
+            else if(directed)
+                visitor.crossEdge(from, edge);
+            // nei grafi non orientati l' arco verso un discendente terminato
+            // è già stato segnalato come arco all' indietro dal discendente
+        }
+    }
+
+    private void discover(int u, GraphVisitor<L> visitor) {
+        this.discoveryTime[u] = ++this.time;
+        this.nextArc[u] = this.snapshot.getOffsets()[u];
+        visitor.discoverNode(this.snapshot.getNode(u));
+    }
+
+    /**
+     * Esegue una visita in ampiezza dei nodi raggiungibili da una sorgente.
+     * Il tempo di fine di un nodo è assegnato quando sono stati esaminati i
+     * suoi archi uscenti.
+     *
+     * @param sourceNode
+     *                       il nodo da cui iniziare la visita
+     * @param visitor
+     *                       le azioni da eseguire durante la visita
+     * @throws NullPointerException
+     *                                      se il nodo o il visitatore passati
+     *                                      sono nulli
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public void breadthFirstSearchFrom(GraphNode<L> sourceNode, GraphVisitor<L> visitor) {
+        int source = this.indexOfSource(sourceNode);
+        if(visitor == null) throw new NullPointerException("Visitor can't be null");
+        this.reset();
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        int head = 0;
+        int tail = 0;
+        this.pending[tail++] = source;
+        this.discover(source, visitor);
+        while(head < tail) {
+            int u = this.pending[head++];
+            GraphNode<L> from = this.snapshot.getNode(u);
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = to[arc];
+                GraphEdge<L> edge = this.snapshot.getEdge(arc);
+                if(this.discoveryTime[v] == 0) {
+                    visitor.treeEdge(from, edge);
+                    this.previousArc[v] = arc;
+                    this.pending[tail++] = v;
+                    this.discover(v, visitor);
+                } else if(this.previousArc[u] == -1 || this.snapshot.getEdge(this.previousArc[u]) != edge
+                        || this.snapshot.isDirected())
+                    visitor.nonTreeEdge(from, edge);
+            }
+            this.finishTime[u] = ++this.time;
+            visitor.finishNode(from);
+        }
+    }
+
+    /**
+     * Restituisce i tempi di scoperta dell' ultima visita per indice di nodo
+     * nella fotografia, 0 per i nodi non scoperti. L' array è quello interno
+     * e non deve essere modificato.
+     *
+     * @return i tempi di scoperta
+     */
+    public int[] getDiscoveryTimes() {
+        return this.discoveryTime;
+    }
+
+    /**
+     * Restituisce i tempi di fine dell' ultima visita per indice di nodo nella
+     * fotografia, 0 per i nodi non scoperti. L' array è quello interno e non
+     * deve essere modificato.
+     *
+     * @return i tempi di fine
+     */
+    public int[] getFinishTimes() {
+        return this.finishTime;
+    }
+
+    /**
+     * Restituisce, per indice di nodo nella fotografia, la posizione dell' arc
+     * con cui il nodo è stato raggiunto nell' ultima visita, -1 per le radici
+     * e per i nodi non scoperti. L' array è quello interno e non deve essere
+     * modificato.
+     *
+     * @return gli arc dei predecessori
+     */
+    public int[] getPreviousArcs() {
+        return this.previousArc;
+    }
+
+    /**
+     * Restituisce il tempo di scoperta di un nodo nell' ultima visita.
+     *
+     * @param node
+     *                 il nodo
+     * @return il tempo di scoperta, 0 se il nodo non è stato scoperto
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public int getDiscoveryTime(GraphNode<L> node) {
+        return this.discoveryTime[this.indexOfSource(node)];
+    }
+
+    /**
+     * Restituisce il tempo di fine di un nodo nell' ultima visita.
+     *
+     * @param node
+     *                 il nodo
+     * @return il tempo di fine, 0 se il nodo non è stato scoperto
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public int getFinishTime(GraphNode<L> node) {
+        return this.finishTime[this.indexOfSource(node)];
+    }
+
+    /**
+     * Restituisce il predecessore di un nodo nella foresta dell' ultima visita.
+     *
+     * @param node
+     *                 il nodo
+     * @return il predecessore, null se il nodo è una radice o non è stato
+     *         scoperto
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public GraphNode<L> getPredecessor(GraphNode<L> node) {
+        int arc = this.previousArc[this.indexOfSource(node)];
+        return arc == -1 ? null : this.snapshot.getNode(this.snapshot.getFrom()[arc]);
+    }
+
+    /**
+     * Copia i risultati dell' ultima visita nei nodi del grafo: colore nero
+     * per i nodi scoperti e bianco per gli altri, tempi di scoperta e di fine
+     * e predecessore.
+     */
+    public void applyToNodes() {
+        int[] from = this.snapshot.getFrom();
+        for (int u = 0; u < this.snapshot.nodeCount(); u++) {
+            GraphNode<L> node = this.snapshot.getNode(u);
+            node.setColor(this.discoveryTime[u] == 0 ? GraphNode.COLOR_WHITE : GraphNode.COLOR_BLACK);
+            node.setEnteringTime(this.discoveryTime[u]);
+            node.setExitingTime(this.finishTime[u]);
+            node.setPrevious(this.previousArc[u] == -1 ? null : this.snapshot.getNode(from[this.previousArc[u]]));
+        }
+    }
+
+}
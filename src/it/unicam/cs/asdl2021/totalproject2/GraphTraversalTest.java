@@ -0,0 +1,184 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class GraphTraversalTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        // s -> u -> x -> s, s -> x, y -> x, v isolato
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true));
+        g.addEdge(new GraphEdge<String>(nu, nx, true));
+        g.addEdge(new GraphEdge<String>(nx, ns, true));
+        g.addEdge(new GraphEdge<String>(ns, nx, true));
+        g.addEdge(new GraphEdge<String>(ny, nx, true));
+        return g;
+    }
+
+    /*
+     * Visitatore che registra gli eventi come stringhe.
+     */
+    private static class RecordingVisitor implements GraphVisitor<String> {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void discoverNode(GraphNode<String> node) {
+            this.events.add("discover " + node.getLabel());
+        }
+
+        @Override
+        public void finishNode(GraphNode<String> node) {
+            this.events.add("finish " + node.getLabel());
+        }
+
+        @Override
+        public void treeEdge(GraphNode<String> from, GraphEdge<String> edge) {
+            this.events.add("tree " + from.getLabel());
+        }
+
+        @Override
+        public void backEdge(GraphNode<String> from, GraphEdge<String> edge) {
+            this.events.add("back " + from.getLabel());
+        }
+
+        @Override
+        public void forwardEdge(GraphNode<String> from, GraphEdge<String> edge) {
+            this.events.add("forward " + from.getLabel());
+        }
+
+        @Override
+        public void crossEdge(GraphNode<String> from, GraphEdge<String> edge) {
+            this.events.add("cross " + from.getLabel());
+        }
+
+        @Override
+        public void nonTreeEdge(GraphNode<String> from, GraphEdge<String> edge) {
+            this.events.add("nontree " + from.getLabel());
+        }
+    }
+
+    @Test
+    final void testGraphTraversal() {
+        assertThrows(NullPointerException.class, () -> new GraphTraversal<String>(null));
+        GraphTraversal<String> t = new GraphTraversal<>(repeatedCode());
+        assertThrows(NullPointerException.class, () -> t.depthFirstSearch(null));
+        assertThrows(NullPointerException.class, () -> t.depthFirstSearchFrom(null, new RecordingVisitor()));
+        assertThrows(NullPointerException.class, () -> t.breadthFirstSearchFrom(ns, null));
+        assertThrows(IllegalArgumentException.class, () -> t.depthFirstSearchFrom(new GraphNode<>("notExistingNode"), new RecordingVisitor()));
+    }
+
+    @Test
+    final void testDepthFirstSearch() {
+        Graph<String> g = repeatedCode();
+        GraphTraversal<String> t = new GraphTraversal<>(g);
+        RecordingVisitor visitor = new RecordingVisitor();
+        t.depthFirstSearch(visitor);
+        // gli indici della fotografia seguono l' ordine di inserimento: s, u, x, y, v
+        assertEquals(1, t.getDiscoveryTime(ns));
+        assertEquals(2, t.getDiscoveryTime(nu));
+        assertEquals(3, t.getDiscoveryTime(nx));
+        assertEquals(4, t.getFinishTime(nx));
+        assertEquals(5, t.getFinishTime(nu));
+        assertEquals(6, t.getFinishTime(ns));
+        assertEquals(7, t.getDiscoveryTime(ny));
+        assertEquals(10, t.getFinishTime(nv));
+        assertEquals(nu, t.getPredecessor(nx));
+        assertNull(t.getPredecessor(ny));
+        assertTrue(visitor.events.contains("back x"));
+        assertTrue(visitor.events.contains("forward s"));
+        assertTrue(visitor.events.contains("cross y"));
+        assertEquals(3, visitor.events.stream().filter(e -> e.startsWith("tree")).count() + 1);
+
+        t.applyToNodes();
+        assertEquals(GraphNode.COLOR_BLACK, g.getNodeOf("v").getColor());
+        assertEquals(3, g.getNodeOf("x").getEnteringTime());
+        assertEquals(4, g.getNodeOf("x").getExitingTime());
+        assertEquals(nu, g.getNodeOf("x").getPrevious());
+    }
+
+    @Test
+    final void testSearchFrom() {
+        Graph<String> g = repeatedCode();
+        GraphTraversal<String> t = new GraphTraversal<>(g);
+        t.depthFirstSearchFrom(nu, new RecordingVisitor());
+        assertEquals(1, t.getDiscoveryTime(nu));
+        assertEquals(0, t.getDiscoveryTime(ny));
+        assertEquals(0, t.getFinishTime(nv));
+        RecordingVisitor visitor = new RecordingVisitor();
+        t.breadthFirstSearchFrom(ns, visitor);
+        assertEquals(ns, t.getPredecessor(nx));
+        assertEquals(ns, t.getPredecessor(nu));
+        assertEquals(0, t.getDiscoveryTime(ny));
+        assertEquals(List.of("discover s", "tree s", "discover u", "tree s", "discover x", "finish s",
+                "nontree u", "finish u", "nontree x", "finish x"), visitor.events);
+        t.applyToNodes();
+        assertEquals(GraphNode.COLOR_WHITE, g.getNodeOf("y").getColor());
+    }
+
+    @Test
+    final void testUndirectedGraph() {
+        // triangolo s - u - x: un solo arco all' indietro, nessun arco in avanti
+        Graph<String> g = new MapAdjacentListUndirectedGraph<>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addEdge(new GraphEdge<>(ns, nu, false));
+        g.addEdge(new GraphEdge<>(nu, nx, false));
+        g.addEdge(new GraphEdge<>(nx, ns, false));
+        GraphTraversal<String> t = new GraphTraversal<>(g);
+        RecordingVisitor visitor = new RecordingVisitor();
+        t.depthFirstSearch(visitor);
+        assertEquals(2, visitor.events.stream().filter(e -> e.startsWith("tree")).count());
+        assertEquals(1, visitor.events.stream().filter(e -> e.startsWith("back")).count());
+        assertEquals(0, visitor.events.stream().filter(e -> e.startsWith("forward") || e.startsWith("cross")).count());
+    }
+
+    @Test
+    final void testDeepPath() {
+        // un cammino di 200000 nodi: una visita ricorsiva esaurirebbe la pila
+        int n = 200_000;
+        MapAdjacentListUndirectedGraph<Integer> g = new MapAdjacentListUndirectedGraph<>();
+        GraphNode<Integer> first = new GraphNode<>(0);
+        GraphNode<Integer> previous = first;
+        g.addNode(previous);
+        for (int i = 1; i < n; i++) {
+            GraphNode<Integer> node = new GraphNode<>(i);
+            g.addNode(node);
+            // addEdge controlla i duplicati scorrendo tutti i nodi: si scrive
+            // direttamente nelle liste di adiacenza
+            GraphEdge<Integer> edge = new GraphEdge<>(previous, node, false);
+            g.adjacentLists.get(previous).add(edge);
+            g.adjacentLists.get(node).add(edge);
+            previous = node;
+        }
+        GraphTraversal<Integer> t = new GraphTraversal<>(g);
+        t.depthFirstSearchFrom(first, new GraphVisitor<Integer>() {
+        });
+        assertEquals(1, t.getDiscoveryTime(first));
+        assertEquals(n, t.getDiscoveryTime(previous));
+        assertEquals(2 * n, t.getFinishTime(first));
+    }
+
+}
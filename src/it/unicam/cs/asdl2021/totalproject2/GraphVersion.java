@@ -0,0 +1,424 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versione immutabile di un grafo concorrente, restituita da
+ * {@code snapshot()} di {@code ConcurrentMapAdjacentListUndirectedGraph<L>} e
+ * {@code ConcurrentAdjacencyMatrixDirectedGraph<L>}, o vista di una versione
+ * di {@code PersistentGraph<L>} con nodi e archi propri. È a sua volta un
+ * {@code Graph<L>} in sola lettura, quindi qualunque algoritmo che legge un
+ * grafo (per esempio {@code KruskalMSP<L>} o i calcolatori di cammini minimi)
+ * può lavorarci per tutto il tempo che serve, mentre altri thread continuano
+ * a modificare il grafo originale, senza vedere modifiche a metà e senza
+ * {@code ConcurrentModificationException}.
+ *
+ * Lo stato del grafo viene congelato una volta per epoca in una fotografia
+ * CSR ({@code GraphSnapshot<L>}), con copie dei nodi e degli archi fatte nel
+ * momento in cui è stata presa, quindi anche i pesi sono congelati. L' epoca
+ * è il numero di modifiche del grafo originale fino a quel momento: finché il
+ * grafo non cambia, chiamate successive di {@code snapshot()} condividono la
+ * stessa fotografia invece di costruirne una nuova.
+ *
+ * Gli algoritmi scrivono distanze, predecessori e colori nei nodi, quindi
+ * ogni versione restituita da {@code snapshot()} ha nodi e archi propri,
+ * copiati da quelli congelati in tempo {@code O(n + m)}, mentre gli indici e
+ * gli array CSR sono condivisi: due thread che lavorano su due versioni
+ * della stessa epoca non si disturbano tra loro e non toccano i nodi del
+ * grafo originale. I nodi da passare agli algoritmi si ottengono con
+ * {@code getNodeOf} o {@code getNodeAtIndex} della versione.
+ *
+ * Ogni versione va chiusa con {@code close()}, per esempio con un blocco
+ * try-with-resources. La fotografia condivisa ha un contatore di
+ * riferimenti, uno per versione aperta, e viene liberata quando l' ultima
+ * versione che la usa viene chiusa.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public final class GraphVersion<L> extends Graph<L> implements AutoCloseable {
+
+    private final Frozen<L> frozen;
+
+    private final AtomicBoolean closed;
+
+    // nodi e archi propri della versione, null dopo close()
+    private volatile GraphSnapshot<L> snapshot;
+
+    /*
+     * Stato congelato di un' epoca, condiviso dalle versioni di quell' epoca.
+     */
+    static final class Frozen<L> {
+
+        private final long epoch;
+
+        private final int edgeCount;
+
+        private final AtomicInteger references;
+
+        // ultimo stato congelato del grafo originale, da svuotare al rilascio
+        private final AtomicReference<Frozen<L>> owner;
+
+        // null dopo l' ultimo rilascio
+        private volatile GraphSnapshot<L> snapshot;
+
+        // arc entranti in ogni nodo, in formato CSR, calcolati al primo uso
+        // se il grafo è orientato
+        private int[] inOffsets;
+
+        private int[] inArcs;
+
+        Frozen(long epoch, boolean directed, ArrayList<GraphNode<L>> nodes, ArrayList<GraphEdge<L>> edges,
+                AtomicReference<Frozen<L>> owner) {
+            this.epoch = epoch;
+            this.edgeCount = edges.size();
+            this.references = new AtomicInteger(1);
+            this.owner = owner;
+            this.snapshot = new GraphSnapshot<>(directed, nodes, edges);
+        }
+
+        private void release() {
+            if(this.references.decrementAndGet() == 0) {
+                this.owner.compareAndSet(this, null);
+                synchronized (this) {
+                    this.snapshot = null;
+                    this.inOffsets = null;
+                    this.inArcs = null;
+                }
+            }
+        }
+
+        /*
+         * Raggruppa gli arc per nodo di arrivo: conteggio, somme prefisse e
+         * distribuzione, come per la fotografia. Da chiamare con il lock
+         * dello stato congelato.
+         */
+        private void buildIngoingArcs() {
+            if(this.inOffsets != null) return;
+            int n = this.snapshot.nodeCount();
+            int[] to = this.snapshot.getTo();
+            int[] offsets = new int[n + 1];
+            for (int v : to)
+                offsets[v + 1]++;
+            for (int v = 0; v < n; v++)
+                offsets[v + 1] += offsets[v];
+            int[] next = Arrays.copyOf(offsets, n);
+            int[] arcs = new int[to.length];
+            for (int arc = 0; arc < to.length; arc++)
+                arcs[next[to[arc]]++] = arc;
+            this.inOffsets = offsets;
+            this.inArcs = arcs;
+        }
+    }
+
+    /*
+     * Crea una versione che usa un riferimento già acquisito dello stato
+     * congelato.
+     */
+    private GraphVersion(Frozen<L> frozen) {
+        this.frozen = frozen;
+        this.closed = new AtomicBoolean();
+        this.snapshot = copyOf(frozen.snapshot);
+    }
+
+    /*
+     * Congela lo stato di un grafo, dati i nodi in ordine di indice e gli
+     * archi tra quei nodi, entrambi già copie, e ne restituisce una versione.
+     * Lo stato diventa l' ultimo del grafo originale.
+     */
+    static <L> GraphVersion<L> create(long epoch, boolean directed, ArrayList<GraphNode<L>> nodes,
+            ArrayList<GraphEdge<L>> edges, AtomicReference<Frozen<L>> last) {
+        Frozen<L> frozen = new Frozen<>(epoch, directed, nodes, edges, last);
+        last.set(frozen);
+        return new GraphVersion<>(frozen);
+    }
+
+    /*
+     * Restituisce una nuova versione dell' ultimo stato congelato del grafo,
+     * se è ancora dell' epoca corrente e non è stato rilasciato; altrimenti
+     * restituisce null e il chiamante deve congelarne uno nuovo.
+     */
+    static <L> GraphVersion<L> reuse(AtomicReference<Frozen<L>> last, long epoch) {
+        Frozen<L> frozen = last.get();
+        if(frozen == null || frozen.epoch != epoch) return null;
+        for (int references = frozen.references.get(); references > 0; references = frozen.references.get())
+            if(frozen.references.compareAndSet(references, references + 1))
+                return new GraphVersion<>(frozen);
+        return null;
+    }
+
+    /*
+     * Copia di un nodo del grafo, senza lo stato scritto dagli algoritmi.
+     */
+    static <L> GraphNode<L> freeze(GraphNode<L> node) {
+        return new GraphNode<>(node.getLabel());
+    }
+
+    /*
+     * Copia congelata di un arco tra due copie di nodi: il peso non cambia
+     * anche se cambia quello dell' arco originale.
+     */
+    static <L> GraphEdge<L> freeze(GraphEdge<L> edge, GraphNode<L> node1, GraphNode<L> node2) {
+        return new GraphEdge<>(node1, node2, edge.isDirected(), edge.getWeight());
+    }
+
+    /*
+     * Fotografia con gli stessi arc di quella congelata ma con nodi e archi
+     * nuovi; i due arc di un arco non orientato condividono la copia.
+     */
+    private static <L> GraphSnapshot<L> copyOf(GraphSnapshot<L> frozen) {
+        int n = frozen.nodeCount();
+        ArrayList<GraphNode<L>> nodes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            nodes.add(freeze(frozen.getNode(i)));
+        int[] from = frozen.getFrom();
+        int[] to = frozen.getTo();
+        ArrayList<GraphEdge<L>> arcEdges = new ArrayList<>(to.length);
+        Map<GraphEdge<L>, GraphEdge<L>> copies = frozen.isDirected() ? null : new IdentityHashMap<>();
+        for (int arc = 0; arc < to.length; arc++) {
+            GraphEdge<L> edge = frozen.getEdge(arc);
+            if(copies == null) {
+                arcEdges.add(freeze(edge, nodes.get(from[arc]), nodes.get(to[arc])));
+                continue;
+            }
+            GraphEdge<L> copy = copies.get(edge);
+            if(copy == null) {
+                copy = freeze(edge, nodes.get(frozen.indexOf(edge.getNode1())),
+                        nodes.get(frozen.indexOf(edge.getNode2())));
+                copies.put(edge, copy);
+            }
+            arcEdges.add(copy);
+        }
+        return new GraphSnapshot<>(frozen, nodes, arcEdges);
+    }
+
+    /**
+     * @return l' epoca della versione, cioè il numero di modifiche del grafo
+     *         originale prima che fosse presa
+     */
+    public long getEpoch() {
+        return this.frozen.epoch;
+    }
+
+    /**
+     * Restituisce la fotografia CSR della versione, per gli algoritmi che
+     * lavorano sugli array. Gli array sono condivisi con le altre versioni
+     * della stessa epoca, nodi e archi no.
+     *
+     * @return la fotografia della versione
+     * @throws IllegalStateException
+     *                                   se la versione è stata chiusa
+     */
+    public GraphSnapshot<L> getSnapshot() {
+        GraphSnapshot<L> snapshot = this.snapshot;
+        if(snapshot == null) throw new IllegalStateException("This graph version has been released");
+        return snapshot;
+    }
+
+    /**
+     * @return true se la versione è stata chiusa
+     */
+    public boolean isReleased() {
+        return this.snapshot == null;
+    }
+
+    /**
+     * Chiude la versione e rilascia il suo riferimento allo stato congelato,
+     * che viene liberato quando non è più usato da nessuna versione.
+     *
+     * @throws IllegalStateException
+     *                                   se la versione era già stata chiusa
+     */
+    @Override
+    public void close() {
+        if(!this.closed.compareAndSet(false, true))
+            throw new IllegalStateException("This graph version has already been released");
+        this.snapshot = null;
+        this.frozen.release();
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.getSnapshot().nodeCount();
+    }
+
+    @Override
+    public int edgeCount() {
+        this.getSnapshot();
+        return this.frozen.edgeCount;
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("This graph version is immutable");
+    }
+
+    @Override
+    public boolean isDirected() {
+        return this.getSnapshot().isDirected();
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        GraphSnapshot<L> s = this.getSnapshot();
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        for (int i = 0; i < s.nodeCount(); i++)
+            setToReturn.add(s.getNode(i));
+        return setToReturn;
+    }
+
+    @Override
+    public boolean addNode(GraphNode<L> node) {
+        throw new UnsupportedOperationException("This graph version is immutable");
+    }
+
+    @Override
+    public boolean removeNode(GraphNode<L> node) {
+        throw new UnsupportedOperationException("This graph version is immutable");
+    }
+
+    @Override
+    public boolean containsNode(GraphNode<L> node) {
+        return this.getSnapshot().indexOf(node) != -1;
+    }
+
+    @Override
+    public GraphNode<L> getNodeOf(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        GraphSnapshot<L> s = this.getSnapshot();
+        int i = s.indexOf(new GraphNode<>(label));
+        return i == -1 ? null : s.getNode(i);
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        int i = this.getSnapshot().indexOf(new GraphNode<>(label));
+        if(i == -1) throw new IllegalArgumentException("This label is not contained in this graph");
+        return i;
+    }
+
+    @Override
+    public GraphNode<L> getNodeAtIndex(int i) {
+        GraphSnapshot<L> s = this.getSnapshot();
+        if(i < 0 || i >= s.nodeCount())
+            throw new IndexOutOfBoundsException("Input must be between 0 and nodeCount()-1");
+        return s.getNode(i);
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        GraphSnapshot<L> s = this.getSnapshot();
+        return this.edgeAt(s, this.indexOf(s, node1), this.indexOf(s, node2));
+    }
+
+    @Override
+    public GraphEdge<L> getEdgeAtNodeIndexes(int i, int j) {
+        GraphSnapshot<L> s = this.getSnapshot();
+        if(i < 0 || i >= s.nodeCount() || j < 0 || j >= s.nodeCount())
+            throw new IndexOutOfBoundsException("These indexes must be valid");
+        return this.edgeAt(s, i, j);
+    }
+
+    private GraphEdge<L> edgeAt(GraphSnapshot<L> s, int u, int v) {
+        int[] offsets = s.getOffsets();
+        int[] to = s.getTo();
+        for (int arc = offsets[u]; arc < offsets[u + 1]; arc++)
+            if(to[arc] == v)
+                return s.getEdge(arc);
+        return null;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        GraphSnapshot<L> s = this.getSnapshot();
+        int u = this.indexOf(s, node);
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        for (int arc = s.getOffsets()[u]; arc < s.getOffsets()[u + 1]; arc++)
+            setToReturn.add(s.getNode(s.getTo()[arc]));
+        if(!s.isDirected())
+            setToReturn.remove(node);
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        for (GraphEdge<L> edge : this.getIngoingEdgesOf(node))
+            setToReturn.add(edge.getNode1());
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        GraphSnapshot<L> s = this.getSnapshot();
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        for (int arc = 0; arc < s.arcCount(); arc++)
+            setToReturn.add(s.getEdge(arc));
+        return setToReturn;
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        throw new UnsupportedOperationException("This graph version is immutable");
+    }
+
+    @Override
+    public boolean removeEdge(GraphEdge<L> edge) {
+        throw new UnsupportedOperationException("This graph version is immutable");
+    }
+
+    @Override
+    public boolean containsEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        GraphEdge<L> found = this.getEdge(edge.getNode1(), edge.getNode2());
+        return found != null && found.equals(edge);
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        GraphSnapshot<L> s = this.getSnapshot();
+        int u = this.indexOf(s, node);
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        for (int arc = s.getOffsets()[u]; arc < s.getOffsets()[u + 1]; arc++)
+            setToReturn.add(s.getEdge(arc));
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        GraphSnapshot<L> s = this.getSnapshot();
+        if(!s.isDirected()) throw new UnsupportedOperationException("This graph is not directed");
+        int v = this.indexOf(s, node);
+        int[] inOffsets;
+        int[] inArcs;
+        // lo stato congelato non viene rilasciato finché questa versione è
+        // aperta
+        synchronized (this.frozen) {
+            this.frozen.buildIngoingArcs();
+            inOffsets = this.frozen.inOffsets;
+            inArcs = this.frozen.inArcs;
+        }
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        for (int k = inOffsets[v]; k < inOffsets[v + 1]; k++)
+            setToReturn.add(s.getEdge(inArcs[k]));
+        return setToReturn;
+    }
+
+    private int indexOf(GraphSnapshot<L> s, GraphNode<L> node) {
+        int i = s.indexOf(node);
+        if(i == -1) throw new IllegalArgumentException("This node doesn't exist in this graph");
+        return i;
+    }
+
+}
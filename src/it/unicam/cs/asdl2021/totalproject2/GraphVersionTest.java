@@ -0,0 +1,277 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class GraphVersionTest {
+
+    private final GraphNode<String> na = new GraphNode<String>("a");
+    private final GraphNode<String> nb = new GraphNode<String>("b");
+    private final GraphNode<String> nc = new GraphNode<String>("c");
+    private final GraphNode<String> nd = new GraphNode<String>("d");
+
+    private ConcurrentAdjacencyMatrixDirectedGraph<String> directedGraph() {
+        ConcurrentAdjacencyMatrixDirectedGraph<String> g = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        g.addNode(na);
+        g.addNode(nb);
+        g.addNode(nc);
+        g.addNode(nd);
+        g.addEdge(new GraphEdge<>(na, nb, true, 1.0));
+        g.addEdge(new GraphEdge<>(nb, nd, true, 1.0));
+        g.addEdge(new GraphEdge<>(na, nc, true, 2.0));
+        g.addEdge(new GraphEdge<>(nc, nd, true, 2.0));
+        return g;
+    }
+
+    @Test
+    final void testEpochsAndReuse() {
+        ConcurrentAdjacencyMatrixDirectedGraph<String> g = this.directedGraph();
+        GraphVersion<String> v1 = g.snapshot();
+        GraphVersion<String> v2 = g.snapshot();
+        // il grafo non è cambiato: stessa fotografia, nodi e archi propri
+        assertNotSame(v1, v2);
+        assertSame(v1.getSnapshot().getOffsets(), v2.getSnapshot().getOffsets());
+        assertNotSame(v1.getNodeOf("a"), v2.getNodeOf("a"));
+        assertNotSame(v1.getEdge(na, nb), v2.getEdge(na, nb));
+        assertNotSame(na, v1.getNodeOf("a"));
+        assertEquals(8, v1.getEpoch());
+        // una modifica non riuscita non cambia l' epoca
+        assertFalse(g.addEdge(new GraphEdge<>(na, nb, true, 5.0)));
+        try (GraphVersion<String> v = g.snapshot()) {
+            assertSame(v1.getSnapshot().getOffsets(), v.getSnapshot().getOffsets());
+        }
+        g.removeEdge(new GraphEdge<>(na, nb, true));
+        GraphVersion<String> v3 = g.snapshot();
+        assertNotSame(v1.getSnapshot().getOffsets(), v3.getSnapshot().getOffsets());
+        assertEquals(9, v3.getEpoch());
+        assertEquals(4, v1.edgeCount());
+        assertEquals(3, v3.edgeCount());
+        v1.close();
+        assertTrue(v1.isReleased());
+        assertThrows(IllegalStateException.class, () -> v1.nodeCount());
+        assertThrows(IllegalStateException.class, () -> v1.close());
+        // v2 usa ancora la fotografia
+        assertFalse(v2.isReleased());
+        assertEquals(4, v2.getEdges().size());
+        v2.close();
+        int[] offsets = v3.getSnapshot().getOffsets();
+        v3.close();
+        // l' ultima fotografia è stata rilasciata, ne viene costruita una nuova
+        try (GraphVersion<String> v4 = g.snapshot()) {
+            assertNotSame(offsets, v4.getSnapshot().getOffsets());
+            assertEquals(9, v4.getEpoch());
+        }
+    }
+
+    @Test
+    final void testImmutable() {
+        ConcurrentMapAdjacentListUndirectedGraph<String> g = new ConcurrentMapAdjacentListUndirectedGraph<>();
+        g.addNode(na);
+        g.addNode(nb);
+        GraphEdge<String> edge = new GraphEdge<>(na, nb, false, 1.0);
+        g.addEdge(edge);
+        try (GraphVersion<String> v = g.snapshot()) {
+            assertThrows(UnsupportedOperationException.class, () -> v.addNode(nc));
+            assertThrows(UnsupportedOperationException.class, () -> v.removeNode(na));
+            assertThrows(UnsupportedOperationException.class, () -> v.addEdge(new GraphEdge<>(na, na, false)));
+            assertThrows(UnsupportedOperationException.class, () -> v.removeEdge(edge));
+            assertThrows(UnsupportedOperationException.class, () -> v.clear());
+            assertThrows(UnsupportedOperationException.class, () -> v.getIngoingEdgesOf(na));
+            // il peso dell' arco della versione non cambia con quello del grafo
+            edge.setWeight(7.0);
+            assertEquals(1.0, v.getEdge(na, nb).getWeight());
+            g.clear();
+            assertEquals(2, v.nodeCount());
+            assertTrue(v.containsEdge(new GraphEdge<>(nb, na, false)));
+        }
+    }
+
+    @Test
+    final void testReadOperations() {
+        ConcurrentAdjacencyMatrixDirectedGraph<String> g = this.directedGraph();
+        g.addEdge(new GraphEdge<>(nd, nd, true));
+        try (GraphVersion<String> v = g.snapshot()) {
+            assertTrue(v.isDirected());
+            assertEquals(4, v.nodeCount());
+            assertEquals(5, v.edgeCount());
+            assertEquals(g.getEdges(), v.getEdges());
+            assertEquals(g.getNodes(), v.getNodes());
+            assertEquals(Set.of(nb, nc), v.getAdjacentNodesOf(na));
+            assertEquals(Set.of(nb, nc, nd), v.getPredecessorNodesOf(nd));
+            assertEquals(g.getIngoingEdgesOf(nd), v.getIngoingEdgesOf(nd));
+            assertEquals(4, v.getDegreeOf(nd));
+            assertFalse(v.containsEdge(new GraphEdge<>(nd, nc, true)));
+            assertEquals(nc, v.getNodeOf("c"));
+            assertNotSame(nc, v.getNodeOf("c"));
+            assertNull(v.getNodeOf("z"));
+            // stessi indici del grafo
+            assertEquals(2, v.getNodeIndexOf("c"));
+            assertSame(v.getNodeOf("c"), v.getNodeAtIndex(2));
+            assertSame(v.getNodeOf("c"), v.getEdge(na, nc).getNode2());
+            assertEquals(new GraphEdge<>(na, nc, true), v.getEdgeAtNodeIndexes(0, 2));
+            assertNull(v.getEdgeAtNodeIndexes(2, 0));
+            assertThrows(IndexOutOfBoundsException.class, () -> v.getNodeAtIndex(4));
+            assertThrows(IllegalArgumentException.class, () -> v.getEdgesOf(new GraphNode<>("z")));
+            assertEquals(5, v.getSnapshot().arcCount());
+        }
+
+        ConcurrentMapAdjacentListUndirectedGraph<String> u = new ConcurrentMapAdjacentListUndirectedGraph<>();
+        u.addNode(na);
+        u.addNode(nb);
+        u.addNode(nc);
+        u.addEdge(new GraphEdge<>(na, nb, false));
+        u.addEdge(new GraphEdge<>(nc, nb, false));
+        u.addEdge(new GraphEdge<>(nb, nb, false));
+        try (GraphVersion<String> v = u.snapshot()) {
+            assertEquals(3, v.edgeCount());
+            assertEquals(u.getEdges(), v.getEdges());
+            assertEquals(Set.of(na, nc), v.getAdjacentNodesOf(nb));
+            assertEquals(u.getEdgesOf(nb), v.getEdgesOf(nb));
+            assertEquals(new GraphEdge<>(nb, nc, false), v.getEdge(nb, nc));
+        }
+    }
+
+    @Test
+    final void testAlgorithmsWhileWriting() throws InterruptedException {
+        int n = 40;
+        ArrayList<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            nodes.add(new GraphNode<>(i));
+        ConcurrentMapAdjacentListUndirectedGraph<Integer> undirected = new ConcurrentMapAdjacentListUndirectedGraph<>();
+        ConcurrentAdjacencyMatrixDirectedGraph<Integer> directed = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        for (GraphNode<Integer> node : nodes) {
+            undirected.addNode(node);
+            directed.addNode(node);
+        }
+        // un anello, così il grafo resta connesso qualunque arco venga tolto
+        for (int i = 0; i < n; i++) {
+            undirected.addEdge(new GraphEdge<>(nodes.get(i), nodes.get((i + 1) % n), false, 100.0));
+            directed.addEdge(new GraphEdge<>(nodes.get(i), nodes.get((i + 1) % n), true, 100.0));
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(5);
+            try {
+                while(!stop.get()) {
+                    int i = random.nextInt(n);
+                    int j = random.nextInt(n);
+                    if(i == j || j == (i + 1) % n || i == (j + 1) % n) continue;
+                    double weight = random.nextInt(50);
+                    if(random.nextBoolean()) {
+                        undirected.addEdge(new GraphEdge<>(nodes.get(i), nodes.get(j), false, weight));
+                        directed.addEdge(new GraphEdge<>(nodes.get(i), nodes.get(j), true, weight));
+                    } else {
+                        undirected.removeEdge(new GraphEdge<>(nodes.get(i), nodes.get(j), false));
+                        directed.removeEdge(new GraphEdge<>(nodes.get(i), nodes.get(j), true));
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        try {
+            for (int round = 0; round < 30; round++) {
+                try (GraphVersion<Integer> v = undirected.snapshot()) {
+                    Set<GraphEdge<Integer>> edges = v.getEdges();
+                    Set<GraphEdge<Integer>> msp = new KruskalMSP<Integer>().computeMSP(v);
+                    // la versione non cambia durante il calcolo
+                    assertEquals(edges, v.getEdges());
+                    assertEquals(n - 1, msp.size());
+                    assertTrue(edges.containsAll(msp));
+                }
+                try (GraphVersion<Integer> v = directed.snapshot()) {
+                    int edgeCount = v.edgeCount();
+                    DijkstraShortestPathComputer<Integer> dijkstra = new DijkstraShortestPathComputer<>(v);
+                    dijkstra.computeShortestPathsFrom(v.getNodeOf(0));
+                    BellmanFordShortestPathComputer<Integer> bellmanFord = new BellmanFordShortestPathComputer<>(v);
+                    bellmanFord.computeShortestPathsFrom(v.getNodeOf(0));
+                    for (GraphNode<Integer> target : List.of(v.getNodeOf(n / 2), v.getNodeOf(n - 1))) {
+                        double dijkstraCost = 0.0;
+                        for (GraphEdge<Integer> edge : dijkstra.getShortestPathTo(target))
+                            dijkstraCost += edge.getWeight();
+                        double bellmanFordCost = 0.0;
+                        for (GraphEdge<Integer> edge : bellmanFord.getShortestPathTo(target))
+                            bellmanFordCost += edge.getWeight();
+                        assertEquals(dijkstraCost, bellmanFordCost);
+                    }
+                    assertEquals(edgeCount, v.getEdges().size());
+                }
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+        assertNull(failure.get());
+    }
+
+    @Test
+    final void testConcurrentReaders() throws InterruptedException {
+        int n = 300;
+        ConcurrentAdjacencyMatrixDirectedGraph<Integer> g = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        ArrayList<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        // pesi non interi, così Dijkstra usa lo heap binario e scrive nei nodi
+        for (int i = 0; i < n; i++)
+            g.addEdge(new GraphEdge<>(nodes.get(i), nodes.get((i + 1) % n), true, 1.5));
+
+        // due lettori sulla stessa epoca, da sorgenti diverse
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            int seed = r;
+            readers[r] = new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    for (int round = 0; round < 10; round++) {
+                        int source = random.nextInt(n);
+                        try (GraphVersion<Integer> v = g.snapshot()) {
+                            BellmanFordShortestPathComputer<Integer> bellmanFord = new BellmanFordShortestPathComputer<>(
+                                    v);
+                            bellmanFord.computeShortestPathsFrom(v.getNodeOf(source));
+                            DijkstraShortestPathComputer<Integer> dijkstra = new DijkstraShortestPathComputer<>(v);
+                            dijkstra.computeShortestPathsFrom(v.getNodeOf(source));
+                            for (int k = 0; k < 10; k++) {
+                                int target = random.nextInt(n);
+                                if(target == source) continue;
+                                int hops = (target - source + n) % n;
+                                List<GraphEdge<Integer>> path = bellmanFord.getShortestPathTo(v.getNodeOf(target));
+                                assertEquals(hops, path.size());
+                                assertEquals(source, path.get(0).getNode1().getLabel());
+                                assertEquals(hops, dijkstra.getShortestPathTo(v.getNodeOf(target)).size());
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers[r].start();
+        }
+        for (Thread reader : readers)
+            reader.join();
+        assertNull(failure.get());
+        // i nodi del grafo originale non sono stati toccati
+        for (GraphNode<Integer> node : nodes)
+            assertNull(node.getPrevious());
+    }
+
+}
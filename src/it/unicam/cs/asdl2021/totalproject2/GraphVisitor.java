@@ -0,0 +1,103 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+/**
+ * Azioni eseguite da una {@code GraphTraversal<L>} durante una visita. Tutti
+ * i metodi hanno un' implementazione vuota, quindi basta ridefinire quelli di
+ * interesse.
+ *
+ * Nelle visite in profondità un arco che porta a un nodo non ancora scoperto
+ * è un arco dell' albero; gli altri archi sono all' indietro (verso un
+ * antenato non ancora terminato), in avanti (verso un discendente già
+ * terminato) o trasversali. Nei grafi non orientati ogni arco è esaminato una
+ * sola volta per verso e l' arco dell' albero non viene riesaminato dal
+ * figlio verso il padre. Nelle visite in ampiezza gli archi che non sono
+ * dell' albero sono segnalati solo con {@code nonTreeEdge}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public interface GraphVisitor<L> {
+
+    /**
+     * Chiamato quando un nodo viene scoperto, subito dopo aver assegnato il
+     * suo tempo di scoperta.
+     *
+     * @param node
+     *                 il nodo scoperto
+     */
+    public default void discoverNode(GraphNode<L> node) {
+    }
+
+    /**
+     * Chiamato quando tutti gli archi uscenti da un nodo sono stati esaminati,
+     * subito dopo aver assegnato il suo tempo di fine.
+     *
+     * @param node
+     *                 il nodo terminato
+     */
+    public default void finishNode(GraphNode<L> node) {
+    }
+
+    /**
+     * Chiamato per un arco dell' albero della visita, prima di scoprire il
+     * nodo a cui porta.
+     *
+     * @param from
+     *                 il nodo da cui l' arco viene percorso
+     * @param edge
+     *                 l' arco
+     */
+    public default void treeEdge(GraphNode<L> from, GraphEdge<L> edge) {
+    }
+
+    /**
+     * Chiamato, nelle visite in profondità, per un arco verso un antenato non
+     * ancora terminato, cappi compresi.
+     *
+     * @param from
+     *                 il nodo da cui l' arco viene percorso
+     * @param edge
+     *                 l' arco
+     */
+    public default void backEdge(GraphNode<L> from, GraphEdge<L> edge) {
+    }
+
+    /**
+     * Chiamato, nelle visite in profondità, per un arco verso un discendente
+     * già terminato.
+     *
+     * @param from
+     *                 il nodo da cui l' arco viene percorso
+     * @param edge
+     *                 l' arco
+     */
+    public default void forwardEdge(GraphNode<L> from, GraphEdge<L> edge) {
+    }
+
+    /**
+     * Chiamato, nelle visite in profondità, per un arco verso un nodo
+     * terminato che non è un discendente.
+     *
+     * @param from
+     *                 il nodo da cui l' arco viene percorso
+     * @param edge
+     *                 l' arco
+     */
+    public default void crossEdge(GraphNode<L> from, GraphEdge<L> edge) {
+    }
+
+    /**
+     * Chiamato, nelle visite in ampiezza, per un arco verso un nodo già
+     * scoperto.
+     *
+     * @param from
+     *                 il nodo da cui l' arco viene percorso
+     * @param edge
+     *                 l' arco
+     */
+    public default void nonTreeEdge(GraphNode<L> from, GraphEdge<L> edge) {
+    }
+
+}
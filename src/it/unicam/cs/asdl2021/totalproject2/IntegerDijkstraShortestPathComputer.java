@@ -0,0 +1,236 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.List;
+
+/**
+ * Variante dell' algoritmo di Dijkstra per grafi orientati con pesi interi non
+ * negativi. Invece di {@code BinaryHeapMinPriorityQueue}, basata su confronti,
+ * usa una {@code MonotoneIntegerPriorityQueue}: una {@code DialBucketQueue} se
+ * il peso massimo è al più {@code DIAL_MAX_WEIGHT}, altrimenti un
+ * {@code RadixHeap}. In entrambi i casi inserimento ed estrazione richiedono
+ * tempo costante ammortizzato.
+ *
+ * Il calcolatore lavora su una {@code GraphSnapshot<L>} presa alla
+ * costruzione. Come {@code DijkstraShortestPathComputer<L>}, al termine del
+ * calcolo imposta su ogni nodo del grafo la distanza dalla sorgente (in
+ * {@code integerDistance} e in {@code floatingPointDistance}, infinita per i
+ * nodi non raggiungibili) e il predecessore nel cammino minimo.
+ *
+ * Il calcolatore è applicabile, e viene scelto automaticamente da
+ * {@code DijkstraShortestPathComputer<L>}, se ogni peso è un intero non
+ * negativo e ogni distanza possibile, cioè il peso massimo per il numero di
+ * nodi meno uno, è rappresentabile come {@code int}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                il tipo delle etichette dei nodi del grafo
+ */
+public class IntegerDijkstraShortestPathComputer<L> implements SingleSourceShortestPathComputer<L> {
+
+    /**
+     * Peso massimo fino al quale si usa una {@code DialBucketQueue}.
+     */
+    public static final int DIAL_MAX_WEIGHT = 1 << 12;
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final int[] weights;
+
+    private final MonotoneIntegerPriorityQueue queue;
+
+    private GraphNode<L> lastSourceNode;
+
+    private int lastSourceIndex;
+
+    private boolean isComputed = false;
+
+    // distanza dalla sorgente, -1 se non raggiunto, e arc dal predecessore
+    private final int[] distance;
+
+    private final int[] previousArc;
+
+    private final boolean[] settled;
+
+    /**
+     * Crea un calcolatore di cammini minimi a sorgente singola per un grafo
+     * orientato con pesi interi non negativi.
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore di cammini minimi
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è orientato
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato contiene almeno
+     *                                      un peso che non è un intero non
+     *                                      negativo, o pesi tali che le
+     *                                      distanze possano superare
+     *                                      {@code Integer.MAX_VALUE}
+     */
+    public IntegerDijkstraShortestPathComputer(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(graph.isEmpty()) throw new IllegalArgumentException("Graph can't be empty");
+        if(!graph.isDirected()) throw new IllegalArgumentException("Graph can't be undirected");
+
+        this.graph = graph;
+        this.snapshot = new GraphSnapshot<>(graph);
+        int n = this.snapshot.nodeCount();
+        double[] snapshotWeights = this.snapshot.getWeights();
+        if(!hasIntegerWeights(snapshotWeights, n))
+            throw new IllegalArgumentException("Graph weights must be non-negative integers with distances in the int range");
+        this.weights = new int[snapshotWeights.length];
+        int maxWeight = 0;
+        for (int arc = 0; arc < snapshotWeights.length; arc++) {
+            this.weights[arc] = (int) snapshotWeights[arc];
+            maxWeight = Math.max(maxWeight, this.weights[arc]);
+        }
+        if(maxWeight <= DIAL_MAX_WEIGHT)
+            this.queue = new DialBucketQueue(maxWeight);
+        else
+            this.queue = new RadixHeap();
+        this.distance = new int[n];
+        this.previousArc = new int[n];
+        this.settled = new boolean[n];
+    }
+
+    /**
+     * Determina se un grafo ha solo pesi interi non negativi tali che ogni
+     * distanza possibile sia rappresentabile come {@code int}, cioè se può
+     * essere usato con questo calcolatore.
+     *
+     * @param graph
+     *                  il grafo da controllare
+     * @return true se il calcolatore è applicabile al grafo, false altrimenti
+     * @throws NullPointerException
+     *                                  se il grafo passato è nullo
+     */
+    public static boolean hasIntegerWeights(Graph<?> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        double maxWeight = 0.0;
+        for (GraphEdge<?> edge : graph.getEdges()) {
+            double weight = edge.getWeight();
+            if(!(weight >= 0.0) || weight != Math.rint(weight)) return false;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        return maxWeight * Math.max(1, graph.nodeCount() - 1) <= Integer.MAX_VALUE;
+    }
+
+    private static boolean hasIntegerWeights(double[] weights, int nodeCount) {
+        double maxWeight = 0.0;
+        for (double weight : weights) {
+            // il confronto è falso anche per NaN
+            if(!(weight >= 0.0) || weight != Math.rint(weight)) return false;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        return maxWeight * Math.max(1, nodeCount - 1) <= Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void computeShortestPathsFrom(GraphNode<L> sourceNode) {
+        if(sourceNode == null) throw new NullPointerException("sourceNode can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        if(source == -1) throw new IllegalArgumentException("sourceNode must be contained in this graph");
+
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        for (int u = 0; u < n; u++) {
+            this.distance[u] = -1;
+            this.previousArc[u] = -1;
+            this.settled[u] = false;
+        }
+        this.distance[source] = 0;
+        this.queue.clear();
+        this.queue.insert(source, 0);
+
+        while(!this.queue.isEmpty()) {
+            int u = this.queue.extractMinimum();
+            // copie con una distanza già superata
+            if(this.settled[u]) continue;
+            this.settled[u] = true;
+            int du = this.distance[u];
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = to[arc];
+                int dist = du + this.weights[arc];
+                if(!this.settled[v] && (this.distance[v] == -1 || dist < this.distance[v])) {
+                    this.distance[v] = dist;
+                    this.previousArc[v] = arc;
+                    this.queue.insert(v, dist);
+                }
+            }
+        }
+
+        // risultati sui nodi del grafo, come in DijkstraShortestPathComputer
+        int[] from = this.snapshot.getFrom();
+        for (int u = 0; u < n; u++) {
+            GraphNode<L> node = this.snapshot.getNode(u);
+            node.setIntegerDistance(this.distance[u] == -1 ? Integer.MAX_VALUE : this.distance[u]);
+            node.setFloatingPointDistance(this.distance[u] == -1 ? Double.POSITIVE_INFINITY : this.distance[u]);
+            node.setPrevious(this.previousArc[u] == -1 ? null : this.snapshot.getNode(from[this.previousArc[u]]));
+        }
+        this.lastSourceNode = this.snapshot.getNode(source);
+        this.lastSourceIndex = source;
+        this.isComputed = true;
+    }
+
+    @Override
+    public boolean isComputed() {
+        return this.isComputed;
+    }
+
+    @Override
+    public GraphNode<L> getLastSource() {
+        if (!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+        return this.lastSourceNode;
+    }
+
+    @Override
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    @Override
+    public List<GraphEdge<L>> getShortestPathTo(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.snapshot.buildPath(this.previousArc, this.lastSourceIndex, target);
+    }
+
+    /**
+     * Restituisce il costo di un cammino minimo dall' ultima sorgente al nodo
+     * passato.
+     *
+     * @param targetNode
+     *                       il nodo di arrivo del cammino minimo
+     * @return il costo del cammino minimo, -1 se il nodo non è raggiungibile
+     *         dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito nemmeno una
+     *                                      volta il calcolo dei cammini minimi
+     */
+    public int getShortestPathCost(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.distance[target];
+    }
+
+}
@@ -0,0 +1,145 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class IntegerDijkstraShortestPathComputerTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 10));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, 2));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 3));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, 2));
+        g.addEdge(new GraphEdge<String>(ny, ns, true, 7));
+        g.addEdge(new GraphEdge<String>(nu, nv, true, 1));
+        g.addEdge(new GraphEdge<String>(nx, nv, true, 9));
+        g.addEdge(new GraphEdge<String>(ny, nv, true, 6));
+        g.addEdge(new GraphEdge<String>(nv, ny, true, 4));
+        return g;
+    }
+
+    @Test
+    final void testIntegerDijkstraShortestPathComputer() {
+        assertThrows(NullPointerException.class, () -> new IntegerDijkstraShortestPathComputer<String>(null));
+        Graph<String> emptyGraph = new AdjacencyMatrixDirectedGraph<>();
+        assertThrows(IllegalArgumentException.class, () -> new IntegerDijkstraShortestPathComputer<String>(emptyGraph));
+        Graph<String> notDirectedGraph = new MapAdjacentListUndirectedGraph<>();
+        notDirectedGraph.addNode(ns);
+        assertThrows(IllegalArgumentException.class, () -> new IntegerDijkstraShortestPathComputer<String>(notDirectedGraph));
+        Graph<String> notIntegerGraph = repeatedCode();
+        notIntegerGraph.addEdge(new GraphEdge<>(nv, nu, true, 1.5));
+        assertFalse(IntegerDijkstraShortestPathComputer.hasIntegerWeights(notIntegerGraph));
+        assertThrows(IllegalArgumentException.class, () -> new IntegerDijkstraShortestPathComputer<String>(notIntegerGraph));
+        Graph<String> negativeGraph = repeatedCode();
+        negativeGraph.addEdge(new GraphEdge<>(nv, nu, true, -1));
+        assertFalse(IntegerDijkstraShortestPathComputer.hasIntegerWeights(negativeGraph));
+        Graph<String> notWeightedGraph = repeatedCode();
+        notWeightedGraph.addEdge(new GraphEdge<>(nv, nu, true));
+        assertFalse(IntegerDijkstraShortestPathComputer.hasIntegerWeights(notWeightedGraph));
+        // 4 nodi: distanze fino a 3 volte il peso massimo
+        Graph<String> hugeGraph = repeatedCode();
+        hugeGraph.addEdge(new GraphEdge<>(nv, nu, true, Integer.MAX_VALUE / 2));
+        assertFalse(IntegerDijkstraShortestPathComputer.hasIntegerWeights(hugeGraph));
+        assertTrue(IntegerDijkstraShortestPathComputer.hasIntegerWeights(repeatedCode()));
+    }
+
+    @Test
+    final void testGetShortestPathTo() {
+        Graph<String> g = repeatedCode();
+        IntegerDijkstraShortestPathComputer<String> c = new IntegerDijkstraShortestPathComputer<>(g);
+        assertThrows(IllegalStateException.class, () -> c.getShortestPathTo(nu));
+        assertThrows(NullPointerException.class, () -> c.computeShortestPathsFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> c.computeShortestPathsFrom(new GraphNode<>("notExistingNode")));
+        c.computeShortestPathsFrom(ns);
+        assertTrue(c.isComputed());
+        assertEquals(ns, c.getLastSource());
+        List<GraphEdge<String>> pathTest = new ArrayList<GraphEdge<String>>();
+        assertEquals(pathTest, c.getShortestPathTo(ns));
+        pathTest.add(new GraphEdge<String>(ns, nx, true, 5));
+        assertEquals(pathTest, c.getShortestPathTo(nx));
+        pathTest.add(new GraphEdge<String>(nx, nu, true, 3));
+        assertEquals(pathTest, c.getShortestPathTo(nu));
+        pathTest.add(new GraphEdge<String>(nu, nv, true, 1));
+        assertEquals(pathTest, c.getShortestPathTo(nv));
+        assertEquals(7, c.getShortestPathCost(ny));
+        // distanze e predecessori anche sui nodi del grafo
+        assertEquals(9, g.getNodeOf("v").getIntegerDistance());
+        assertEquals(9.0, g.getNodeOf("v").getFloatingPointDistance());
+        assertEquals(nu, g.getNodeOf("v").getPrevious());
+    }
+
+    @Test
+    final void testRadixHeapAndUnreachableNode() {
+        Graph<String> g = repeatedCode();
+        GraphNode<String> nw = new GraphNode<>("w");
+        GraphNode<String> nz = new GraphNode<>("z");
+        g.addNode(nw);
+        g.addNode(nz);
+        // peso oltre DIAL_MAX_WEIGHT: si usa il radix heap
+        g.addEdge(new GraphEdge<>(nv, nw, true, 1_000_000));
+        IntegerDijkstraShortestPathComputer<String> c = new IntegerDijkstraShortestPathComputer<>(g);
+        c.computeShortestPathsFrom(ns);
+        assertEquals(1_000_009, c.getShortestPathCost(nw));
+        assertEquals(-1, c.getShortestPathCost(nz));
+        assertNull(c.getShortestPathTo(nz));
+        assertEquals(Double.POSITIVE_INFINITY, g.getNodeOf("z").getFloatingPointDistance());
+    }
+
+    @Test
+    final void testSameResultAsBinaryHeap() {
+        Random random = new Random(17);
+        int n = 300;
+        for (int maxWeight : new int[] { 1, 100, 100_000 }) {
+            Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+            for (int i = 0; i < n; i++)
+                g.addNode(new GraphNode<>(i));
+            for (int u = 0; u < n; u++)
+                for (int k = 0; k < 5; k++)
+                    g.addEdge(new GraphEdge<>(g.getNodeOf(u), g.getNodeOf(random.nextInt(n)), true,
+                            random.nextInt(maxWeight + 1)));
+            DijkstraShortestPathComputer<Integer> automatic = new DijkstraShortestPathComputer<>(g);
+            DijkstraShortestPathComputer<Integer> binaryHeap = new DijkstraShortestPathComputer<>(g, false);
+            for (int s = 0; s < n; s += 97) {
+                binaryHeap.computeShortestPathsFrom(g.getNodeOf(s));
+                double[] expected = new double[n];
+                for (int i = 0; i < n; i++)
+                    expected[i] = g.getNodeOf(i).getFloatingPointDistance();
+                automatic.computeShortestPathsFrom(g.getNodeOf(s));
+                for (int i = 0; i < n; i++) {
+                    assertEquals(expected[i], g.getNodeOf(i).getFloatingPointDistance());
+                    List<GraphEdge<Integer>> path = automatic.getShortestPathTo(g.getNodeOf(i));
+                    if(expected[i] == Double.POSITIVE_INFINITY || i == s)
+                        continue;
+                    double cost = 0.0;
+                    for (GraphEdge<Integer> edge : path)
+                        cost += edge.getWeight();
+                    assertEquals(expected[i], cost);
+                }
+            }
+        }
+    }
+
+}
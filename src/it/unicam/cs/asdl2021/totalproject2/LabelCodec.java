@@ -0,0 +1,87 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conversione delle etichette dei nodi in sequenze di byte e viceversa, usata
+ * per salvare un grafo in un file con {@code GraphFile} e rileggerlo con
+ * {@code MappedGraph<L>}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi
+ */
+public interface LabelCodec<L> {
+
+    /**
+     * Etichette stringa, codificate in UTF-8.
+     */
+    public static final LabelCodec<String> STRING = new LabelCodec<String>() {
+
+        @Override
+        public byte[] encode(String label) {
+            return label.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    };
+
+    /**
+     * Etichette intere, codificate su quattro byte little-endian.
+     */
+    public static final LabelCodec<Integer> INTEGER = new LabelCodec<Integer>() {
+
+        @Override
+        public byte[] encode(Integer label) {
+            return ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(label).array();
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.order(ByteOrder.LITTLE_ENDIAN).getInt(buffer.position());
+        }
+    };
+
+    /**
+     * Etichette intere lunghe, codificate su otto byte little-endian.
+     */
+    public static final LabelCodec<Long> LONG = new LabelCodec<Long>() {
+
+        @Override
+        public byte[] encode(Long label) {
+            return ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(label).array();
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.order(ByteOrder.LITTLE_ENDIAN).getLong(buffer.position());
+        }
+    };
+
+    /**
+     * Codifica un' etichetta.
+     *
+     * @param label
+     *                  l' etichetta, non nulla
+     * @return i byte che rappresentano l' etichetta
+     */
+    public byte[] encode(L label);
+
+    /**
+     * Decodifica un' etichetta.
+     *
+     * @param buffer
+     *                   un buffer che contiene esattamente i byte prodotti da
+     *                   {@code encode}, dalla posizione corrente al limite;
+     *                   può essere una vista del file mappato in memoria
+     * @return l' etichetta
+     */
+    public L decode(ByteBuffer buffer);
+
+}
@@ -62,6 +62,14 @@ public class MapAdjacentListUndirectedGraph<L> extends Graph<L> {
         this.adjacentLists = new HashMap<>();
     }
 
+    /*
+     * Crea un grafo vuoto con la mappa già dimensionata per un certo numero di
+     * nodi, usato da GraphBuilder.
+     */
+    MapAdjacentListUndirectedGraph(int expectedNodes) {
+        this.adjacentLists = new HashMap<>(GraphBuilder.capacityFor(expectedNodes));
+    }
+
     @Override
     public int nodeCount() {
         // restituisce il numero di nodi del grafo in base a quante key ci sono nella Map
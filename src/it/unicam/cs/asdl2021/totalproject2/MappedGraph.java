@@ -0,0 +1,290 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grafo in sola lettura caricato da un file scritto con {@code GraphFile}. Il
+ * file viene mappato in memoria con {@code FileChannel.map} e gli archi sono
+ * letti direttamente dalle pagine mappate, senza copiarli in array: il
+ * caricamento costa solo la lettura dell' intestazione, indipendentemente
+ * dalla dimensione del grafo, e le pagine vengono portate in memoria dal
+ * sistema operativo solo quando servono.
+ *
+ * Gli arc uscenti dal nodo di indice {@code u} sono quelli da
+ * {@code firstArc(u)} (incluso) a {@code firstArc(u + 1)} (escluso), come in
+ * {@code GraphSnapshot<L>}; destinazione e peso di ogni arc si leggono con
+ * {@code arcTarget} e {@code arcWeight}. Le etichette vengono decodificate
+ * solo quando richieste.
+ *
+ * Ogni sezione del file deve stare in una sola mappatura, cioè essere più
+ * piccola di 2 GB: gli arc sono quindi al più {@code Integer.MAX_VALUE / 8}.
+ * Le letture sono assolute e un' istanza può essere usata da più thread.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class MappedGraph<L> {
+
+    private final LabelCodec<L> codec;
+
+    private final boolean directed;
+
+    private final int nodeCount;
+
+    private final int arcCount;
+
+    // viste sulle sezioni mappate del file
+    private final LongBuffer labelOffsets;
+
+    private final ByteBuffer labels;
+
+    private final LongBuffer offsets;
+
+    private final IntBuffer targets;
+
+    private final DoubleBuffer weights;
+
+    // associazione etichetta -> indice, costruita al primo uso
+    private Map<L, Integer> labelsIndex;
+
+    /**
+     * Carica un grafo da un file mappandolo in memoria.
+     *
+     * @param file
+     *                  il file scritto con {@code GraphFile}
+     * @param codec
+     *                  la codifica delle etichette usata per scrivere il file
+     * @throws NullPointerException
+     *                                      se uno dei parametri passati è
+     *                                      nullo
+     * @throws IllegalArgumentException
+     *                                      se il file non è nel formato di
+     *                                      {@code GraphFile} o è troppo grande
+     *                                      per essere mappato
+     * @throws UncheckedIOException
+     *                                      se la lettura del file fallisce
+     */
+    public MappedGraph(Path file, LabelCodec<L> codec) {
+        if(file == null) throw new NullPointerException("File can't be null");
+        if(codec == null) throw new NullPointerException("Codec can't be null");
+
+        this.codec = codec;
+        // la mappatura resta valida anche dopo la chiusura del canale
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < GraphFile.HEADER_SIZE) throw new IllegalArgumentException("Not a graph file");
+            ByteBuffer header = map(channel, 0, GraphFile.HEADER_SIZE);
+            if(header.getInt() != GraphFile.MAGIC) throw new IllegalArgumentException("Not a graph file");
+            if(header.getInt() != GraphFile.VERSION) throw new IllegalArgumentException("Unsupported graph file version");
+            this.directed = (header.getInt() & GraphFile.DIRECTED) != 0;
+            header.getInt();
+            long n = header.getLong();
+            long m = header.getLong();
+            long dictionary = header.getLong();
+            long labelData = header.getLong();
+            long offsetsPosition = header.getLong();
+            long targetsPosition = header.getLong();
+            long weightsPosition = header.getLong();
+            if(n < 0 || m < 0 || n >= Integer.MAX_VALUE || m > Integer.MAX_VALUE / Double.BYTES)
+                throw new IllegalArgumentException("Graph file too large to be mapped");
+            this.nodeCount = (int) n;
+            this.arcCount = (int) m;
+            // ogni sezione deve iniziare dopo la precedente e stare nel file
+            long dictionaryEnd = dictionary + (n + 1) * Long.BYTES;
+            long offsetsEnd = offsetsPosition + (n + 1) * Long.BYTES;
+            long targetsEnd = targetsPosition + m * Integer.BYTES;
+            long weightsEnd = weightsPosition + m * Double.BYTES;
+            if(dictionary < GraphFile.HEADER_SIZE || labelData < dictionaryEnd || offsetsPosition < labelData
+                    || targetsPosition < offsetsEnd || weightsPosition < targetsEnd || weightsEnd > size)
+                throw new IllegalArgumentException("Corrupted graph file");
+            this.labelOffsets = map(channel, dictionary, dictionaryEnd - dictionary).asLongBuffer();
+            this.labels = map(channel, labelData, offsetsPosition - labelData);
+            this.offsets = map(channel, offsetsPosition, offsetsEnd - offsetsPosition).asLongBuffer();
+            this.targets = map(channel, targetsPosition, targetsEnd - targetsPosition).asIntBuffer();
+            this.weights = map(channel, weightsPosition, weightsEnd - weightsPosition).asDoubleBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if(size > Integer.MAX_VALUE) throw new IllegalArgumentException("Graph file too large to be mapped");
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Determina se il grafo caricato è orientato.
+     *
+     * @return true se il grafo è orientato, false altrimenti
+     */
+    public boolean isDirected() {
+        return this.directed;
+    }
+
+    /**
+     * @return il numero di nodi del grafo
+     */
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * @return il numero di arc del grafo, due per ogni arco non orientato che
+     *         non è un cappio
+     */
+    public int arcCount() {
+        return this.arcCount;
+    }
+
+    /**
+     * Restituisce la posizione del primo arc uscente da un nodo.
+     *
+     * @param u
+     *              l' indice del nodo, o {@code nodeCount()} per ottenere il
+     *              numero totale di arc
+     * @return la posizione del primo arc uscente dal nodo
+     * @throws IndexOutOfBoundsException
+     *                                       se l' indice non è valido
+     */
+    public int firstArc(int u) {
+        return (int) this.offsets.get(u);
+    }
+
+    /**
+     * Restituisce il numero di arc uscenti da un nodo.
+     *
+     * @param u
+     *              l' indice del nodo
+     * @return il numero di arc uscenti dal nodo
+     * @throws IndexOutOfBoundsException
+     *                                       se l' indice non è valido
+     */
+    public int outDegree(int u) {
+        return (int) (this.offsets.get(u + 1) - this.offsets.get(u));
+    }
+
+    /**
+     * Restituisce l' indice del nodo di arrivo di un arc.
+     *
+     * @param arc
+     *                la posizione dell' arc
+     * @return l' indice del nodo di arrivo
+     * @throws IndexOutOfBoundsException
+     *                                       se la posizione non è valida
+     */
+    public int arcTarget(int arc) {
+        return this.targets.get(arc);
+    }
+
+    /**
+     * Restituisce il peso di un arc.
+     *
+     * @param arc
+     *                la posizione dell' arc
+     * @return il peso dell' arc, {@code Double.NaN} se l' arco non è pesato
+     * @throws IndexOutOfBoundsException
+     *                                       se la posizione non è valida
+     */
+    public double arcWeight(int arc) {
+        return this.weights.get(arc);
+    }
+
+    /**
+     * Decodifica l' etichetta di un nodo.
+     *
+     * @param u
+     *              l' indice del nodo
+     * @return l' etichetta del nodo
+     * @throws IndexOutOfBoundsException
+     *                                       se l' indice non è valido
+     */
+    public L getLabel(int u) {
+        int start = (int) this.labelOffsets.get(u);
+        int end = (int) this.labelOffsets.get(u + 1);
+        return this.codec.decode(this.labels.slice(start, end - start));
+    }
+
+    /**
+     * Restituisce un nuovo nodo con l' etichetta del nodo di un certo indice,
+     * uguale (secondo {@code equals}) al nodo del grafo salvato.
+     *
+     * @param u
+     *              l' indice del nodo
+     * @return il nodo
+     * @throws IndexOutOfBoundsException
+     *                                       se l' indice non è valido
+     */
+    public GraphNode<L> getNode(int u) {
+        return new GraphNode<>(this.getLabel(u));
+    }
+
+    /**
+     * Restituisce l' indice di un nodo. Alla prima chiamata vengono
+     * decodificate tutte le etichette.
+     *
+     * @param node
+     *                 il nodo
+     * @return l' indice del nodo, -1 se il nodo non esiste nel grafo
+     * @throws NullPointerException
+     *                                  se il nodo passato è nullo
+     */
+    public int indexOf(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        Integer index = this.labelsIndex().get(node.getLabel());
+        return index == null ? -1 : index;
+    }
+
+    private synchronized Map<L, Integer> labelsIndex() {
+        if(this.labelsIndex == null) {
+            Map<L, Integer> index = new HashMap<>();
+            for (int u = 0; u < this.nodeCount; u++)
+                index.put(this.getLabel(u), u);
+            this.labelsIndex = index;
+        }
+        return this.labelsIndex;
+    }
+
+    /**
+     * Ricostruisce il grafo salvato come {@code AdjacencyMatrixDirectedGraph<L>}
+     * se è orientato, come {@code MapAdjacentListUndirectedGraph<L>}
+     * altrimenti, con {@code GraphBuilder<L>}. Serve solo per usare gli
+     * algoritmi che richiedono un {@code Graph<L>}.
+     *
+     * @return un nuovo grafo uguale a quello salvato
+     */
+    public Graph<L> toGraph() {
+        GraphBuilder<L> builder = new GraphBuilder<>(this.directed, this.nodeCount, this.arcCount);
+        for (int u = 0; u < this.nodeCount; u++)
+            builder.addNode(this.getLabel(u));
+        int[] sources = new int[this.arcCount];
+        int[] targets = new int[this.arcCount];
+        double[] arcWeights = new double[this.arcCount];
+        int count = 0;
+        for (int u = 0; u < this.nodeCount; u++)
+            for (int arc = this.firstArc(u); arc < this.firstArc(u + 1); arc++) {
+                int v = this.arcTarget(arc);
+                // un arco non orientato compare una volta per verso
+                if(this.directed || u <= v) {
+                    sources[count] = u;
+                    targets[count] = v;
+                    arcWeights[count] = this.arcWeight(arc);
+                    count++;
+                }
+            }
+        return builder.addEdges(sources, targets, arcWeights, count).build();
+    }
+
+}
@@ -0,0 +1,144 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class MappedGraphTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("città");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 10.1));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, -2.05));
+        g.addEdge(new GraphEdge<String>(nx, ny, true));
+        g.addEdge(new GraphEdge<String>(ny, ny, true, 1.0));
+        return g;
+    }
+
+    @Test
+    final void testMappedGraph(@TempDir Path tempDirectory) throws Exception {
+        Path file = tempDirectory.resolve("g.bin");
+        assertThrows(NullPointerException.class, () -> new MappedGraph<>(null, LabelCodec.STRING));
+        assertThrows(NullPointerException.class, () -> new MappedGraph<String>(file, null));
+        Files.write(file, new byte[GraphFile.HEADER_SIZE]);
+        assertThrows(IllegalArgumentException.class, () -> new MappedGraph<>(file, LabelCodec.STRING));
+        Files.write(file, new byte[3]);
+        assertThrows(IllegalArgumentException.class, () -> new MappedGraph<>(file, LabelCodec.STRING));
+        // file troncato
+        GraphFile.write(repeatedCode(), file, LabelCodec.STRING);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IllegalArgumentException.class, () -> new MappedGraph<>(file, LabelCodec.STRING));
+    }
+
+    @Test
+    final void testSameArcsAsSnapshot(@TempDir Path tempDirectory) {
+        Graph<String> g = repeatedCode();
+        GraphSnapshot<String> snapshot = new GraphSnapshot<>(g);
+        Path file = tempDirectory.resolve("g.bin");
+        GraphFile.write(snapshot, file, LabelCodec.STRING);
+        MappedGraph<String> mapped = new MappedGraph<>(file, LabelCodec.STRING);
+        assertTrue(mapped.isDirected());
+        assertEquals(snapshot.nodeCount(), mapped.nodeCount());
+        assertEquals(snapshot.arcCount(), mapped.arcCount());
+        for (int u = 0; u < snapshot.nodeCount(); u++) {
+            assertEquals(snapshot.getNode(u), mapped.getNode(u));
+            assertEquals(u, mapped.indexOf(snapshot.getNode(u)));
+            assertEquals(snapshot.getOffsets()[u], mapped.firstArc(u));
+            assertEquals(snapshot.getOffsets()[u + 1] - snapshot.getOffsets()[u], mapped.outDegree(u));
+        }
+        assertEquals(snapshot.arcCount(), mapped.firstArc(snapshot.nodeCount()));
+        for (int arc = 0; arc < snapshot.arcCount(); arc++) {
+            assertEquals(snapshot.getTo()[arc], mapped.arcTarget(arc));
+            assertEquals(Double.doubleToLongBits(snapshot.getWeights()[arc]), Double.doubleToLongBits(mapped.arcWeight(arc)));
+        }
+        assertEquals(-1, mapped.indexOf(new GraphNode<>("notExistingNode")));
+        assertThrows(NullPointerException.class, () -> mapped.indexOf(null));
+        assertThrows(IndexOutOfBoundsException.class, () -> mapped.arcTarget(snapshot.arcCount()));
+    }
+
+    @Test
+    final void testToGraph(@TempDir Path tempDirectory) {
+        Graph<String> g = repeatedCode();
+        Path file = tempDirectory.resolve("g.bin");
+        GraphFile.write(g, file, LabelCodec.STRING);
+        Graph<String> loaded = new MappedGraph<>(file, LabelCodec.STRING).toGraph();
+        assertTrue(loaded.isDirected());
+        assertEquals(g.getNodes(), loaded.getNodes());
+        assertEquals(g.getEdges(), loaded.getEdges());
+        assertEquals(-2.05, loaded.getEdge(nu, nx).getWeight());
+        assertFalse(loaded.getEdge(nx, ny).hasWeight());
+    }
+
+    @Test
+    final void testUndirectedIntegerLabels(@TempDir Path tempDirectory) {
+        Random random = new Random(44);
+        MapAdjacentListUndirectedGraph<Integer> g = new MapAdjacentListUndirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            nodes.add(new GraphNode<>(i * 1000 - 7));
+            g.addNode(nodes.get(i));
+        }
+        // archi inseriti direttamente nelle liste: addEdge costa O(n)
+        for (int k = 0; k < 500; k++) {
+            GraphNode<Integer> a = nodes.get(random.nextInt(200));
+            GraphNode<Integer> b = nodes.get(random.nextInt(200));
+            GraphEdge<Integer> edge = new GraphEdge<>(a, b, false, random.nextInt(100));
+            g.adjacentLists.get(a).add(edge);
+            g.adjacentLists.get(b).add(edge);
+        }
+        Path file = tempDirectory.resolve("g.bin");
+        GraphFile.write(g, file, LabelCodec.INTEGER);
+        MappedGraph<Integer> mapped = new MappedGraph<>(file, LabelCodec.INTEGER);
+        assertFalse(mapped.isDirected());
+        GraphSnapshot<Integer> snapshot = new GraphSnapshot<>(g);
+        assertEquals(snapshot.arcCount(), mapped.arcCount());
+        for (int u = 0; u < mapped.nodeCount(); u++)
+            assertEquals(snapshot.getNode(u).getLabel(), mapped.getLabel(u));
+        Graph<Integer> loaded = mapped.toGraph();
+        assertFalse(loaded.isDirected());
+        assertEquals(g.getNodes(), loaded.getNodes());
+        assertEquals(g.getEdges(), loaded.getEdges());
+    }
+
+    @Test
+    final void testLongLabels(@TempDir Path tempDirectory) {
+        Graph<Long> g = new AdjacencyMatrixDirectedGraph<>();
+        GraphNode<Long> a = new GraphNode<>(Long.MAX_VALUE);
+        GraphNode<Long> b = new GraphNode<>(-1L);
+        g.addNode(a);
+        g.addNode(b);
+        g.addEdge(new GraphEdge<>(a, b, true, 3.0));
+        Path file = tempDirectory.resolve("g.bin");
+        GraphFile.write(g, file, LabelCodec.LONG);
+        MappedGraph<Long> mapped = new MappedGraph<>(file, LabelCodec.LONG);
+        int u = mapped.indexOf(a);
+        assertEquals(Long.MAX_VALUE, mapped.getLabel(u));
+        assertEquals(1, mapped.outDegree(u));
+        assertEquals(b, mapped.getNode(mapped.arcTarget(mapped.firstArc(u))));
+    }
+
+}
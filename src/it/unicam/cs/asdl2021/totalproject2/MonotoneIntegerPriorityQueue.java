@@ -0,0 +1,70 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+/**
+ * Coda con priorità minima monotona su elementi e priorità intere: la
+ * priorità di ogni elemento inserito non può essere minore dell' ultima
+ * priorità estratta. È il caso dell' algoritmo di Dijkstra con pesi interi non
+ * negativi, in cui questa proprietà permette implementazioni con operazioni in
+ * tempo costante ammortizzato invece che logaritmico.
+ *
+ * Non esiste un' operazione di decreasePriority: per diminuire la priorità di
+ * un elemento lo si inserisce di nuovo con la nuova priorità e chi usa la coda
+ * scarta le copie estratte successivamente.
+ *
+ * @author Damiano Pasquini
+ *
+ */
+public interface MonotoneIntegerPriorityQueue {
+
+    /**
+     * Inserisce un elemento con una certa priorità.
+     *
+     * @param element
+     *                     l' elemento da inserire
+     * @param priority
+     *                     la priorità dell' elemento
+     * @throws IllegalArgumentException
+     *                                      se la priorità è minore dell' ultima
+     *                                      priorità estratta o fuori dall'
+     *                                      intervallo ammesso dall'
+     *                                      implementazione
+     */
+    public void insert(int element, int priority);
+
+    /**
+     * Estrae un elemento di priorità minima.
+     *
+     * @return l' elemento estratto
+     * @throws java.util.NoSuchElementException
+     *                                              se la coda è vuota
+     */
+    public int extractMinimum();
+
+    /**
+     * Restituisce la priorità dell' ultimo elemento estratto, 0 se non è stato
+     * estratto ancora nessun elemento.
+     *
+     * @return la priorità dell' ultimo elemento estratto
+     */
+    public int lastExtractedPriority();
+
+    /**
+     * Determina se la coda è vuota.
+     *
+     * @return true se la coda è vuota, false altrimenti
+     */
+    public boolean isEmpty();
+
+    /**
+     * Restituisce il numero di elementi in coda, copie comprese.
+     *
+     * @return il numero di elementi in coda
+     */
+    public int size();
+
+    /**
+     * Svuota la coda e riporta a 0 l' ultima priorità estratta.
+     */
+    public void clear();
+
+}
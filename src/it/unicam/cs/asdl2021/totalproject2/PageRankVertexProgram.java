@@ -0,0 +1,71 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+/**
+ * Programma per {@code VertexCentricEngine<L>} che calcola il PageRank dei
+ * nodi con un numero fisso di iterazioni del metodo delle potenze. Ogni nodo
+ * parte da {@code 1 / n} e a ogni superpasso divide il proprio valore tra gli
+ * archi uscenti; il nuovo valore è
+ * {@code (1 - d) / n + d * (somma ricevuta + massa dei nodi senza archi
+ * uscenti / n)}, dove {@code d} è il fattore di smorzamento. La massa dei nodi
+ * senza archi uscenti viene raccolta con l' aggregatore del motore e
+ * redistribuita in modo uniforme, quindi la somma dei valori resta 1. I
+ * messaggi sono ridotti con la somma.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class PageRankVertexProgram<L> implements VertexProgram<L> {
+
+    private final double damping;
+
+    private final int iterations;
+
+    /**
+     * Crea il programma.
+     *
+     * @param damping
+     *                       il fattore di smorzamento, tipicamente 0.85
+     * @param iterations
+     *                       il numero di iterazioni
+     * @throws IllegalArgumentException
+     *                                      se il fattore di smorzamento non è
+     *                                      tra 0 e 1 o il numero di iterazioni
+     *                                      è negativo
+     */
+    public PageRankVertexProgram(double damping, int iterations) {
+        if(!(damping >= 0.0 && damping <= 1.0)) throw new IllegalArgumentException("Damping must be between 0 and 1");
+        if(iterations < 0) throw new IllegalArgumentException("Iterations can't be negative");
+        this.damping = damping;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public double initialValue(VertexContext<L> vertex) {
+        return 1.0 / vertex.vertexCount();
+    }
+
+    @Override
+    public void compute(VertexContext<L> vertex) {
+        int n = vertex.vertexCount();
+        if(vertex.superstep() > 0) {
+            double received = vertex.hasMessage() ? vertex.getMessage() : 0.0;
+            vertex.setValue((1.0 - this.damping) / n + this.damping * (received + vertex.getAggregate() / n));
+        }
+        if(vertex.superstep() == this.iterations) {
+            vertex.voteToHalt();
+            return;
+        }
+        if(vertex.outDegree() == 0)
+            vertex.aggregate(vertex.getValue());
+        else
+            vertex.sendMessageToNeighbors(vertex.getValue() / vertex.outDegree());
+    }
+
+    @Override
+    public double combine(double message1, double message2) {
+        return message1 + message2;
+    }
+
+}
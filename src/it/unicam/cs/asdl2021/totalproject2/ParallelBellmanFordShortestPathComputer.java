@@ -0,0 +1,305 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implementazione parallela dell' algoritmo di Bellman-Ford per il calcolo di
+ * cammini minimi a sorgente singola in un grafo orientato e pesato che può
+ * contenere anche pesi negativi, ma non cicli di peso negativo.
+ *
+ * Il calcolatore lavora sugli array di archi di una {@code GraphSnapshot<L>}
+ * presa alla costruzione. Ad ogni passata l' array degli archi viene diviso in
+ * blocchi rilassati in parallelo da un {@code ForkJoinPool}; le distanze sono
+ * in un array {@code double[]} condiviso e ogni rilassamento è un minimo
+ * atomico realizzato con compare-and-set tramite {@code VarHandle}. Un flag
+ * condiviso registra se nella passata almeno una distanza è diminuita: se non
+ * è così il calcolo termina in anticipo.
+ *
+ * I predecessori non vengono scritti durante i rilassamenti (due thread
+ * potrebbero lasciare un predecessore non coerente con la distanza), ma sono
+ * ricostruiti alla fine con una visita in ampiezza sugli archi "stretti",
+ * cioè quelli per cui {@code d(u) + w(u, v) == d(v)}: ogni cammino di archi
+ * stretti dalla sorgente è un cammino minimo.
+ *
+ * Il comportamento, incluse le eccezioni e la segnalazione dei cicli di peso
+ * negativo, è lo stesso di {@code BellmanFordShortestPathComputer<L>}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class ParallelBellmanFordShortestPathComputer<L> implements SingleSourceShortestPathComputer<L> {
+
+    // accesso atomico agli elementi di un array double[]
+    private static final VarHandle DISTANCE = MethodHandles.arrayElementVarHandle(double[].class);
+
+    // numero minimo di archi rilassati da un singolo task
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    private GraphNode<L> lastSourceNode;
+
+    private int lastSourceIndex;
+
+    private boolean isComputed = false;
+
+    private final double[] distance;
+
+    private final int[] previousArc;
+
+    // impostato da qualunque thread che diminuisce una distanza nella passata
+    private volatile boolean changed;
+
+    /**
+     * Crea un calcolatore parallelo di cammini minimi a sorgente singola per un
+     * grafo orientato e pesato che usa il pool comune.
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore di cammini minimi
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è diretto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è pesato,
+     *                                      cioè esiste almeno un arco il cui
+     *                                      peso è {@code Double.NaN}.
+     */
+    public ParallelBellmanFordShortestPathComputer(Graph<L> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un calcolatore parallelo di cammini minimi a sorgente singola per un
+     * grafo orientato e pesato che usa il pool passato.
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore di cammini minimi
+     * @param pool
+     *                  il pool su cui eseguire i rilassamenti
+     * @throws NullPointerException
+     *                                      se il grafo o il pool passati sono
+     *                                      nulli
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è diretto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è pesato,
+     *                                      cioè esiste almeno un arco il cui
+     *                                      peso è {@code Double.NaN}.
+     */
+    public ParallelBellmanFordShortestPathComputer(Graph<L> graph, ForkJoinPool pool) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(pool == null) throw new NullPointerException("Pool can't be null");
+        if(graph.isEmpty()) throw new IllegalArgumentException("Graph can't be empty");
+        if(!graph.isDirected()) throw new IllegalArgumentException("Graph must be directed");
+
+        this.graph = graph;
+        this.pool = pool;
+        this.snapshot = new GraphSnapshot<>(graph);
+        for (double weight : this.snapshot.getWeights())
+            if(Double.isNaN(weight))
+                throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
+        // qualche blocco per thread, per bilanciare il carico
+        this.chunkSize = Math.max(MIN_CHUNK_SIZE, this.snapshot.arcCount() / (pool.getParallelism() * 4));
+        this.distance = new double[this.snapshot.nodeCount()];
+        this.previousArc = new int[this.snapshot.nodeCount()];
+    }
+
+    @Override
+    public void computeShortestPathsFrom(GraphNode<L> sourceNode) {
+        if(sourceNode == null)
+            throw new NullPointerException("Source node can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        if(source == -1)
+            throw new IllegalArgumentException("This node isn't contained in this graph");
+
+        this.isComputed = false;
+        Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+        this.distance[source] = 0.0;
+
+        // al più n - 1 passate, interrotte appena una passata non cambia nulla
+        int n = this.snapshot.nodeCount();
+        int arcCount = this.snapshot.arcCount();
+        boolean relaxed = true;
+        for (int i = 0; i < n - 1 && relaxed; i++)
+            relaxed = this.relaxAll(arcCount);
+        // una passata ulteriore che diminuisce ancora una distanza indica un
+        // ciclo di peso negativo
+        if(relaxed && this.relaxAll(arcCount))
+            throw new IllegalStateException("This graph contains negative-weigh cycle");
+
+        this.snapshot.buildShortestPathTree(this.distance, source, this.previousArc);
+        this.lastSourceNode = this.snapshot.getNode(source);
+        this.lastSourceIndex = source;
+        this.isComputed = true;
+    }
+
+    /**
+     * Cerca un ciclo di peso negativo raggiungibile da una sorgente data. Se un
+     * ciclo viene rilevato dai rilassamenti paralleli, la sua estrazione è
+     * delegata a {@code SpfaShortestPathComputer<L>}; altrimenti il calcolo
+     * dei cammini minimi viene completato come con
+     * {@code computeShortestPathsFrom(GraphNode<L>)}.
+     *
+     * @param sourceNode
+     *                       il nodo sorgente
+     * @return la lista degli archi di un ciclo di peso negativo, null se nessun
+     *         ciclo di peso negativo è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public List<GraphEdge<L>> findNegativeCycleFrom(GraphNode<L> sourceNode) {
+        try {
+            this.computeShortestPathsFrom(sourceNode);
+            return null;
+        } catch (IllegalStateException e) {
+            return new SpfaShortestPathComputer<>(this.graph).findNegativeCycleFrom(sourceNode);
+        }
+    }
+
+    /*
+     * Esegue una passata di rilassamento su tutti gli archi e restituisce true
+     * se almeno una distanza è diminuita.
+     */
+    private boolean relaxAll(int arcCount) {
+        this.changed = false;
+        this.pool.invoke(new RelaxTask(0, arcCount));
+        return this.changed;
+    }
+
+    /*
+     * Rilassa gli archi nell' intervallo [from, to) e restituisce true se
+     * almeno una distanza è diminuita.
+     */
+    private boolean relaxRange(int from, int to) {
+        int[] arcFrom = this.snapshot.getFrom();
+        int[] arcTo = this.snapshot.getTo();
+        double[] weights = this.snapshot.getWeights();
+        boolean relaxed = false;
+        for (int arc = from; arc < to; arc++) {
+            double du = (double) DISTANCE.getOpaque(this.distance, arcFrom[arc]);
+            if(du == Double.POSITIVE_INFINITY) continue;
+            double dist = du + weights[arc];
+            int v = arcTo[arc];
+            // minimo atomico: si riprova finché la nuova distanza è minore di
+            // quella corrente e un altro thread l' ha cambiata nel frattempo
+            double current = (double) DISTANCE.getOpaque(this.distance, v);
+            while(dist < current) {
+                if(DISTANCE.compareAndSet(this.distance, v, current, dist)) {
+                    relaxed = true;
+                    break;
+                }
+                current = (double) DISTANCE.getVolatile(this.distance, v);
+            }
+        }
+        return relaxed;
+    }
+
+    @Override
+    public boolean isComputed() {
+        return this.isComputed;
+    }
+
+    @Override
+    public GraphNode<L> getLastSource() {
+        if (!this.isComputed)
+            throw new IllegalStateException("This graph isn't yet computed");
+        return this.lastSourceNode;
+    }
+
+    @Override
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    @Override
+    public List<GraphEdge<L>> getShortestPathTo(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.snapshot.buildPath(this.previousArc, this.lastSourceIndex, target);
+    }
+
+    /**
+     * Restituisce il costo di un cammino minimo dall' ultima sorgente al nodo
+     * passato.
+     *
+     * @param targetNode
+     *                       il nodo di arrivo del cammino minimo
+     * @return il costo del cammino minimo, {@code Double.POSITIVE_INFINITY} se
+     *         il nodo non è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito nemmeno una
+     *                                      volta il calcolo dei cammini minimi
+     */
+    public double getShortestPathCost(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.distance[target];
+    }
+
+    /*
+     * Task che rilassa un intervallo di archi, dividendolo a metà finché è più
+     * grande della dimensione di blocco.
+     */
+    private class RelaxTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        RelaxTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from <= chunkSize) {
+                if(relaxRange(this.from, this.to))
+                    changed = true;
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new RelaxTask(this.from, middle), new RelaxTask(middle, this.to));
+        }
+    }
+
+}
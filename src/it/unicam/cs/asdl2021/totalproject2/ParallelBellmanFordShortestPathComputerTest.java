@@ -0,0 +1,139 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class ParallelBellmanFordShortestPathComputerTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 10.1));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, -2.05));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 3.04));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, 2.0));
+        g.addEdge(new GraphEdge<String>(ny, ns, true, 7.03));
+        g.addEdge(new GraphEdge<String>(nu, nv, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nx, nv, true, 9.05));
+        g.addEdge(new GraphEdge<String>(ny, nv, true, 6.0));
+        g.addEdge(new GraphEdge<String>(nv, ny, true, 4.07));
+        return g;
+    }
+
+    @Test
+    final void testParallelBellmanFordShortestPathComputer() {
+        assertThrows(NullPointerException.class, () -> new ParallelBellmanFordShortestPathComputer<String>(null));
+        assertThrows(NullPointerException.class, () -> new ParallelBellmanFordShortestPathComputer<String>(repeatedCode(), null));
+        Graph<String> emptyGraph = new AdjacencyMatrixDirectedGraph<>();
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBellmanFordShortestPathComputer<String>(emptyGraph));
+        Graph<String> notDirectedGraph = new MapAdjacentListUndirectedGraph<>();
+        notDirectedGraph.addNode(ns);
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBellmanFordShortestPathComputer<String>(notDirectedGraph));
+        Graph<String> notWeightedGraph = new AdjacencyMatrixDirectedGraph<>();
+        notWeightedGraph.addNode(ns);
+        notWeightedGraph.addNode(nu);
+        notWeightedGraph.addEdge(new GraphEdge<>(ns, nu, true));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBellmanFordShortestPathComputer<String>(notWeightedGraph));
+    }
+
+    @Test
+    final void testGetShortestPathTo() {
+        ParallelBellmanFordShortestPathComputer<String> c = new ParallelBellmanFordShortestPathComputer<>(repeatedCode());
+        assertThrows(IllegalStateException.class, () -> c.getShortestPathTo(nu));
+        assertThrows(NullPointerException.class, () -> c.computeShortestPathsFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> c.computeShortestPathsFrom(new GraphNode<>("notExistingNode")));
+        c.computeShortestPathsFrom(ns);
+        assertTrue(c.isComputed());
+        assertEquals(ns, c.getLastSource());
+        List<GraphEdge<String>> pathTest = new ArrayList<GraphEdge<String>>();
+        assertEquals(pathTest, c.getShortestPathTo(ns));
+        pathTest.add(new GraphEdge<String>(ns, nx, true, 5.12));
+        assertEquals(pathTest, c.getShortestPathTo(nx));
+        pathTest.add(new GraphEdge<String>(nx, nu, true, 3.04));
+        assertEquals(pathTest, c.getShortestPathTo(nu));
+        pathTest.add(new GraphEdge<String>(nu, nv, true, 1.0));
+        assertEquals(pathTest, c.getShortestPathTo(nv));
+        assertEquals(5.12 + 2.0, c.getShortestPathCost(ny), 1e-9);
+    }
+
+    @Test
+    final void testNegativeWeightCycle() {
+        Graph<String> g = repeatedCode();
+        g.removeEdge(new GraphEdge<String>(nx, nu, true));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 1.0));
+        ParallelBellmanFordShortestPathComputer<String> c = new ParallelBellmanFordShortestPathComputer<>(g);
+        assertThrows(IllegalStateException.class, () -> c.computeShortestPathsFrom(ns));
+        assertFalse(c.isComputed());
+        List<GraphEdge<String>> cycle = c.findNegativeCycleFrom(ns);
+        assertNotNull(cycle);
+        assertTrue(cycle.contains(new GraphEdge<String>(nx, nu, true)));
+        assertNull(new ParallelBellmanFordShortestPathComputer<>(repeatedCode()).findNegativeCycleFrom(ns));
+    }
+
+    @Test
+    final void testSameResultAsSequential() {
+        // grafo casuale abbastanza grande da essere diviso in più blocchi
+        Random random = new Random(7);
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        int[] potential = new int[80];
+        for (int i = 0; i < 80; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+            potential[i] = random.nextInt(50);
+        }
+        for (int u = 0; u < 80; u++)
+            for (int k = 0; k < 40; k++) {
+                int v = random.nextInt(80);
+                g.addEdge(new GraphEdge<>(nodes.get(u), nodes.get(v), true,
+                        1 + random.nextInt(30) + potential[u] - potential[v]));
+            }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelBellmanFordShortestPathComputer<Integer> parallel = new ParallelBellmanFordShortestPathComputer<>(g, pool);
+            SpfaShortestPathComputer<Integer> sequential = new SpfaShortestPathComputer<>(g);
+            for (int s = 0; s < 80; s += 13) {
+                parallel.computeShortestPathsFrom(nodes.get(s));
+                sequential.computeShortestPathsFrom(nodes.get(s));
+                for (GraphNode<Integer> node : nodes) {
+                    double expected = sequential.getShortestPathCost(node);
+                    assertEquals(expected, parallel.getShortestPathCost(node), 1e-9);
+                    List<GraphEdge<Integer>> path = parallel.getShortestPathTo(node);
+                    if(expected == Double.POSITIVE_INFINITY) {
+                        assertNull(path);
+                        continue;
+                    }
+                    double cost = 0.0;
+                    for (GraphEdge<Integer> edge : path)
+                        cost += edge.getWeight();
+                    assertEquals(expected, cost, 1e-9);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
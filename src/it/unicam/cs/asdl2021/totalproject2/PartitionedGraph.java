@@ -0,0 +1,314 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grafo suddiviso in parti, ognuna delle quali può essere affidata a un
+ * processo diverso. Ogni parte ha una propria rappresentazione CSR dei soli
+ * archi uscenti dai suoi nodi, indicizzati per posizione nella parte (indice
+ * locale). La destinazione di un arco è l' indice locale del nodo se è nella
+ * stessa parte, altrimenti {@code -1 - g}, dove g è la copia locale (ghost)
+ * del nodo remoto; per ogni ghost la parte conosce l' indice globale del
+ * nodo, la parte a cui appartiene e il suo indice locale in quella parte.
+ * Un processo che lavora su una parte, come quelli di
+ * {@code DistributedShortestPathComputer<L>}, non ha quindi bisogno del resto
+ * del grafo: aggiorna direttamente i propri nodi e indirizza i messaggi per i
+ * nodi remoti alla parte e all' indice locale del ghost.
+ *
+ * Un nodo è di frontiera se ha almeno un arco, entrante o uscente, verso un
+ * nodo di un' altra parte: solo i nodi di frontiera scambiano informazioni
+ * con le altre parti.
+ *
+ * Gli indici globali dei nodi sono quelli della {@code GraphSnapshot<L>}
+ * presa alla costruzione; modifiche successive del grafo non si riflettono
+ * sulla suddivisione.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class PartitionedGraph<L> {
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    // parte di ogni nodo e sua posizione nella parte
+    private final int[] owner;
+
+    private final int[] localIndex;
+
+    private final boolean[] boundary;
+
+    private final Partition[] partitions;
+
+    private final long edgeCut;
+
+    /**
+     * Suddivide un grafo con un partizionatore.
+     *
+     * @param graph
+     *                        il grafo da suddividere
+     * @param partitioner
+     *                        il partizionatore da usare
+     * @param parts
+     *                        il numero di parti
+     * @throws NullPointerException
+     *                                      se il grafo o il partizionatore
+     *                                      passati sono nulli
+     * @throws IllegalArgumentException
+     *                                      se il numero di parti non è
+     *                                      positivo
+     */
+    public PartitionedGraph(Graph<L> graph, GraphPartitioner partitioner, int parts) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(partitioner == null) throw new NullPointerException("Partitioner can't be null");
+
+        this.graph = graph;
+        this.snapshot = new GraphSnapshot<>(graph);
+        this.owner = partitioner.partition(this.snapshot, parts);
+        this.edgeCut = GraphPartitioner.edgeCut(this.snapshot, this.owner);
+
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        int[] from = this.snapshot.getFrom();
+        int[] to = this.snapshot.getTo();
+        double[] weights = this.snapshot.getWeights();
+        this.boundary = new boolean[n];
+        for (int arc = 0; arc < to.length; arc++)
+            if(this.owner[from[arc]] != this.owner[to[arc]]) {
+                this.boundary[from[arc]] = true;
+                this.boundary[to[arc]] = true;
+            }
+
+        // nodi e archi di ogni parte
+        int[] nodeCount = new int[parts];
+        int[] arcCount = new int[parts];
+        for (int u = 0; u < n; u++) {
+            nodeCount[this.owner[u]]++;
+            arcCount[this.owner[u]] += offsets[u + 1] - offsets[u];
+        }
+        this.localIndex = new int[n];
+        int[][] nodes = new int[parts][];
+        for (int p = 0; p < parts; p++)
+            nodes[p] = new int[nodeCount[p]];
+        int[] size = new int[parts];
+        for (int u = 0; u < n; u++) {
+            int p = this.owner[u];
+            this.localIndex[u] = size[p];
+            nodes[p][size[p]++] = u;
+        }
+        this.partitions = new Partition[parts];
+        // copia locale di ogni nodo remoto raggiunto dalla parte in costruzione
+        int[] ghostOf = new int[n];
+        Arrays.fill(ghostOf, -1);
+        for (int p = 0; p < parts; p++) {
+            Partition partition = new Partition(p, nodes[p], arcCount[p]);
+            List<Integer> ghosts = new ArrayList<>();
+            int arcs = 0;
+            for (int local = 0; local < nodes[p].length; local++) {
+                int u = nodes[p][local];
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    int v = to[arc];
+                    if(this.owner[v] == p)
+                        partition.targets[arcs] = this.localIndex[v];
+                    else {
+                        if(ghostOf[v] == -1) {
+                            ghostOf[v] = ghosts.size();
+                            ghosts.add(v);
+                        }
+                        partition.targets[arcs] = -1 - ghostOf[v];
+                    }
+                    partition.weights[arcs] = weights[arc];
+                    arcs++;
+                }
+                partition.offsets[local + 1] = arcs;
+            }
+            partition.ghosts = new int[ghosts.size()];
+            partition.ghostOwners = new int[ghosts.size()];
+            partition.ghostIndices = new int[ghosts.size()];
+            for (int g = 0; g < ghosts.size(); g++) {
+                int v = ghosts.get(g);
+                partition.ghosts[g] = v;
+                partition.ghostOwners[g] = this.owner[v];
+                partition.ghostIndices[g] = this.localIndex[v];
+                ghostOf[v] = -1;
+            }
+            this.partitions[p] = partition;
+        }
+    }
+
+    /*
+     * Una parte del grafo: i suoi nodi (indici globali) e i loro archi uscenti
+     * in formato CSR per indice locale. La destinazione di un arco è l' indice
+     * locale del nodo se è nella stessa parte, altrimenti {@code -1 - g} dove
+     * g è la copia locale (ghost) del nodo remoto, di cui sono noti l' indice
+     * globale, la parte e l' indice locale in quella parte: un processo che
+     * lavora sulla parte può quindi indirizzare i messaggi senza conoscere il
+     * resto del grafo.
+     */
+    static final class Partition {
+
+        final int id;
+
+        final int[] nodes;
+
+        final int[] offsets;
+
+        final int[] targets;
+
+        final double[] weights;
+
+        int[] ghosts;
+
+        int[] ghostOwners;
+
+        int[] ghostIndices;
+
+        Partition(int id, int[] nodes, int arcCount) {
+            this.id = id;
+            this.nodes = nodes;
+            this.offsets = new int[nodes.length + 1];
+            this.targets = new int[arcCount];
+            this.weights = new double[arcCount];
+        }
+    }
+
+    Partition getPartition(int p) {
+        return this.partitions[p];
+    }
+
+    int[] getOwners() {
+        return this.owner;
+    }
+
+    int[] getLocalIndices() {
+        return this.localIndex;
+    }
+
+    private int indexOf(GraphNode<L> node) {
+        int u = this.snapshot.indexOf(node);
+        if(u == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        return u;
+    }
+
+    private void checkPartition(int p) {
+        if(p < 0 || p >= this.partitions.length)
+            throw new IndexOutOfBoundsException("Partition " + p + " doesn't exist");
+    }
+
+    /**
+     * @return il grafo suddiviso
+     */
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * @return la fotografia del grafo, i cui indici sono gli indici globali
+     *         dei nodi
+     */
+    public GraphSnapshot<L> getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * @return il numero di parti
+     */
+    public int partitionCount() {
+        return this.partitions.length;
+    }
+
+    /**
+     * @return il numero di archi i cui estremi sono in parti diverse
+     */
+    public long getEdgeCut() {
+        return this.edgeCut;
+    }
+
+    /**
+     * Restituisce la parte a cui appartiene un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return il numero della parte del nodo
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public int getPartitionOf(GraphNode<L> node) {
+        return this.owner[this.indexOf(node)];
+    }
+
+    /**
+     * Determina se un nodo è di frontiera, cioè collegato da un arco a un nodo
+     * di un' altra parte.
+     *
+     * @param node
+     *                 il nodo
+     * @return true se il nodo è di frontiera, false altrimenti
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public boolean isBoundary(GraphNode<L> node) {
+        return this.boundary[this.indexOf(node)];
+    }
+
+    /**
+     * Restituisce il numero di nodi di una parte.
+     *
+     * @param p
+     *              il numero della parte
+     * @return il numero di nodi della parte
+     * @throws IndexOutOfBoundsException
+     *                                       se la parte non esiste
+     */
+    public int getPartitionSize(int p) {
+        this.checkPartition(p);
+        return this.partitions[p].nodes.length;
+    }
+
+    /**
+     * Restituisce i nodi di una parte.
+     *
+     * @param p
+     *              il numero della parte
+     * @return la lista dei nodi della parte
+     * @throws IndexOutOfBoundsException
+     *                                       se la parte non esiste
+     */
+    public List<GraphNode<L>> getNodesOf(int p) {
+        this.checkPartition(p);
+        List<GraphNode<L>> nodes = new ArrayList<>();
+        for (int u : this.partitions[p].nodes)
+            nodes.add(this.snapshot.getNode(u));
+        return nodes;
+    }
+
+    /**
+     * Restituisce i nodi di frontiera di una parte.
+     *
+     * @param p
+     *              il numero della parte
+     * @return la lista dei nodi di frontiera della parte
+     * @throws IndexOutOfBoundsException
+     *                                       se la parte non esiste
+     */
+    public List<GraphNode<L>> getBoundaryNodesOf(int p) {
+        this.checkPartition(p);
+        List<GraphNode<L>> nodes = new ArrayList<>();
+        for (int u : this.partitions[p].nodes)
+            if(this.boundary[u])
+                nodes.add(this.snapshot.getNode(u));
+        return nodes;
+    }
+
+}
@@ -0,0 +1,105 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class PartitionedGraphTest {
+
+    private final GraphNode<String> na = new GraphNode<String>("a");
+    private final GraphNode<String> nb = new GraphNode<String>("b");
+    private final GraphNode<String> nc = new GraphNode<String>("c");
+    private final GraphNode<String> nd = new GraphNode<String>("d");
+    private final GraphNode<String> ne = new GraphNode<String>("e");
+    private final GraphNode<String> nf = new GraphNode<String>("f");
+
+    /*
+     * Due triangoli orientati collegati dall' arco c -> d.
+     */
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(na);
+        g.addNode(nb);
+        g.addNode(nc);
+        g.addNode(nd);
+        g.addNode(ne);
+        g.addNode(nf);
+        g.addEdge(new GraphEdge<String>(na, nb, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nb, nc, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nc, na, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nc, nd, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nd, ne, true, 1.0));
+        g.addEdge(new GraphEdge<String>(ne, nf, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nf, nd, true, 1.0));
+        return g;
+    }
+
+    @Test
+    final void testPartitionedGraph() {
+        GraphPartitioner partitioner = new GraphPartitioner(GraphPartitioner.Strategy.BFS);
+        assertThrows(NullPointerException.class, () -> new PartitionedGraph<String>(null, partitioner, 2));
+        assertThrows(NullPointerException.class, () -> new PartitionedGraph<String>(repeatedCode(), null, 2));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedGraph<String>(repeatedCode(), partitioner, 0));
+        Graph<String> g = repeatedCode();
+        PartitionedGraph<String> pg = new PartitionedGraph<>(g, partitioner, 2);
+        assertSame(g, pg.getGraph());
+        assertEquals(2, pg.partitionCount());
+        assertEquals(3, pg.getPartitionSize(0));
+        assertEquals(3, pg.getPartitionSize(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> pg.getNodesOf(2));
+        assertThrows(IllegalArgumentException.class, () -> pg.getPartitionOf(new GraphNode<>("notExistingNode")));
+    }
+
+    @Test
+    final void testBoundaryNodes() {
+        PartitionedGraph<String> pg = new PartitionedGraph<>(repeatedCode(), new GraphPartitioner(GraphPartitioner.Strategy.BFS), 2);
+        // ogni triangolo in una parte: solo l' arco c -> d è tagliato
+        assertEquals(pg.getPartitionOf(na), pg.getPartitionOf(nb));
+        assertEquals(pg.getPartitionOf(na), pg.getPartitionOf(nc));
+        assertEquals(pg.getPartitionOf(nd), pg.getPartitionOf(ne));
+        assertEquals(pg.getPartitionOf(nd), pg.getPartitionOf(nf));
+        assertNotEquals(pg.getPartitionOf(na), pg.getPartitionOf(nd));
+        assertEquals(1, pg.getEdgeCut());
+        assertTrue(pg.isBoundary(nc));
+        assertTrue(pg.isBoundary(nd));
+        assertFalse(pg.isBoundary(na));
+        assertFalse(pg.isBoundary(nf));
+        assertEquals(List.of(nc), pg.getBoundaryNodesOf(pg.getPartitionOf(na)));
+        assertEquals(List.of(nd), pg.getBoundaryNodesOf(pg.getPartitionOf(nd)));
+        Set<GraphNode<String>> all = new HashSet<>(pg.getNodesOf(0));
+        all.addAll(pg.getNodesOf(1));
+        assertEquals(6, all.size());
+    }
+
+    @Test
+    final void testPartitionArcs() {
+        PartitionedGraph<String> pg = new PartitionedGraph<>(repeatedCode(), new GraphPartitioner(GraphPartitioner.Strategy.BFS), 2);
+        int p = pg.getPartitionOf(na);
+        PartitionedGraph.Partition partition = pg.getPartition(p);
+        // tre archi interni e uno verso la copia locale di d
+        assertEquals(4, partition.targets.length);
+        assertEquals(1, partition.ghosts.length);
+        assertEquals(pg.getSnapshot().indexOf(nd), partition.ghosts[0]);
+        assertEquals(pg.getPartitionOf(nd), partition.ghostOwners[0]);
+        assertEquals(pg.getLocalIndices()[partition.ghosts[0]], partition.ghostIndices[0]);
+        int remote = 0;
+        for (int target : partition.targets)
+            if(target < 0) {
+                assertEquals(-1, target);
+                remote++;
+            } else
+                assertTrue(target < partition.nodes.length);
+        assertEquals(1, remote);
+        assertEquals(0, pg.getPartition(1 - p).ghosts.length);
+    }
+
+}
@@ -0,0 +1,472 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Grafo persistente, orientato o non orientato: ogni versione è immutabile e
+ * le modifiche restituiscono una nuova versione che condivide quasi tutta la
+ * struttura con quella da cui derivano. È pensato per analisi del tipo "cosa
+ * succede se": da una versione di partenza si derivano molte varianti (un
+ * arco tolto, un peso aumentato) senza copiare il grafo per ognuna, e tutte le
+ * versioni restano leggibili, anche da più thread, senza lock.
+ *
+ * Nodi e archi sono memorizzati in mappe persistenti
+ * {@code PersistentHashMap}: ogni nodo è associato ai suoi archi uscenti (a
+ * tutti gli archi collegati se il grafo non è orientato) e, se il grafo è
+ * orientato, a quelli entranti, indicizzati dall' altro nodo dell' arco. Una
+ * modifica di un arco ricopia solo i cammini dei due nodi nelle mappe
+ * coinvolte e costa O(log n). I nodi hanno anche un indice da 0 a
+ * nodeCount() - 1, quindi sono supportate le operazioni indicizzate; la
+ * rimozione di un nodo sposta l' ultimo nodo nell' indice liberato.
+ *
+ * Poiché le versioni sono immutabili, i metodi di modifica di
+ * {@code Graph<L>} lanciano {@code UnsupportedOperationException}: al loro
+ * posto vanno usati {@code withNode}, {@code withoutNode}, {@code withEdge},
+ * {@code withoutEdge} e {@code withEdgeWeight}. Gli oggetti
+ * {@code GraphNode<L>} e {@code GraphEdge<L>} sono condivisi tra le versioni,
+ * quindi i pesi vanno cambiati solo con {@code withEdgeWeight}.
+ *
+ * Gli algoritmi scrivono distanze, predecessori e colori nei nodi, quindi per
+ * analizzare una versione si usa {@code snapshot()}, che restituisce una
+ * {@code GraphVersion<L>} con nodi e archi propri, come quelle dei grafi
+ * concorrenti: più analisi, sulla stessa versione o su varianti diverse,
+ * possono essere eseguite contemporaneamente senza disturbarsi e senza
+ * toccare i nodi delle versioni. La fotografia CSR di una versione viene
+ * costruita alla prima chiamata e condivisa dalle successive finché ne resta
+ * aperta almeno una.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public final class PersistentGraph<L> extends Graph<L> {
+
+    private final boolean directed;
+
+    // ogni nodo è associato al nodo memorizzato, al suo indice e ai suoi archi
+    private final PersistentHashMap<GraphNode<L>, Vertex<L>> vertices;
+
+    // nodo di ogni indice
+    private final PersistentHashMap<Integer, GraphNode<L>> indexes;
+
+    private final int edgeCount;
+
+    // numero di modifiche dal grafo vuoto
+    private final long epoch;
+
+    // ultimo stato congelato da snapshot(), condiviso dalle versioni aperte
+    private final AtomicReference<GraphVersion.Frozen<L>> lastVersion;
+
+    /**
+     * Crea un grafo vuoto.
+     *
+     * @param directed
+     *                     true per un grafo orientato
+     */
+    public PersistentGraph(boolean directed) {
+        this(directed, PersistentHashMap.empty(), PersistentHashMap.empty(), 0, 0);
+    }
+
+    private PersistentGraph(boolean directed, PersistentHashMap<GraphNode<L>, Vertex<L>> vertices,
+            PersistentHashMap<Integer, GraphNode<L>> indexes, int edgeCount, long epoch) {
+        this.directed = directed;
+        this.vertices = vertices;
+        this.indexes = indexes;
+        this.edgeCount = edgeCount;
+        this.epoch = epoch;
+        this.lastVersion = new AtomicReference<>();
+    }
+
+    /**
+     * Crea la versione iniziale di un grafo persistente con gli stessi nodi e
+     * archi del grafo passato. Gli oggetti nodo e arco vengono condivisi, non
+     * copiati.
+     *
+     * @param <L>
+     *                  etichette dei nodi del grafo
+     * @param graph
+     *                  il grafo da copiare
+     * @return il grafo persistente
+     * @throws NullPointerException
+     *                                  se il grafo passato è nullo
+     */
+    public static <L> PersistentGraph<L> copyOf(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        PersistentGraph<L> copy = new PersistentGraph<>(graph.isDirected());
+        for (GraphNode<L> node : graph.getNodes())
+            copy = copy.withNode(node);
+        for (GraphEdge<L> edge : graph.getEdges())
+            copy = copy.withEdge(edge);
+        return copy;
+    }
+
+    /*
+     * Un nodo, il suo indice e i suoi archi indicizzati dall' altro nodo:
+     * uscenti in out ed entranti in in se il grafo è orientato, tutti in out
+     * altrimenti (il cappio indicizzato dal nodo stesso).
+     */
+    private static final class Vertex<L> {
+
+        private final GraphNode<L> node;
+
+        private final int index;
+
+        private final PersistentHashMap<GraphNode<L>, GraphEdge<L>> out;
+
+        private final PersistentHashMap<GraphNode<L>, GraphEdge<L>> in;
+
+        Vertex(GraphNode<L> node, int index, PersistentHashMap<GraphNode<L>, GraphEdge<L>> out,
+                PersistentHashMap<GraphNode<L>, GraphEdge<L>> in) {
+            this.node = node;
+            this.index = index;
+            this.out = out;
+            this.in = in;
+        }
+
+        Vertex<L> withOut(PersistentHashMap<GraphNode<L>, GraphEdge<L>> out) {
+            return out == this.out ? this : new Vertex<>(this.node, this.index, out, this.in);
+        }
+
+        Vertex<L> withIn(PersistentHashMap<GraphNode<L>, GraphEdge<L>> in) {
+            return in == this.in ? this : new Vertex<>(this.node, this.index, this.out, in);
+        }
+
+        Vertex<L> withIndex(int index) {
+            return new Vertex<>(this.node, index, this.out, this.in);
+        }
+    }
+
+    /**
+     * Restituisce una versione con un nodo in più, con indice nodeCount().
+     *
+     * @param node
+     *                 il nodo da aggiungere
+     * @return la nuova versione, questa stessa se il nodo era già presente
+     * @throws NullPointerException
+     *                                  se il nodo passato è nullo
+     */
+    public PersistentGraph<L> withNode(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        if(this.vertices.containsKey(node)) return this;
+        int n = this.vertices.size();
+        Vertex<L> vertex = new Vertex<>(node, n, PersistentHashMap.empty(), PersistentHashMap.empty());
+        return new PersistentGraph<>(this.directed, this.vertices.put(node, vertex), this.indexes.put(n, node),
+                this.edgeCount, this.epoch + 1);
+    }
+
+    /**
+     * Restituisce una versione senza un nodo e senza gli archi collegati. L'
+     * ultimo nodo prende l' indice del nodo tolto.
+     *
+     * @param node
+     *                 il nodo da togliere
+     * @return la nuova versione, questa stessa se il nodo non era presente
+     * @throws NullPointerException
+     *                                  se il nodo passato è nullo
+     */
+    public PersistentGraph<L> withoutNode(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        Vertex<L> vertex = this.vertices.get(node);
+        if(vertex == null) return this;
+        // gli archi del nodo vanno tolti anche dagli altri nodi
+        PersistentHashMap<GraphNode<L>, Vertex<L>> vertices = this.vertices.remove(node);
+        ArrayList<GraphNode<L>> successors = new ArrayList<>();
+        ArrayList<GraphNode<L>> predecessors = new ArrayList<>();
+        vertex.out.forEach((other, edge) -> successors.add(other));
+        vertex.in.forEach((other, edge) -> predecessors.add(other));
+        int removed = successors.size();
+        for (GraphNode<L> other : successors)
+            if(!other.equals(node)) {
+                Vertex<L> v = vertices.get(other);
+                vertices = vertices.put(other, this.directed ? v.withIn(v.in.remove(node)) : v.withOut(v.out.remove(node)));
+            }
+        for (GraphNode<L> other : predecessors)
+            if(!other.equals(node)) {
+                Vertex<L> v = vertices.get(other);
+                vertices = vertices.put(other, v.withOut(v.out.remove(node)));
+                removed++;
+            }
+        // l' ultimo nodo prende l' indice liberato
+        int last = this.vertices.size() - 1;
+        PersistentHashMap<Integer, GraphNode<L>> indexes = this.indexes.remove(last);
+        if(vertex.index != last) {
+            GraphNode<L> moved = this.indexes.get(last);
+            vertices = vertices.put(moved, vertices.get(moved).withIndex(vertex.index));
+            indexes = indexes.put(vertex.index, moved);
+        }
+        return new PersistentGraph<>(this.directed, vertices, indexes, this.edgeCount - removed, this.epoch + 1);
+    }
+
+    /**
+     * Restituisce una versione con un arco in più.
+     *
+     * @param edge
+     *                 l' arco da aggiungere
+     * @return la nuova versione, questa stessa se un arco uguale era già
+     *         presente
+     * @throws NullPointerException
+     *                                      se l' arco passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se almeno uno dei due nodi dell'
+     *                                      arco non esiste o se l' arco è
+     *                                      orientato e il grafo no o viceversa
+     */
+    public PersistentGraph<L> withEdge(GraphEdge<L> edge) {
+        this.checkEdge(edge);
+        GraphNode<L> node1 = edge.getNode1();
+        GraphNode<L> node2 = edge.getNode2();
+        Vertex<L> vertex1 = this.vertices.get(node1);
+        if(vertex1.out.containsKey(node2)) return this;
+        PersistentHashMap<GraphNode<L>, Vertex<L>> vertices = this.vertices.put(node1,
+                vertex1.withOut(vertex1.out.put(node2, edge)));
+        // il secondo nodo si rilegge dalla nuova mappa, per i cappi è lo stesso
+        Vertex<L> vertex2 = vertices.get(node2);
+        if(this.directed)
+            vertices = vertices.put(node2, vertex2.withIn(vertex2.in.put(node1, edge)));
+        else if(!node1.equals(node2))
+            vertices = vertices.put(node2, vertex2.withOut(vertex2.out.put(node1, edge)));
+        return new PersistentGraph<>(this.directed, vertices, this.indexes, this.edgeCount + 1, this.epoch + 1);
+    }
+
+    /**
+     * Restituisce una versione senza un arco.
+     *
+     * @param edge
+     *                 l' arco da togliere
+     * @return la nuova versione, questa stessa se l' arco non era presente
+     * @throws NullPointerException
+     *                                      se l' arco passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se almeno uno dei due nodi dell'
+     *                                      arco non esiste o se l' arco è
+     *                                      orientato e il grafo no o viceversa
+     */
+    public PersistentGraph<L> withoutEdge(GraphEdge<L> edge) {
+        this.checkEdge(edge);
+        GraphNode<L> node1 = edge.getNode1();
+        GraphNode<L> node2 = edge.getNode2();
+        Vertex<L> vertex1 = this.vertices.get(node1);
+        if(!vertex1.out.containsKey(node2)) return this;
+        PersistentHashMap<GraphNode<L>, Vertex<L>> vertices = this.vertices.put(node1,
+                vertex1.withOut(vertex1.out.remove(node2)));
+        Vertex<L> vertex2 = vertices.get(node2);
+        if(this.directed)
+            vertices = vertices.put(node2, vertex2.withIn(vertex2.in.remove(node1)));
+        else if(!node1.equals(node2))
+            vertices = vertices.put(node2, vertex2.withOut(vertex2.out.remove(node1)));
+        return new PersistentGraph<>(this.directed, vertices, this.indexes, this.edgeCount - 1, this.epoch + 1);
+    }
+
+    /**
+     * Restituisce una versione in cui un arco ha un peso diverso. L' arco
+     * viene sostituito da un nuovo oggetto, quindi le altre versioni non
+     * vedono il cambiamento.
+     *
+     * @param edge
+     *                   l' arco da modificare
+     * @param weight
+     *                   il nuovo peso
+     * @return la nuova versione
+     * @throws NullPointerException
+     *                                      se l' arco passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se l' arco non è presente in
+     *                                      questo grafo
+     */
+    public PersistentGraph<L> withEdgeWeight(GraphEdge<L> edge, double weight) {
+        this.checkEdge(edge);
+        GraphEdge<L> existing = this.vertices.get(edge.getNode1()).out.get(edge.getNode2());
+        if(existing == null) throw new IllegalArgumentException("This edge isn't contained in this graph");
+        GraphEdge<L> replacement = new GraphEdge<>(existing.getNode1(), existing.getNode2(), this.directed, weight);
+        return this.withoutEdge(existing).withEdge(replacement);
+    }
+
+    /**
+     * Restituisce una vista immutabile di questa versione con nodi e archi
+     * propri, su cui eseguire gli algoritmi che scrivono negli attributi dei
+     * nodi. Le chiamate successive condividono la fotografia CSR finché ne
+     * resta aperta almeno una. I nodi della vista hanno gli stessi indici che
+     * hanno in questa versione e si ottengono con {@code getNodeOf} o
+     * {@code getNodeAtIndex} della vista, che va chiusa con {@code close()}.
+     *
+     * @return una vista di questa versione, con epoca il numero di modifiche
+     *         dal grafo vuoto
+     */
+    public GraphVersion<L> snapshot() {
+        GraphVersion<L> version = GraphVersion.reuse(this.lastVersion, this.epoch);
+        if(version != null) return version;
+        synchronized (this.lastVersion) {
+            version = GraphVersion.reuse(this.lastVersion, this.epoch);
+            if(version != null) return version;
+            int n = this.nodeCount();
+            ArrayList<GraphNode<L>> nodes = new ArrayList<>(n);
+            for (int i = 0; i < n; i++)
+                nodes.add(GraphVersion.freeze(this.indexes.get(i)));
+            ArrayList<GraphEdge<L>> edges = new ArrayList<>(this.edgeCount);
+            // un arco non orientato è in out di entrambi i nodi: si prende
+            // solo dal nodo di indice minore
+            this.vertices.forEach((node, vertex) -> vertex.out.forEach((other, edge) -> {
+                int i = this.vertices.get(edge.getNode1()).index;
+                int j = this.vertices.get(edge.getNode2()).index;
+                if(this.directed || vertex.index == Math.min(i, j))
+                    edges.add(GraphVersion.freeze(edge, nodes.get(i), nodes.get(j)));
+            }));
+            return GraphVersion.create(this.epoch, this.directed, nodes, edges, this.lastVersion);
+        }
+    }
+
+    private void checkEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        if(edge.isDirected() != this.directed)
+            throw new IllegalArgumentException("Edge direction doesn't match the graph");
+        if(!this.vertices.containsKey(edge.getNode1()) || !this.vertices.containsKey(edge.getNode2()))
+            throw new IllegalArgumentException("Linked nodes to this edge must exist");
+    }
+
+    private Vertex<L> vertexOf(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        Vertex<L> vertex = this.vertices.get(node);
+        if(vertex == null) throw new IllegalArgumentException("This node doesn't exist in this graph");
+        return vertex;
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.vertices.size();
+    }
+
+    @Override
+    public int edgeCount() {
+        return this.edgeCount;
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("This graph is immutable");
+    }
+
+    @Override
+    public boolean isDirected() {
+        return this.directed;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getNodes() {
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        this.vertices.forEach((node, vertex) -> setToReturn.add(vertex.node));
+        return setToReturn;
+    }
+
+    @Override
+    public boolean addNode(GraphNode<L> node) {
+        throw new UnsupportedOperationException("This graph is immutable");
+    }
+
+    @Override
+    public boolean removeNode(GraphNode<L> node) {
+        throw new UnsupportedOperationException("This graph is immutable");
+    }
+
+    @Override
+    public boolean containsNode(GraphNode<L> node) {
+        if(node == null) throw new NullPointerException("Node can't be null");
+        return this.vertices.containsKey(node);
+    }
+
+    @Override
+    public GraphNode<L> getNodeOf(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        Vertex<L> vertex = this.vertices.get(new GraphNode<>(label));
+        return vertex == null ? null : vertex.node;
+    }
+
+    @Override
+    public int getNodeIndexOf(L label) {
+        if(label == null) throw new NullPointerException("Label can't be null");
+        Vertex<L> vertex = this.vertices.get(new GraphNode<>(label));
+        if(vertex == null) throw new IllegalArgumentException("This label is not contained in this graph");
+        return vertex.index;
+    }
+
+    @Override
+    public GraphNode<L> getNodeAtIndex(int i) {
+        if(i < 0 || i >= this.nodeCount())
+            throw new IndexOutOfBoundsException("Input must be between 0 and nodeCount()-1");
+        return this.vertices.get(this.indexes.get(i)).node;
+    }
+
+    @Override
+    public GraphEdge<L> getEdge(GraphNode<L> node1, GraphNode<L> node2) {
+        Vertex<L> vertex1 = this.vertexOf(node1);
+        this.vertexOf(node2);
+        return vertex1.out.get(node2);
+    }
+
+    @Override
+    public GraphEdge<L> getEdgeAtNodeIndexes(int i, int j) {
+        return this.getEdge(this.getNodeAtIndex(i), this.getNodeAtIndex(j));
+    }
+
+    @Override
+    public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        this.vertexOf(node).out.forEach((other, edge) -> setToReturn.add(this.vertices.get(other).node));
+        if(!this.directed)
+            setToReturn.remove(node);
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+        if(!this.directed)
+            throw new UnsupportedOperationException("This graph is not directed");
+        Set<GraphNode<L>> setToReturn = new HashSet<>();
+        this.vertexOf(node).in.forEach((other, edge) -> setToReturn.add(this.vertices.get(other).node));
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdges() {
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        this.vertices.forEach((node, vertex) -> vertex.out.forEach((other, edge) -> setToReturn.add(edge)));
+        return setToReturn;
+    }
+
+    @Override
+    public boolean addEdge(GraphEdge<L> edge) {
+        throw new UnsupportedOperationException("This graph is immutable");
+    }
+
+    @Override
+    public boolean removeEdge(GraphEdge<L> edge) {
+        throw new UnsupportedOperationException("This graph is immutable");
+    }
+
+    @Override
+    public boolean containsEdge(GraphEdge<L> edge) {
+        if(edge == null) throw new NullPointerException("Edge can't be null");
+        GraphEdge<L> found = this.getEdge(edge.getNode1(), edge.getNode2());
+        return found != null && found.equals(edge);
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        this.vertexOf(node).out.forEach((other, edge) -> setToReturn.add(edge));
+        return setToReturn;
+    }
+
+    @Override
+    public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+        if(!this.directed)
+            throw new UnsupportedOperationException("This graph is not directed");
+        Set<GraphEdge<L>> setToReturn = new HashSet<>();
+        this.vertexOf(node).in.forEach((other, edge) -> setToReturn.add(edge));
+        return setToReturn;
+    }
+
+}
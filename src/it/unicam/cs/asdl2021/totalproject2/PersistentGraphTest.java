@@ -0,0 +1,273 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class PersistentGraphTest {
+
+    private final GraphNode<String> na = new GraphNode<String>("a");
+    private final GraphNode<String> nb = new GraphNode<String>("b");
+    private final GraphNode<String> nc = new GraphNode<String>("c");
+    private final GraphNode<String> nd = new GraphNode<String>("d");
+
+    private PersistentGraph<String> directedGraph() {
+        return new PersistentGraph<String>(true).withNode(na).withNode(nb).withNode(nc).withNode(nd)
+                .withEdge(new GraphEdge<>(na, nb, true, 1.0)).withEdge(new GraphEdge<>(nb, nd, true, 1.0))
+                .withEdge(new GraphEdge<>(na, nc, true, 2.0)).withEdge(new GraphEdge<>(nc, nd, true, 2.0));
+    }
+
+    @Test
+    final void testVersions() {
+        PersistentGraph<String> empty = new PersistentGraph<>(true);
+        PersistentGraph<String> g1 = empty.withNode(na).withNode(nb);
+        PersistentGraph<String> g2 = g1.withEdge(new GraphEdge<>(na, nb, true, 3.0));
+        PersistentGraph<String> g3 = g2.withoutEdge(new GraphEdge<>(na, nb, true));
+        assertTrue(empty.isEmpty());
+        assertEquals(2, g1.nodeCount());
+        assertEquals(0, g1.edgeCount());
+        assertEquals(1, g2.edgeCount());
+        assertEquals(0, g3.edgeCount());
+        assertNull(g1.getEdge(na, nb));
+        assertEquals(3.0, g2.getEdge(na, nb).getWeight());
+        assertNull(g3.getEdge(na, nb));
+        assertSame(g1, g1.withNode(new GraphNode<>("a")));
+        assertSame(g2, g2.withEdge(new GraphEdge<>(na, nb, true, 7.0)));
+        assertSame(g1, g1.withoutEdge(new GraphEdge<>(na, nb, true)));
+        // il nuovo peso è visibile solo nella nuova versione
+        PersistentGraph<String> g4 = g2.withEdgeWeight(new GraphEdge<>(na, nb, true), 9.0);
+        assertEquals(9.0, g4.getEdge(na, nb).getWeight());
+        assertEquals(3.0, g2.getEdge(na, nb).getWeight());
+        assertThrows(IllegalArgumentException.class, () -> g1.withEdgeWeight(new GraphEdge<>(na, nb, true), 1.0));
+    }
+
+    @Test
+    final void testValidation() {
+        PersistentGraph<String> g = new PersistentGraph<String>(false).withNode(na);
+        assertThrows(NullPointerException.class, () -> g.withNode(null));
+        assertThrows(NullPointerException.class, () -> g.withEdge(null));
+        assertThrows(IllegalArgumentException.class, () -> g.withEdge(new GraphEdge<>(na, na, true)));
+        assertThrows(IllegalArgumentException.class, () -> g.withEdge(new GraphEdge<>(na, nb, false)));
+        assertThrows(UnsupportedOperationException.class, () -> g.addNode(nb));
+        assertThrows(UnsupportedOperationException.class, () -> g.addEdge(new GraphEdge<>(na, na, false)));
+        assertThrows(UnsupportedOperationException.class, () -> g.removeNode(na));
+        assertThrows(UnsupportedOperationException.class, () -> g.removeEdge(new GraphEdge<>(na, na, false)));
+        assertThrows(UnsupportedOperationException.class, () -> g.clear());
+        assertThrows(UnsupportedOperationException.class, () -> g.getIngoingEdgesOf(na));
+        assertThrows(IllegalArgumentException.class, () -> g.getEdgesOf(nb));
+    }
+
+    @Test
+    final void testReadOperations() {
+        PersistentGraph<String> g = this.directedGraph().withEdge(new GraphEdge<>(nd, nd, true));
+        assertTrue(g.isDirected());
+        assertEquals(5, g.edgeCount());
+        assertEquals(5, g.getEdges().size());
+        assertEquals(Set.of(nb, nc), g.getAdjacentNodesOf(na));
+        assertEquals(Set.of(nb, nc, nd), g.getPredecessorNodesOf(nd));
+        assertEquals(3, g.getIngoingEdgesOf(nd).size());
+        assertEquals(4, g.getDegreeOf(nd));
+        assertTrue(g.containsEdge(new GraphEdge<>(nc, nd, true)));
+        assertFalse(g.containsEdge(new GraphEdge<>(nd, nc, true)));
+        assertSame(nc, g.getNodeOf("c"));
+        assertEquals(2, g.getNodeIndexOf("c"));
+        assertSame(nc, g.getNodeAtIndex(2));
+        assertEquals(new GraphEdge<>(na, nc, true), g.getEdgeAtNodeIndexes(0, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> g.getNodeAtIndex(4));
+    }
+
+    @Test
+    final void testWithoutNode() {
+        PersistentGraph<String> g = this.directedGraph().withEdge(new GraphEdge<>(na, na, true));
+        PersistentGraph<String> h = g.withoutNode(na);
+        assertEquals(3, h.nodeCount());
+        assertEquals(2, h.edgeCount());
+        assertEquals(Set.of(new GraphEdge<>(nb, nd, true), new GraphEdge<>(nc, nd, true)), h.getEdges());
+        assertTrue(h.getPredecessorNodesOf(nb).isEmpty());
+        // l' ultimo nodo prende l' indice 0
+        assertEquals(0, h.getNodeIndexOf("d"));
+        assertSame(nd, h.getNodeAtIndex(0));
+        assertEquals(1, h.getNodeIndexOf("b"));
+        assertEquals(5, g.edgeCount());
+        assertSame(h, h.withoutNode(na));
+
+        PersistentGraph<String> u = new PersistentGraph<String>(false).withNode(na).withNode(nb).withNode(nc)
+                .withEdge(new GraphEdge<>(na, nb, false)).withEdge(new GraphEdge<>(nc, nb, false))
+                .withEdge(new GraphEdge<>(nb, nb, false));
+        assertEquals(Set.of(na, nc), u.getAdjacentNodesOf(nb));
+        PersistentGraph<String> v = u.withoutNode(nb);
+        assertEquals(0, v.edgeCount());
+        assertTrue(v.getEdgesOf(na).isEmpty());
+        assertTrue(v.getEdges().isEmpty());
+        assertEquals(3, u.getEdgesOf(nb).size());
+    }
+
+    @Test
+    final void testAlgorithmsOnVersions() {
+        PersistentGraph<String> base = this.directedGraph();
+        // scenario: l' arco b -> d viene chiuso
+        PersistentGraph<String> closed = base.withoutEdge(new GraphEdge<>(nb, nd, true));
+        // scenario: il costo di a -> b aumenta
+        PersistentGraph<String> raised = base.withEdgeWeight(new GraphEdge<>(na, nb, true), 5.0);
+
+        double[] expected = { 2.0, 4.0, 4.0 };
+        List<PersistentGraph<String>> scenarios = List.of(base, closed, raised);
+        for (int s = 0; s < scenarios.size(); s++) {
+            DijkstraShortestPathComputer<String> dijkstra = new DijkstraShortestPathComputer<>(scenarios.get(s));
+            dijkstra.computeShortestPathsFrom(na);
+            double cost = 0.0;
+            for (GraphEdge<String> edge : dijkstra.getShortestPathTo(nd))
+                cost += edge.getWeight();
+            assertEquals(expected[s], cost);
+            BellmanFordShortestPathComputer<String> bellmanFord = new BellmanFordShortestPathComputer<>(
+                    scenarios.get(s));
+            bellmanFord.computeShortestPathsFrom(na);
+            assertEquals(dijkstra.getShortestPathTo(nd), bellmanFord.getShortestPathTo(nd));
+        }
+
+        PersistentGraph<String> undirected = new PersistentGraph<String>(false).withNode(na).withNode(nb)
+                .withNode(nc).withEdge(new GraphEdge<>(na, nb, false, 1.0))
+                .withEdge(new GraphEdge<>(nb, nc, false, 2.0)).withEdge(new GraphEdge<>(na, nc, false, 4.0));
+        PersistentGraph<String> cheaper = undirected.withEdgeWeight(new GraphEdge<>(na, nc, false), 0.5);
+        assertEquals(Set.of(new GraphEdge<>(na, nb, false), new GraphEdge<>(nb, nc, false)),
+                new KruskalMSP<String>().computeMSP(undirected));
+        assertEquals(Set.of(new GraphEdge<>(na, nb, false), new GraphEdge<>(na, nc, false)),
+                new KruskalMSP<String>().computeMSP(cheaper));
+    }
+
+    @Test
+    final void testSnapshot() {
+        PersistentGraph<String> g = this.directedGraph();
+        try (GraphVersion<String> v1 = g.snapshot(); GraphVersion<String> v2 = g.snapshot()) {
+            assertEquals(8, v1.getEpoch());
+            assertSame(v1.getSnapshot().getOffsets(), v2.getSnapshot().getOffsets());
+            assertNotSame(v1.getNodeOf("a"), v2.getNodeOf("a"));
+            assertNotSame(na, v1.getNodeOf("a"));
+            assertEquals(g.getEdges(), v1.getEdges());
+            assertEquals(2, v1.getNodeIndexOf("c"));
+            assertSame(v1.getNodeOf("d"), v1.getEdge(nb, nd).getNode2());
+        }
+        PersistentGraph<String> u = new PersistentGraph<String>(false).withNode(na).withNode(nb).withNode(nc)
+                .withEdge(new GraphEdge<>(na, nb, false)).withEdge(new GraphEdge<>(nc, nb, false))
+                .withEdge(new GraphEdge<>(nb, nb, false));
+        try (GraphVersion<String> v = u.snapshot()) {
+            assertEquals(3, v.edgeCount());
+            assertEquals(u.getEdges(), v.getEdges());
+            assertEquals(Set.of(na, nc), v.getAdjacentNodesOf(nb));
+        }
+    }
+
+    @Test
+    final void testConcurrentScenarios() throws InterruptedException {
+        int n = 200;
+        ArrayList<GraphNode<Integer>> nodes = new ArrayList<>();
+        PersistentGraph<Integer> base = new PersistentGraph<>(true);
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            base = base.withNode(nodes.get(i));
+        }
+        // pesi non interi, così Dijkstra usa lo heap binario e scrive nei nodi
+        for (int i = 0; i < n; i++)
+            base = base.withEdge(new GraphEdge<>(nodes.get(i), nodes.get((i + 1) % n), true, 1.5));
+        // scenario: una scorciatoia da 0 a n / 2
+        PersistentGraph<Integer> shortcut = base
+                .withEdge(new GraphEdge<>(nodes.get(0), nodes.get(n / 2), true, 2.5));
+        // scenario: il primo arco diventa molto più costoso
+        PersistentGraph<Integer> raised = base.withEdgeWeight(new GraphEdge<>(nodes.get(0), nodes.get(1), true),
+                100.5);
+        List<PersistentGraph<Integer>> scenarios = List.of(shortcut, raised);
+        double[][] expected = new double[2][n];
+        for (int t = 1; t < n; t++) {
+            expected[0][t] = t < n / 2 ? 1.5 * t : 2.5 + 1.5 * (t - n / 2);
+            expected[1][t] = 100.5 + 1.5 * (t - 1);
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] analyses = new Thread[scenarios.size()];
+        for (int s = 0; s < analyses.length; s++) {
+            PersistentGraph<Integer> scenario = scenarios.get(s);
+            double[] distances = expected[s];
+            analyses[s] = new Thread(() -> {
+                try {
+                    for (int round = 0; round < 10; round++) {
+                        try (GraphVersion<Integer> v = scenario.snapshot()) {
+                            DijkstraShortestPathComputer<Integer> dijkstra = new DijkstraShortestPathComputer<>(v);
+                            dijkstra.computeShortestPathsFrom(v.getNodeOf(0));
+                            BellmanFordShortestPathComputer<Integer> bellmanFord = new BellmanFordShortestPathComputer<>(
+                                    v);
+                            bellmanFord.computeShortestPathsFrom(v.getNodeOf(0));
+                            for (int t = 1; t < n; t++) {
+                                double cost = 0.0;
+                                for (GraphEdge<Integer> edge : dijkstra.getShortestPathTo(v.getNodeOf(t)))
+                                    cost += edge.getWeight();
+                                assertEquals(distances[t], cost, 1e-9);
+                                assertEquals(distances[t], v.getNodeOf(t).getFloatingPointDistance(), 1e-9);
+                                assertEquals(dijkstra.getShortestPathTo(v.getNodeOf(t)),
+                                        bellmanFord.getShortestPathTo(v.getNodeOf(t)));
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            analyses[s].start();
+        }
+        for (Thread analysis : analyses)
+            analysis.join();
+        assertNull(failure.get());
+        // i nodi condivisi dalle versioni non sono stati toccati
+        for (GraphNode<Integer> node : nodes)
+            assertNull(node.getPrevious());
+    }
+
+    @Test
+    final void testRandomAgainstMutableGraph() {
+        Random random = new Random(11);
+        int n = 60;
+        ArrayList<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            nodes.add(new GraphNode<>(i));
+        ConcurrentAdjacencyMatrixDirectedGraph<Integer> mutable = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        for (GraphNode<Integer> node : nodes)
+            mutable.addNode(node);
+        PersistentGraph<Integer> g = PersistentGraph.copyOf(mutable);
+        ArrayList<PersistentGraph<Integer>> versions = new ArrayList<>();
+        ArrayList<Set<GraphEdge<Integer>>> contents = new ArrayList<>();
+        for (int op = 0; op < 3000; op++) {
+            GraphEdge<Integer> edge = new GraphEdge<>(nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n)),
+                    true, op);
+            if(random.nextInt(3) == 0) {
+                mutable.removeEdge(edge);
+                g = g.withoutEdge(edge);
+            } else {
+                mutable.addEdge(edge);
+                g = g.withEdge(edge);
+            }
+            assertEquals(mutable.edgeCount(), g.edgeCount());
+            if(op % 300 == 0) {
+                versions.add(g);
+                contents.add(mutable.getEdges());
+            }
+        }
+        assertEquals(mutable.getEdges(), g.getEdges());
+        for (GraphNode<Integer> node : nodes) {
+            assertEquals(mutable.getEdgesOf(node), g.getEdgesOf(node));
+            assertEquals(mutable.getIngoingEdgesOf(node), g.getIngoingEdgesOf(node));
+        }
+        for (int v = 0; v < versions.size(); v++)
+            assertEquals(contents.get(v), versions.get(v).getEdges());
+    }
+
+}
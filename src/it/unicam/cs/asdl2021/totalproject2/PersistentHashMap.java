@@ -0,0 +1,363 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Mappa persistente realizzata con un hash array mapped trie (HAMT). La
+ * mappa è immutabile: {@code put} e {@code remove} restituiscono una nuova
+ * mappa e lasciano invariata quella su cui sono chiamati, che resta
+ * utilizzabile e può essere letta da più thread senza sincronizzazione.
+ *
+ * Il trie consuma il codice hash delle chiavi 5 bit alla volta. Ogni nodo
+ * interno ha una bitmap di 32 bit che indica quali dei 32 figli possibili
+ * esistono e un array con i soli figli presenti, nell' ordine dei bit: la
+ * posizione di un figlio si ottiene contando i bit a 1 che lo precedono.
+ * Chiavi diverse con lo stesso codice hash finiscono in un nodo di
+ * collisione. Un aggiornamento ricopia solo i nodi sul cammino dalla radice
+ * alla chiave, al più 7 nodi piccoli, e condivide tutto il resto con la
+ * mappa precedente: costa quindi O(log n) in tempo e spazio.
+ *
+ * Le chiavi e i valori non possono essere null e le chiavi non devono
+ * cambiare codice hash finché sono nella mappa.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <K>
+ *                tipo delle chiavi
+ * @param <V>
+ *                tipo dei valori
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(new Branch(0, new Object[0]), 0);
+
+    // la radice è sempre un nodo interno, eventualmente vuoto
+    private final Branch root;
+
+    private final int size;
+
+    private PersistentHashMap(Branch root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Restituisce la mappa vuota.
+     *
+     * @param <K>
+     *                tipo delle chiavi
+     * @param <V>
+     *                tipo dei valori
+     * @return la mappa vuota
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /*
+     * Foglia: una coppia chiave valore con il codice hash della chiave.
+     */
+    private static final class Leaf {
+
+        private final int hash;
+
+        private final Object key;
+
+        private final Object value;
+
+        Leaf(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /*
+     * Nodo interno: i figli sono foglie, nodi interni o nodi di collisione.
+     */
+    private static final class Branch {
+
+        private final int bitmap;
+
+        private final Object[] children;
+
+        Branch(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+    }
+
+    /*
+     * Foglie con chiavi diverse e lo stesso codice hash, almeno due.
+     */
+    private static final class Collision {
+
+        private final int hash;
+
+        private final Leaf[] leaves;
+
+        Collision(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+    }
+
+    /**
+     * @return il numero di chiavi della mappa
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return true se la mappa non contiene chiavi
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Restituisce il valore associato a una chiave.
+     *
+     * @param key
+     *                la chiave cercata
+     * @return il valore associato alla chiave, null se la chiave non c'è
+     * @throws NullPointerException
+     *                                  se la chiave passata è nulla
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if(key == null) throw new NullPointerException("Key can't be null");
+        int hash = hash(key);
+        Object node = this.root;
+        for (int shift = 0;; shift += BITS) {
+            if(node instanceof Branch) {
+                Branch branch = (Branch) node;
+                int bit = 1 << ((hash >>> shift) & MASK);
+                if((branch.bitmap & bit) == 0) return null;
+                node = branch.children[Integer.bitCount(branch.bitmap & (bit - 1))];
+            } else if(node instanceof Leaf) {
+                Leaf leaf = (Leaf) node;
+                return leaf.hash == hash && leaf.key.equals(key) ? (V) leaf.value : null;
+            } else {
+                Collision collision = (Collision) node;
+                if(collision.hash != hash) return null;
+                for (Leaf leaf : collision.leaves)
+                    if(leaf.key.equals(key))
+                        return (V) leaf.value;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Determina se la mappa contiene una chiave.
+     *
+     * @param key
+     *                la chiave cercata
+     * @return true se la chiave è nella mappa
+     * @throws NullPointerException
+     *                                  se la chiave passata è nulla
+     */
+    public boolean containsKey(Object key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Restituisce una mappa uguale a questa in cui la chiave passata è
+     * associata al valore passato.
+     *
+     * @param key
+     *                  la chiave
+     * @param value
+     *                  il valore
+     * @return la nuova mappa, questa stessa mappa se la chiave era già
+     *         associata allo stesso oggetto valore
+     * @throws NullPointerException
+     *                                  se la chiave o il valore passati sono
+     *                                  nulli
+     */
+    public PersistentHashMap<K, V> put(K key, V value) {
+        if(key == null) throw new NullPointerException("Key can't be null");
+        if(value == null) throw new NullPointerException("Value can't be null");
+        boolean[] added = new boolean[1];
+        Object root = put(this.root, 0, new Leaf(hash(key), key, value), added);
+        if(root == this.root) return this;
+        return new PersistentHashMap<>((Branch) root, added[0] ? this.size + 1 : this.size);
+    }
+
+    /**
+     * Restituisce una mappa uguale a questa senza la chiave passata.
+     *
+     * @param key
+     *                la chiave da togliere
+     * @return la nuova mappa, questa stessa mappa se la chiave non c'era
+     * @throws NullPointerException
+     *                                  se la chiave passata è nulla
+     */
+    public PersistentHashMap<K, V> remove(Object key) {
+        if(key == null) throw new NullPointerException("Key can't be null");
+        Object root = remove(this.root, 0, hash(key), key);
+        if(root == this.root) return this;
+        if(this.size == 1) return empty();
+        // la radice resta un nodo interno anche se le rimane una sola foglia
+        if(!(root instanceof Branch)) {
+            int hash = root instanceof Leaf ? ((Leaf) root).hash : ((Collision) root).hash;
+            root = new Branch(1 << (hash & MASK), new Object[] { root });
+        }
+        return new PersistentHashMap<>((Branch) root, this.size - 1);
+    }
+
+    /**
+     * Esegue un' azione su ogni coppia chiave valore della mappa, in un
+     * ordine che dipende dai codici hash.
+     *
+     * @param action
+     *                   l' azione da eseguire
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(this.root, action);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * Inserisce una foglia nel sottoalbero node, che consuma il codice hash a
+     * partire dal bit shift; restituisce node stesso se non cambia niente.
+     */
+    private static Object put(Object node, int shift, Leaf leaf, boolean[] added) {
+        if(node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int bit = 1 << ((leaf.hash >>> shift) & MASK);
+            int position = Integer.bitCount(branch.bitmap & (bit - 1));
+            if((branch.bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] children = new Object[branch.children.length + 1];
+                System.arraycopy(branch.children, 0, children, 0, position);
+                children[position] = leaf;
+                System.arraycopy(branch.children, position, children, position + 1,
+                        branch.children.length - position);
+                return new Branch(branch.bitmap | bit, children);
+            }
+            Object child = branch.children[position];
+            Object updated = put(child, shift + BITS, leaf, added);
+            if(updated == child) return branch;
+            Object[] children = branch.children.clone();
+            children[position] = updated;
+            return new Branch(branch.bitmap, children);
+        }
+        if(node instanceof Leaf) {
+            Leaf existing = (Leaf) node;
+            if(existing.hash == leaf.hash) {
+                if(existing.key.equals(leaf.key))
+                    return existing.value == leaf.value ? existing : leaf;
+                added[0] = true;
+                return new Collision(leaf.hash, new Leaf[] { existing, leaf });
+            }
+            added[0] = true;
+            return merge(existing, existing.hash, leaf, shift);
+        }
+        Collision collision = (Collision) node;
+        if(collision.hash != leaf.hash) {
+            added[0] = true;
+            return merge(collision, collision.hash, leaf, shift);
+        }
+        for (int i = 0; i < collision.leaves.length; i++)
+            if(collision.leaves[i].key.equals(leaf.key)) {
+                if(collision.leaves[i].value == leaf.value) return collision;
+                Leaf[] leaves = collision.leaves.clone();
+                leaves[i] = leaf;
+                return new Collision(collision.hash, leaves);
+            }
+        added[0] = true;
+        Leaf[] leaves = new Leaf[collision.leaves.length + 1];
+        System.arraycopy(collision.leaves, 0, leaves, 0, collision.leaves.length);
+        leaves[collision.leaves.length] = leaf;
+        return new Collision(collision.hash, leaves);
+    }
+
+    /*
+     * Crea il sottoalbero che contiene una foglia o un nodo di collisione e
+     * una nuova foglia con codici hash diversi, che quindi differiscono in
+     * qualche gruppo di bit a partire da shift.
+     */
+    private static Object merge(Object node, int hash, Leaf leaf, int shift) {
+        int index1 = (hash >>> shift) & MASK;
+        int index2 = (leaf.hash >>> shift) & MASK;
+        if(index1 == index2)
+            return new Branch(1 << index1, new Object[] { merge(node, hash, leaf, shift + BITS) });
+        Object[] children = index1 < index2 ? new Object[] { node, leaf } : new Object[] { leaf, node };
+        return new Branch((1 << index1) | (1 << index2), children);
+    }
+
+    /*
+     * Toglie una chiave dal sottoalbero node; restituisce node stesso se la
+     * chiave non c'è e null se il sottoalbero resta vuoto. Un nodo interno
+     * rimasto con una sola foglia o un solo nodo di collisione viene
+     * sostituito dal figlio, così il trie non si allunga inutilmente.
+     */
+    private static Object remove(Object node, int shift, int hash, Object key) {
+        if(node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if((branch.bitmap & bit) == 0) return branch;
+            int position = Integer.bitCount(branch.bitmap & (bit - 1));
+            Object child = branch.children[position];
+            Object updated = remove(child, shift + BITS, hash, key);
+            if(updated == child) return branch;
+            if(updated == null) {
+                if(branch.children.length == 1) return null;
+                if(branch.children.length == 2) {
+                    Object other = branch.children[1 - position];
+                    if(!(other instanceof Branch)) return other;
+                }
+                Object[] children = new Object[branch.children.length - 1];
+                System.arraycopy(branch.children, 0, children, 0, position);
+                System.arraycopy(branch.children, position + 1, children, position,
+                        branch.children.length - position - 1);
+                return new Branch(branch.bitmap & ~bit, children);
+            }
+            if(branch.children.length == 1 && !(updated instanceof Branch)) return updated;
+            Object[] children = branch.children.clone();
+            children[position] = updated;
+            return new Branch(branch.bitmap, children);
+        }
+        if(node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            return leaf.hash == hash && leaf.key.equals(key) ? null : leaf;
+        }
+        Collision collision = (Collision) node;
+        if(collision.hash != hash) return collision;
+        for (int i = 0; i < collision.leaves.length; i++)
+            if(collision.leaves[i].key.equals(key)) {
+                if(collision.leaves.length == 2) return collision.leaves[1 - i];
+                Leaf[] leaves = new Leaf[collision.leaves.length - 1];
+                System.arraycopy(collision.leaves, 0, leaves, 0, i);
+                System.arraycopy(collision.leaves, i + 1, leaves, i, collision.leaves.length - i - 1);
+                return new Collision(collision.hash, leaves);
+            }
+        return collision;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void forEach(Object node, BiConsumer<? super K, ? super V> action) {
+        if(node instanceof Branch) {
+            for (Object child : ((Branch) node).children)
+                forEach(child, action);
+        } else if(node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            action.accept((K) leaf.key, (V) leaf.value);
+        } else
+            for (Leaf leaf : ((Collision) node).leaves)
+                action.accept((K) leaf.key, (V) leaf.value);
+    }
+
+}
@@ -0,0 +1,127 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class PersistentHashMapTest {
+
+    /*
+     * Chiave con codice hash scelto, per provocare collisioni.
+     */
+    private static final class Key {
+
+        private final int id;
+
+        private final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == this.id;
+        }
+    }
+
+    @Test
+    final void testPutGetRemove() {
+        PersistentHashMap<String, Integer> empty = PersistentHashMap.empty();
+        assertTrue(empty.isEmpty());
+        assertThrows(NullPointerException.class, () -> empty.put(null, 1));
+        assertThrows(NullPointerException.class, () -> empty.put("a", null));
+        assertThrows(NullPointerException.class, () -> empty.get(null));
+        PersistentHashMap<String, Integer> m1 = empty.put("a", 1);
+        PersistentHashMap<String, Integer> m2 = m1.put("b", 2);
+        PersistentHashMap<String, Integer> m3 = m2.put("a", 3);
+        assertEquals(0, empty.size());
+        assertEquals(1, m1.size());
+        assertEquals(2, m3.size());
+        // le versioni precedenti non cambiano
+        assertEquals(1, m1.get("a"));
+        assertNull(m1.get("b"));
+        assertEquals(3, m3.get("a"));
+        assertEquals(1, m2.get("a"));
+        Integer value = m3.get("b");
+        assertSame(m3, m3.put("b", value));
+        assertSame(m3, m3.remove("z"));
+        PersistentHashMap<String, Integer> m4 = m3.remove("a");
+        assertFalse(m4.containsKey("a"));
+        assertTrue(m3.containsKey("a"));
+        assertTrue(m4.remove("b").isEmpty());
+    }
+
+    @Test
+    final void testCollisions() {
+        PersistentHashMap<Key, Integer> m = PersistentHashMap.empty();
+        for (int i = 0; i < 10; i++)
+            m = m.put(new Key(i, i % 3), i);
+        assertEquals(10, m.size());
+        for (int i = 0; i < 10; i++)
+            assertEquals(i, m.get(new Key(i, i % 3)));
+        assertNull(m.get(new Key(10, 1)));
+        PersistentHashMap<Key, Integer> removed = m;
+        for (int i = 0; i < 10; i += 2)
+            removed = removed.remove(new Key(i, i % 3));
+        assertEquals(5, removed.size());
+        for (int i = 0; i < 10; i++)
+            assertEquals(i % 2 == 0 ? null : i, removed.get(new Key(i, i % 3)));
+        assertEquals(10, m.size());
+    }
+
+    @Test
+    final void testRandomOperations() {
+        Random random = new Random(3);
+        HashMap<Key, Integer> expected = new HashMap<>();
+        PersistentHashMap<Key, Integer> m = PersistentHashMap.empty();
+        ArrayList<PersistentHashMap<Key, Integer>> versions = new ArrayList<>();
+        ArrayList<Map<Key, Integer>> contents = new ArrayList<>();
+        for (int op = 0; op < 20000; op++) {
+            int id = random.nextInt(2000);
+            // un settimo delle chiavi collide sullo stesso codice hash, metà
+            // delle altre differisce solo nei bit alti
+            Key key = new Key(id, id % 7 == 0 ? 42 : id % 2 == 0 ? id : id << 20);
+            if(random.nextInt(3) == 0) {
+                expected.remove(key);
+                m = m.remove(key);
+            } else {
+                expected.put(key, op);
+                m = m.put(key, op);
+            }
+            assertEquals(expected.size(), m.size());
+            if(op % 2000 == 0) {
+                versions.add(m);
+                contents.add(new HashMap<>(expected));
+            }
+        }
+        for (Map.Entry<Key, Integer> entry : expected.entrySet())
+            assertEquals(entry.getValue(), m.get(entry.getKey()));
+        HashMap<Key, Integer> visited = new HashMap<>();
+        m.forEach(visited::put);
+        assertEquals(expected, visited);
+        // ogni versione salvata contiene ancora quello che conteneva
+        for (int v = 0; v < versions.size(); v++) {
+            HashMap<Key, Integer> old = new HashMap<>();
+            versions.get(v).forEach(old::put);
+            assertEquals(contents.get(v), old);
+        }
+    }
+
+}
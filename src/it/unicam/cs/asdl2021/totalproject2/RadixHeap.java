@@ -0,0 +1,114 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Radix heap: coda con priorità monotona per priorità intere non negative.
+ * Un elemento con priorità {@code p} si trova nel bucket dato dalla posizione
+ * del bit più significativo in cui {@code p} differisce dall' ultima priorità
+ * estratta (bucket 0 se coincidono), quindi ci sono 33 bucket.
+ *
+ * Quando il bucket 0 è vuoto, l' estrazione cerca il primo bucket non vuoto,
+ * ne prende la priorità minima come nuova ultima priorità estratta e
+ * ridistribuisce i suoi elementi, che finiscono tutti in bucket di indice
+ * minore. Ogni elemento scende quindi al più 32 volte e inserimento ed
+ * estrazione richiedono tempo costante ammortizzato, indipendentemente dall'
+ * ampiezza delle priorità.
+ *
+ * @author Damiano Pasquini
+ *
+ */
+public class RadixHeap implements MonotoneIntegerPriorityQueue {
+
+    private static final int BUCKETS = Integer.SIZE + 1;
+
+    // elementi e priorità di ogni bucket, in array paralleli
+    private final int[][] elements = new int[BUCKETS][];
+
+    private final int[][] priorities = new int[BUCKETS][];
+
+    private final int[] bucketSizes = new int[BUCKETS];
+
+    private int last;
+
+    private int size;
+
+    /**
+     * Crea una coda vuota.
+     */
+    public RadixHeap() {
+        for (int b = 0; b < BUCKETS; b++) {
+            this.elements[b] = new int[4];
+            this.priorities[b] = new int[4];
+        }
+    }
+
+    @Override
+    public void insert(int element, int priority) {
+        if(priority < this.last) throw new IllegalArgumentException("Priority can't be less than the last extracted");
+        this.push(this.bucketOf(priority), element, priority);
+        this.size++;
+    }
+
+    private int bucketOf(int priority) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(priority ^ this.last);
+    }
+
+    private void push(int b, int element, int priority) {
+        int s = this.bucketSizes[b];
+        if(s == this.elements[b].length) {
+            this.elements[b] = Arrays.copyOf(this.elements[b], s * 2);
+            this.priorities[b] = Arrays.copyOf(this.priorities[b], s * 2);
+        }
+        this.elements[b][s] = element;
+        this.priorities[b][s] = priority;
+        this.bucketSizes[b] = s + 1;
+    }
+
+    @Override
+    public int extractMinimum() {
+        if(this.size == 0) throw new NoSuchElementException("Queue is empty");
+        if(this.bucketSizes[0] == 0) {
+            int b = 1;
+            while(this.bucketSizes[b] == 0)
+                b++;
+            // nuova ultima priorità: il minimo del bucket, poi ridistribuzione
+            int[] bucketElements = this.elements[b];
+            int[] bucketPriorities = this.priorities[b];
+            int s = this.bucketSizes[b];
+            int minimum = bucketPriorities[0];
+            for (int i = 1; i < s; i++)
+                minimum = Math.min(minimum, bucketPriorities[i]);
+            this.last = minimum;
+            this.bucketSizes[b] = 0;
+            for (int i = 0; i < s; i++)
+                this.push(this.bucketOf(bucketPriorities[i]), bucketElements[i], bucketPriorities[i]);
+        }
+        this.size--;
+        return this.elements[0][--this.bucketSizes[0]];
+    }
+
+    @Override
+    public int lastExtractedPriority() {
+        return this.last;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.bucketSizes, 0);
+        this.last = 0;
+        this.size = 0;
+    }
+
+}
@@ -0,0 +1,70 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class RadixHeapTest {
+
+    @Test
+    final void testRadixHeap() {
+        RadixHeap queue = new RadixHeap();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertThrows(NoSuchElementException.class, () -> queue.extractMinimum());
+        assertThrows(IllegalArgumentException.class, () -> queue.insert(1, -1));
+    }
+
+    @Test
+    final void testInsertAndExtractMinimum() {
+        RadixHeap queue = new RadixHeap();
+        queue.insert(1, 700);
+        queue.insert(2, 3);
+        queue.insert(3, Integer.MAX_VALUE);
+        queue.insert(4, 3);
+        assertEquals(4, queue.size());
+        int first = queue.extractMinimum();
+        int second = queue.extractMinimum();
+        assertTrue(first == 2 && second == 4 || first == 4 && second == 2);
+        assertEquals(3, queue.lastExtractedPriority());
+        assertThrows(IllegalArgumentException.class, () -> queue.insert(5, 2));
+        queue.insert(5, 100);
+        assertEquals(5, queue.extractMinimum());
+        assertEquals(1, queue.extractMinimum());
+        assertEquals(3, queue.extractMinimum());
+        assertEquals(Integer.MAX_VALUE, queue.lastExtractedPriority());
+        assertTrue(queue.isEmpty());
+        queue.clear();
+        queue.insert(6, 0);
+        assertEquals(6, queue.extractMinimum());
+    }
+
+    @Test
+    final void testMonotoneSequence() {
+        // confronto con java.util.PriorityQueue su una sequenza monotona casuale
+        Random random = new Random(5);
+        RadixHeap queue = new RadixHeap();
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        for (int i = 0; i < 5000; i++) {
+            if(expected.isEmpty() || random.nextInt(3) > 0) {
+                int priority = queue.lastExtractedPriority() + random.nextInt(1 << 20);
+                queue.insert(priority, priority);
+                expected.add(priority);
+            } else
+                assertEquals((int) expected.poll(), queue.extractMinimum());
+        }
+        while(!expected.isEmpty())
+            assertEquals((int) expected.poll(), queue.extractMinimum());
+        assertTrue(queue.isEmpty());
+    }
+
+}
@@ -0,0 +1,166 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Programma di misura dei tempi dei calcolatori di cammini minimi su grafi
+ * casuali. Non fa parte dei test JUnit: va lanciato a mano, ad esempio con
+ *
+ * <pre>
+ * java it.unicam.cs.asdl2021.totalproject2.ShortestPathBenchmark [nodi] [grado]
+ * </pre>
+ *
+ * I grafi generati hanno pesi anche negativi ma nessun ciclo di peso negativo:
+ * il peso dell' arco {@code (u, v)} è {@code c(u, v) + p(u) - p(v)} con
+ * {@code c(u, v) > 0} e {@code p} un potenziale casuale sui nodi.
+ *
+ * @author Damiano Pasquini
+ *
+ */
+public class ShortestPathBenchmark {
+
+    // ripetizioni di ogni misura, viene riportato il tempo minimo
+    private static final int REPETITIONS = 5;
+
+    /**
+     * Esegue le misure.
+     *
+     * @param args
+     *                 numero di nodi e grado uscente dei nodi, facoltativi
+     */
+    public static void main(String[] args) {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        System.out.println("Grafo casuale: " + nodes + " nodi, grado uscente " + degree);
+        Graph<Integer> graph = randomGraph(nodes, degree, true, 100, new Random(42));
+        GraphNode<Integer> source = graph.getNodeOf(0);
+
+        benchmarkBellmanFordScaling(graph, source);
+
+        Graph<Integer> positiveGraph = randomGraph(nodes, degree, false, 100, new Random(42));
+        benchmarkDeltaSteppingScaling(positiveGraph, positiveGraph.getNodeOf(0));
+
+        benchmarkIntegerDijkstra(positiveGraph, "coda di Dial");
+        Graph<Integer> wideGraph = randomGraph(nodes, degree, false, 1_000_000, new Random(42));
+        benchmarkIntegerDijkstra(wideGraph, "radix heap");
+    }
+
+    /*
+     * Dijkstra con lo heap binario confrontato con la variante a pesi interi
+     * scelta automaticamente.
+     */
+    private static void benchmarkIntegerDijkstra(Graph<Integer> graph, String queue) {
+        System.out.println("== Dijkstra a pesi interi (" + queue + ") ==");
+        GraphNode<Integer> source = graph.getNodeOf(0);
+        DijkstraShortestPathComputer<Integer> binaryHeap = new DijkstraShortestPathComputer<>(graph, false);
+        DijkstraShortestPathComputer<Integer> integer = new DijkstraShortestPathComputer<>(graph);
+        double binaryHeapMillis = time(() -> binaryHeap.computeShortestPathsFrom(source));
+        double integerMillis = time(() -> integer.computeShortestPathsFrom(source));
+        System.out.printf("heap binario: %.2f ms%n", binaryHeapMillis);
+        System.out.printf("%s: %.2f ms (speedup %.2fx)%n", queue, integerMillis, binaryHeapMillis / integerMillis);
+    }
+
+    /*
+     * Scalabilità di DeltaSteppingShortestPathComputer da 1 al numero di
+     * processori disponibili, confrontata con Dijkstra con lo heap binario,
+     * anche se i pesi sono interi.
+     */
+    private static void benchmarkDeltaSteppingScaling(Graph<Integer> graph, GraphNode<Integer> source) {
+        System.out.println("== Delta-stepping ==");
+        DijkstraShortestPathComputer<Integer> dijkstra = new DijkstraShortestPathComputer<>(graph, false);
+        System.out.printf("Dijkstra (heap binario): %.2f ms%n", time(() -> dijkstra.computeShortestPathsFrom(source)));
+        double singleThread = 0.0;
+        for (int threads : threadCounts()) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                DeltaSteppingShortestPathComputer<Integer> computer =
+                        new DeltaSteppingShortestPathComputer<>(graph, pool, Double.NaN);
+                double millis = time(() -> computer.computeShortestPathsFrom(source));
+                if(threads == 1) singleThread = millis;
+                System.out.printf("%3d thread: %.2f ms (speedup %.2fx)%n", threads, millis, singleThread / millis);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /*
+     * Scalabilità di ParallelBellmanFordShortestPathComputer da 1 al numero
+     * di processori disponibili, confrontata con la versione sequenziale.
+     */
+    private static void benchmarkBellmanFordScaling(Graph<Integer> graph, GraphNode<Integer> source) {
+        System.out.println("== Bellman-Ford parallelo ==");
+        SpfaShortestPathComputer<Integer> spfa = new SpfaShortestPathComputer<>(graph);
+        System.out.printf("SPFA sequenziale: %.2f ms%n", time(() -> spfa.computeShortestPathsFrom(source)));
+        double singleThread = 0.0;
+        for (int threads : threadCounts()) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ParallelBellmanFordShortestPathComputer<Integer> computer =
+                        new ParallelBellmanFordShortestPathComputer<>(graph, pool);
+                double millis = time(() -> computer.computeShortestPathsFrom(source));
+                if(threads == 1) singleThread = millis;
+                System.out.printf("%3d thread: %.2f ms (speedup %.2fx)%n", threads, millis, singleThread / millis);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /*
+     * Numeri di thread da misurare: le potenze di due fino al numero di
+     * processori disponibili, più il numero di processori stesso.
+     */
+    private static List<Integer> threadCounts() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < processors; threads *= 2)
+            counts.add(threads);
+        counts.add(processors);
+        return counts;
+    }
+
+    /*
+     * Tempo minimo in millisecondi su REPETITIONS esecuzioni, dopo una
+     * esecuzione di riscaldamento.
+     */
+    private static double time(Runnable task) {
+        task.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < REPETITIONS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    /*
+     * Genera un grafo orientato casuale con pesi anche negativi (se negative è
+     * true) ma senza cicli di peso negativo. Senza pesi negativi i pesi sono
+     * interi tra 1 e maxWeight.
+     */
+    private static Graph<Integer> randomGraph(int nodes, int degree, boolean negative, int maxWeight, Random random) {
+        Graph<Integer> graph = new AdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodeList = new ArrayList<>(nodes);
+        double[] potential = new double[nodes];
+        for (int i = 0; i < nodes; i++) {
+            GraphNode<Integer> node = new GraphNode<>(i);
+            nodeList.add(node);
+            graph.addNode(node);
+            potential[i] = negative ? random.nextInt(100) : 0;
+        }
+        for (int u = 0; u < nodes; u++)
+            for (int k = 0; k < degree; k++) {
+                int v = random.nextInt(nodes);
+                double weight = 1 + random.nextInt(maxWeight) + potential[u] - potential[v];
+                graph.addEdge(new GraphEdge<>(nodeList.get(u), nodeList.get(v), true, weight));
+            }
+        return graph;
+    }
+
+}
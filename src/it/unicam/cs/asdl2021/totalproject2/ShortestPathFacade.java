@@ -0,0 +1,320 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.List;
+
+/**
+ * Calcolatore di cammini minimi a sorgente singola che sceglie l' algoritmo in
+ * base ai pesi del grafo, esaminati con una sola scansione degli archi alla
+ * costruzione:
+ * <ul>
+ * <li>se tutti i pesi sono uguali (e non negativi) i cammini minimi sono
+ * quelli con meno archi e basta una visita in ampiezza con una coda su array
+ * ({@link Strategy#BFS});</li>
+ * <li>se tutti i pesi sono 0 o 1 basta una visita in ampiezza con una coda a
+ * doppia entrata, in cui i nodi raggiunti con un arco di peso 0 vengono
+ * inseriti in testa e quelli raggiunti con un arco di peso 1 in fondo
+ * ({@link Strategy#ZERO_ONE_BFS});</li>
+ * <li>se il grafo è aciclico il calcolo è delegato a
+ * {@code DagShortestPathComputer<L>}, anche con pesi negativi
+ * ({@link Strategy#DAG});</li>
+ * <li>altrimenti il calcolo è delegato a
+ * {@code DijkstraShortestPathComputer<L>} se non ci sono pesi negativi
+ * ({@link Strategy#DIJKSTRA}) e a {@code BellmanFordShortestPathComputer<L>}
+ * se ci sono ({@link Strategy#BELLMAN_FORD}).</li>
+ * </ul>
+ * Le due visite e il calcolo su grafi aciclici richiedono tempo
+ * {@code O(n + m)} invece di {@code O(m log n)} o {@code O(n m)}. Con
+ * Bellman-Ford un ciclo di peso negativo raggiungibile dalla sorgente è
+ * segnalato con {@code IllegalStateException}.
+ *
+ * In tutti i casi, come {@code DijkstraShortestPathComputer<L>}, al termine
+ * del calcolo su ogni nodo del grafo sono impostati la distanza dalla sorgente
+ * ({@code floatingPointDistance}, infinita per i nodi non raggiungibili) e il
+ * predecessore nel cammino minimo. Le visite lavorano su una
+ * {@code GraphSnapshot<L>} presa alla costruzione.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                il tipo delle etichette dei nodi del grafo
+ */
+public class ShortestPathFacade<L> implements SingleSourceShortestPathComputer<L> {
+
+    /**
+     * Algoritmi tra cui sceglie il calcolatore.
+     */
+    public enum Strategy {
+        /**
+         * Visita in ampiezza, per pesi tutti uguali.
+         */
+        BFS,
+        /**
+         * Visita in ampiezza con coda a doppia entrata, per pesi 0 o 1.
+         */
+        ZERO_ONE_BFS,
+        /**
+         * Algoritmo di Dijkstra, per grafi con cicli e pesi non negativi.
+         */
+        DIJKSTRA,
+        /**
+         * Rilassamento in ordine topologico, per grafi aciclici.
+         */
+        DAG,
+        /**
+         * Algoritmo di Bellman-Ford, per grafi con cicli e pesi negativi.
+         */
+        BELLMAN_FORD
+    }
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final Strategy strategy;
+
+    // peso comune degli archi nel caso BFS
+    private final double uniformWeight;
+
+    // calcolatore a cui delegare nei casi DIJKSTRA, DAG e BELLMAN_FORD, null altrimenti
+    private final SingleSourceShortestPathComputer<L> delegate;
+
+    private GraphNode<L> lastSourceNode;
+
+    private int lastSourceIndex;
+
+    private boolean isComputed = false;
+
+    private final double[] distance;
+
+    private final int[] previousArc;
+
+    /**
+     * Crea un calcolatore di cammini minimi a sorgente singola per un grafo
+     * orientato e pesato.
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore di cammini minimi
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è orientato
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è pesato,
+     *                                      cioè esiste almeno un arco il cui
+     *                                      peso è {@code Double.NaN}
+     */
+    public ShortestPathFacade(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(graph.isEmpty()) throw new IllegalArgumentException("Graph can't be empty");
+        if(!graph.isDirected()) throw new IllegalArgumentException("Graph can't be undirected");
+
+        this.graph = graph;
+        this.snapshot = new GraphSnapshot<>(graph);
+        double[] weights = this.snapshot.getWeights();
+        // unica scansione dei pesi
+        boolean uniform = true;
+        boolean zeroOne = true;
+        boolean negative = false;
+        for (double weight : weights) {
+            if(Double.isNaN(weight))
+                throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
+            uniform &= weight == weights[0];
+            zeroOne &= weight == 0.0 || weight == 1.0;
+            negative |= weight < 0.0;
+        }
+        this.uniformWeight = uniform && weights.length > 0 ? weights[0] : 0.0;
+        if(uniform && this.uniformWeight >= 0.0 && this.uniformWeight < Double.POSITIVE_INFINITY) {
+            this.strategy = Strategy.BFS;
+            this.delegate = null;
+        } else if(zeroOne) {
+            this.strategy = Strategy.ZERO_ONE_BFS;
+            this.delegate = null;
+        } else if(this.snapshot.topologicalOrder() != null) {
+            this.strategy = Strategy.DAG;
+            this.delegate = new DagShortestPathComputer<>(graph, this.snapshot);
+        } else if(!negative) {
+            this.strategy = Strategy.DIJKSTRA;
+            this.delegate = new DijkstraShortestPathComputer<>(graph);
+        } else {
+            this.strategy = Strategy.BELLMAN_FORD;
+            this.delegate = new BellmanFordShortestPathComputer<>(graph);
+        }
+        int n = this.snapshot.nodeCount();
+        this.distance = new double[n];
+        this.previousArc = new int[n];
+    }
+
+    /**
+     * Restituisce l' algoritmo scelto per il grafo di questo calcolatore.
+     *
+     * @return l' algoritmo scelto
+     */
+    public Strategy getStrategy() {
+        return this.strategy;
+    }
+
+    @Override
+    public void computeShortestPathsFrom(GraphNode<L> sourceNode) {
+        if(sourceNode == null) throw new NullPointerException("sourceNode can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        if(source == -1) throw new IllegalArgumentException("sourceNode must be contained in this graph");
+
+        switch (this.strategy) {
+        case BFS:
+            this.breadthFirstSearch(source);
+            break;
+        case ZERO_ONE_BFS:
+            this.zeroOneBreadthFirstSearch(source);
+            break;
+        default:
+            // i calcolatori delegati impostano distanze e predecessori sui nodi
+            this.delegate.computeShortestPathsFrom(sourceNode);
+            for (int u = 0; u < this.distance.length; u++)
+                this.distance[u] = this.snapshot.getNode(u).getFloatingPointDistance();
+        }
+        if(this.delegate == null) {
+            // risultati sui nodi del grafo, come in DijkstraShortestPathComputer
+            int[] from = this.snapshot.getFrom();
+            for (int u = 0; u < this.distance.length; u++) {
+                GraphNode<L> node = this.snapshot.getNode(u);
+                node.setFloatingPointDistance(this.distance[u]);
+                node.setPrevious(this.previousArc[u] == -1 ? null : this.snapshot.getNode(from[this.previousArc[u]]));
+            }
+        }
+        this.lastSourceNode = this.snapshot.getNode(source);
+        this.lastSourceIndex = source;
+        this.isComputed = true;
+    }
+
+    /*
+     * Visita in ampiezza: con pesi tutti uguali la distanza è il numero di
+     * archi per il peso comune.
+     */
+    private void breadthFirstSearch(int source) {
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        int n = this.distance.length;
+        for (int u = 0; u < n; u++) {
+            this.distance[u] = Double.POSITIVE_INFINITY;
+            this.previousArc[u] = -1;
+        }
+        int[] hops = new int[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        this.distance[source] = 0.0;
+        while(head < tail) {
+            int u = queue[head++];
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = to[arc];
+                if(this.distance[v] == Double.POSITIVE_INFINITY) {
+                    hops[v] = hops[u] + 1;
+                    this.distance[v] = hops[v] * this.uniformWeight;
+                    this.previousArc[v] = arc;
+                    queue[tail++] = v;
+                }
+            }
+        }
+    }
+
+    /*
+     * Visita in ampiezza 0-1: la coda a doppia entrata contiene in ogni
+     * momento nodi con distanza d in testa e d + 1 in fondo. Ogni nodo viene
+     * scandito una sola volta e ogni arc inserisce al più un nodo, quindi
+     * basta un array di 2 (m + 1) posizioni con la testa che parte dal centro.
+     */
+    private void zeroOneBreadthFirstSearch(int source) {
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        double[] weights = this.snapshot.getWeights();
+        int n = this.distance.length;
+        for (int u = 0; u < n; u++) {
+            this.distance[u] = Double.POSITIVE_INFINITY;
+            this.previousArc[u] = -1;
+        }
+        boolean[] scanned = new boolean[n];
+        int[] deque = new int[2 * (this.snapshot.arcCount() + 1)];
+        int head = this.snapshot.arcCount() + 1;
+        int tail = head;
+        deque[tail++] = source;
+        this.distance[source] = 0.0;
+        while(head < tail) {
+            int u = deque[head++];
+            // copie inserite prima di un miglioramento successivo
+            if(scanned[u]) continue;
+            scanned[u] = true;
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = to[arc];
+                double dist = this.distance[u] + weights[arc];
+                if(dist < this.distance[v]) {
+                    this.distance[v] = dist;
+                    this.previousArc[v] = arc;
+                    if(weights[arc] == 0.0)
+                        deque[--head] = v;
+                    else
+                        deque[tail++] = v;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isComputed() {
+        return this.isComputed;
+    }
+
+    @Override
+    public GraphNode<L> getLastSource() {
+        if (!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+        return this.lastSourceNode;
+    }
+
+    @Override
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    @Override
+    public List<GraphEdge<L>> getShortestPathTo(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        if(this.delegate != null)
+            return this.delegate.getShortestPathTo(targetNode);
+        return this.snapshot.buildPath(this.previousArc, this.lastSourceIndex, target);
+    }
+
+    /**
+     * Restituisce il costo di un cammino minimo dall' ultima sorgente al nodo
+     * passato.
+     *
+     * @param targetNode
+     *                       il nodo di arrivo del cammino minimo
+     * @return il costo del cammino minimo, {@code Double.POSITIVE_INFINITY} se
+     *         il nodo non è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito nemmeno una
+     *                                      volta il calcolo dei cammini minimi
+     */
+    public double getShortestPathCost(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.distance[target];
+    }
+
+}
@@ -0,0 +1,160 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class ShortestPathFacadeTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode(double su, double sx, double ux, double xy, double uv, double yv) {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, su));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, sx));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, ux));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, xy));
+        g.addEdge(new GraphEdge<String>(nu, nv, true, uv));
+        g.addEdge(new GraphEdge<String>(ny, nv, true, yv));
+        return g;
+    }
+
+    @Test
+    final void testShortestPathFacade() {
+        assertThrows(NullPointerException.class, () -> new ShortestPathFacade<String>(null));
+        Graph<String> emptyGraph = new AdjacencyMatrixDirectedGraph<>();
+        assertThrows(IllegalArgumentException.class, () -> new ShortestPathFacade<String>(emptyGraph));
+        Graph<String> notDirectedGraph = new MapAdjacentListUndirectedGraph<>();
+        notDirectedGraph.addNode(ns);
+        assertThrows(IllegalArgumentException.class, () -> new ShortestPathFacade<String>(notDirectedGraph));
+        Graph<String> notWeightedGraph = new AdjacencyMatrixDirectedGraph<>();
+        notWeightedGraph.addNode(ns);
+        notWeightedGraph.addNode(nu);
+        notWeightedGraph.addEdge(new GraphEdge<>(ns, nu, true));
+        assertThrows(IllegalArgumentException.class, () -> new ShortestPathFacade<String>(notWeightedGraph));
+    }
+
+    @Test
+    final void testGetStrategy() {
+        assertEquals(ShortestPathFacade.Strategy.BFS, new ShortestPathFacade<>(repeatedCode(1, 1, 1, 1, 1, 1)).getStrategy());
+        assertEquals(ShortestPathFacade.Strategy.BFS, new ShortestPathFacade<>(repeatedCode(2.5, 2.5, 2.5, 2.5, 2.5, 2.5)).getStrategy());
+        assertEquals(ShortestPathFacade.Strategy.ZERO_ONE_BFS, new ShortestPathFacade<>(repeatedCode(1, 0, 1, 0, 1, 1)).getStrategy());
+        assertEquals(ShortestPathFacade.Strategy.DAG, new ShortestPathFacade<>(repeatedCode(1, 0, 2, 0, 1, 1)).getStrategy());
+        assertEquals(ShortestPathFacade.Strategy.DAG, new ShortestPathFacade<>(repeatedCode(1, 1, -1, 1, 1, 1)).getStrategy());
+        Graph<String> cyclic = repeatedCode(1, 0, 2, 0, 1, 1);
+        cyclic.addEdge(new GraphEdge<>(nv, ns, true, 3));
+        assertEquals(ShortestPathFacade.Strategy.DIJKSTRA, new ShortestPathFacade<>(cyclic).getStrategy());
+        cyclic.addEdge(new GraphEdge<>(nv, nu, true, -0.5));
+        assertEquals(ShortestPathFacade.Strategy.BELLMAN_FORD, new ShortestPathFacade<>(cyclic).getStrategy());
+        Graph<String> noEdges = new AdjacencyMatrixDirectedGraph<>();
+        noEdges.addNode(ns);
+        assertEquals(ShortestPathFacade.Strategy.BFS, new ShortestPathFacade<>(noEdges).getStrategy());
+    }
+
+    @Test
+    final void testBreadthFirstSearch() {
+        Graph<String> g = repeatedCode(2.5, 2.5, 2.5, 2.5, 2.5, 2.5);
+        ShortestPathFacade<String> c = new ShortestPathFacade<>(g);
+        assertThrows(IllegalStateException.class, () -> c.getShortestPathTo(nu));
+        assertThrows(NullPointerException.class, () -> c.computeShortestPathsFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> c.computeShortestPathsFrom(new GraphNode<>("notExistingNode")));
+        c.computeShortestPathsFrom(ns);
+        assertTrue(c.isComputed());
+        assertEquals(ns, c.getLastSource());
+        List<GraphEdge<String>> pathTest = new ArrayList<GraphEdge<String>>();
+        assertEquals(pathTest, c.getShortestPathTo(ns));
+        pathTest.add(new GraphEdge<String>(ns, nu, true));
+        pathTest.add(new GraphEdge<String>(nu, nv, true));
+        assertEquals(pathTest, c.getShortestPathTo(nv));
+        assertEquals(5.0, c.getShortestPathCost(nv));
+        assertEquals(5.0, g.getNodeOf("y").getFloatingPointDistance());
+        assertEquals(nx, g.getNodeOf("y").getPrevious());
+        c.computeShortestPathsFrom(nv);
+        assertNull(c.getShortestPathTo(ns));
+        assertEquals(Double.POSITIVE_INFINITY, c.getShortestPathCost(ns));
+    }
+
+    @Test
+    final void testZeroOneBreadthFirstSearch() {
+        Graph<String> g = repeatedCode(1, 1, 0, 0, 1, 0);
+        ShortestPathFacade<String> c = new ShortestPathFacade<>(g);
+        c.computeShortestPathsFrom(ns);
+        List<GraphEdge<String>> pathTest = new ArrayList<GraphEdge<String>>();
+        pathTest.add(new GraphEdge<String>(ns, nx, true));
+        pathTest.add(new GraphEdge<String>(nx, ny, true));
+        pathTest.add(new GraphEdge<String>(ny, nv, true));
+        assertEquals(pathTest, c.getShortestPathTo(nv));
+        assertEquals(1.0, c.getShortestPathCost(nv));
+        assertEquals(1.0, g.getNodeOf("u").getFloatingPointDistance());
+    }
+
+    @Test
+    final void testNegativeWeights() {
+        // s -> x -> y -> v costa 1 - 3 + 1 = -1, meno di s -> u -> v
+        Graph<String> g = repeatedCode(1, 1, 2, -3, 1, 1);
+        ShortestPathFacade<String> c = new ShortestPathFacade<>(g);
+        c.computeShortestPathsFrom(ns);
+        assertEquals(-1.0, c.getShortestPathCost(nv));
+        assertEquals(3, c.getShortestPathTo(nv).size());
+        assertEquals(nx, g.getNodeOf("y").getPrevious());
+        // con un ciclo di peso negativo si passa a Bellman-Ford, che lo segnala
+        g.addEdge(new GraphEdge<>(ny, nx, true, 1));
+        ShortestPathFacade<String> cyclic = new ShortestPathFacade<>(g);
+        assertThrows(IllegalStateException.class, () -> cyclic.computeShortestPathsFrom(ns));
+    }
+
+    @Test
+    final void testSameResultAsDijkstra() {
+        Random random = new Random(23);
+        int n = 200;
+        for (int kind = 0; kind < 3; kind++) {
+            Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+            for (int i = 0; i < n; i++)
+                g.addNode(new GraphNode<>(i));
+            for (int u = 0; u < n; u++)
+                for (int k = 0; k < 3; k++) {
+                    double weight = kind == 0 ? 3.0 : kind == 1 ? random.nextInt(2) : random.nextInt(5) * 0.5;
+                    g.addEdge(new GraphEdge<>(g.getNodeOf(u), g.getNodeOf(random.nextInt(n)), true, weight));
+                }
+            ShortestPathFacade<Integer> facade = new ShortestPathFacade<>(g);
+            assertEquals(ShortestPathFacade.Strategy.values()[kind], facade.getStrategy());
+            DijkstraShortestPathComputer<Integer> dijkstra = new DijkstraShortestPathComputer<>(g, false);
+            for (int s = 0; s < n; s += 41) {
+                dijkstra.computeShortestPathsFrom(g.getNodeOf(s));
+                double[] expected = new double[n];
+                for (int i = 0; i < n; i++)
+                    expected[i] = g.getNodeOf(i).getFloatingPointDistance();
+                facade.computeShortestPathsFrom(g.getNodeOf(s));
+                for (int i = 0; i < n; i++) {
+                    assertEquals(expected[i], facade.getShortestPathCost(g.getNodeOf(i)));
+                    assertEquals(expected[i], g.getNodeOf(i).getFloatingPointDistance());
+                    if(expected[i] == Double.POSITIVE_INFINITY || i == s)
+                        continue;
+                    double cost = 0.0;
+                    for (GraphEdge<Integer> edge : facade.getShortestPathTo(g.getNodeOf(i)))
+                        cost += edge.getWeight();
+                    assertEquals(expected[i], cost, 1e-9);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+
+/*
+ * Visita da una sorgente su una GraphSnapshot, con aree di lavoro riusabili
+ * da una sorgente all' altra: in ampiezza se il grafo non è pesato (tutti gli
+ * arc lunghi 1), altrimenti con l' algoritmo di Dijkstra sulla coda
+ * BinaryHeapMinPriorityQueue. Oltre alle distanze conta i cammini minimi
+ * dalla sorgente a ogni nodo (sigma), come richiesto dall' algoritmo di
+ * Brandes, e registra i nodi nell' ordine in cui vengono definitivamente
+ * raggiunti, cioè per distanza non decrescente.
+ *
+ * Dopo ogni visita vengono riportati allo stato iniziale solo i nodi
+ * raggiunti, quindi il costo di una visita non dipende dal numero totale di
+ * nodi. Ogni istanza va usata da un solo thread alla volta; i pesi degli arc,
+ * se usati, devono essere positivi.
+ */
+final class SourceSearch {
+
+    private final int[] offsets;
+
+    private final int[] to;
+
+    // null per la visita in ampiezza
+    private final double[] weights;
+
+    private final double[] distance;
+
+    private final double[] sigma;
+
+    // nodi raggiunti in ordine di distanza; per la visita in ampiezza è anche la coda
+    private final int[] order;
+
+    private int settled;
+
+    // nodi con distanza finita, da riportare allo stato iniziale; per la
+    // visita in ampiezza è lo stesso array di order
+    private final int[] touched;
+
+    private int touchedCount;
+
+    private final BinaryHeapMinPriorityQueue<Entry> queue;
+
+    // elementi della coda per nodo, creati al primo uso
+    private final Entry[] entries;
+
+    SourceSearch(GraphSnapshot<?> snapshot, boolean weighted) {
+        int n = snapshot.nodeCount();
+        this.offsets = snapshot.getOffsets();
+        this.to = snapshot.getTo();
+        this.weights = weighted ? snapshot.getWeights() : null;
+        this.distance = new double[n];
+        Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+        this.sigma = new double[n];
+        this.order = new int[n];
+        this.touched = weighted ? new int[n] : this.order;
+        this.queue = weighted ? new BinaryHeapMinPriorityQueue<>() : null;
+        this.entries = weighted ? new Entry[n] : null;
+    }
+
+    /*
+     * Visita tutto il grafo da una sorgente e restituisce il numero di nodi
+     * raggiunti, sorgente compresa.
+     */
+    int run(int source) {
+        this.start(source);
+        while(this.next() != -1)
+            ;
+        return this.settled;
+    }
+
+    /*
+     * Inizia una visita da una sorgente, che prosegue un nodo alla volta con
+     * next() e può essere abbandonata in qualunque momento.
+     */
+    void start(int source) {
+        for (int i = 0; i < this.touchedCount; i++) {
+            this.distance[this.touched[i]] = Double.POSITIVE_INFINITY;
+            this.sigma[this.touched[i]] = 0.0;
+        }
+        this.settled = 0;
+        this.touchedCount = 0;
+        this.distance[source] = 0.0;
+        this.sigma[source] = 1.0;
+        this.touched[this.touchedCount++] = source;
+        if(this.queue != null) {
+            this.queue.clear();
+            this.queue.insert(this.entry(source, 0.0));
+        }
+    }
+
+    /*
+     * Raggiunge definitivamente il prossimo nodo, in ordine di distanza, e lo
+     * restituisce; -1 se la visita è terminata.
+     */
+    int next() {
+        int u;
+        if(this.queue == null) {
+            if(this.settled == this.touchedCount) return -1;
+            u = this.order[this.settled++];
+        } else {
+            if(this.queue.isEmpty()) return -1;
+            u = ((Entry) this.queue.extractMinimum()).node;
+            this.order[this.settled++] = u;
+        }
+        for (int arc = this.offsets[u]; arc < this.offsets[u + 1]; arc++) {
+            int v = this.to[arc];
+            double dist = this.distance[u] + (this.weights == null ? 1.0 : this.weights[arc]);
+            if(dist < this.distance[v]) {
+                if(this.distance[v] == Double.POSITIVE_INFINITY) {
+                    this.touched[this.touchedCount++] = v;
+                    if(this.queue != null)
+                        this.queue.insert(this.entry(v, dist));
+                } else
+                    this.queue.decreasePriority(this.entries[v], dist);
+                this.distance[v] = dist;
+                this.sigma[v] = this.sigma[u];
+            } else if(dist == this.distance[v])
+                this.sigma[v] += this.sigma[u];
+        }
+        return u;
+    }
+
+    /*
+     * Limite inferiore della distanza dei nodi non ancora raggiunti
+     * definitivamente, infinito se la visita è terminata.
+     */
+    double nextDistance() {
+        if(this.queue == null)
+            return this.settled == this.touchedCount ? Double.POSITIVE_INFINITY : this.distance[this.order[this.settled]];
+        return this.queue.isEmpty() ? Double.POSITIVE_INFINITY : this.queue.minimum().getPriority();
+    }
+
+    /*
+     * Numero di nodi raggiunti definitivamente, sorgente compresa.
+     */
+    int settled() {
+        return this.settled;
+    }
+
+    private Entry entry(int node, double priority) {
+        if(this.entries[node] == null)
+            this.entries[node] = new Entry(node);
+        this.entries[node].priority = priority;
+        return this.entries[node];
+    }
+
+    /*
+     * Determina se un arc uscente da u è su un cammino minimo dalla sorgente.
+     */
+    boolean isTight(int u, int arc) {
+        double length = this.weights == null ? 1.0 : this.weights[arc];
+        return this.distance[u] + length == this.distance[this.to[arc]];
+    }
+
+    double[] distance() {
+        return this.distance;
+    }
+
+    double[] sigma() {
+        return this.sigma;
+    }
+
+    int[] order() {
+        return this.order;
+    }
+
+    /*
+     * Elemento della coda con priorità associato a un nodo.
+     */
+    private static final class Entry implements PriorityQueueElement {
+
+        private final int node;
+
+        private double priority;
+
+        private int handle;
+
+        Entry(int node) {
+            this.node = node;
+        }
+
+        @Override
+        public double getPriority() {
+            return this.priority;
+        }
+
+        @Override
+        public void setPriority(double newPriority) {
+            this.priority = newPriority;
+        }
+
+        @Override
+        public int getHandle() {
+            return this.handle;
+        }
+
+        @Override
+        public void setHandle(int newHandle) {
+            this.handle = newHandle;
+        }
+    }
+
+}
@@ -0,0 +1,307 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implementazione della variante a coda dell' algoritmo di Bellman-Ford
+ * (Shortest Path Faster Algorithm) per il calcolo di cammini minimi a sorgente
+ * singola in un grafo orientato e pesato che può contenere anche pesi negativi,
+ * ma non cicli di peso negativo.
+ *
+ * Il calcolatore lavora su una {@code GraphSnapshot<L>} del grafo presa una
+ * sola volta alla costruzione, quindi su array primitivi di archi, e non
+ * modifica i nodi del grafo: distanze e predecessori sono mantenuti in array
+ * interni. Vengono rilassati solo gli archi uscenti dai nodi la cui distanza è
+ * cambiata (miglioramento di Yen): quando nessun nodo cambia più distanza la
+ * coda si svuota e il calcolo termina, senza pagare sempre {@code n - 1}
+ * passate. Nel caso pessimo il tempo resta {@code O(n m)}.
+ *
+ * L' albero dei predecessori viene mantenuto esplicitamente (lista doppiamente
+ * concatenata dei nodi in ordine anticipato, con la profondità di ogni nodo)
+ * e usato con la tecnica di smontaggio dei sottoalberi di Tarjan: quando la
+ * distanza di un nodo {@code v} diminuisce, tutti i suoi discendenti hanno
+ * distanze non più valide e vengono tolti dall' albero, così non vengono
+ * scanditi inutilmente. Se durante lo smontaggio si incontra il nodo
+ * {@code u} da cui parte il rilassamento, l' arco {@code (u, v)} chiude un
+ * ciclo nel grafo dei predecessori, che è necessariamente di peso negativo: il
+ * ciclo viene rilevato nel momento stesso in cui si forma, tipicamente molto
+ * prima di {@code n - 1} passate, e può essere restituito con
+ * {@code findNegativeCycleFrom(GraphNode<L>)}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class SpfaShortestPathComputer<L> implements SingleSourceShortestPathComputer<L> {
+
+    private final Graph<L> graph;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private GraphNode<L> lastSourceNode;
+
+    private int lastSourceIndex;
+
+    private boolean isComputed = false;
+
+    // distanza dalla sorgente e arc di arrivo dal predecessore per ogni nodo
+    private final double[] distance;
+
+    private final int[] previousArc;
+
+    /*
+     * Albero dei predecessori: lista circolare doppiamente concatenata dei nodi
+     * dell' albero in ordine anticipato, con radice la sorgente, e profondità
+     * di ogni nodo. I discendenti di un nodo sono i nodi che lo seguono nella
+     * lista con profondità maggiore. Un nodo fuori dall' albero ha profondità
+     * -1.
+     */
+    private final int[] nextInTree;
+
+    private final int[] previousInTree;
+
+    private final int[] depth;
+
+    /**
+     * Crea un calcolatore di cammini minimi a sorgente singola per un grafo
+     * orientato e pesato.
+     *
+     * @param graph
+     *                  il grafo su cui opera il calcolatore di cammini minimi
+     * @throws NullPointerException
+     *                                      se il grafo passato è nullo
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato è vuoto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è diretto
+     *
+     * @throws IllegalArgumentException
+     *                                      se il grafo passato non è pesato,
+     *                                      cioè esiste almeno un arco il cui
+     *                                      peso è {@code Double.NaN}.
+     */
+    public SpfaShortestPathComputer(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(graph.isEmpty()) throw new IllegalArgumentException("Graph can't be empty");
+        if(!graph.isDirected()) throw new IllegalArgumentException("Graph must be directed");
+
+        this.graph = graph;
+        this.snapshot = new GraphSnapshot<>(graph);
+        for (double weight : this.snapshot.getWeights())
+            if(Double.isNaN(weight))
+                throw new IllegalArgumentException("Graph contains almost one not-weighted edge");
+        int n = this.snapshot.nodeCount();
+        this.distance = new double[n];
+        this.previousArc = new int[n];
+        this.nextInTree = new int[n];
+        this.previousInTree = new int[n];
+        this.depth = new int[n];
+    }
+
+    @Override
+    public void computeShortestPathsFrom(GraphNode<L> sourceNode) {
+        if(this.findNegativeCycleFrom(sourceNode) != null)
+            throw new IllegalStateException("This graph contains negative-weigh cycle");
+    }
+
+    /**
+     * Esegue il calcolo dei cammini minimi a partire da una sorgente data e,
+     * se esiste un ciclo di peso negativo raggiungibile dalla sorgente, lo
+     * restituisce. Se non ci sono cicli di peso negativo il calcolo viene
+     * completato esattamente come con
+     * {@code computeShortestPathsFrom(GraphNode<L>)}.
+     *
+     * @param sourceNode
+     *                       il nodo sorgente da cui calcolare i cammini minimi
+     * @return la lista degli archi di un ciclo di peso negativo, in cui ogni
+     *         arco parte dal nodo di arrivo del precedente e l' ultimo arco
+     *         arriva al nodo di partenza del primo; null se nessun ciclo di
+     *         peso negativo è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public List<GraphEdge<L>> findNegativeCycleFrom(GraphNode<L> sourceNode) {
+        if(sourceNode == null)
+            throw new NullPointerException("Source node can't be null");
+        int source = this.snapshot.indexOf(sourceNode);
+        if(source == -1)
+            throw new IllegalArgumentException("This node isn't contained in this graph");
+
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        double[] weights = this.snapshot.getWeights();
+
+        // inizializzazione: distanze infinite e predecessori nulli, l' albero
+        // contiene solo la sorgente
+        Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.previousArc, -1);
+        Arrays.fill(this.depth, -1);
+        this.distance[source] = 0.0;
+        this.depth[source] = 0;
+        this.nextInTree[source] = source;
+        this.previousInTree[source] = source;
+        this.isComputed = false;
+
+        // coda FIFO circolare: ogni nodo è presente in coda al più una volta,
+        // quindi bastano n posizioni
+        int[] queue = new int[n];
+        boolean[] inQueue = new boolean[n];
+        int head = 0;
+        int size = 1;
+        queue[0] = source;
+        inQueue[source] = true;
+
+        while(size > 0) {
+            int u = queue[head];
+            head = (head + 1) % n;
+            size--;
+            inQueue[u] = false;
+            // un nodo tolto dall' albero ha una distanza destinata a diminuire:
+            // verrà scandito quando sarà rilassato di nuovo
+            if(this.depth[u] == -1) continue;
+            double du = this.distance[u];
+            // rilassamento dei soli archi uscenti da u, la cui distanza è cambiata
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = to[arc];
+                double dist = du + weights[arc];
+                if(dist < this.distance[v]) {
+                    if(this.disassembleSubtree(v, u))
+                        return this.buildCycle(arc);
+                    this.distance[v] = dist;
+                    this.previousArc[v] = arc;
+                    this.insertInTree(v, u);
+                    if(!inQueue[v]) {
+                        queue[(head + size) % n] = v;
+                        size++;
+                        inQueue[v] = true;
+                    }
+                }
+            }
+        }
+        this.lastSourceNode = this.snapshot.getNode(source);
+        this.lastSourceIndex = source;
+        this.isComputed = true;
+        return null;
+    }
+
+    /*
+     * Toglie dall' albero il nodo v, se presente, e tutti i suoi discendenti.
+     * Restituisce true, lasciando l' albero intatto, se u è v o un suo
+     * discendente, cioè se l' arco (u, v) chiude un ciclo.
+     */
+    private boolean disassembleSubtree(int v, int u) {
+        if(this.depth[v] == -1) return false;
+        if(v == u) return true;
+
+        int x = this.nextInTree[v];
+        while(this.depth[x] > this.depth[v]) {
+            if(x == u) return true;
+            x = this.nextInTree[x];
+        }
+        // nessun ciclo: si staccano v e i suoi discendenti
+        int y = v;
+        while(y != x) {
+            int next = this.nextInTree[y];
+            this.depth[y] = -1;
+            y = next;
+        }
+        this.nextInTree[this.previousInTree[v]] = x;
+        this.previousInTree[x] = this.previousInTree[v];
+        return false;
+    }
+
+    /*
+     * Inserisce v, che non è nell' albero, come figlio di u: in ordine
+     * anticipato v segue immediatamente u.
+     */
+    private void insertInTree(int v, int u) {
+        int next = this.nextInTree[u];
+        this.nextInTree[u] = v;
+        this.previousInTree[v] = u;
+        this.nextInTree[v] = next;
+        this.previousInTree[next] = v;
+        this.depth[v] = this.depth[u] + 1;
+    }
+
+    /*
+     * Costruisce il ciclo chiuso dall' arc (u, v): il cammino nell' albero da
+     * v a u seguito dall' arc stesso.
+     */
+    private List<GraphEdge<L>> buildCycle(int closingArc) {
+        int[] from = this.snapshot.getFrom();
+        int v = this.snapshot.getTo()[closingArc];
+        List<GraphEdge<L>> cycle = new ArrayList<>();
+        int currNode = from[closingArc];
+        while(currNode != v) {
+            int arc = this.previousArc[currNode];
+            cycle.add(this.snapshot.getEdge(arc));
+            currNode = from[arc];
+        }
+        Collections.reverse(cycle);
+        cycle.add(this.snapshot.getEdge(closingArc));
+        return cycle;
+    }
+
+    @Override
+    public boolean isComputed() {
+        return this.isComputed;
+    }
+
+    @Override
+    public GraphNode<L> getLastSource() {
+        if (!this.isComputed)
+            throw new IllegalStateException("This graph isn't yet computed");
+        return this.lastSourceNode;
+    }
+
+    @Override
+    public Graph<L> getGraph() {
+        return this.graph;
+    }
+
+    @Override
+    public List<GraphEdge<L>> getShortestPathTo(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.snapshot.buildPath(this.previousArc, this.lastSourceIndex, target);
+    }
+
+    /**
+     * Restituisce il costo di un cammino minimo dall' ultima sorgente al nodo
+     * passato.
+     *
+     * @param targetNode
+     *                       il nodo di arrivo del cammino minimo
+     * @return il costo del cammino minimo, {@code Double.POSITIVE_INFINITY} se
+     *         il nodo non è raggiungibile dalla sorgente
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste
+     * @throws IllegalStateException
+     *                                      se non è stato eseguito nemmeno una
+     *                                      volta il calcolo dei cammini minimi
+     */
+    public double getShortestPathCost(GraphNode<L> targetNode) {
+        if(targetNode == null) throw new NullPointerException("targetNode can't be null");
+        int target = this.snapshot.indexOf(targetNode);
+        if(target == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        if(!this.isComputed) throw new IllegalStateException("This graph isn't yet computed");
+
+        return this.distance[target];
+    }
+
+}
@@ -0,0 +1,173 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class SpfaShortestPathComputerTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 10.1));
+        g.addEdge(new GraphEdge<String>(ns, nx, true, 5.12));
+        // peso negativo ma nessun ciclo di peso negativo
+        g.addEdge(new GraphEdge<String>(nu, nx, true, -2.05));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 3.04));
+        g.addEdge(new GraphEdge<String>(nx, ny, true, 2.0));
+        g.addEdge(new GraphEdge<String>(ny, ns, true, 7.03));
+        g.addEdge(new GraphEdge<String>(nu, nv, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nx, nv, true, 9.05));
+        g.addEdge(new GraphEdge<String>(ny, nv, true, 6.0));
+        g.addEdge(new GraphEdge<String>(nv, ny, true, 4.07));
+        return g;
+    }
+
+    @Test
+    final void testSpfaShortestPathComputer() {
+        assertThrows(NullPointerException.class, () -> new SpfaShortestPathComputer<String>(null));
+        Graph<String> emptyGraph = new AdjacencyMatrixDirectedGraph<>();
+        assertThrows(IllegalArgumentException.class, () -> new SpfaShortestPathComputer<String>(emptyGraph));
+        Graph<String> notDirectedGraph = new MapAdjacentListUndirectedGraph<>();
+        notDirectedGraph.addNode(ns);
+        assertThrows(IllegalArgumentException.class, () -> new SpfaShortestPathComputer<String>(notDirectedGraph));
+        Graph<String> notWeightedGraph = new AdjacencyMatrixDirectedGraph<>();
+        notWeightedGraph.addNode(ns);
+        notWeightedGraph.addNode(nu);
+        notWeightedGraph.addEdge(new GraphEdge<>(ns, nu, true));
+        assertThrows(IllegalArgumentException.class, () -> new SpfaShortestPathComputer<String>(notWeightedGraph));
+    }
+
+    @Test
+    final void testComputeShortestPathsFrom() {
+        SpfaShortestPathComputer<String> c = new SpfaShortestPathComputer<>(repeatedCode());
+        assertThrows(NullPointerException.class, () -> c.computeShortestPathsFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> c.computeShortestPathsFrom(new GraphNode<>("notExistingNode")));
+        assertFalse(c.isComputed());
+        assertThrows(IllegalStateException.class, () -> c.getLastSource());
+        c.computeShortestPathsFrom(new GraphNode<String>("s"));
+        assertTrue(c.isComputed());
+        assertEquals(ns, c.getLastSource());
+    }
+
+    @Test
+    final void testGetShortestPathTo() {
+        Graph<String> g = repeatedCode();
+        SpfaShortestPathComputer<String> c = new SpfaShortestPathComputer<>(g);
+        assertThrows(IllegalStateException.class, () -> c.getShortestPathTo(nu));
+        c.computeShortestPathsFrom(ns);
+        assertThrows(NullPointerException.class, () -> c.getShortestPathTo(null));
+        assertThrows(IllegalArgumentException.class, () -> c.getShortestPathTo(new GraphNode<>("notExistingNode")));
+        List<GraphEdge<String>> pathTest = new ArrayList<GraphEdge<String>>();
+        assertEquals(pathTest, c.getShortestPathTo(new GraphNode<String>("s")));
+        pathTest.add(new GraphEdge<String>(ns, nx, true, 5.12));
+        assertEquals(pathTest, c.getShortestPathTo(nx));
+        pathTest.add(new GraphEdge<String>(nx, nu, true, 3.04));
+        assertEquals(pathTest, c.getShortestPathTo(nu));
+        pathTest.add(new GraphEdge<String>(nu, nv, true, 1.0));
+        assertEquals(pathTest, c.getShortestPathTo(nv));
+        pathTest.clear();
+        pathTest.add(new GraphEdge<String>(ns, nx, true, 5.12));
+        pathTest.add(new GraphEdge<String>(nx, ny, true, 2.0));
+        assertEquals(pathTest, c.getShortestPathTo(ny));
+        // stessi costi di Bellman-Ford
+        BellmanFordShortestPathComputer<String> bf = new BellmanFordShortestPathComputer<>(g);
+        bf.computeShortestPathsFrom(ns);
+        for (GraphNode<String> node : g.getNodes())
+            assertEquals(node.getFloatingPointDistance(), c.getShortestPathCost(node), 1e-9);
+    }
+
+    @Test
+    final void testUnreachableNode() {
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, -1.0));
+        SpfaShortestPathComputer<String> c = new SpfaShortestPathComputer<>(g);
+        c.computeShortestPathsFrom(ns);
+        assertNull(c.getShortestPathTo(nx));
+        assertEquals(Double.POSITIVE_INFINITY, c.getShortestPathCost(nx));
+        assertEquals(-1.0, c.getShortestPathCost(nu));
+    }
+
+    @Test
+    final void testNegativeWeightCycle() {
+        Graph<String> g = repeatedCode();
+        // x -> u -> x diventa un ciclo di peso negativo
+        g.removeEdge(new GraphEdge<String>(nx, nu, true));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 1.0));
+        SpfaShortestPathComputer<String> c = new SpfaShortestPathComputer<>(g);
+        assertThrows(IllegalStateException.class, () -> c.computeShortestPathsFrom(ns));
+        assertFalse(c.isComputed());
+    }
+
+    @Test
+    final void testFindNegativeCycleFrom() {
+        SpfaShortestPathComputer<String> noCycle = new SpfaShortestPathComputer<>(repeatedCode());
+        assertThrows(NullPointerException.class, () -> noCycle.findNegativeCycleFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> noCycle.findNegativeCycleFrom(new GraphNode<>("notExistingNode")));
+        assertNull(noCycle.findNegativeCycleFrom(ns));
+        assertTrue(noCycle.isComputed());
+
+        Graph<String> g = repeatedCode();
+        g.removeEdge(new GraphEdge<String>(nx, nu, true));
+        g.addEdge(new GraphEdge<String>(nx, nu, true, 1.0));
+        SpfaShortestPathComputer<String> c = new SpfaShortestPathComputer<>(g);
+        List<GraphEdge<String>> cycle = c.findNegativeCycleFrom(ns);
+        assertNotNull(cycle);
+        assertFalse(c.isComputed());
+        assertEquals(2, cycle.size());
+        assertTrue(cycle.contains(new GraphEdge<String>(nx, nu, true)));
+        assertTrue(cycle.contains(new GraphEdge<String>(nu, nx, true)));
+        // gli archi formano un ciclo di peso negativo
+        double weight = 0.0;
+        for (int i = 0; i < cycle.size(); i++) {
+            assertEquals(cycle.get(i).getNode2(), cycle.get((i + 1) % cycle.size()).getNode1());
+            weight += cycle.get(i).getWeight();
+        }
+        assertTrue(weight < 0);
+    }
+
+    @Test
+    final void testFindNegativeCycleThroughSource() {
+        // ciclo s -> u -> x -> s di peso -1 e cappio negativo su y non raggiungibile
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, 1.0));
+        g.addEdge(new GraphEdge<String>(nx, ns, true, -3.0));
+        g.addEdge(new GraphEdge<String>(ny, ny, true, -1.0));
+        SpfaShortestPathComputer<String> c = new SpfaShortestPathComputer<>(g);
+        List<GraphEdge<String>> cycle = c.findNegativeCycleFrom(nu);
+        List<GraphEdge<String>> expected = new ArrayList<>();
+        expected.add(new GraphEdge<String>(nu, nx, true));
+        expected.add(new GraphEdge<String>(nx, ns, true));
+        expected.add(new GraphEdge<String>(ns, nu, true));
+        assertEquals(expected, cycle);
+        // il cappio negativo è un ciclo di un solo arco
+        assertEquals(List.of(new GraphEdge<String>(ny, ny, true)), c.findNegativeCycleFrom(ny));
+    }
+
+}
@@ -0,0 +1,65 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+/**
+ * Programma per {@code VertexCentricEngine<L>} che calcola le distanze minime
+ * da una sorgente, con rilassamenti alla Bellman-Ford: il valore di ogni nodo
+ * è la distanza minima trovata finora e un nodo la cui distanza diminuisce la
+ * propaga ai vicini sommando il peso dell' arco. I messaggi sono ridotti con
+ * il minimo. Gli archi non pesati valgono 1.
+ *
+ * Al termine il valore di ogni nodo è la sua distanza dalla sorgente,
+ * {@code Double.POSITIVE_INFINITY} se non è raggiungibile. I pesi possono
+ * essere negativi; se un ciclo di peso negativo è raggiungibile dalla
+ * sorgente il calcolo non termina da solo e si ferma al limite di superpassi.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class SsspVertexProgram<L> implements VertexProgram<L> {
+
+    private final GraphNode<L> source;
+
+    /**
+     * Crea il programma per una sorgente.
+     *
+     * @param source
+     *                   il nodo sorgente
+     * @throws NullPointerException
+     *                                  se il nodo passato è nullo
+     */
+    public SsspVertexProgram(GraphNode<L> source) {
+        if(source == null) throw new NullPointerException("Source node can't be null");
+        this.source = source;
+    }
+
+    @Override
+    public double initialValue(VertexContext<L> vertex) {
+        return vertex.getNode().equals(this.source) ? 0.0 : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public void compute(VertexContext<L> vertex) {
+        double distance = vertex.getValue();
+        // nel superpasso 0 solo la sorgente propaga la sua distanza
+        boolean improved = vertex.superstep() == 0 && distance == 0.0;
+        if(vertex.hasMessage() && vertex.getMessage() < distance) {
+            distance = vertex.getMessage();
+            vertex.setValue(distance);
+            improved = true;
+        }
+        if(improved)
+            for (int i = 0; i < vertex.outDegree(); i++) {
+                double weight = vertex.edgeWeight(i);
+                vertex.sendMessage(vertex.edgeTarget(i), distance + (Double.isNaN(weight) ? 1.0 : weight));
+            }
+        vertex.voteToHalt();
+    }
+
+    @Override
+    public double combine(double message1, double message2) {
+        return Math.min(message1, message2);
+    }
+
+}
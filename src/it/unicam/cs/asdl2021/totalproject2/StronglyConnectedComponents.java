@@ -0,0 +1,724 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Decomposizione di un grafo nelle sue componenti fortemente connesse, con il
+ * grafo delle componenti (condensazione), che è aciclico.
+ *
+ * Le componenti sono identificate da interi densi nell' intervallo
+ * <code>[0, componentCount() - 1]</code>, assegnati in ordine topologico
+ * inverso: se esiste un arco da un nodo della componente {@code c} a un nodo
+ * della componente {@code d != c}, allora {@code d < c}. Scorrere le
+ * componenti per indice crescente permette quindi di elaborare ogni componente
+ * dopo tutte quelle che raggiunge.
+ *
+ * Sono disponibili due algoritmi, che lavorano su una
+ * {@code GraphSnapshot<L>} del grafo:
+ * <ul>
+ * <li>il costruttore senza pool usa l' algoritmo di Tarjan in versione
+ * iterativa, con una pila esplicita su array primitivi, in tempo
+ * {@code O(n + m)};</li>
+ * <li>il costruttore con un {@code ForkJoinPool} usa l' algoritmo parallelo
+ * forward-backward (Fleischer, Hendrickson e Pinar). Prima vengono eliminati
+ * ripetutamente i nodi senza archi entranti o uscenti, che sono componenti
+ * da soli (trimming). Poi, scelto un nodo pivot, l' insieme dei nodi
+ * raggiungibili dal pivot intersecato con quello dei nodi che lo raggiungono
+ * è la sua componente; i nodi rimasti formano tre sottoproblemi indipendenti
+ * (solo raggiungibili, solo raggiungenti, nessuno dei due) che nessuna
+ * componente attraversa. I sottoproblemi di ogni round sono risolti in
+ * parallelo; quelli piccoli sono risolti con Tarjan. Anche un singolo
+ * sottoproblema grande, come il primo quando il grafo ha una componente
+ * gigante, è parallelo: le visite in avanti e all' indietro dal pivot sono
+ * eseguite insieme, e ciascuna è una visita in ampiezza per livelli in cui
+ * i livelli con molti nodi sono espansi in parallelo, marcando i nodi con
+ * operazioni atomiche.</li>
+ * </ul>
+ * In un grafo non orientato le componenti sono quelle connesse.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class StronglyConnectedComponents<L> {
+
+    // sottoproblemi con al più questi nodi sono risolti con Tarjan
+    static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    // livelli delle visite con più nodi di questi sono espansi in parallelo,
+    // a blocchi di questa dimensione
+    static final int FRONTIER_CHUNK = 1024;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final int sequentialThreshold;
+
+    private final int frontierChunk;
+
+    // componente di ogni nodo, per indice nella fotografia
+    private final int[] component;
+
+    private final int componentCount;
+
+    // condensazione in formato CSR, senza archi ripetuti né cappi
+    private final int[] condensationOffsets;
+
+    private final int[] condensationTargets;
+
+    /**
+     * Calcola le componenti fortemente connesse di un grafo con l' algoritmo
+     * di Tarjan iterativo.
+     *
+     * @param graph
+     *                  il grafo da decomporre
+     * @throws NullPointerException
+     *                                  se il grafo passato è nullo
+     */
+    public StronglyConnectedComponents(Graph<L> graph) {
+        this(snapshotOf(graph), null);
+    }
+
+    /**
+     * Calcola le componenti fortemente connesse di un grafo con l' algoritmo
+     * parallelo forward-backward.
+     *
+     * @param graph
+     *                  il grafo da decomporre
+     * @param pool
+     *                  il pool su cui risolvere i sottoproblemi
+     * @throws NullPointerException
+     *                                  se il grafo o il pool passati sono
+     *                                  nulli
+     */
+    public StronglyConnectedComponents(Graph<L> graph, ForkJoinPool pool) {
+        this(snapshotOf(graph), requirePool(pool));
+    }
+
+    /*
+     * Costruttore che riusa una fotografia già presa del grafo; pool nullo
+     * indica l' algoritmo sequenziale.
+     */
+    StronglyConnectedComponents(GraphSnapshot<L> snapshot, ForkJoinPool pool) {
+        this(snapshot, pool, SEQUENTIAL_THRESHOLD);
+    }
+
+    /*
+     * Costruttore con la dimensione sotto la quale i sottoproblemi sono
+     * risolti con Tarjan, per provare l' algoritmo parallelo su grafi piccoli.
+     */
+    StronglyConnectedComponents(GraphSnapshot<L> snapshot, ForkJoinPool pool, int sequentialThreshold) {
+        this(snapshot, pool, sequentialThreshold, FRONTIER_CHUNK);
+    }
+
+    /*
+     * Costruttore con anche la dimensione dei blocchi dei livelli espansi in
+     * parallelo, per provare le visite parallele su grafi piccoli.
+     */
+    StronglyConnectedComponents(GraphSnapshot<L> snapshot, ForkJoinPool pool, int sequentialThreshold,
+            int frontierChunk) {
+        this.snapshot = snapshot;
+        this.sequentialThreshold = sequentialThreshold;
+        this.frontierChunk = frontierChunk;
+        int n = snapshot.nodeCount();
+        this.component = new int[n];
+        if(pool == null) {
+            AtomicInteger counter = new AtomicInteger();
+            this.tarjan(null, n, 0, null, null, counter);
+            this.componentCount = counter.get();
+        } else {
+            this.componentCount = this.forwardBackward(pool);
+            this.renumberInReverseTopologicalOrder();
+        }
+
+        // condensazione: nodi raggruppati per componente con un ordinamento
+        // per conteggio, poi successori distinti di ogni componente
+        int c = this.componentCount;
+        int[] offsets = snapshot.getOffsets();
+        int[] to = snapshot.getTo();
+        int[] start = new int[c + 1];
+        for (int u = 0; u < n; u++)
+            start[this.component[u] + 1]++;
+        for (int i = 0; i < c; i++)
+            start[i + 1] += start[i];
+        int[] members = new int[n];
+        int[] next = Arrays.copyOf(start, c);
+        for (int u = 0; u < n; u++)
+            members[next[this.component[u]]++] = u;
+        this.condensationOffsets = new int[c + 1];
+        int[] mark = new int[c];
+        Arrays.fill(mark, -1);
+        int[] targets = new int[Math.max(1, snapshot.arcCount())];
+        int size = 0;
+        for (int i = 0; i < c; i++) {
+            mark[i] = i;
+            for (int k = start[i]; k < start[i + 1]; k++) {
+                int u = members[k];
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    int d = this.component[to[arc]];
+                    if(mark[d] != i) {
+                        mark[d] = i;
+                        targets[size++] = d;
+                    }
+                }
+            }
+            this.condensationOffsets[i + 1] = size;
+        }
+        this.condensationTargets = Arrays.copyOf(targets, size);
+    }
+
+    private static <L> GraphSnapshot<L> snapshotOf(Graph<L> graph) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        return new GraphSnapshot<>(graph);
+    }
+
+    private static ForkJoinPool requirePool(ForkJoinPool pool) {
+        if(pool == null) throw new NullPointerException("Pool can't be null");
+        return pool;
+    }
+
+    /*
+     * Algoritmo di Tarjan iterativo sui nodi passati (su tutti se nodes è
+     * null) che hanno il colore dato (tutti se colors è null): la ricorsione
+     * è sostituita da una pila esplicita di nodi con la posizione del
+     * prossimo arc da esaminare. In local viene scritta la posizione di ogni
+     * nodo in nodes, che indicizza gli array di lavoro. Le componenti,
+     * numerate con counter, sono completate in ordine topologico inverso.
+     */
+    private void tarjan(int[] nodes, int size, int color, int[] colors, int[] local, AtomicInteger counter) {
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        // indici locali: posizione di ogni nodo nell' insieme visitato
+        int[] index = new int[size];
+        int[] low = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] stack = new int[size];
+        int[] callStack = new int[size];
+        int[] nextArc = new int[size];
+        if(nodes != null)
+            for (int k = 0; k < size; k++)
+                local[nodes[k]] = k;
+        Arrays.fill(index, -1);
+        int stackSize = 0;
+        int visitCounter = 0;
+        for (int rootPosition = 0; rootPosition < size; rootPosition++) {
+            int root = nodes == null ? rootPosition : nodes[rootPosition];
+            if(index[rootPosition] != -1) continue;
+            int depth = 0;
+            callStack[0] = root;
+            nextArc[rootPosition] = offsets[root];
+            index[rootPosition] = low[rootPosition] = visitCounter++;
+            stack[stackSize++] = root;
+            onStack[rootPosition] = true;
+            while(depth >= 0) {
+                int u = callStack[depth];
+                int lu = local == null ? u : local[u];
+                if(nextArc[lu] < offsets[u + 1]) {
+                    int v = to[nextArc[lu]++];
+                    if(colors != null && colors[v] != color) continue;
+                    int lv = local == null ? v : local[v];
+                    if(index[lv] == -1) {
+                        // "chiamata ricorsiva" su v
+                        index[lv] = low[lv] = visitCounter++;
+                        stack[stackSize++] = v;
+                        onStack[lv] = true;
+                        nextArc[lv] = offsets[v];
+                        callStack[++depth] = v;
+                    } else if(onStack[lv])
+                        low[lu] = Math.min(low[lu], index[lv]);
+                    continue;
+                }
+                // tutti gli arc di u esaminati: "ritorno" al chiamante
+                if(low[lu] == index[lu]) {
+                    int id = counter.getAndIncrement();
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[local == null ? w : local[w]] = false;
+                        this.component[w] = id;
+                    } while(w != u);
+                }
+                depth--;
+                if(depth >= 0) {
+                    int parent = callStack[depth];
+                    int lp = local == null ? parent : local[parent];
+                    low[lp] = Math.min(low[lp], low[lu]);
+                }
+            }
+        }
+    }
+
+    /*
+     * Algoritmo forward-backward. Restituisce il numero di componenti, con
+     * identificatori provvisori non ordinati.
+     */
+    private int forwardBackward(ForkJoinPool pool) {
+        int n = this.snapshot.nodeCount();
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        int[] from = this.snapshot.getFrom();
+
+        // arc entranti in formato CSR, per le visite all' indietro
+        int[] reverseOffsets = new int[n + 1];
+        for (int v : to)
+            reverseOffsets[v + 1]++;
+        for (int v = 0; v < n; v++)
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        int[] reverseSources = new int[to.length];
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        for (int arc = 0; arc < to.length; arc++)
+            reverseSources[next[to[arc]]++] = from[arc];
+
+        AtomicInteger components = new AtomicInteger();
+        int[] colors = new int[n];
+        // trimming: un nodo senza arc entranti o uscenti da nodi attivi è una
+        // componente da solo; si ripete finché ce ne sono
+        int[] inDegree = new int[n];
+        int[] outDegree = new int[n];
+        boolean[] trimmed = new boolean[n];
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int u = 0; u < n; u++) {
+            outDegree[u] = offsets[u + 1] - offsets[u];
+            inDegree[u] = reverseOffsets[u + 1] - reverseOffsets[u];
+        }
+        // i cappi non contano
+        for (int arc = 0; arc < to.length; arc++)
+            if(from[arc] == to[arc]) {
+                outDegree[from[arc]]--;
+                inDegree[from[arc]]--;
+            }
+        for (int u = 0; u < n; u++)
+            if(inDegree[u] == 0 || outDegree[u] == 0) {
+                trimmed[u] = true;
+                queue[tail++] = u;
+            }
+        for (int head = 0; head < tail; head++) {
+            int u = queue[head];
+            this.component[u] = components.getAndIncrement();
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = to[arc];
+                if(!trimmed[v] && --inDegree[v] == 0) {
+                    trimmed[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+            for (int k = reverseOffsets[u]; k < reverseOffsets[u + 1]; k++) {
+                int v = reverseSources[k];
+                if(!trimmed[v] && --outDegree[v] == 0) {
+                    trimmed[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        int remaining = 0;
+        int[] nodes = new int[n - tail];
+        for (int u = 0; u < n; u++) {
+            colors[u] = trimmed[u] ? -1 : 0;
+            if(!trimmed[u])
+                nodes[remaining++] = u;
+        }
+
+        // round di sottoproblemi risolti in parallelo
+        ForwardBackward state = new ForwardBackward(colors, reverseOffsets, reverseSources, components);
+        List<Subproblem> work = new ArrayList<>();
+        if(remaining > 0)
+            work.add(new Subproblem(nodes, 0));
+        while(!work.isEmpty()) {
+            ConcurrentLinkedQueue<Subproblem> produced = new ConcurrentLinkedQueue<>();
+            Subproblem[] round = work.toArray(new Subproblem[0]);
+            pool.invoke(new SolveTask(state, round, 0, round.length, produced));
+            work = new ArrayList<>(produced);
+        }
+        return components.get();
+    }
+
+    /*
+     * Stato condiviso dai sottoproblemi: i colori identificano il
+     * sottoproblema di ogni nodo e sono sempre nuovi, quindi le marcature
+     * delle visite non vanno mai azzerate.
+     */
+    private static final class ForwardBackward {
+
+        final int[] colors;
+
+        final int[] reverseOffsets;
+
+        final int[] reverseSources;
+
+        final AtomicInteger components;
+
+        final AtomicInteger nextColor = new AtomicInteger(1);
+
+        final AtomicIntegerArray forwardMark;
+
+        final AtomicIntegerArray backwardMark;
+
+        // posizioni dei nodi nei sottoproblemi risolti con Tarjan
+        final int[] local;
+
+        ForwardBackward(int[] colors, int[] reverseOffsets, int[] reverseSources, AtomicInteger components) {
+            this.colors = colors;
+            this.reverseOffsets = reverseOffsets;
+            this.reverseSources = reverseSources;
+            this.components = components;
+            int[] unmarked = new int[colors.length];
+            Arrays.fill(unmarked, -1);
+            this.forwardMark = new AtomicIntegerArray(unmarked);
+            this.backwardMark = new AtomicIntegerArray(unmarked);
+            this.local = new int[colors.length];
+        }
+    }
+
+    /*
+     * Insieme di nodi con lo stesso colore, chiuso rispetto alle componenti.
+     */
+    private static final class Subproblem {
+
+        final int[] nodes;
+
+        final int color;
+
+        Subproblem(int[] nodes, int color) {
+            this.nodes = nodes;
+            this.color = color;
+        }
+    }
+
+    /*
+     * Risolve un sottoproblema e aggiunge a produced quelli che ne derivano.
+     */
+    private void solve(ForwardBackward state, Subproblem problem, ConcurrentLinkedQueue<Subproblem> produced) {
+        int[] nodes = problem.nodes;
+        int color = problem.color;
+        int[] colors = state.colors;
+        if(nodes.length <= this.sequentialThreshold) {
+            this.tarjan(nodes, nodes.length, color, colors, state.local, state.components);
+            return;
+        }
+        int pivot = nodes[0];
+        // le due visite sono indipendenti
+        ForkJoinTask.invokeAll(
+                ForkJoinTask.adapt(() -> this.reach(pivot, color, colors, this.snapshot.getOffsets(),
+                        this.snapshot.getTo(), state.forwardMark, nodes.length)),
+                ForkJoinTask.adapt(() -> this.reach(pivot, color, colors, state.reverseOffsets,
+                        state.reverseSources, state.backwardMark, nodes.length)));
+
+        int pivotComponent = state.components.getAndIncrement();
+        int forwardColor = state.nextColor.getAndIncrement();
+        int backwardColor = state.nextColor.getAndIncrement();
+        int restColor = state.nextColor.getAndIncrement();
+        int[] forwardOnly = new int[nodes.length];
+        int[] backwardOnly = new int[nodes.length];
+        int[] rest = new int[nodes.length];
+        int forwardSize = 0;
+        int backwardSize = 0;
+        int restSize = 0;
+        for (int v : nodes) {
+            boolean forward = state.forwardMark.get(v) == color;
+            boolean backward = state.backwardMark.get(v) == color;
+            if(forward && backward) {
+                this.component[v] = pivotComponent;
+                colors[v] = -1;
+            } else if(forward) {
+                colors[v] = forwardColor;
+                forwardOnly[forwardSize++] = v;
+            } else if(backward) {
+                colors[v] = backwardColor;
+                backwardOnly[backwardSize++] = v;
+            } else {
+                colors[v] = restColor;
+                rest[restSize++] = v;
+            }
+        }
+        if(forwardSize > 0) produced.add(new Subproblem(Arrays.copyOf(forwardOnly, forwardSize), forwardColor));
+        if(backwardSize > 0) produced.add(new Subproblem(Arrays.copyOf(backwardOnly, backwardSize), backwardColor));
+        if(restSize > 0) produced.add(new Subproblem(Arrays.copyOf(rest, restSize), restColor));
+    }
+
+    /*
+     * Visita in ampiezza dal pivot lungo gli arc del CSR dato, limitata ai
+     * nodi del colore dato, che vengono marcati con il colore stesso. La
+     * visita procede per livelli: un livello con al più frontierChunk nodi è
+     * espanso dal thread corrente, uno più grande è diviso in blocchi
+     * espansi in parallelo, in cui ogni nodo viene preso da un solo blocco
+     * con un compareAndSet sulla sua marcatura.
+     */
+    private void reach(int pivot, int color, int[] colors, int[] offsets, int[] targets, AtomicIntegerArray mark,
+            int size) {
+        // ogni nodo entra in un solo livello, quindi size basta per entrambi
+        int[] frontier = new int[size];
+        int[] next = new int[size];
+        frontier[0] = pivot;
+        int frontierSize = 1;
+        mark.set(pivot, color);
+        while(frontierSize > 0) {
+            int nextSize = 0;
+            if(frontierSize <= this.frontierChunk) {
+                for (int i = 0; i < frontierSize; i++) {
+                    int u = frontier[i];
+                    for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                        int v = targets[k];
+                        if(colors[v] == color && mark.get(v) != color) {
+                            mark.set(v, color);
+                            next[nextSize++] = v;
+                        }
+                    }
+                }
+            } else {
+                AtomicInteger cursor = new AtomicInteger();
+                new ExpandTask(color, colors, offsets, targets, mark, frontier, 0, frontierSize, next, cursor)
+                        .invoke();
+                nextSize = cursor.get();
+            }
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+            frontierSize = nextSize;
+        }
+    }
+
+    /*
+     * Espande in parallelo una parte di un livello di una visita: divide a
+     * metà finché la parte non supera frontierChunk nodi, poi raccoglie i
+     * nodi nuovi in un buffer locale e li copia nel livello successivo in
+     * un solo blocco, riservato con un getAndAdd.
+     */
+    private final class ExpandTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int color;
+
+        private final int[] colors;
+
+        private final int[] offsets;
+
+        private final int[] targets;
+
+        private final AtomicIntegerArray mark;
+
+        private final int[] frontier;
+
+        private final int from;
+
+        private final int to;
+
+        private final int[] next;
+
+        private final AtomicInteger cursor;
+
+        ExpandTask(int color, int[] colors, int[] offsets, int[] targets, AtomicIntegerArray mark, int[] frontier,
+                int from, int to, int[] next, AtomicInteger cursor) {
+            this.color = color;
+            this.colors = colors;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.mark = mark;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+            this.cursor = cursor;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from > frontierChunk) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new ExpandTask(this.color, this.colors, this.offsets, this.targets, this.mark,
+                        this.frontier, this.from, middle, this.next, this.cursor),
+                        new ExpandTask(this.color, this.colors, this.offsets, this.targets, this.mark,
+                                this.frontier, middle, this.to, this.next, this.cursor));
+                return;
+            }
+            int[] found = new int[16];
+            int count = 0;
+            for (int i = this.from; i < this.to; i++) {
+                int u = this.frontier[i];
+                for (int k = this.offsets[u]; k < this.offsets[u + 1]; k++) {
+                    int v = this.targets[k];
+                    if(this.colors[v] != this.color) continue;
+                    int old = this.mark.get(v);
+                    if(old != this.color && this.mark.compareAndSet(v, old, this.color)) {
+                        if(count == found.length)
+                            found = Arrays.copyOf(found, count * 2);
+                        found[count++] = v;
+                    }
+                }
+            }
+            if(count > 0)
+                System.arraycopy(found, 0, this.next, this.cursor.getAndAdd(count), count);
+        }
+    }
+
+    /*
+     * Risolve in parallelo i sottoproblemi di un round, dividendo l' array a
+     * metà finché non resta un solo sottoproblema.
+     */
+    private final class SolveTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ForwardBackward state;
+
+        private final Subproblem[] problems;
+
+        private final int from;
+
+        private final int to;
+
+        private final ConcurrentLinkedQueue<Subproblem> produced;
+
+        SolveTask(ForwardBackward state, Subproblem[] problems, int from, int to,
+                ConcurrentLinkedQueue<Subproblem> produced) {
+            this.state = state;
+            this.problems = problems;
+            this.from = from;
+            this.to = to;
+            this.produced = produced;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from == 1) {
+                solve(this.state, this.problems[this.from], this.produced);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new SolveTask(this.state, this.problems, this.from, middle, this.produced),
+                    new SolveTask(this.state, this.problems, middle, this.to, this.produced));
+        }
+    }
+
+    /*
+     * Rinumera le componenti in ordine topologico inverso, ordinando
+     * topologicamente il grafo delle componenti con gli identificatori
+     * provvisori.
+     */
+    private void renumberInReverseTopologicalOrder() {
+        int c = this.componentCount;
+        int n = this.snapshot.nodeCount();
+        int[] from = this.snapshot.getFrom();
+        int[] to = this.snapshot.getTo();
+        // arc tra componenti diverse, raggruppati per componente di partenza
+        int[] offsets = new int[c + 1];
+        for (int arc = 0; arc < to.length; arc++) {
+            int a = this.component[from[arc]];
+            if(a != this.component[to[arc]])
+                offsets[a + 1]++;
+        }
+        for (int i = 0; i < c; i++)
+            offsets[i + 1] += offsets[i];
+        int[] targets = new int[offsets[c]];
+        int[] inDegree = new int[c];
+        int[] next = Arrays.copyOf(offsets, c);
+        for (int arc = 0; arc < to.length; arc++) {
+            int a = this.component[from[arc]];
+            int b = this.component[to[arc]];
+            if(a != b) {
+                targets[next[a]++] = b;
+                inDegree[b]++;
+            }
+        }
+        // algoritmo di Kahn: la i-esima componente in ordine topologico
+        // diventa la c - 1 - i
+        int[] order = new int[c];
+        int tail = 0;
+        for (int i = 0; i < c; i++)
+            if(inDegree[i] == 0)
+                order[tail++] = i;
+        for (int head = 0; head < tail; head++)
+            for (int k = offsets[order[head]]; k < offsets[order[head] + 1]; k++)
+                if(--inDegree[targets[k]] == 0)
+                    order[tail++] = targets[k];
+        int[] renumber = new int[c];
+        for (int i = 0; i < c; i++)
+            renumber[order[i]] = c - 1 - i;
+        for (int u = 0; u < n; u++)
+            this.component[u] = renumber[this.component[u]];
+    }
+
+    /**
+     * Restituisce la fotografia del grafo, i cui indici di nodo sono quelli
+     * usati da {@code getComponents()}.
+     *
+     * @return la fotografia del grafo
+     */
+    public GraphSnapshot<L> getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Restituisce il numero di componenti fortemente connesse.
+     *
+     * @return il numero di componenti
+     */
+    public int componentCount() {
+        return this.componentCount;
+    }
+
+    /**
+     * Restituisce la componente di ogni nodo, per indice nella fotografia.
+     * L' array è quello interno e non deve essere modificato.
+     *
+     * @return gli identificatori delle componenti dei nodi
+     */
+    public int[] getComponents() {
+        return this.component;
+    }
+
+    /**
+     * Restituisce la componente di un nodo.
+     *
+     * @param node
+     *                 il nodo
+     * @return l' identificatore della componente del nodo
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public int getComponentOf(GraphNode<L> node) {
+        int u = this.snapshot.indexOf(node);
+        if(u == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        return this.component[u];
+    }
+
+    /**
+     * Restituisce gli offset CSR della condensazione: i successori della
+     * componente {@code c} occupano le posizioni da
+     * {@code getCondensationOffsets()[c]} (incluso) a
+     * {@code getCondensationOffsets()[c + 1]} (escluso) di
+     * {@code getCondensationTargets()}. L' array è quello interno e non deve
+     * essere modificato.
+     *
+     * @return gli offset della condensazione, di lunghezza
+     *         {@code componentCount() + 1}
+     */
+    public int[] getCondensationOffsets() {
+        return this.condensationOffsets;
+    }
+
+    /**
+     * Restituisce i successori delle componenti nella condensazione, senza
+     * ripetizioni e senza cappi; ogni successore ha identificatore minore
+     * della componente di partenza. L' array è quello interno e non deve
+     * essere modificato.
+     *
+     * @return i successori delle componenti
+     */
+    public int[] getCondensationTargets() {
+        return this.condensationTargets;
+    }
+
+}
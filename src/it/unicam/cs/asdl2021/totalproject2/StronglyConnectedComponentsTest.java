@@ -0,0 +1,183 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class StronglyConnectedComponentsTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        // s -> u <-> x -> y, v isolato
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true));
+        g.addEdge(new GraphEdge<String>(nu, nx, true));
+        g.addEdge(new GraphEdge<String>(nx, nu, true));
+        g.addEdge(new GraphEdge<String>(nx, ny, true));
+        return g;
+    }
+
+    @Test
+    final void testStronglyConnectedComponents() {
+        assertThrows(NullPointerException.class, () -> new StronglyConnectedComponents<String>(null));
+        assertThrows(NullPointerException.class,
+                () -> new StronglyConnectedComponents<String>(repeatedCode(), null));
+        StronglyConnectedComponents<String> scc = new StronglyConnectedComponents<>(repeatedCode());
+        assertEquals(4, scc.componentCount());
+        assertEquals(5, scc.getComponents().length);
+        assertThrows(NullPointerException.class, () -> scc.getComponentOf(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> scc.getComponentOf(new GraphNode<>("notExistingNode")));
+    }
+
+    @Test
+    final void testGetComponentOf() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<StronglyConnectedComponents<String>> all = new ArrayList<>();
+            all.add(new StronglyConnectedComponents<>(repeatedCode()));
+            all.add(new StronglyConnectedComponents<>(repeatedCode(), pool));
+            all.add(new StronglyConnectedComponents<>(new GraphSnapshot<>(repeatedCode()), pool, 1));
+            for (StronglyConnectedComponents<String> scc : all) {
+                assertEquals(scc.getComponentOf(nu), scc.getComponentOf(nx));
+                assertNotEquals(scc.getComponentOf(ns), scc.getComponentOf(nu));
+                assertNotEquals(scc.getComponentOf(ny), scc.getComponentOf(nx));
+                // ordine topologico inverso
+                assertTrue(scc.getComponentOf(ns) > scc.getComponentOf(nu));
+                assertTrue(scc.getComponentOf(nu) > scc.getComponentOf(ny));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    final void testCondensation() {
+        StronglyConnectedComponents<String> scc = new StronglyConnectedComponents<>(repeatedCode());
+        int[] offsets = scc.getCondensationOffsets();
+        int[] targets = scc.getCondensationTargets();
+        assertEquals(scc.componentCount() + 1, offsets.length);
+        // s -> {u, x} -> y: due archi, l' arco doppio tra u e x non compare
+        assertEquals(2, targets.length);
+        int s = scc.getComponentOf(ns);
+        int ux = scc.getComponentOf(nu);
+        int v = scc.getComponentOf(nv);
+        assertEquals(1, offsets[s + 1] - offsets[s]);
+        assertEquals(ux, targets[offsets[s]]);
+        assertEquals(1, offsets[ux + 1] - offsets[ux]);
+        assertEquals(scc.getComponentOf(ny), targets[offsets[ux]]);
+        assertEquals(0, offsets[v + 1] - offsets[v]);
+    }
+
+    @Test
+    final void testUndirectedGraph() {
+        Graph<String> g = new MapAdjacentListUndirectedGraph<>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<>(ns, nu, false));
+        StronglyConnectedComponents<String> scc = new StronglyConnectedComponents<>(g);
+        assertEquals(2, scc.componentCount());
+        assertEquals(scc.getComponentOf(ns), scc.getComponentOf(nu));
+        assertEquals(0, scc.getCondensationTargets().length);
+    }
+
+    @Test
+    final void testParallelSameResultAsTarjan() {
+        Random random = new Random(37);
+        int n = 300;
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        // pochi archi, per avere componenti di dimensioni diverse
+        for (int k = 0; k < 330; k++)
+            g.addEdge(new GraphEdge<>(nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n)), true));
+        GraphSnapshot<Integer> snapshot = new GraphSnapshot<>(g);
+        StronglyConnectedComponents<Integer> tarjan = new StronglyConnectedComponents<>(snapshot, null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int threshold : new int[] { 1, 16, StronglyConnectedComponents.SEQUENTIAL_THRESHOLD }) {
+                StronglyConnectedComponents<Integer> parallel =
+                        new StronglyConnectedComponents<>(snapshot, pool, threshold);
+                assertEquals(tarjan.componentCount(), parallel.componentCount());
+                int[] a = tarjan.getComponents();
+                int[] b = parallel.getComponents();
+                for (int u = 0; u < n; u++)
+                    for (int v = 0; v < n; v++)
+                        assertEquals(a[u] == a[v], b[u] == b[v]);
+                assertEquals(tarjan.getCondensationTargets().length, parallel.getCondensationTargets().length);
+                // ogni arco tra componenti diverse va verso un indice minore
+                int[] from = snapshot.getFrom();
+                int[] to = snapshot.getTo();
+                for (int arc = 0; arc < snapshot.arcCount(); arc++)
+                    assertTrue(b[to[arc]] <= b[from[arc]]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    final void testParallelReachOnGiantComponent() {
+        Random random = new Random(41);
+        int n = 2000;
+        ConcurrentAdjacencyMatrixDirectedGraph<Integer> d = new ConcurrentAdjacencyMatrixDirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            d.addNode(nodes.get(i));
+        }
+        // molti archi: quasi tutti i nodi in una componente gigante, con
+        // livelli delle visite più grandi dei blocchi
+        for (int k = 0; k < 4 * n; k++)
+            d.addEdge(new GraphEdge<>(nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n)), true));
+        GraphSnapshot<Integer> snapshot = new GraphSnapshot<>(d);
+        StronglyConnectedComponents<Integer> tarjan = new StronglyConnectedComponents<>(snapshot, null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunk : new int[] { 1, 8, StronglyConnectedComponents.FRONTIER_CHUNK }) {
+                StronglyConnectedComponents<Integer> parallel =
+                        new StronglyConnectedComponents<>(snapshot, pool, 64, chunk);
+                assertEquals(tarjan.componentCount(), parallel.componentCount());
+                int[] a = tarjan.getComponents();
+                int[] b = parallel.getComponents();
+                int[] partner = new int[tarjan.componentCount()];
+                Arrays.fill(partner, -1);
+                // stessa partizione: corrispondenza biunivoca tra gli indici
+                for (int u = 0; u < n; u++) {
+                    if(partner[a[u]] == -1)
+                        partner[a[u]] = b[u];
+                    assertEquals(partner[a[u]], b[u]);
+                }
+                assertEquals(tarjan.getCondensationTargets().length, parallel.getCondensationTargets().length);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,273 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.util.Arrays;
+
+/**
+ * Indice di raggiungibilità (chiusura transitiva) di un grafo, costruito una
+ * volta sola e interrogato con {@code canReach(GraphNode<L>, GraphNode<L>)}.
+ *
+ * La costruzione calcola le componenti fortemente connesse con
+ * {@code StronglyConnectedComponents<L>}: i nodi di una stessa componente
+ * raggiungono gli stessi nodi, quindi basta indicizzare il grafo delle
+ * componenti (condensazione), che è aciclico. Le componenti sono numerate in
+ * ordine topologico inverso, quindi l' insieme delle componenti raggiungibili
+ * da una componente si ottiene dall' unione di quelli dei suoi successori,
+ * già calcolati. L' insieme è rappresentato in uno di due modi:
+ * <ul>
+ * <li>{@link Mode#BITSET}: un bitset {@code long[]} per componente, con
+ * interrogazioni in tempo costante e memoria {@code c^2 / 8} byte per
+ * {@code c} componenti;</li>
+ * <li>{@link Mode#INTERVALS}: etichettatura a intervalli (Agrawal, Borgida e
+ * Jagadish). Le componenti sono numerate in ordine posticipato su una foresta
+ * ricoprente della condensazione; ogni componente memorizza una lista
+ * ordinata di intervalli disgiunti di numeri che contiene esattamente le
+ * componenti raggiungibili. Le interrogazioni richiedono una ricerca binaria
+ * e la memoria, nel caso pessimo quadratica, è di solito vicina a lineare,
+ * quindi è adatta ai grafi in cui i bitset non entrano in memoria.</li>
+ * </ul>
+ *
+ * Ogni nodo raggiunge sé stesso. Se il grafo non è orientato ogni arco è
+ * percorribile nei due versi e le componenti sono quelle connesse. L' indice
+ * è una fotografia: modifiche successive del grafo non si riflettono su di
+ * esso.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class TransitiveClosureIndex<L> {
+
+    /**
+     * Rappresentazioni possibili degli insiemi di componenti raggiungibili.
+     */
+    public enum Mode {
+        /**
+         * Un bitset per componente.
+         */
+        BITSET,
+        /**
+         * Una lista ordinata di intervalli per componente.
+         */
+        INTERVALS
+    }
+
+    /**
+     * Numero massimo di componenti per cui il costruttore senza modo sceglie
+     * {@link Mode#BITSET}, cioè 128 MB di bitset.
+     */
+    public static final int BITSET_MAX_COMPONENTS = 1 << 15;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final Mode mode;
+
+    // componente di ogni nodo, in ordine topologico inverso
+    private final int[] component;
+
+    private final int componentCount;
+
+    // modo BITSET: componenti raggiungibili da ogni componente
+    private long[][] reachable;
+
+    /*
+     * Modo INTERVALS: numero in ordine posticipato di ogni componente e, per
+     * ogni componente, gli estremi degli intervalli di numeri raggiungibili
+     * alternati (inizio, fine, inizio, fine, ...) e ordinati.
+     */
+    private int[] postorder;
+
+    private int[][] intervals;
+
+    /**
+     * Costruisce l' indice di raggiungibilità di un grafo, scegliendo
+     * {@link Mode#BITSET} se il grafo ha al più {@code BITSET_MAX_COMPONENTS}
+     * componenti fortemente connesse e {@link Mode#INTERVALS} altrimenti.
+     *
+     * @param graph
+     *                  il grafo da indicizzare
+     * @throws NullPointerException
+     *                                  se il grafo passato è nullo
+     */
+    public TransitiveClosureIndex(Graph<L> graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Costruisce l' indice di raggiungibilità di un grafo con una
+     * rappresentazione data.
+     *
+     * @param graph
+     *                  il grafo da indicizzare
+     * @param mode
+     *                  la rappresentazione degli insiemi raggiungibili, null
+     *                  per sceglierla in base al numero di componenti
+     * @throws NullPointerException
+     *                                  se il grafo passato è nullo
+     */
+    public TransitiveClosureIndex(Graph<L> graph, Mode mode) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+
+        StronglyConnectedComponents<L> components =
+                new StronglyConnectedComponents<>(new GraphSnapshot<>(graph), null);
+        this.snapshot = components.getSnapshot();
+        this.component = components.getComponents();
+        this.componentCount = components.componentCount();
+        if(mode == null)
+            mode = this.componentCount <= BITSET_MAX_COMPONENTS ? Mode.BITSET : Mode.INTERVALS;
+        this.mode = mode;
+
+        int[] offsets = components.getCondensationOffsets();
+        int[] successors = components.getCondensationTargets();
+        if(mode == Mode.BITSET)
+            this.buildBitsets(offsets, successors);
+        else
+            this.buildIntervals(offsets, successors);
+    }
+
+    private void buildBitsets(int[] offsets, int[] successors) {
+        int words = (this.componentCount + Long.SIZE - 1) / Long.SIZE;
+        this.reachable = new long[this.componentCount][];
+        // i successori hanno indice minore: sono già calcolati
+        for (int c = 0; c < this.componentCount; c++) {
+            long[] bits = new long[words];
+            bits[c >>> 6] |= 1L << c;
+            for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+                long[] other = this.reachable[successors[k]];
+                for (int w = 0; w < words; w++)
+                    bits[w] |= other[w];
+            }
+            this.reachable[c] = bits;
+        }
+    }
+
+    private void buildIntervals(int[] offsets, int[] successors) {
+        int c = this.componentCount;
+        // foresta ricoprente: visita in profondità iterativa dalle componenti
+        // in ordine topologico, cioè di indice decrescente
+        this.postorder = new int[c];
+        int[] lowest = new int[c];
+        boolean[] visited = new boolean[c];
+        int[] callStack = new int[c];
+        int[] nextSuccessor = new int[c];
+        int counter = 0;
+        for (int root = c - 1; root >= 0; root--) {
+            if(visited[root]) continue;
+            int depth = 0;
+            callStack[0] = root;
+            visited[root] = true;
+            nextSuccessor[root] = offsets[root];
+            lowest[root] = Integer.MAX_VALUE;
+            while(depth >= 0) {
+                int x = callStack[depth];
+                if(nextSuccessor[x] < offsets[x + 1]) {
+                    int y = successors[nextSuccessor[x]++];
+                    if(!visited[y]) {
+                        visited[y] = true;
+                        nextSuccessor[y] = offsets[y];
+                        lowest[y] = Integer.MAX_VALUE;
+                        callStack[++depth] = y;
+                    }
+                    continue;
+                }
+                this.postorder[x] = counter++;
+                lowest[x] = Math.min(lowest[x], this.postorder[x]);
+                depth--;
+                if(depth >= 0)
+                    lowest[callStack[depth]] = Math.min(lowest[callStack[depth]], lowest[x]);
+            }
+        }
+
+        // intervalli: quello dell' albero più quelli dei successori, fusi
+        this.intervals = new int[c][];
+        for (int x = 0; x < c; x++) {
+            int total = 1;
+            for (int k = offsets[x]; k < offsets[x + 1]; k++)
+                total += this.intervals[successors[k]].length / 2;
+            long[] packed = new long[total];
+            int size = 0;
+            packed[size++] = (long) lowest[x] << 32 | this.postorder[x];
+            for (int j = offsets[x]; j < offsets[x + 1]; j++) {
+                int[] other = this.intervals[successors[j]];
+                for (int k = 0; k < other.length; k += 2)
+                    packed[size++] = (long) other[k] << 32 | other[k + 1];
+            }
+            Arrays.sort(packed);
+            int[] merged = new int[2 * size];
+            int length = 0;
+            for (long interval : packed) {
+                int begin = (int) (interval >>> 32);
+                int end = (int) interval;
+                // intervalli sovrapposti o adiacenti vengono fusi
+                if(length > 0 && begin <= merged[length - 1] + 1)
+                    merged[length - 1] = Math.max(merged[length - 1], end);
+                else {
+                    merged[length++] = begin;
+                    merged[length++] = end;
+                }
+            }
+            this.intervals[x] = Arrays.copyOf(merged, length);
+        }
+    }
+
+    /**
+     * Determina se esiste un cammino da un nodo a un altro.
+     *
+     * @param sourceNode
+     *                       il nodo di partenza
+     * @param targetNode
+     *                       il nodo di arrivo
+     * @return true se esiste un cammino, eventualmente vuoto, dal nodo di
+     *         partenza al nodo di arrivo, false altrimenti
+     * @throws NullPointerException
+     *                                      se almeno uno dei nodi passati è
+     *                                      nullo
+     * @throws IllegalArgumentException
+     *                                      se almeno uno dei nodi passati non
+     *                                      esiste nel grafo indicizzato
+     */
+    public boolean canReach(GraphNode<L> sourceNode, GraphNode<L> targetNode) {
+        if(sourceNode == null || targetNode == null) throw new NullPointerException("Nodes can't be null");
+        int u = this.snapshot.indexOf(sourceNode);
+        int v = this.snapshot.indexOf(targetNode);
+        if(u == -1 || v == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+
+        int from = this.component[u];
+        int to = this.component[v];
+        if(this.mode == Mode.BITSET)
+            return (this.reachable[from][to >>> 6] & 1L << to) != 0;
+
+        // ricerca binaria dell' ultimo intervallo che inizia entro il numero
+        int number = this.postorder[to];
+        int[] list = this.intervals[from];
+        int lowIndex = 0;
+        int highIndex = list.length / 2 - 1;
+        while(lowIndex <= highIndex) {
+            int middle = (lowIndex + highIndex) >>> 1;
+            if(list[2 * middle] <= number)
+                lowIndex = middle + 1;
+            else
+                highIndex = middle - 1;
+        }
+        return highIndex >= 0 && number <= list[2 * highIndex + 1];
+    }
+
+    /**
+     * Restituisce la rappresentazione usata dall' indice.
+     *
+     * @return la rappresentazione degli insiemi raggiungibili
+     */
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Restituisce il numero di componenti fortemente connesse del grafo.
+     *
+     * @return il numero di componenti fortemente connesse
+     */
+    public int componentCount() {
+        return this.componentCount;
+    }
+
+}
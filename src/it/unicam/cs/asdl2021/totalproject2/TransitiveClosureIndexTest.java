@@ -0,0 +1,103 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class TransitiveClosureIndexTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+    private final GraphNode<String> nv = new GraphNode<String>("v");
+
+    private Graph<String> repeatedCode() {
+        // s -> u <-> x -> y, v isolato
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<String>(ns, nu, true));
+        g.addEdge(new GraphEdge<String>(nu, nx, true));
+        g.addEdge(new GraphEdge<String>(nx, nu, true));
+        g.addEdge(new GraphEdge<String>(nx, ny, true));
+        return g;
+    }
+
+    @Test
+    final void testTransitiveClosureIndex() {
+        assertThrows(NullPointerException.class, () -> new TransitiveClosureIndex<String>(null));
+        TransitiveClosureIndex<String> index = new TransitiveClosureIndex<>(repeatedCode());
+        assertEquals(TransitiveClosureIndex.Mode.BITSET, index.getMode());
+        assertEquals(4, index.componentCount());
+        assertThrows(NullPointerException.class, () -> index.canReach(null, ns));
+        assertThrows(IllegalArgumentException.class, () -> index.canReach(ns, new GraphNode<>("notExistingNode")));
+        assertEquals(TransitiveClosureIndex.Mode.INTERVALS,
+                new TransitiveClosureIndex<>(repeatedCode(), TransitiveClosureIndex.Mode.INTERVALS).getMode());
+    }
+
+    @Test
+    final void testCanReach() {
+        for (TransitiveClosureIndex.Mode mode : TransitiveClosureIndex.Mode.values()) {
+            TransitiveClosureIndex<String> index = new TransitiveClosureIndex<>(repeatedCode(), mode);
+            assertTrue(index.canReach(ns, ny));
+            assertTrue(index.canReach(nx, nu));
+            assertTrue(index.canReach(nu, nx));
+            assertTrue(index.canReach(nv, nv));
+            assertFalse(index.canReach(ny, ns));
+            assertFalse(index.canReach(nu, ns));
+            assertFalse(index.canReach(ns, nv));
+            assertFalse(index.canReach(nv, ns));
+        }
+    }
+
+    @Test
+    final void testUndirectedGraph() {
+        Graph<String> g = new MapAdjacentListUndirectedGraph<>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nv);
+        g.addEdge(new GraphEdge<>(ns, nu, false));
+        TransitiveClosureIndex<String> index = new TransitiveClosureIndex<>(g);
+        assertEquals(2, index.componentCount());
+        assertTrue(index.canReach(nu, ns));
+        assertFalse(index.canReach(nu, nv));
+    }
+
+    @Test
+    final void testSameResultAsBreadthFirstSearch() {
+        Random random = new Random(31);
+        int n = 200;
+        Graph<Integer> g = new AdjacencyMatrixDirectedGraph<>();
+        for (int i = 0; i < n; i++)
+            g.addNode(new GraphNode<>(i));
+        // pochi archi all' indietro: componenti piccole e condensazione ricca
+        for (int u = 0; u < n; u++)
+            for (int k = 0; k < 2; k++) {
+                int v = random.nextInt(10) == 0 ? random.nextInt(n) : u + random.nextInt(n - u);
+                g.addEdge(new GraphEdge<>(g.getNodeOf(u), g.getNodeOf(v), true));
+            }
+        BitParallelBfsAllPairsComputer<Integer> bfs = new BitParallelBfsAllPairsComputer<>(g);
+        bfs.computeShortestPaths();
+        TransitiveClosureIndex<Integer> bitsets = new TransitiveClosureIndex<>(g, TransitiveClosureIndex.Mode.BITSET);
+        TransitiveClosureIndex<Integer> intervals = new TransitiveClosureIndex<>(g, TransitiveClosureIndex.Mode.INTERVALS);
+        assertTrue(bitsets.componentCount() > 1);
+        for (int u = 0; u < n; u++)
+            for (int v = 0; v < n; v++) {
+                boolean expected = bfs.isReachable(g.getNodeOf(u), g.getNodeOf(v));
+                assertEquals(expected, bitsets.canReach(g.getNodeOf(u), g.getNodeOf(v)));
+                assertEquals(expected, intervals.canReach(g.getNodeOf(u), g.getNodeOf(v)));
+            }
+    }
+
+}
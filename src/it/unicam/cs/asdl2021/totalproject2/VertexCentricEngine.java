@@ -0,0 +1,298 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Motore di calcolo vertex-centric nel modello bulk-synchronous di Pregel:
+ * esegue un {@code VertexProgram<L>} su ogni nodo di un grafo per superpassi
+ * separati da una barriera. I messaggi inviati in un superpasso sono
+ * consegnati all' inizio del successivo; il calcolo termina quando tutti i
+ * nodi hanno votato per fermarsi e non ci sono messaggi in transito, o dopo
+ * un numero massimo di superpassi.
+ *
+ * Il motore lavora su una {@code GraphSnapshot<L>} presa alla costruzione. In
+ * ogni superpasso l' intervallo degli indici dei nodi viene diviso in blocchi
+ * elaborati in parallelo da un {@code ForkJoinPool}. I messaggi sono in due
+ * array {@code long[]} con una posizione per nodo, usati alternativamente:
+ * uno contiene i messaggi da leggere nel superpasso corrente e l' altro
+ * raccoglie quelli per il successivo. Un invio combina il messaggio con
+ * quello già presente nella posizione del destinatario con
+ * {@code VertexProgram.combine(double, double)} e lo scrive con un
+ * compare-and-set tramite {@code VarHandle}, quindi non servono code di
+ * messaggi né lock. Una posizione vuota è indicata da un particolare NaN
+ * (signaling) che le operazioni aritmetiche non producono mai.
+ *
+ * Programmi di riferimento: {@code SsspVertexProgram<L>},
+ * {@code ConnectedComponentsVertexProgram<L>} e
+ * {@code PageRankVertexProgram<L>}.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public class VertexCentricEngine<L> {
+
+    // accesso atomico agli elementi di un array long[]
+    private static final VarHandle MESSAGES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // posizione senza messaggi
+    private static final long EMPTY = 0x7ff0_0000_0000_0001L;
+
+    // numero minimo di nodi elaborati da un singolo task
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    private final double[] values;
+
+    private final boolean[] halted;
+
+    private long[] current;
+
+    private long[] next;
+
+    private VertexProgram<L> program;
+
+    private int superstep;
+
+    private double aggregate;
+
+    private boolean converged;
+
+    /**
+     * Crea un motore che usa il pool comune.
+     *
+     * @param graph
+     *                  il grafo su cui eseguire i programmi
+     * @throws NullPointerException
+     *                                  se il grafo passato è nullo
+     */
+    public VertexCentricEngine(Graph<L> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un motore che usa il pool passato.
+     *
+     * @param graph
+     *                  il grafo su cui eseguire i programmi
+     * @param pool
+     *                  il pool su cui eseguire i superpassi
+     * @throws NullPointerException
+     *                                  se il grafo o il pool passati sono
+     *                                  nulli
+     */
+    public VertexCentricEngine(Graph<L> graph, ForkJoinPool pool) {
+        if(graph == null) throw new NullPointerException("Graph can't be null");
+        if(pool == null) throw new NullPointerException("Pool can't be null");
+
+        this.snapshot = new GraphSnapshot<>(graph);
+        this.pool = pool;
+        int n = this.snapshot.nodeCount();
+        this.chunkSize = Math.max(MIN_CHUNK_SIZE, n / (pool.getParallelism() * 4));
+        this.values = new double[n];
+        this.halted = new boolean[n];
+        this.current = new long[n];
+        this.next = new long[n];
+    }
+
+    /**
+     * Esegue un programma su tutti i nodi fino alla terminazione o fino al
+     * numero massimo di superpassi.
+     *
+     * @param program
+     *                          il programma da eseguire
+     * @param maxSupersteps
+     *                          il numero massimo di superpassi
+     * @return i valori finali dei nodi per indice nella fotografia, lo stesso
+     *         array restituito poi da {@code getValues()}
+     * @throws NullPointerException
+     *                                      se il programma passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il numero massimo di superpassi
+     *                                      è negativo
+     */
+    public double[] run(VertexProgram<L> program, int maxSupersteps) {
+        if(program == null) throw new NullPointerException("Program can't be null");
+        if(maxSupersteps < 0) throw new IllegalArgumentException("Max supersteps can't be negative");
+
+        int n = this.snapshot.nodeCount();
+        this.program = program;
+        this.superstep = 0;
+        this.aggregate = 0.0;
+        this.converged = false;
+        Arrays.fill(this.halted, false);
+        Arrays.fill(this.current, EMPTY);
+        Arrays.fill(this.next, EMPTY);
+        VertexContext<L> context = new VertexContext<>(this);
+        for (int v = 0; v < n; v++) {
+            context.reset(v, false, 0.0);
+            this.values[v] = program.initialValue(context);
+        }
+
+        while(this.superstep < maxSupersteps) {
+            LongAdder active = new LongAdder();
+            LongAdder sent = new LongAdder();
+            DoubleAdder aggregated = new DoubleAdder();
+            this.pool.invoke(new SuperstepTask(0, n, active, sent, aggregated));
+            // i messaggi inviati diventano quelli da leggere; l' altro array
+            // è stato svuotato durante la lettura
+            long[] swap = this.current;
+            this.current = this.next;
+            this.next = swap;
+            this.aggregate = aggregated.sum();
+            this.superstep++;
+            if(active.sum() == 0 && sent.sum() == 0) {
+                this.converged = true;
+                break;
+            }
+        }
+        this.program = null;
+        return this.values;
+    }
+
+    /*
+     * Combina un messaggio con quello già destinato al nodo target.
+     */
+    void send(int target, double message) {
+        while(true) {
+            long old = (long) MESSAGES.getVolatile(this.next, target);
+            double combined = old == EMPTY ? message : this.program.combine(Double.longBitsToDouble(old), message);
+            if(MESSAGES.compareAndSet(this.next, target, old, Double.doubleToRawLongBits(combined)))
+                return;
+        }
+    }
+
+    int superstep() {
+        return this.superstep;
+    }
+
+    double aggregate() {
+        return this.aggregate;
+    }
+
+    double[] values() {
+        return this.values;
+    }
+
+    /*
+     * Task che esegue il programma su un intervallo di nodi, dividendolo a
+     * metà finché è più grande della dimensione di blocco.
+     */
+    private final class SuperstepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        private final LongAdder active;
+
+        private final LongAdder sent;
+
+        private final DoubleAdder aggregated;
+
+        SuperstepTask(int from, int to, LongAdder active, LongAdder sent, DoubleAdder aggregated) {
+            this.from = from;
+            this.to = to;
+            this.active = active;
+            this.sent = sent;
+            this.aggregated = aggregated;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from > chunkSize) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new SuperstepTask(this.from, middle, this.active, this.sent, this.aggregated),
+                        new SuperstepTask(middle, this.to, this.active, this.sent, this.aggregated));
+                return;
+            }
+            VertexContext<L> context = new VertexContext<>(VertexCentricEngine.this);
+            long stillActive = 0;
+            for (int v = this.from; v < this.to; v++) {
+                long message = current[v];
+                boolean hasMessage = message != EMPTY;
+                if(!hasMessage && halted[v]) continue;
+                current[v] = EMPTY;
+                context.reset(v, hasMessage, Double.longBitsToDouble(message));
+                program.compute(context);
+                halted[v] = context.isHalted();
+                if(!halted[v]) stillActive++;
+            }
+            this.active.add(stillActive);
+            this.sent.add(context.sent);
+            this.aggregated.add(context.aggregated);
+        }
+    }
+
+    /**
+     * Restituisce la fotografia del grafo, i cui indici di nodo sono quelli
+     * usati dai programmi e da {@code getValues()}.
+     *
+     * @return la fotografia del grafo
+     */
+    public GraphSnapshot<L> getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Restituisce i valori dei nodi al termine dell' ultima esecuzione, per
+     * indice nella fotografia. L' array è quello interno e non deve essere
+     * modificato.
+     *
+     * @return i valori dei nodi
+     */
+    public double[] getValues() {
+        return this.values;
+    }
+
+    /**
+     * Restituisce il valore di un nodo al termine dell' ultima esecuzione.
+     *
+     * @param node
+     *                 il nodo
+     * @return il valore del nodo
+     * @throws NullPointerException
+     *                                      se il nodo passato è nullo
+     * @throws IllegalArgumentException
+     *                                      se il nodo passato non esiste nel
+     *                                      grafo
+     */
+    public double getValue(GraphNode<L> node) {
+        int u = this.snapshot.indexOf(node);
+        if(u == -1) throw new IllegalArgumentException("This graph doesn't contain this node");
+        return this.values[u];
+    }
+
+    /**
+     * @return il numero di superpassi eseguiti nell' ultima esecuzione
+     */
+    public int getSuperstepCount() {
+        return this.superstep;
+    }
+
+    /**
+     * Determina se l' ultima esecuzione è terminata perché tutti i nodi si
+     * sono fermati senza messaggi in transito, e non per il limite di
+     * superpassi.
+     *
+     * @return true se l' esecuzione è terminata da sola, false altrimenti
+     */
+    public boolean isConverged() {
+        return this.converged;
+    }
+
+}
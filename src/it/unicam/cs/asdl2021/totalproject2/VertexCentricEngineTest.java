@@ -0,0 +1,140 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Damiano Pasquini
+ *
+ */
+class VertexCentricEngineTest {
+
+    private final GraphNode<String> ns = new GraphNode<String>("s");
+    private final GraphNode<String> nu = new GraphNode<String>("u");
+    private final GraphNode<String> nx = new GraphNode<String>("x");
+    private final GraphNode<String> ny = new GraphNode<String>("y");
+
+    private Graph<String> repeatedCode() {
+        // s -> u -> x -> s, s -> y, y senza archi uscenti
+        Graph<String> g = new AdjacencyMatrixDirectedGraph<String>();
+        g.addNode(ns);
+        g.addNode(nu);
+        g.addNode(nx);
+        g.addNode(ny);
+        g.addEdge(new GraphEdge<String>(ns, nu, true, 2.0));
+        g.addEdge(new GraphEdge<String>(nu, nx, true, -1.0));
+        g.addEdge(new GraphEdge<String>(nx, ns, true, 4.0));
+        g.addEdge(new GraphEdge<String>(ns, ny, true, 5.0));
+        return g;
+    }
+
+    /*
+     * Grafo non orientato casuale abbastanza grande da dividere i nodi in più
+     * blocchi; gli archi sono inseriti direttamente nelle liste perché
+     * addEdge costa O(n).
+     */
+    private static MapAdjacentListUndirectedGraph<Integer> randomGraph(int n, int m, Random random) {
+        MapAdjacentListUndirectedGraph<Integer> g = new MapAdjacentListUndirectedGraph<>();
+        List<GraphNode<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new GraphNode<>(i));
+            g.addNode(nodes.get(i));
+        }
+        for (int k = 0; k < m; k++) {
+            GraphNode<Integer> a = nodes.get(random.nextInt(n));
+            GraphNode<Integer> b = nodes.get(random.nextInt(n));
+            GraphEdge<Integer> edge = new GraphEdge<>(a, b, false, 1 + random.nextInt(20));
+            g.adjacentLists.get(a).add(edge);
+            g.adjacentLists.get(b).add(edge);
+        }
+        return g;
+    }
+
+    @Test
+    final void testVertexCentricEngine() {
+        assertThrows(NullPointerException.class, () -> new VertexCentricEngine<String>(null));
+        assertThrows(NullPointerException.class, () -> new VertexCentricEngine<String>(repeatedCode(), null));
+        VertexCentricEngine<String> engine = new VertexCentricEngine<>(repeatedCode());
+        assertThrows(NullPointerException.class, () -> engine.run(null, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.run(new ConnectedComponentsVertexProgram<>(), -1));
+        assertThrows(NullPointerException.class, () -> new SsspVertexProgram<String>(null));
+        assertThrows(IllegalArgumentException.class, () -> new PageRankVertexProgram<String>(1.5, 10));
+        assertThrows(IllegalArgumentException.class, () -> engine.getValue(new GraphNode<>("notExistingNode")));
+    }
+
+    @Test
+    final void testSssp() {
+        VertexCentricEngine<String> engine = new VertexCentricEngine<>(repeatedCode());
+        engine.run(new SsspVertexProgram<>(ns), 100);
+        assertTrue(engine.isConverged());
+        assertEquals(0.0, engine.getValue(ns));
+        assertEquals(2.0, engine.getValue(nu));
+        assertEquals(1.0, engine.getValue(nx));
+        assertEquals(5.0, engine.getValue(ny));
+        engine.run(new SsspVertexProgram<>(ny), 100);
+        assertEquals(Double.POSITIVE_INFINITY, engine.getValue(ns));
+        // il limite di superpassi interrompe il calcolo
+        engine.run(new SsspVertexProgram<>(ns), 1);
+        assertFalse(engine.isConverged());
+        assertEquals(1, engine.getSuperstepCount());
+        assertEquals(Double.POSITIVE_INFINITY, engine.getValue(nu));
+    }
+
+    @Test
+    final void testPageRank() {
+        VertexCentricEngine<String> engine = new VertexCentricEngine<>(repeatedCode());
+        double[] ranks = engine.run(new PageRankVertexProgram<>(0.85, 50), 100);
+        assertTrue(engine.isConverged());
+        assertEquals(51, engine.getSuperstepCount());
+        double sum = 0.0;
+        for (double rank : ranks)
+            sum += rank;
+        assertEquals(1.0, sum, 1e-9);
+        // u riceve metà del valore di s, x tutto quello di u
+        assertTrue(engine.getValue(nx) > engine.getValue(nu));
+        assertEquals(engine.getValue(nu), engine.getValue(ny), 1e-12);
+    }
+
+    @Test
+    final void testSameResultAsSequential() {
+        MapAdjacentListUndirectedGraph<Integer> g = randomGraph(5000, 4500, new Random(59));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            VertexCentricEngine<Integer> engine = new VertexCentricEngine<>(g, pool);
+            GraphSnapshot<Integer> snapshot = engine.getSnapshot();
+
+            double[] labels = engine.run(new ConnectedComponentsVertexProgram<>(), Integer.MAX_VALUE).clone();
+            assertTrue(engine.isConverged());
+            ConnectedComponents<Integer> components = new ConnectedComponents<>(g);
+            int[] expected = components.getComponents();
+            Map<Double, Integer> labelToComponent = new HashMap<>();
+            for (int u = 0; u < snapshot.nodeCount(); u++) {
+                GraphNode<Integer> node = snapshot.getNode(u);
+                int component = components.getComponentOf(node);
+                assertEquals(component, (int) labelToComponent.computeIfAbsent(labels[u], label -> component));
+            }
+            assertEquals(components.componentCount(), labelToComponent.size());
+            assertEquals(expected.length, labels.length);
+
+            GraphNode<Integer> source = snapshot.getNode(0);
+            double[] distances = engine.run(new SsspVertexProgram<>(source), Integer.MAX_VALUE);
+            SourceSearch search = new SourceSearch(snapshot, true);
+            search.run(0);
+            for (int u = 0; u < snapshot.nodeCount(); u++)
+                assertEquals(search.distance()[u], distances[u]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
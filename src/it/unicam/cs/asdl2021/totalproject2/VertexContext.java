@@ -0,0 +1,202 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+/**
+ * Vista di un nodo passata a un {@code VertexProgram<L>} durante un
+ * superpasso di un {@code VertexCentricEngine<L>}: permette di leggere e
+ * scrivere il valore del nodo, leggere il messaggio ricevuto, scorrere gli
+ * archi uscenti e inviare messaggi.
+ *
+ * Ogni thread del motore riusa lo stesso oggetto per tutti i nodi che
+ * elabora, quindi non va conservato oltre la chiamata del programma.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public final class VertexContext<L> {
+
+    private final VertexCentricEngine<L> engine;
+
+    private final GraphSnapshot<L> snapshot;
+
+    private int vertex;
+
+    private boolean hasMessage;
+
+    private double message;
+
+    private boolean halted;
+
+    // messaggi inviati e somma dei valori aggregati da questo thread nel superpasso
+    long sent;
+
+    double aggregated;
+
+    VertexContext(VertexCentricEngine<L> engine) {
+        this.engine = engine;
+        this.snapshot = engine.getSnapshot();
+    }
+
+    void reset(int vertex, boolean hasMessage, double message) {
+        this.vertex = vertex;
+        this.hasMessage = hasMessage;
+        this.message = message;
+        this.halted = false;
+    }
+
+    boolean isHalted() {
+        return this.halted;
+    }
+
+    /**
+     * @return l' indice del nodo nella fotografia del grafo
+     */
+    public int index() {
+        return this.vertex;
+    }
+
+    /**
+     * @return il nodo del grafo
+     */
+    public GraphNode<L> getNode() {
+        return this.snapshot.getNode(this.vertex);
+    }
+
+    /**
+     * @return il numero di nodi del grafo
+     */
+    public int vertexCount() {
+        return this.snapshot.nodeCount();
+    }
+
+    /**
+     * @return il numero del superpasso corrente, a partire da 0
+     */
+    public int superstep() {
+        return this.engine.superstep();
+    }
+
+    /**
+     * @return il valore corrente del nodo
+     */
+    public double getValue() {
+        return this.engine.values()[this.vertex];
+    }
+
+    /**
+     * Modifica il valore del nodo.
+     *
+     * @param value
+     *                  il nuovo valore
+     */
+    public void setValue(double value) {
+        this.engine.values()[this.vertex] = value;
+    }
+
+    /**
+     * @return true se il nodo ha ricevuto almeno un messaggio nel superpasso
+     *         precedente, false altrimenti
+     */
+    public boolean hasMessage() {
+        return this.hasMessage;
+    }
+
+    /**
+     * Restituisce i messaggi ricevuti nel superpasso precedente, già ridotti
+     * a uno solo.
+     *
+     * @return il messaggio ricevuto
+     * @throws IllegalStateException
+     *                                   se il nodo non ha ricevuto messaggi
+     */
+    public double getMessage() {
+        if(!this.hasMessage) throw new IllegalStateException("This vertex has no message");
+        return this.message;
+    }
+
+    /**
+     * @return il numero di archi uscenti dal nodo (in un grafo non orientato,
+     *         il numero di archi incidenti)
+     */
+    public int outDegree() {
+        return this.snapshot.getOffsets()[this.vertex + 1] - this.snapshot.getOffsets()[this.vertex];
+    }
+
+    /**
+     * Restituisce l' indice del nodo di arrivo di un arco uscente.
+     *
+     * @param i
+     *              la posizione dell' arco, tra 0 e {@code outDegree() - 1}
+     * @return l' indice del nodo di arrivo
+     */
+    public int edgeTarget(int i) {
+        return this.snapshot.getTo()[this.snapshot.getOffsets()[this.vertex] + i];
+    }
+
+    /**
+     * Restituisce il peso di un arco uscente.
+     *
+     * @param i
+     *              la posizione dell' arco, tra 0 e {@code outDegree() - 1}
+     * @return il peso dell' arco, {@code Double.NaN} se non è pesato
+     */
+    public double edgeWeight(int i) {
+        return this.snapshot.getWeights()[this.snapshot.getOffsets()[this.vertex] + i];
+    }
+
+    /**
+     * Invia un messaggio a un nodo, che lo riceverà nel superpasso
+     * successivo.
+     *
+     * @param target
+     *                    l' indice del nodo destinatario
+     * @param message
+     *                    il messaggio
+     */
+    public void sendMessage(int target, double message) {
+        this.engine.send(target, message);
+        this.sent++;
+    }
+
+    /**
+     * Invia lo stesso messaggio lungo tutti gli archi uscenti.
+     *
+     * @param message
+     *                    il messaggio
+     */
+    public void sendMessageToNeighbors(double message) {
+        int[] offsets = this.snapshot.getOffsets();
+        int[] to = this.snapshot.getTo();
+        for (int arc = offsets[this.vertex]; arc < offsets[this.vertex + 1]; arc++)
+            this.sendMessage(to[arc], message);
+    }
+
+    /**
+     * Aggiunge un valore alla somma globale del superpasso, leggibile da tutti
+     * i nodi nel superpasso successivo con {@code getAggregate()}.
+     *
+     * @param value
+     *                  il valore da aggiungere
+     */
+    public void aggregate(double value) {
+        this.aggregated += value;
+    }
+
+    /**
+     * @return la somma dei valori aggregati da tutti i nodi nel superpasso
+     *         precedente, 0 nel superpasso 0
+     */
+    public double getAggregate() {
+        return this.engine.aggregate();
+    }
+
+    /**
+     * Disattiva il nodo, che non verrà più elaborato finché non riceve un
+     * messaggio.
+     */
+    public void voteToHalt() {
+        this.halted = true;
+    }
+
+}
@@ -0,0 +1,56 @@
+package it.unicam.cs.asdl2021.totalproject2;
+
+/**
+ * Programma eseguito su ogni nodo da un {@code VertexCentricEngine<L>}, nel
+ * modello bulk-synchronous di Pregel: il calcolo procede per superpassi e in
+ * ogni superpasso il programma viene eseguito sui nodi attivi, che leggono i
+ * messaggi inviati loro nel superpasso precedente, aggiornano il proprio
+ * valore e inviano messaggi lungo i propri archi uscenti.
+ *
+ * Valori e messaggi sono numeri {@code double}. I messaggi destinati a uno
+ * stesso nodo vengono ridotti a uno solo con {@code combine(double, double)},
+ * che deve essere associativa e commutativa perché l' ordine di arrivo dei
+ * messaggi non è determinato.
+ *
+ * Le implementazioni sono condivise tra i thread del motore, quindi non
+ * devono avere stato modificabile: tutto lo stato di un nodo è il suo valore.
+ *
+ * @author Damiano Pasquini
+ *
+ * @param <L>
+ *                etichette dei nodi del grafo
+ */
+public interface VertexProgram<L> {
+
+    /**
+     * Restituisce il valore iniziale di un nodo, prima del superpasso 0.
+     *
+     * @param vertex
+     *                   il nodo, di cui sono significativi solo l' indice, il
+     *                   nodo del grafo e gli archi
+     * @return il valore iniziale del nodo
+     */
+    public double initialValue(VertexContext<L> vertex);
+
+    /**
+     * Esegue il programma su un nodo attivo. Nel superpasso 0 sono attivi
+     * tutti i nodi; nei successivi quelli che non hanno votato per fermarsi e
+     * quelli che hanno ricevuto un messaggio.
+     *
+     * @param vertex
+     *                   il nodo su cui eseguire il programma
+     */
+    public void compute(VertexContext<L> vertex);
+
+    /**
+     * Riduce due messaggi destinati allo stesso nodo a uno solo.
+     *
+     * @param message1
+     *                     il primo messaggio
+     * @param message2
+     *                     il secondo messaggio
+     * @return il messaggio che li sostituisce
+     */
+    public double combine(double message1, double message2);
+
+}